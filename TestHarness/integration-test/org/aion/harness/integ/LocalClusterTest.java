@@ -0,0 +1,85 @@
+package org.aion.harness.integ;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.aion.harness.integ.resources.TestHelper;
+import org.aion.harness.main.ClusterMember;
+import org.aion.harness.main.LocalCluster;
+import org.aion.harness.main.LocalClusterBuilder;
+import org.aion.harness.main.NodeFactory.NodeType;
+import org.aion.harness.result.Result;
+import org.aion.harness.result.RpcResult;
+import org.aion.harness.util.NodeFileManager;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LocalClusterTest {
+    private static final int CLUSTER_SIZE = 3;
+
+    private LocalCluster cluster;
+
+    @Before
+    public void setup() throws IOException {
+        this.cluster = new LocalClusterBuilder()
+            .nodeType(NodeType.JAVA_NODE)
+            .builtKernelDirectory(TestHelper.EXPECTED_BUILD_LOCATION)
+            .size(CLUSTER_SIZE)
+            .build();
+    }
+
+    @After
+    public void tearDown() throws IOException, InterruptedException {
+        this.cluster.close();
+        for (ClusterMember member : this.cluster.getMembers()) {
+            FileUtils.deleteDirectory(member.getDirectory());
+        }
+        FileUtils.deleteDirectory(NodeFileManager.getLogsDirectory());
+    }
+
+    @Test
+    public void testMembersHaveDistinctPortsAndIds() {
+        Set<Integer> ports = new HashSet<>();
+        Set<String> ids = new HashSet<>();
+        for (ClusterMember member : this.cluster.getMembers()) {
+            assertTrue(ports.add(member.getRpcPort()));
+            assertTrue(ports.add(member.getP2pPort()));
+            assertTrue(ids.add(member.getNodeId()));
+        }
+        assertTrue(this.cluster.getMember(0).isMining());
+        assertFalse(this.cluster.getMember(1).isMining());
+    }
+
+    @Test
+    public void testBlocksPropagateToNonMiningMembers() throws InterruptedException {
+        Result result = this.cluster.start();
+        assertTrue(result.getError(), result.isSuccess());
+        assertTrue(this.cluster.isAlive());
+
+        // Only the first member mines, so the others only advance by importing its blocks.
+        ClusterMember follower = this.cluster.getMember(CLUSTER_SIZE - 1);
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(2);
+        long blockNumber = 0;
+        while ((blockNumber == 0) && (System.nanoTime() < deadline)) {
+            RpcResult<Long> rpcResult = follower.newRpc().blockNumber();
+            if (rpcResult.isSuccess()) {
+                blockNumber = rpcResult.getResult();
+            }
+            Thread.sleep(1_000);
+        }
+        assertNotEquals(0, blockNumber);
+
+        result = this.cluster.stop();
+        assertTrue(result.getError(), result.isSuccess());
+        assertFalse(this.cluster.getMember(0).getNode().isAlive());
+        assertEquals(CLUSTER_SIZE, this.cluster.size());
+    }
+}
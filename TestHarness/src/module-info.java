@@ -4,6 +4,7 @@ module aion.node.harness {
     requires offline.signer;
     requires gson;
     requires ed25519;
+    requires jdk.httpserver;
 
     exports org.aion.harness.statistics;
     exports org.aion.harness.result;
@@ -13,4 +14,6 @@ module aion.node.harness {
     exports org.aion.harness.main.event;
     exports org.aion.harness.main.types;
     exports org.aion.harness.main.util;
+    exports org.aion.harness.load;
+    exports org.aion.harness.metrics;
 }
@@ -46,7 +46,6 @@ import static org.aion.harness.kernel.utils.Blake2b.Engine.LittleEndian.writeLon
 
 import java.io.PrintStream;
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 import java.security.Key;
 import java.security.spec.AlgorithmParameterSpec;
 import java.util.Arrays;
@@ -130,10 +129,16 @@ public interface Blake2b {
     // ---------------------------------------------------------------------
     // API
     // ---------------------------------------------------------------------
-    // TODO add ByteBuffer variants
     /** */
     void update(byte[] input);
 
+    /**
+     * Consumes the remaining bytes of the given buffer, advancing its position to its limit.
+     * Heap buffers are read in place; direct buffers are drained block-wise into the internal
+     * compressor buffer so that no intermediate array is allocated.
+     */
+    void update(ByteBuffer input);
+
     /** */
     void update(byte input);
 
@@ -457,9 +462,7 @@ public interface Blake2b {
         public final void reset() {
             // reset cache
             this.buflen = 0;
-            for (int i = 0; i < buffer.length; i++) {
-                buffer[i] = (byte) 0;
-            }
+            Arrays.fill(buffer, (byte) 0);
 
             // reset flags
             this.f[0] = 0L;
@@ -529,6 +532,37 @@ public interface Blake2b {
             update(input, 0, input.length);
         }
 
+        /** {@inheritDoc} */
+        @Override
+        public final void update(final ByteBuffer input) {
+            if (input == null) {
+                throw new IllegalArgumentException("input buffer (input) is null");
+            }
+            if (input.hasArray()) {
+                final int position = input.position();
+                final int len = input.remaining();
+                update(input.array(), input.arrayOffset() + position, len);
+                input.position(position + len);
+                return;
+            }
+            // direct (or read-only) buffer: drain straight into the compressor cache.
+            int len = input.remaining();
+            while (len > 0) {
+                if (buflen == Spec.BLOCK_BYTES) {
+                    /* flush */
+                    this.t[0] += Spec.BLOCK_BYTES;
+                    this.t[1] += this.t[0] == 0 ? 1 : 0;
+                    compress(buffer, 0);
+                    buflen = 0;
+                }
+                final int cap = Spec.BLOCK_BYTES - buflen;
+                final int fill = len > cap ? cap : len;
+                input.get(buffer, buflen, fill);
+                buflen += fill;
+                len -= fill;
+            }
+        }
+
         /** {@inheritDoc} */
         @Override
         public final void digest(byte[] output, int off, int len) {
@@ -621,10 +655,8 @@ public interface Blake2b {
             // REVU: some small gains still possible here.
 
             if (USE_BB_BS2LONG_CONVERT) {
-                ByteBuffer bb = ByteBuffer.wrap(b, offset, 16 * 8);
-                bb.order(ByteOrder.LITTLE_ENDIAN);
-
-                for (int i = 0; i < 16; i++) m[i] = bb.getLong();
+                // read in place; wrapping b in a ByteBuffer here costs an allocation per block.
+                for (int i = 0; i < 16; i++) m[i] = readLong(b, offset + (i << 3));
 
             } else {
                 m[0] = ((long) b[offset] & 0xFF);
@@ -0,0 +1,85 @@
+package org.aion.harness.kernel.utils;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A one-shot, 32-byte Blake2b hash backed by a per-thread pool of resettable digests.
+ *
+ * Each thread lazily creates a single {@link Blake2b.Digest} and reuses it for every call, so
+ * the only allocation on the hot path is the returned array (and even that can be avoided by
+ * supplying an output buffer).
+ *
+ * The pooled digests are never handed out, so callers cannot leave one in a dirty state.
+ */
+public final class Blake2b256 {
+    public static final int DIGEST_LENGTH = 32;
+
+    private static final ThreadLocal<Blake2b.Digest> POOL = ThreadLocal.withInitial(() -> Blake2b.Digest.newInstance(DIGEST_LENGTH));
+
+    private Blake2b256() {}
+
+    /**
+     * Returns the 32-byte Blake2b hash of the given input.
+     *
+     * @param input The bytes to hash.
+     * @return the hash.
+     */
+    public static byte[] hash(byte[] input) {
+        if (input == null) {
+            throw new NullPointerException("Cannot hash a null input.");
+        }
+
+        byte[] output = new byte[DIGEST_LENGTH];
+        hash(input, 0, input.length, output, 0);
+        return output;
+    }
+
+    /**
+     * Returns the 32-byte Blake2b hash of the remaining bytes in the given buffer. The buffer's
+     * position is advanced to its limit. Both heap and direct buffers are read without copying
+     * them into an intermediate array.
+     *
+     * @param input The buffer to hash.
+     * @return the hash.
+     */
+    public static byte[] hash(ByteBuffer input) {
+        if (input == null) {
+            throw new NullPointerException("Cannot hash a null input.");
+        }
+
+        byte[] output = new byte[DIGEST_LENGTH];
+        Blake2b.Digest digest = POOL.get();
+        digest.update(input);
+        digest.digest(output, 0, DIGEST_LENGTH);
+        return output;
+    }
+
+    /**
+     * Writes the 32-byte Blake2b hash of input[inputOffset, inputOffset + inputLength) into
+     * output, starting at outputOffset. This method does not allocate.
+     *
+     * @param input The bytes to hash.
+     * @param inputOffset The offset into input to begin hashing at.
+     * @param inputLength The number of bytes to hash.
+     * @param output The array to write the hash into.
+     * @param outputOffset The offset into output to begin writing at.
+     */
+    public static void hash(byte[] input, int inputOffset, int inputLength, byte[] output, int outputOffset) {
+        if (input == null) {
+            throw new NullPointerException("Cannot hash a null input.");
+        }
+        if (output == null) {
+            throw new NullPointerException("Cannot write a hash into a null output.");
+        }
+        if ((inputOffset < 0) || (inputLength < 0) || (inputOffset + inputLength > input.length)) {
+            throw new IllegalArgumentException("Input range [" + inputOffset + ", " + (inputOffset + inputLength) + ") is out of bounds for an input of length " + input.length);
+        }
+        if ((outputOffset < 0) || (outputOffset + DIGEST_LENGTH > output.length)) {
+            throw new IllegalArgumentException("Output has no room for a " + DIGEST_LENGTH + "-byte hash at offset " + outputOffset);
+        }
+
+        Blake2b.Digest digest = POOL.get();
+        digest.update(input, inputOffset, inputLength);
+        digest.digest(output, outputOffset, DIGEST_LENGTH);
+    }
+}
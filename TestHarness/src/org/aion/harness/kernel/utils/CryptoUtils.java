@@ -6,7 +6,6 @@ import net.i2p.crypto.eddsa.Utils;
 import net.i2p.crypto.eddsa.spec.EdDSANamedCurveTable;
 import net.i2p.crypto.eddsa.spec.EdDSAParameterSpec;
 
-import java.nio.ByteBuffer;
 import java.security.KeyPair;
 import java.security.spec.InvalidKeySpecException;
 import java.security.spec.PKCS8EncodedKeySpec;
@@ -59,15 +58,9 @@ public class CryptoUtils {
 
     private static byte[] computeA0Address(byte[] publicKey) {
         byte A0_IDENTIFIER = (byte) 0xa0;
-        ByteBuffer buf = ByteBuffer.allocate(32);
-        buf.put(A0_IDENTIFIER);
-        buf.put(blake256(publicKey), 1, 31);
-        return buf.array();
-    }
-
-    private static byte[] blake256(byte[] input) {
-        Blake2b digest = Blake2b.Digest.newInstance(32);
-        digest.update(input);
-        return digest.digest();
+        byte[] address = new byte[Blake2b256.DIGEST_LENGTH];
+        Blake2b256.hash(publicKey, 0, publicKey.length, address, 0);
+        address[0] = A0_IDENTIFIER;
+        return address;
     }
 }
@@ -0,0 +1,169 @@
+package org.aion.harness.load;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The times, relative to the start of a load run, at which each transaction is intended to be
+ * sent.
+ *
+ * A schedule is made up of one or more consecutive steps. Within a step, arrivals are evenly
+ * spaced at that step's rate. A constant-rate schedule is simply a schedule with one step.
+ *
+ * The schedule is fixed up front and never depends on how quickly the node responds, which is
+ * what makes a run driven by it open-loop.
+ *
+ * An arrival schedule is immutable.
+ */
+public final class ArrivalSchedule {
+    private final List<Double> ratesPerSecond;
+    private final long stepDurationInNanos;
+    private final long[] arrivalOffsetsInNanos;
+    private final int[] firstArrivalOfStep;
+
+    private ArrivalSchedule(List<Double> ratesPerSecond, long stepDurationInNanos) {
+        this.ratesPerSecond = Collections.unmodifiableList(new ArrayList<>(ratesPerSecond));
+        this.stepDurationInNanos = stepDurationInNanos;
+        this.firstArrivalOfStep = new int[ratesPerSecond.size() + 1];
+
+        long total = 0;
+        for (int step = 0; step < ratesPerSecond.size(); step++) {
+            this.firstArrivalOfStep[step] = (int) total;
+            total += arrivalsInStep(ratesPerSecond.get(step), stepDurationInNanos);
+        }
+        if (total > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Schedule has too many arrivals: " + total);
+        }
+        this.firstArrivalOfStep[ratesPerSecond.size()] = (int) total;
+
+        this.arrivalOffsetsInNanos = new long[(int) total];
+        for (int step = 0; step < ratesPerSecond.size(); step++) {
+            double intervalInNanos = TimeUnit.SECONDS.toNanos(1) / ratesPerSecond.get(step);
+            long stepStart = step * stepDurationInNanos;
+
+            for (int i = this.firstArrivalOfStep[step]; i < this.firstArrivalOfStep[step + 1]; i++) {
+                int indexInStep = i - this.firstArrivalOfStep[step];
+                this.arrivalOffsetsInNanos[i] = stepStart + (long) (indexInStep * intervalInNanos);
+            }
+        }
+    }
+
+    /**
+     * Returns a schedule that sends transactions at the specified fixed rate for the specified
+     * duration.
+     *
+     * @param ratePerSecond The number of transactions to send per second.
+     * @param duration The length of the run.
+     * @param unit The time unit of the duration.
+     * @return the schedule.
+     */
+    public static ArrivalSchedule constantRate(double ratePerSecond, long duration, TimeUnit unit) {
+        return steppedRate(Collections.singletonList(ratePerSecond), duration, unit);
+    }
+
+    /**
+     * Returns a schedule that sends transactions at each of the specified rates in turn, spending
+     * the specified duration at each rate.
+     *
+     * @param ratesPerSecond The number of transactions to send per second during each step.
+     * @param stepDuration The length of each step.
+     * @param unit The time unit of the step duration.
+     * @return the schedule.
+     */
+    public static ArrivalSchedule steppedRate(List<Double> ratesPerSecond, long stepDuration, TimeUnit unit) {
+        if (ratesPerSecond == null) {
+            throw new NullPointerException("Cannot create a schedule from a null list of rates.");
+        }
+        if (ratesPerSecond.isEmpty()) {
+            throw new IllegalArgumentException("Cannot create a schedule with no rates.");
+        }
+        for (Double rate : ratesPerSecond) {
+            if ((rate == null) || !(rate > 0) || rate.isInfinite()) {
+                throw new IllegalArgumentException("Rates must be positive and finite, found: " + rate);
+            }
+        }
+        if (stepDuration <= 0) {
+            throw new IllegalArgumentException("Step duration must be positive, found: " + stepDuration);
+        }
+        if (unit == null) {
+            throw new NullPointerException("Cannot specify a null time unit.");
+        }
+
+        return new ArrivalSchedule(ratesPerSecond, unit.toNanos(stepDuration));
+    }
+
+    /**
+     * Returns the total number of transactions this schedule sends.
+     */
+    public int numberOfArrivals() {
+        return this.arrivalOffsetsInNanos.length;
+    }
+
+    /**
+     * Returns the number of steps in this schedule.
+     */
+    public int numberOfSteps() {
+        return this.ratesPerSecond.size();
+    }
+
+    /**
+     * Returns the rate, in transactions per second, of the specified step.
+     */
+    public double rateOfStep(int step) {
+        return this.ratesPerSecond.get(step);
+    }
+
+    /**
+     * Returns the index of the first arrival in the specified step. Passing in
+     * {@code numberOfSteps()} returns {@code numberOfArrivals()}.
+     */
+    public int firstArrivalOfStep(int step) {
+        if ((step < 0) || (step > this.ratesPerSecond.size())) {
+            throw new IllegalArgumentException("No such step: " + step);
+        }
+        return this.firstArrivalOfStep[step];
+    }
+
+    /**
+     * Returns the offset from the start of the run at which the specified step begins.
+     */
+    public long startOfStep(int step, TimeUnit unit) {
+        if ((step < 0) || (step > this.ratesPerSecond.size())) {
+            throw new IllegalArgumentException("No such step: " + step);
+        }
+        return unit.convert(step * this.stepDurationInNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns the offset from the start of the run at which the specified arrival is intended to
+     * be sent.
+     */
+    public long offsetOfArrival(int arrival, TimeUnit unit) {
+        return unit.convert(this.arrivalOffsetsInNanos[arrival], TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns the total length of this schedule.
+     */
+    public long duration(TimeUnit unit) {
+        return unit.convert(this.ratesPerSecond.size() * this.stepDurationInNanos, TimeUnit.NANOSECONDS);
+    }
+
+    long offsetOfArrivalInNanos(int arrival) {
+        return this.arrivalOffsetsInNanos[arrival];
+    }
+
+    private static long arrivalsInStep(double ratePerSecond, long stepDurationInNanos) {
+        // The epsilon keeps an exact product like 3.0000000001 from rounding up to an extra arrival.
+        return (long) Math.ceil((ratePerSecond * stepDurationInNanos / TimeUnit.SECONDS.toNanos(1)) - 1e-9);
+    }
+
+    @Override
+    public String toString() {
+        return "ArrivalSchedule { rates per second = " + this.ratesPerSecond
+            + ", step duration (ms) = " + TimeUnit.NANOSECONDS.toMillis(this.stepDurationInNanos)
+            + ", arrivals = " + this.arrivalOffsetsInNanos.length + " }";
+    }
+}
@@ -0,0 +1,12 @@
+package org.aion.harness.load;
+
+/**
+ * Thrown by {@link MempoolBackpressure#awaitCapacity()} to indicate that a caller was paused for
+ * longer than the pause timeout without the pending pool being reported to have drained.
+ */
+public final class BackpressureTimeoutException extends Exception {
+
+    public BackpressureTimeoutException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,69 @@
+package org.aion.harness.load;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The capacity curve produced by a throughput search: offered rate against latency percentiles,
+ * for every rate that was tried.
+ *
+ * A capacity curve is immutable.
+ */
+public final class CapacityCurve {
+    private final List<CapacityPoint> points;
+
+    CapacityCurve(List<CapacityPoint> points) {
+        List<CapacityPoint> sorted = new ArrayList<>(points);
+        sorted.sort(Comparator.comparingDouble(CapacityPoint::getOfferedRate));
+        this.points = Collections.unmodifiableList(sorted);
+    }
+
+    /**
+     * Returns every point on the curve, in increasing order of offered rate.
+     */
+    public List<CapacityPoint> getPoints() {
+        return this.points;
+    }
+
+    /**
+     * Returns the sustained point with the highest offered rate, if any rate was sustained.
+     */
+    public Optional<CapacityPoint> getMaximumSustainablePoint() {
+        CapacityPoint best = null;
+        for (CapacityPoint point : this.points) {
+            if (point.isSustained() && ((best == null) || (point.getOfferedRate() > best.getOfferedRate()))) {
+                best = point;
+            }
+        }
+        return Optional.ofNullable(best);
+    }
+
+    /**
+     * Prints the curve to console as a table.
+     */
+    public void printCurve() {
+        System.out.println("---------------------------------------------------------------------");
+        System.out.println(String.format("%12s %12s %10s %10s %10s %10s", "offered/s", "achieved/s", "p50 (ms)", "p99 (ms)", "p999 (ms)", "sustained"));
+        for (CapacityPoint point : this.points) {
+            System.out.println(String.format("%12.2f %12.2f %10d %10d %10d %10b",
+                point.getOfferedRate(),
+                point.getAchievedRate(),
+                point.getP50Latency(TimeUnit.MILLISECONDS),
+                point.getP99Latency(TimeUnit.MILLISECONDS),
+                point.getP999Latency(TimeUnit.MILLISECONDS),
+                point.isSustained()));
+        }
+        Optional<CapacityPoint> best = getMaximumSustainablePoint();
+        System.out.println("Maximum sustainable rate: " + (best.isPresent() ? String.format("%.2f tx/s", best.get().getOfferedRate()) : "none"));
+        System.out.println("---------------------------------------------------------------------");
+    }
+
+    @Override
+    public String toString() {
+        return "CapacityCurve { points = " + this.points + " }";
+    }
+}
@@ -0,0 +1,101 @@
+package org.aion.harness.load;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The outcome of driving a node at a single offered rate during a throughput search.
+ *
+ * Latencies are submission-to-seal, measured from each transaction's intended send time (and
+ * therefore corrected for coordinated omission), over the steady-state window only.
+ *
+ * A capacity point is immutable.
+ */
+public final class CapacityPoint {
+    private final double offeredRatePerSecond;
+    private final double achievedRatePerSecond;
+    private final long p50InNanos;
+    private final long p99InNanos;
+    private final long p999InNanos;
+    private final int steadyStateTransactions;
+    private final int failedTransactions;
+    private final int backlogGrowth;
+    private final boolean sustained;
+
+    CapacityPoint(double offeredRatePerSecond, double achievedRatePerSecond, long p50InNanos, long p99InNanos, long p999InNanos, int steadyStateTransactions, int failedTransactions, int backlogGrowth, boolean sustained) {
+        this.offeredRatePerSecond = offeredRatePerSecond;
+        this.achievedRatePerSecond = achievedRatePerSecond;
+        this.p50InNanos = p50InNanos;
+        this.p99InNanos = p99InNanos;
+        this.p999InNanos = p999InNanos;
+        this.steadyStateTransactions = steadyStateTransactions;
+        this.failedTransactions = failedTransactions;
+        this.backlogGrowth = backlogGrowth;
+        this.sustained = sustained;
+    }
+
+    /**
+     * Returns the rate, in transactions per second, at which transactions were offered.
+     */
+    public double getOfferedRate() {
+        return this.offeredRatePerSecond;
+    }
+
+    /**
+     * Returns the rate, in transactions per second, at which steady-state transactions were
+     * sealed.
+     */
+    public double getAchievedRate() {
+        return this.achievedRatePerSecond;
+    }
+
+    public long getP50Latency(TimeUnit unit) {
+        return unit.convert(this.p50InNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public long getP99Latency(TimeUnit unit) {
+        return unit.convert(this.p99InNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public long getP999Latency(TimeUnit unit) {
+        return unit.convert(this.p999InNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns the number of transactions intended to be sent during the steady-state window.
+     */
+    public int getSteadyStateTransactions() {
+        return this.steadyStateTransactions;
+    }
+
+    /**
+     * Returns the number of steady-state transactions that failed to send, were rejected, or were
+     * never sealed.
+     */
+    public int getFailedTransactions() {
+        return this.failedTransactions;
+    }
+
+    /**
+     * Returns how many more transactions were outstanding (sent but not yet sealed) at the end of
+     * the steady-state window than at its start.
+     */
+    public int getBacklogGrowth() {
+        return this.backlogGrowth;
+    }
+
+    /**
+     * Returns {@code true} only if the node met the latency objective at this rate, without a
+     * growing backlog and without failing any transactions.
+     */
+    public boolean isSustained() {
+        return this.sustained;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CapacityPoint { offered = %.2f tx/s, achieved = %.2f tx/s, p50 = %d ms, p99 = %d ms, p999 = %d ms, failed = %d, backlog growth = %d, sustained = %b }",
+            this.offeredRatePerSecond, this.achievedRatePerSecond,
+            TimeUnit.NANOSECONDS.toMillis(this.p50InNanos), TimeUnit.NANOSECONDS.toMillis(this.p99InNanos), TimeUnit.NANOSECONDS.toMillis(this.p999InNanos),
+            this.failedTransactions, this.backlogGrowth, this.sustained);
+    }
+}
@@ -0,0 +1,568 @@
+package org.aion.harness.load;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import org.aion.harness.kernel.Address;
+import org.aion.harness.kernel.BulkRawTransactionBuilder;
+import org.aion.harness.kernel.BulkRawTransactionBuilder.TransactionType;
+import org.aion.harness.kernel.PrivateKey;
+import org.aion.harness.kernel.RawTransaction;
+import org.aion.harness.main.NodeListener;
+import org.aion.harness.main.NonceManager;
+import org.aion.harness.main.RPC;
+import org.aion.harness.main.event.Event;
+import org.aion.harness.main.event.IEvent;
+import org.aion.harness.main.event.PrepackagedLogEvents;
+import org.aion.harness.main.types.Block;
+import org.aion.harness.main.types.ReceiptHash;
+import org.aion.harness.main.types.TransactionReceipt;
+import org.aion.harness.metrics.Counter;
+import org.aion.harness.metrics.MetricsRegistry;
+import org.aion.harness.misc.Assumptions;
+import org.aion.harness.result.BulkResult;
+import org.aion.harness.result.FutureResult;
+import org.aion.harness.result.LogEventResult;
+import org.aion.harness.result.RpcResult;
+import org.aion.harness.result.TransactionResult;
+import org.aion.harness.statistics.Histogram;
+import org.aion.harness.util.SimpleLog;
+
+/**
+ * An open-loop transaction load generator.
+ *
+ * Transactions are sent at the times dictated by an {@link ArrivalSchedule}, regardless of how
+ * long the node takes to respond to earlier ones. A single dispatcher thread waits for each
+ * intended send time and hands the transaction to a pool of sender threads, so a slow RPC call
+ * delays only the transactions queued behind it in the pool and never the schedule itself.
+ *
+ * Every transaction's intended send time, actual send time and seal time are captured in a
+ * {@link LoadRecord}, from which latencies corrected for coordinated omission can be computed.
+ *
+ * Transactions should be built and signed before a run begins (see
+ * {@link #buildTransfers(PrivateKey, NonceManager, Address, BigInteger, long, long, int)}) so that
+ * the cost of signing is not part of what is being measured.
+ *
+ * A {@link TransactionTrace} may additionally be attached to a generator, in which case the run
+ * also breaks each transaction's lifecycle down stage by stage (see {@link #setTrace(TransactionTrace)}).
+ *
+ * This class is not thread-safe. A generator may be used for any number of consecutive runs.
+ */
+public final class LoadGenerator implements LoadTarget {
+    private static final Counter SENT = MetricsRegistry.global().counter("harness_load_transactions_sent_total", "Transactions sent by load generators.");
+    private static final Counter SEND_FAILURES = MetricsRegistry.global().counter("harness_load_send_failures_total", "Transactions load generators failed to send.");
+    private static final Counter SEALED = MetricsRegistry.global().counter("harness_load_transactions_sealed_total", "Transactions sent by load generators that were sealed.");
+    private static final Counter REJECTED = MetricsRegistry.global().counter("harness_load_transactions_rejected_total", "Transactions sent by load generators that were rejected.");
+    private static final Counter UNSEALED = MetricsRegistry.global().counter("harness_load_transactions_unsealed_total", "Transactions sent by load generators that were not sealed before the run timed out.");
+    private static final Histogram CORRECTED_LATENCIES = MetricsRegistry.global().histogram("harness_load_corrected_latency_nanos", "Time from a transaction's intended send time to its seal being observed.");
+
+    private final SimpleLog log;
+    private final String ip;
+    private final String port;
+    private final NodeListener listener;
+    private final PrepackagedLogEvents prepackagedLogEvents;
+    private final int numberOfSenderThreads;
+    private final RPC rpc;
+    private MempoolBackpressure backpressure = null;
+    private TransactionTrace trace = null;
+
+    /**
+     * Constructs a new load generator that sends transactions to the RPC server at the specified
+     * ip and port, using the specified number of sender threads, and observes them through the
+     * specified listener.
+     *
+     * Each sender thread uses its own {@link RPC} instance.
+     *
+     * @param ip The IP address of the node's RPC server.
+     * @param port The port of the node's RPC server.
+     * @param listener A listener listening to the node.
+     * @param prepackagedLogEvents The log events of the kind of node being listened to.
+     * @param numberOfSenderThreads The maximum number of concurrently outstanding send calls.
+     */
+    public LoadGenerator(String ip, String port, NodeListener listener, PrepackagedLogEvents prepackagedLogEvents, int numberOfSenderThreads) {
+        if (ip == null) {
+            throw new NullPointerException("IP cannot be null");
+        }
+        if (port == null) {
+            throw new NullPointerException("Port cannot be null");
+        }
+        if (listener == null) {
+            throw new NullPointerException("Cannot create a load generator with a null listener.");
+        }
+        if (prepackagedLogEvents == null) {
+            throw new NullPointerException("Cannot create a load generator with null prepackaged log events.");
+        }
+        if (numberOfSenderThreads < 1) {
+            throw new IllegalArgumentException("Must use at least 1 sender thread, found: " + numberOfSenderThreads);
+        }
+
+        this.log = new SimpleLog(getClass().getName());
+        this.ip = ip;
+        this.port = port;
+        this.listener = listener;
+        this.prepackagedLogEvents = prepackagedLogEvents;
+        this.numberOfSenderThreads = numberOfSenderThreads;
+        this.rpc = new RPC(ip, port);
+    }
+
+    /**
+     * Causes every sender thread to wait for capacity in the node's pending pool before sending
+     * each transaction. Pass {@code null} to send without backpressure (the default).
+     *
+     * Backpressure only ever delays a send; the schedule itself is unaffected, so any delay shows
+     * up as send lag in the {@link LoadRecord} and is still counted by corrected latencies.
+     *
+     * Every rejection observed during a run is reported to the gate as it is observed (see
+     * {@link MempoolBackpressure#reportRejection()}). A transaction the gate gives up on, having
+     * paused for longer than its pause timeout, is not sent.
+     *
+     * @param backpressure The backpressure gate to submit through.
+     */
+    public void setBackpressure(MempoolBackpressure backpressure) {
+        this.backpressure = backpressure;
+    }
+
+    /**
+     * Causes subsequent runs to record the lifecycle of every transaction into the given trace.
+     * Pass {@code null} to stop tracing (the default).
+     *
+     * On top of the timings the {@link LoadRecord} captures, a traced run records when each
+     * submission was acknowledged, when the transaction entered the pending pool (if the node logs
+     * this), and, once its sealed event is observed, fetches its receipt and the block it was
+     * included in. Receipts and blocks are fetched by a separate pool of threads so that the
+     * senders, and therefore the schedule, are never held up by tracing.
+     *
+     * The i'th transaction of a run is traced at index i, so the trace must be at least as large as
+     * the schedule of every run it is used for. To also trace how long each transaction took to
+     * build and sign, build them with
+     * {@link #buildTransfers(PrivateKey, NonceManager, Address, BigInteger, long, long, int, TransactionTrace)}.
+     *
+     * @param trace The trace to record into.
+     */
+    public void setTrace(TransactionTrace trace) {
+        this.trace = trace;
+    }
+
+    /**
+     * Sends the given transactions according to the given schedule and waits for each of them to
+     * be sealed, rejected, or for the seal timeout to elapse.
+     *
+     * The i'th transaction is sent at the i'th arrival of the schedule. There must be at least as
+     * many transactions as arrivals; any extra transactions are not sent.
+     *
+     * The seal timeout is measured from the end of the schedule, so transactions sent late in the
+     * run are given just as long to be sealed as those sent early.
+     *
+     * @param transactions The pre-built transactions to send.
+     * @param schedule When to send each transaction.
+     * @param sealTimeout How long after the schedule ends to wait for outstanding transactions.
+     * @param unit The time unit of the seal timeout.
+     * @return the timings of every transaction in the run.
+     */
+    @Override
+    public LoadRecord run(List<RawTransaction> transactions, ArrivalSchedule schedule, long sealTimeout, TimeUnit unit) throws InterruptedException {
+        if (transactions == null) {
+            throw new NullPointerException("Cannot run with a null list of transactions.");
+        }
+        if (schedule == null) {
+            throw new NullPointerException("Cannot run with a null schedule.");
+        }
+        if (transactions.size() < schedule.numberOfArrivals()) {
+            throw new IllegalArgumentException("The schedule has " + schedule.numberOfArrivals()
+                + " arrivals but only " + transactions.size() + " transactions were given.");
+        }
+        if (sealTimeout < 0) {
+            throw new IllegalArgumentException("Timeout value was negative: " + sealTimeout);
+        }
+        if (unit == null) {
+            throw new NullPointerException("Cannot specify a null time unit.");
+        }
+        if ((this.trace != null) && (this.trace.size() < schedule.numberOfArrivals())) {
+            throw new IllegalArgumentException("The schedule has " + schedule.numberOfArrivals()
+                + " arrivals but the trace only has room for " + this.trace.size() + " transactions.");
+        }
+
+        int numberOfArrivals = schedule.numberOfArrivals();
+        long eventTimeoutInNanos = schedule.duration(TimeUnit.NANOSECONDS) + unit.toNanos(sealTimeout);
+
+        IEvent[] sealedEvents = new IEvent[numberOfArrivals];
+        IEvent[] rejectedEvents = new IEvent[numberOfArrivals];
+        AtomicReferenceArray<FutureResult<LogEventResult>> futures = new AtomicReferenceArray<>(numberOfArrivals);
+
+        ThreadLocal<RPC> rpcs = ThreadLocal.withInitial(() -> new RPC(this.ip, this.port));
+        ExecutorService senders = Executors.newFixedThreadPool(this.numberOfSenderThreads, new SenderThreadFactory("load-generator-sender-"));
+        Tracer tracer = (this.trace == null) ? null : new Tracer(this.trace, rpcs, eventTimeoutInNanos, this.numberOfSenderThreads);
+        RejectionMonitor rejections = (this.backpressure == null) ? null : new RejectionMonitor(this.backpressure);
+
+        this.log.log(Assumptions.LOGGER_BANNER + "Starting open-loop run: " + schedule);
+
+        long startTimeInNanos = System.nanoTime();
+        LoadRecord record = new LoadRecord(schedule, startTimeInNanos);
+
+        try {
+            try {
+                for (int i = 0; i < numberOfArrivals; i++) {
+                    long intendedSendTimeInNanos = startTimeInNanos + schedule.offsetOfArrivalInNanos(i);
+
+                    long remaining = intendedSendTimeInNanos - System.nanoTime();
+                    while (remaining > 0) {
+                        LockSupport.parkNanos(remaining);
+                        if (Thread.interrupted()) {
+                            throw new InterruptedException();
+                        }
+                        remaining = intendedSendTimeInNanos - System.nanoTime();
+                    }
+
+                    final int transaction = i;
+                    senders.execute(() -> send(rpcs.get(), transactions.get(transaction), transaction, record, sealedEvents, rejectedEvents, futures, eventTimeoutInNanos, tracer, rejections));
+                }
+
+                senders.shutdown();
+                senders.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            } finally {
+                senders.shutdownNow();
+            }
+
+            this.log.log(Assumptions.LOGGER_BANNER + "All transactions dispatched, waiting for them to be processed...");
+
+            for (int i = 0; i < numberOfArrivals; i++) {
+                FutureResult<LogEventResult> future = futures.get(i);
+                if (future == null) {
+                    continue;
+                }
+
+                future.get();
+
+                if (sealedEvents[i].hasBeenObserved()) {
+                    record.recordSeal(i, sealedEvents[i].observedAt(TimeUnit.NANOSECONDS));
+                    SEALED.increment();
+                    CORRECTED_LATENCIES.record(Math.max(0, record.correctedLatency(i, TimeUnit.NANOSECONDS)));
+                } else if (rejectedEvents[i].hasBeenObserved()) {
+                    record.recordOutcome(i, LoadRecord.Outcome.REJECTED);
+                    REJECTED.increment();
+                } else {
+                    record.recordOutcome(i, LoadRecord.Outcome.UNSEALED);
+                    UNSEALED.increment();
+                }
+            }
+        } finally {
+            if (rejections != null) {
+                rejections.stop();
+            }
+        }
+
+        if (tracer != null) {
+            tracer.finish();
+        }
+
+        this.log.log(Assumptions.LOGGER_BANNER + "Open-loop run complete: " + record);
+        return record;
+    }
+
+    @Override
+    public RpcResult<Long> getPendingTransactionCount() throws InterruptedException {
+        return this.rpc.getPendingTransactionCount();
+    }
+
+    @Override
+    public RpcResult<Long> blockNumber() throws InterruptedException {
+        return this.rpc.blockNumber();
+    }
+
+    /**
+     * Builds and signs the specified number of balance transfers from the given sender to the
+     * given destination, reserving their nonces from the nonce manager as a single block.
+     *
+     * @param sender The sender of the transfers.
+     * @param nonceManager The nonce manager tracking the sender.
+     * @param destination The recipient of every transfer.
+     * @param value The amount to transfer in each transaction.
+     * @param energyLimit The energy limit of each transaction.
+     * @param energyPrice The energy price of each transaction.
+     * @param count The number of transfers to build.
+     * @return the result of building the transfers.
+     */
+    public static BulkResult<RawTransaction> buildTransfers(PrivateKey sender, NonceManager nonceManager, Address destination, BigInteger value, long energyLimit, long energyPrice, int count) throws InterruptedException {
+        if (sender == null) {
+            throw new NullPointerException("Cannot build transfers from a null sender.");
+        }
+        if (nonceManager == null) {
+            throw new NullPointerException("Cannot build transfers with a null nonce manager.");
+        }
+
+        return new BulkRawTransactionBuilder(count)
+            .useSameSender(sender, nonceManager.allocateNonces(sender.getAddress(), count))
+            .useSameDestination(destination)
+            .useSameTransferValue(value)
+            .useSameTransactionData(new byte[0])
+            .useSameEnergyLimit(energyLimit)
+            .useSameEnergyPrice(energyPrice)
+            .useSameTransactionType(TransactionType.FVM)
+            .build();
+    }
+
+    /**
+     * Builds and signs the specified number of balance transfers exactly as
+     * {@link #buildTransfers(PrivateKey, NonceManager, Address, BigInteger, long, long, int)} does,
+     * recording how long each one took to build and sign into the given trace. The i'th transfer
+     * is traced at index i.
+     *
+     * @param sender The sender of the transfers.
+     * @param nonceManager The nonce manager tracking the sender.
+     * @param destination The recipient of every transfer.
+     * @param value The amount to transfer in each transaction.
+     * @param energyLimit The energy limit of each transaction.
+     * @param energyPrice The energy price of each transaction.
+     * @param count The number of transfers to build.
+     * @param trace The trace to record the build and sign stages into.
+     * @return the result of building the transfers.
+     */
+    public static BulkResult<RawTransaction> buildTransfers(PrivateKey sender, NonceManager nonceManager, Address destination, BigInteger value, long energyLimit, long energyPrice, int count, TransactionTrace trace) throws InterruptedException {
+        if (sender == null) {
+            throw new NullPointerException("Cannot build transfers from a null sender.");
+        }
+        if (nonceManager == null) {
+            throw new NullPointerException("Cannot build transfers with a null nonce manager.");
+        }
+        if (trace == null) {
+            throw new NullPointerException("Cannot trace transfers into a null trace.");
+        }
+        if (trace.size() < count) {
+            throw new IllegalArgumentException("Cannot trace " + count + " transfers into a trace of size " + trace.size());
+        }
+
+        BigInteger nonce = nonceManager.allocateNonces(sender.getAddress(), count);
+        List<RawTransaction> transactions = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            BigInteger transactionNonce = nonce.add(BigInteger.valueOf(i));
+            TransactionResult result = trace.traceBuild(i, () -> RawTransaction.buildAndSignGeneralTransaction(sender, transactionNonce, destination, new byte[0], energyLimit, energyPrice, value));
+
+            if (!result.isSuccess()) {
+                return BulkResult.unsuccessful("Failed to create transaction #" + i + " due to: " + result.getError());
+            }
+            transactions.add(result.getTransaction());
+        }
+
+        return BulkResult.successful(transactions);
+    }
+
+    private void send(RPC rpc, RawTransaction transaction, int index, LoadRecord record, IEvent[] sealedEvents, IEvent[] rejectedEvents, AtomicReferenceArray<FutureResult<LogEventResult>> futures, long eventTimeoutInNanos, Tracer tracer, RejectionMonitor rejections) {
+        // Begin listening before sending so that a fast seal cannot slip past us.
+        IEvent sealed = this.prepackagedLogEvents.getTransactionSealedEvent(transaction);
+        IEvent rejected = this.prepackagedLogEvents.getTransactionRejectedEvent(transaction);
+        FutureResult<LogEventResult> future = this.listener.listenForEvent(Event.or(sealed, rejected), eventTimeoutInNanos, TimeUnit.NANOSECONDS);
+
+        sealedEvents[index] = sealed;
+        rejectedEvents[index] = rejected;
+        futures.set(index, future);
+
+        IEvent pending = (tracer == null) ? null : this.prepackagedLogEvents.getTransactionPendingEvent(transaction);
+        FutureResult<LogEventResult> pendingFuture = (pending == null) ? null : this.listener.listenForEvent(pending, eventTimeoutInNanos, TimeUnit.NANOSECONDS);
+
+        try {
+            if (this.backpressure != null) {
+                try {
+                    this.backpressure.awaitCapacity();
+                } catch (BackpressureTimeoutException e) {
+                    this.log.log(Assumptions.LOGGER_BANNER + "Transaction #" + index + " not sent: " + e.getMessage());
+                    record.recordOutcome(index, LoadRecord.Outcome.NOT_SENT);
+                    futures.set(index, null);
+                    stopListening(future, pendingFuture, "The transaction was not sent.");
+                    return;
+                }
+            }
+
+            long sendTimeInNanos = System.nanoTime();
+            record.recordSend(index, sendTimeInNanos);
+            RpcResult<ReceiptHash> sendResult = rpc.sendTransaction(transaction);
+            SENT.increment();
+
+            if (!sendResult.isSuccess()) {
+                SEND_FAILURES.increment();
+                record.recordOutcome(index, LoadRecord.Outcome.SEND_FAILED);
+                futures.set(index, null);
+                stopListening(future, pendingFuture, "The transaction failed to be sent.");
+            } else {
+                if (rejections != null) {
+                    rejections.watch(rejected, future);
+                }
+                if (tracer != null) {
+                    tracer.trace.recordStage(index, TransactionTrace.Stage.SUBMIT_STARTED, sendTimeInNanos);
+                    tracer.trace.recordStage(index, TransactionTrace.Stage.SUBMIT_ACKNOWLEDGED, System.nanoTime());
+                    tracer.follow(index, sendResult.getResult(), sealed, pending, future);
+                }
+            }
+        } catch (InterruptedException e) {
+            record.recordOutcome(index, LoadRecord.Outcome.NOT_SENT);
+            futures.set(index, null);
+            stopListening(future, pendingFuture, "The transaction was not sent.");
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Stops listening for the events of a transaction that was never accepted by the node, which
+     * would otherwise hold their places in the listener's pool until the end of the run.
+     */
+    private void stopListening(FutureResult<LogEventResult> future, FutureResult<LogEventResult> pendingFuture, String reason) {
+        this.listener.stopListeningForEvent(future, reason);
+        if (pendingFuture != null) {
+            this.listener.stopListeningForEvent(pendingFuture, reason);
+        }
+    }
+
+    /**
+     * Reports every rejection of a run's transactions to the backpressure gate as it is observed,
+     * rather than once the run is over, so that submission pauses while the pool is overflowing.
+     */
+    private static final class RejectionMonitor {
+        private static final long SCAN_INTERVAL_IN_MILLIS = 50;
+
+        private final MempoolBackpressure backpressure;
+        private final Queue<Outstanding> outstanding = new ConcurrentLinkedQueue<>();
+        private final Thread scanner;
+
+        private RejectionMonitor(MempoolBackpressure backpressure) {
+            this.backpressure = backpressure;
+            this.scanner = new Thread(this::scan, "load-generator-rejection-monitor");
+            this.scanner.setDaemon(true);
+            this.scanner.start();
+        }
+
+        private void watch(IEvent rejected, FutureResult<LogEventResult> future) {
+            this.outstanding.add(new Outstanding(rejected, future));
+        }
+
+        private void scan() {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    Iterator<Outstanding> iterator = this.outstanding.iterator();
+                    while (iterator.hasNext()) {
+                        Outstanding transaction = iterator.next();
+                        if (transaction.future.isDone()) {
+                            iterator.remove();
+                            if (transaction.rejected.hasBeenObserved()) {
+                                this.backpressure.reportRejection();
+                            }
+                        }
+                    }
+                    Thread.sleep(SCAN_INTERVAL_IN_MILLIS);
+                }
+            } catch (InterruptedException e) {
+                // We were stopped.
+            }
+        }
+
+        private void stop() throws InterruptedException {
+            this.scanner.interrupt();
+            this.scanner.join();
+        }
+
+        private static final class Outstanding {
+            private final IEvent rejected;
+            private final FutureResult<LogEventResult> future;
+
+            private Outstanding(IEvent rejected, FutureResult<LogEventResult> future) {
+                this.rejected = rejected;
+                this.future = future;
+            }
+        }
+    }
+
+    /**
+     * Follows each sent transaction through to its receipt on behalf of a traced run.
+     */
+    private static final class Tracer {
+        private final TransactionTrace trace;
+        private final ThreadLocal<RPC> rpcs;
+        private final ExecutorService followers;
+        private final Map<BigInteger, Long> blockTimestamps = new ConcurrentHashMap<>();
+        private final long eventTimeoutInNanos;
+
+        private Tracer(TransactionTrace trace, ThreadLocal<RPC> rpcs, long eventTimeoutInNanos, int numberOfThreads) {
+            this.trace = trace;
+            this.rpcs = rpcs;
+            this.eventTimeoutInNanos = eventTimeoutInNanos;
+            this.followers = Executors.newFixedThreadPool(numberOfThreads, new SenderThreadFactory("load-generator-tracer-"));
+        }
+
+        private void follow(int index, ReceiptHash receiptHash, IEvent sealed, IEvent pending, FutureResult<LogEventResult> future) {
+            this.followers.execute(() -> {
+                try {
+                    future.get();
+
+                    if ((pending != null) && (pending.hasBeenObserved())) {
+                        this.trace.recordStage(index, TransactionTrace.Stage.PENDING, pending.observedAt(TimeUnit.NANOSECONDS));
+                    }
+                    if (sealed.hasBeenObserved()) {
+                        this.trace.recordStage(index, TransactionTrace.Stage.SEALED_OBSERVED, sealed.observedAt(TimeUnit.NANOSECONDS));
+                        fetchReceipt(index, receiptHash);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+
+        private void fetchReceipt(int index, ReceiptHash receiptHash) throws InterruptedException {
+            RPC rpc = this.rpcs.get();
+
+            RpcResult<TransactionReceipt> receiptResult = rpc.getTransactionReceipt(receiptHash);
+            if (!receiptResult.isSuccess()) {
+                return;
+            }
+            this.trace.recordStage(index, TransactionTrace.Stage.RECEIPT_FETCHED, System.nanoTime());
+
+            BigInteger blockNumber = receiptResult.getResult().getBlockNumber();
+            Long blockTimestamp = this.blockTimestamps.get(blockNumber);
+            if (blockTimestamp == null) {
+                RpcResult<Block> blockResult = rpc.getBlockByNumber(blockNumber);
+                if (!blockResult.isSuccess()) {
+                    return;
+                }
+                blockTimestamp = blockResult.getResult().getTimestamp();
+                this.blockTimestamps.put(blockNumber, blockTimestamp);
+            }
+            this.trace.recordInclusion(index, blockNumber.longValueExact(), blockTimestamp);
+        }
+
+        /**
+         * Waits for every transaction being followed to be traced.
+         */
+        private void finish() throws InterruptedException {
+            this.followers.shutdown();
+            if (!this.followers.awaitTermination(this.eventTimeoutInNanos, TimeUnit.NANOSECONDS)) {
+                this.followers.shutdownNow();
+            }
+        }
+    }
+
+    private static final class SenderThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger(0);
+        private final String prefix;
+
+        private SenderThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, this.prefix + this.count.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package org.aion.harness.load;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The per-transaction timings of a single load run.
+ *
+ * For every transaction the record holds three timestamps, all taken from {@link System#nanoTime()}:
+ *   - the intended send time: when the arrival schedule said the transaction should be sent.
+ *   - the actual send time: when the RPC call to send the transaction was actually begun.
+ *   - the seal time: when the transaction's sealed event was observed in the node's log.
+ *
+ * Latencies measured from the intended send time are corrected for coordinated omission: any
+ * time a transaction spent waiting for the harness itself to get around to sending it is counted
+ * against the node, as it would be by a real client arriving at that moment.
+ *
+ * Timings are kept in primitive arrays indexed by the transaction's position in the schedule.
+ * Timestamps that never happened are {@link #NOT_RECORDED}.
+ *
+ * A load record is only mutated by the {@link LoadTarget} that produced it, such as a
+ * {@link LoadGenerator}, and is effectively immutable once handed back to the caller.
+ */
+public final class LoadRecord {
+    public static final long NOT_RECORDED = -1;
+
+    /**
+     * The final state of a transaction in a load run.
+     */
+    public enum Outcome {
+        /** The transaction was never sent, because the run was interrupted or backpressure gave up first. */
+        NOT_SENT,
+        /** The RPC call to send the transaction failed. */
+        SEND_FAILED,
+        /** The node rejected the transaction. */
+        REJECTED,
+        /** The transaction was sent but was not observed being sealed before the run timed out. */
+        UNSEALED,
+        /** The transaction was sealed into a block. */
+        SEALED
+    }
+
+    private static final Outcome[] OUTCOMES = Outcome.values();
+
+    private final long startTimeInNanos;
+    private final long[] intendedSendTimesInNanos;
+    private final long[] actualSendTimesInNanos;
+    private final long[] sealTimesInNanos;
+    private final byte[] outcomes;
+
+    /**
+     * Constructs a record of a run of the specified schedule that started at the specified time,
+     * in which no transaction has been sent yet.
+     *
+     * @param schedule The schedule of the run.
+     * @param startTimeInNanos The {@link System#nanoTime()} at which the run started.
+     */
+    public LoadRecord(ArrivalSchedule schedule, long startTimeInNanos) {
+        if (schedule == null) {
+            throw new NullPointerException("Cannot construct a load record of a null schedule.");
+        }
+
+        int size = schedule.numberOfArrivals();
+        this.startTimeInNanos = startTimeInNanos;
+        this.intendedSendTimesInNanos = new long[size];
+        this.actualSendTimesInNanos = new long[size];
+        this.sealTimesInNanos = new long[size];
+        this.outcomes = new byte[size];
+
+        for (int i = 0; i < size; i++) {
+            this.intendedSendTimesInNanos[i] = startTimeInNanos + schedule.offsetOfArrivalInNanos(i);
+            this.actualSendTimesInNanos[i] = NOT_RECORDED;
+            this.sealTimesInNanos[i] = NOT_RECORDED;
+            this.outcomes[i] = (byte) Outcome.NOT_SENT.ordinal();
+        }
+    }
+
+    /**
+     * Returns the number of transactions in this record.
+     */
+    public int size() {
+        return this.outcomes.length;
+    }
+
+    /**
+     * Returns the time at which the run began.
+     */
+    public long startTime(TimeUnit unit) {
+        return unit.convert(this.startTimeInNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns the outcome of the specified transaction.
+     */
+    public Outcome outcomeOf(int transaction) {
+        return OUTCOMES[this.outcomes[transaction]];
+    }
+
+    /**
+     * Returns the number of transactions whose outcome is the specified outcome.
+     */
+    public int countOf(Outcome outcome) {
+        int count = 0;
+        for (byte recorded : this.outcomes) {
+            if (recorded == outcome.ordinal()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the time at which the specified transaction was intended to be sent.
+     */
+    public long intendedSendTime(int transaction, TimeUnit unit) {
+        return convert(this.intendedSendTimesInNanos[transaction], unit);
+    }
+
+    /**
+     * Returns the time at which the specified transaction was actually sent, or
+     * {@link #NOT_RECORDED}.
+     */
+    public long actualSendTime(int transaction, TimeUnit unit) {
+        return convert(this.actualSendTimesInNanos[transaction], unit);
+    }
+
+    /**
+     * Returns the time at which the specified transaction was observed being sealed, or
+     * {@link #NOT_RECORDED}.
+     */
+    public long sealTime(int transaction, TimeUnit unit) {
+        return convert(this.sealTimesInNanos[transaction], unit);
+    }
+
+    /**
+     * Returns the time from when the specified transaction was intended to be sent until it was
+     * sealed, or {@link #NOT_RECORDED} if it was not sealed. This is the latency to report.
+     */
+    public long correctedLatency(int transaction, TimeUnit unit) {
+        long seal = this.sealTimesInNanos[transaction];
+        return (seal == NOT_RECORDED) ? NOT_RECORDED : unit.convert(seal - this.intendedSendTimesInNanos[transaction], TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns the time from when the specified transaction was actually sent until it was sealed,
+     * or {@link #NOT_RECORDED} if it was not sealed. This is the latency a closed-loop harness
+     * would have reported.
+     */
+    public long uncorrectedLatency(int transaction, TimeUnit unit) {
+        long seal = this.sealTimesInNanos[transaction];
+        return (seal == NOT_RECORDED) ? NOT_RECORDED : unit.convert(seal - this.actualSendTimesInNanos[transaction], TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns how far behind its intended send time the specified transaction was actually sent,
+     * or {@link #NOT_RECORDED} if it was not sent.
+     */
+    public long sendLag(int transaction, TimeUnit unit) {
+        long actual = this.actualSendTimesInNanos[transaction];
+        return (actual == NOT_RECORDED) ? NOT_RECORDED : unit.convert(actual - this.intendedSendTimesInNanos[transaction], TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records the {@link System#nanoTime()} at which the specified transaction was sent.
+     */
+    public void recordSend(int transaction, long timeInNanos) {
+        this.actualSendTimesInNanos[transaction] = timeInNanos;
+    }
+
+    /**
+     * Records the {@link System#nanoTime()} at which the specified transaction was observed being
+     * sealed, which is also its outcome.
+     */
+    public void recordSeal(int transaction, long timeInNanos) {
+        this.sealTimesInNanos[transaction] = timeInNanos;
+        recordOutcome(transaction, Outcome.SEALED);
+    }
+
+    /**
+     * Records the final state of the specified transaction.
+     */
+    public void recordOutcome(int transaction, Outcome outcome) {
+        if (outcome == null) {
+            throw new NullPointerException("Cannot record a null outcome.");
+        }
+        this.outcomes[transaction] = (byte) outcome.ordinal();
+    }
+
+    private static long convert(long timeInNanos, TimeUnit unit) {
+        return (timeInNanos == NOT_RECORDED) ? NOT_RECORDED : unit.convert(timeInNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public String toString() {
+        return "LoadRecord { transactions = " + size()
+            + ", sealed = " + countOf(Outcome.SEALED)
+            + ", rejected = " + countOf(Outcome.REJECTED)
+            + ", unsealed = " + countOf(Outcome.UNSEALED)
+            + ", send failed = " + countOf(Outcome.SEND_FAILED)
+            + ", not sent = " + countOf(Outcome.NOT_SENT) + " }";
+    }
+}
@@ -0,0 +1,42 @@
+package org.aion.harness.load;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.aion.harness.kernel.RawTransaction;
+import org.aion.harness.result.RpcResult;
+
+/**
+ * A node that open-loop load can be run against, such as by a {@link ThroughputSearch}, together
+ * with the queries needed to tell when the node has settled after a run.
+ *
+ * A {@link LoadGenerator} is the load target of a running node.
+ */
+public interface LoadTarget {
+
+    /**
+     * Sends the given transactions according to the given schedule and waits for each of them to
+     * be sealed, rejected, or for the seal timeout to elapse, as
+     * {@link LoadGenerator#run(List, ArrivalSchedule, long, TimeUnit)} does.
+     *
+     * @param transactions The pre-built transactions to send.
+     * @param schedule When to send each transaction.
+     * @param sealTimeout How long after the schedule ends to wait for outstanding transactions.
+     * @param unit The time unit of the seal timeout.
+     * @return the timings of every transaction in the run.
+     */
+    LoadRecord run(List<RawTransaction> transactions, ArrivalSchedule schedule, long sealTimeout, TimeUnit unit) throws InterruptedException;
+
+    /**
+     * Returns the number of transactions currently in the node's pending pool.
+     *
+     * @return the result of querying the pending pool.
+     */
+    RpcResult<Long> getPendingTransactionCount() throws InterruptedException;
+
+    /**
+     * Returns the number of the node's latest block.
+     *
+     * @return the result of querying the block number.
+     */
+    RpcResult<Long> blockNumber() throws InterruptedException;
+}
@@ -0,0 +1,309 @@
+package org.aion.harness.load;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.aion.harness.kernel.RawTransaction;
+import org.aion.harness.main.RPC;
+import org.aion.harness.main.types.ReceiptHash;
+import org.aion.harness.misc.Assumptions;
+import org.aion.harness.result.RpcResult;
+import org.aion.harness.util.SimpleLog;
+
+/**
+ * A gate that keeps transaction submission from overflowing a node's pending transaction pool.
+ *
+ * The depth of the pool is estimated as the most recently reported pool depth plus the number of
+ * transactions let through the gate since that report. Reports come from a background thread that
+ * polls {@link RPC#getPendingTransactionCount()}, and may also be pushed in by the caller via
+ * {@link #reportDepth(long)} (for instance, from depths parsed out of the kernel's log).
+ *
+ * Submitters call {@link #awaitCapacity()} before each submission, which behaves as follows:
+ *   - below the low watermark, it returns immediately.
+ *   - between the watermarks, it delays the caller in proportion to how close the pool is to the
+ *     high watermark, up to one poll interval.
+ *   - at or above the high watermark, it pauses the caller until the pool drains to the low
+ *     watermark.
+ *
+ * A rejected transaction is a sign that the pool has overflowed regardless of the estimate, so
+ * {@link #reportRejection()} pauses submission until the next report shows the pool has drained.
+ * A {@link LoadGenerator} submitting through the gate reports its rejections itself.
+ *
+ * Only a report can end a pause, so a caller is never paused for longer than the pause timeout (see
+ * {@link #setPauseTimeout(long, TimeUnit)}): if neither the poller nor the caller reports the pool
+ * draining in that time, {@link #awaitCapacity()} fails rather than blocking forever.
+ *
+ * This class is thread-safe.
+ */
+public final class MempoolBackpressure {
+    private static final long DEFAULT_PAUSE_TIMEOUT_IN_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final SimpleLog log;
+    private final RPC rpc;
+    private final long lowWatermark;
+    private final long highWatermark;
+    private final long pollIntervalInNanos;
+    private volatile long pauseTimeoutInNanos = DEFAULT_PAUSE_TIMEOUT_IN_NANOS;
+
+    private final Object gate = new Object();
+    private long reportedDepth = 0;
+    private long admittedSinceReport = 0;
+    private boolean paused = false;
+    private Thread poller = null;
+
+    private final AtomicLong timePausedInNanos = new AtomicLong(0);
+    private final AtomicLong timeThrottledInNanos = new AtomicLong(0);
+    private final AtomicLong failedPolls = new AtomicLong(0);
+
+    /**
+     * Constructs a new backpressure gate.
+     *
+     * @param rpc The rpc used to poll the node's pending pool depth.
+     * @param lowWatermark The depth below which submission is never delayed.
+     * @param highWatermark The depth at which submission is paused.
+     * @param pollInterval How often to poll the pending pool depth.
+     * @param unit The time unit of the poll interval.
+     */
+    public MempoolBackpressure(RPC rpc, long lowWatermark, long highWatermark, long pollInterval, TimeUnit unit) {
+        if (rpc == null) {
+            throw new NullPointerException("Cannot create backpressure with a null rpc.");
+        }
+        if ((lowWatermark < 0) || (highWatermark <= lowWatermark)) {
+            throw new IllegalArgumentException("Watermarks must satisfy 0 <= low < high, found: low = " + lowWatermark + ", high = " + highWatermark);
+        }
+        if (pollInterval <= 0) {
+            throw new IllegalArgumentException("Poll interval must be positive, found: " + pollInterval);
+        }
+        if (unit == null) {
+            throw new NullPointerException("Cannot specify a null time unit.");
+        }
+
+        this.log = new SimpleLog(getClass().getName());
+        this.rpc = rpc;
+        this.lowWatermark = lowWatermark;
+        this.highWatermark = highWatermark;
+        this.pollIntervalInNanos = unit.toNanos(pollInterval);
+    }
+
+    /**
+     * Sets how long a caller may be paused before {@link #awaitCapacity()} gives up waiting for the
+     * pending pool to be reported to have drained. The default is one minute.
+     *
+     * @param timeout The longest a caller may be paused.
+     * @param unit The time unit of the timeout.
+     */
+    public void setPauseTimeout(long timeout, TimeUnit unit) {
+        if (timeout <= 0) {
+            throw new IllegalArgumentException("Pause timeout must be positive, found: " + timeout);
+        }
+        if (unit == null) {
+            throw new NullPointerException("Cannot specify a null time unit.");
+        }
+
+        this.pauseTimeoutInNanos = unit.toNanos(timeout);
+    }
+
+    /**
+     * Starts polling the node's pending pool depth in the background.
+     */
+    public void startPolling() {
+        synchronized (this.gate) {
+            if (this.poller != null) {
+                throw new IllegalStateException("Already polling the pending pool depth.");
+            }
+
+            this.poller = new Thread(this::poll, "mempool-depth-poller");
+            this.poller.setDaemon(true);
+            this.poller.start();
+        }
+    }
+
+    /**
+     * Stops polling the node's pending pool depth, if polling was started.
+     */
+    public void stopPolling() throws InterruptedException {
+        Thread thread;
+        synchronized (this.gate) {
+            thread = this.poller;
+            this.poller = null;
+        }
+
+        if (thread != null) {
+            thread.interrupt();
+            thread.join();
+        }
+    }
+
+    /**
+     * Blocks until the pending pool has room for another transaction, and counts the caller's
+     * transaction as admitted into the pool.
+     *
+     * @throws BackpressureTimeoutException if the caller was paused for longer than the pause
+     * timeout without the pending pool being reported to have drained.
+     */
+    public void awaitCapacity() throws BackpressureTimeoutException, InterruptedException {
+        long delayInNanos;
+
+        synchronized (this.gate) {
+            long pauseStart = System.nanoTime();
+            boolean waited = false;
+
+            while (this.paused || (estimatedDepth() >= this.highWatermark)) {
+                if (!this.paused) {
+                    this.paused = true;
+                    this.log.log(Assumptions.LOGGER_BANNER + "Pending pool depth reached " + estimatedDepth() + ", pausing submission.");
+                }
+                waited = true;
+
+                long pausedForInNanos = System.nanoTime() - pauseStart;
+                if (pausedForInNanos >= this.pauseTimeoutInNanos) {
+                    this.timePausedInNanos.addAndGet(pausedForInNanos);
+                    throw new BackpressureTimeoutException("Submission was paused for " + TimeUnit.NANOSECONDS.toMillis(pausedForInNanos)
+                        + " ms without the pending pool being reported to drain to " + this.lowWatermark
+                        + ((this.poller == null) ? " (the pending pool depth is not being polled)." : "."));
+                }
+                TimeUnit.NANOSECONDS.timedWait(this.gate, Math.min(this.pollIntervalInNanos, this.pauseTimeoutInNanos - pausedForInNanos));
+            }
+
+            if (waited) {
+                this.timePausedInNanos.addAndGet(System.nanoTime() - pauseStart);
+            }
+
+            long depth = estimatedDepth();
+            delayInNanos = (depth <= this.lowWatermark)
+                ? 0
+                : (this.pollIntervalInNanos * (depth - this.lowWatermark)) / (this.highWatermark - this.lowWatermark);
+
+            this.admittedSinceReport++;
+        }
+
+        if (delayInNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(delayInNanos);
+            this.timeThrottledInNanos.addAndGet(delayInNanos);
+        }
+    }
+
+    /**
+     * Reports the current depth of the node's pending pool, replacing the current estimate.
+     *
+     * @param depth The number of transactions currently pending.
+     */
+    public void reportDepth(long depth) {
+        if (depth < 0) {
+            throw new IllegalArgumentException("Depth cannot be negative, found: " + depth);
+        }
+
+        synchronized (this.gate) {
+            this.reportedDepth = depth;
+            this.admittedSinceReport = 0;
+
+            if (this.paused && (depth <= this.lowWatermark)) {
+                this.paused = false;
+                this.log.log(Assumptions.LOGGER_BANNER + "Pending pool drained to " + depth + ", resuming submission.");
+                this.gate.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Reports that the node rejected a transaction, which pauses submission until the pending pool
+     * is next reported to have drained to the low watermark.
+     */
+    public void reportRejection() {
+        synchronized (this.gate) {
+            if (!this.paused) {
+                this.paused = true;
+                this.log.log(Assumptions.LOGGER_BANNER + "Transaction rejected, pausing submission.");
+            }
+        }
+    }
+
+    /**
+     * Sends the specified transactions one after the other, waiting for capacity in the pending
+     * pool before each one. This is the backpressured equivalent of
+     * {@link RPC#sendTransactions(List)}.
+     *
+     * The returned list is such that the i'th result corresponds to the i'th transaction.
+     *
+     * @param sender The rpc to send the transactions with.
+     * @param transactions The transactions to send.
+     * @return the results of sending the transactions.
+     * @throws BackpressureTimeoutException if submission was paused for longer than the pause
+     * timeout, in which case the remaining transactions are not sent.
+     */
+    public List<RpcResult<ReceiptHash>> sendTransactions(RPC sender, List<RawTransaction> transactions) throws BackpressureTimeoutException, InterruptedException {
+        if (sender == null) {
+            throw new NullPointerException("Cannot send transactions with a null rpc.");
+        }
+        if (transactions == null) {
+            throw new NullPointerException("Cannot send a null list of transactions.");
+        }
+
+        List<RpcResult<ReceiptHash>> results = new ArrayList<>();
+        for (RawTransaction transaction : transactions) {
+            awaitCapacity();
+            results.add(sender.sendTransaction(transaction));
+        }
+        return results;
+    }
+
+    /**
+     * Returns the current estimate of the depth of the node's pending pool.
+     */
+    public long getEstimatedDepth() {
+        synchronized (this.gate) {
+            return estimatedDepth();
+        }
+    }
+
+    /**
+     * Returns the total time submitters have spent paused at the high watermark.
+     */
+    public long getTimeSpentPaused(TimeUnit unit) {
+        return unit.convert(this.timePausedInNanos.get(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns the total time submitters have spent throttled between the watermarks.
+     */
+    public long getTimeSpentThrottled(TimeUnit unit) {
+        return unit.convert(this.timeThrottledInNanos.get(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns the number of attempts to poll the pending pool depth that failed.
+     */
+    public long getNumberOfFailedPolls() {
+        return this.failedPolls.get();
+    }
+
+    private long estimatedDepth() {
+        return this.reportedDepth + this.admittedSinceReport;
+    }
+
+    private void poll() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                RpcResult<Long> depth = this.rpc.getPendingTransactionCount();
+
+                if (depth.isSuccess()) {
+                    reportDepth(depth.getResult());
+                } else {
+                    this.failedPolls.incrementAndGet();
+                }
+
+                TimeUnit.NANOSECONDS.sleep(this.pollIntervalInNanos);
+            }
+        } catch (InterruptedException e) {
+            // We were stopped.
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "MempoolBackpressure { low watermark = " + this.lowWatermark
+            + ", high watermark = " + this.highWatermark
+            + ", estimated depth = " + getEstimatedDepth() + " }";
+    }
+}
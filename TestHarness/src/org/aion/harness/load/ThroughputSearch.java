@@ -0,0 +1,324 @@
+package org.aion.harness.load;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.aion.harness.kernel.RawTransaction;
+import org.aion.harness.misc.Assumptions;
+import org.aion.harness.result.RpcResult;
+import org.aion.harness.statistics.Histogram;
+import org.aion.harness.util.SimpleLog;
+
+/**
+ * Searches for the maximum rate of transactions a node can sustain.
+ *
+ * A rate is considered sustained only if, during the steady-state window of a run at that rate:
+ *   - the p99 submission-to-seal latency is within the latency objective,
+ *   - every transaction was sealed, and
+ *   - the backlog of sent-but-unsealed transactions did not grow, give or take the backlog
+ *     tolerance, a fixed number of transactions that does not scale with the offered rate.
+ *
+ * Each rate is tried with a fresh open-loop run (see {@link LoadGenerator}) made of a warm-up
+ * window, whose transactions are sent but not measured, followed by the steady-state window.
+ *
+ * Before each run the node is first left to settle, so that a run is not measured against the
+ * backlog of the one before it: the search waits for the node's pending pool to drain and then for
+ * one more block to be sealed, taking in any transactions that were being sealed as the pool
+ * drained, and then has the transaction source resynchronize its nonces with the node. A node that
+ * has not settled within the settle timeout is measured all the same, and this is logged.
+ *
+ * The node itself is whatever the load target points at, typically a load generator's RPC address
+ * and listener, so a search can be run against a {@link org.aion.harness.main.LocalNode} or a
+ * {@link org.aion.harness.main.RemoteNode} alike.
+ *
+ * This class is not thread-safe.
+ */
+public final class ThroughputSearch {
+    private static final int DEFAULT_BACKLOG_TOLERANCE = 10;
+    private static final long DEFAULT_SETTLE_TIMEOUT_IN_NANOS = TimeUnit.MINUTES.toNanos(2);
+    private static final long SETTLE_POLL_INTERVAL_IN_MILLIS = 200;
+
+    private final SimpleLog log;
+    private final LoadTarget target;
+    private final TransactionSource transactionSource;
+    private final long p99ObjectiveInNanos;
+    private final long warmUpInNanos;
+    private final long steadyStateInNanos;
+    private final long sealTimeoutInNanos;
+    private int backlogTolerance = DEFAULT_BACKLOG_TOLERANCE;
+    private long settleTimeoutInNanos = DEFAULT_SETTLE_TIMEOUT_IN_NANOS;
+
+    /**
+     * Constructs a new throughput search.
+     *
+     * @param target The target used to drive the node, typically a {@link LoadGenerator}.
+     * @param transactionSource Where each run gets its transactions from.
+     * @param p99Objective The highest acceptable p99 submission-to-seal latency.
+     * @param warmUp The length of the unmeasured window at the start of each run.
+     * @param steadyState The length of the measured window of each run.
+     * @param sealTimeout How long after each run to wait for its outstanding transactions.
+     * @param unit The time unit of all of the durations.
+     */
+    public ThroughputSearch(LoadTarget target, TransactionSource transactionSource, long p99Objective, long warmUp, long steadyState, long sealTimeout, TimeUnit unit) {
+        if (target == null) {
+            throw new NullPointerException("Cannot search with a null load target.");
+        }
+        if (transactionSource == null) {
+            throw new NullPointerException("Cannot search with a null transaction source.");
+        }
+        if (unit == null) {
+            throw new NullPointerException("Cannot specify a null time unit.");
+        }
+        if (p99Objective <= 0) {
+            throw new IllegalArgumentException("Latency objective must be positive, found: " + p99Objective);
+        }
+        if (warmUp < 0) {
+            throw new IllegalArgumentException("Warm-up window cannot be negative, found: " + warmUp);
+        }
+        if (steadyState <= 0) {
+            throw new IllegalArgumentException("Steady-state window must be positive, found: " + steadyState);
+        }
+        if (sealTimeout < 0) {
+            throw new IllegalArgumentException("Timeout value was negative: " + sealTimeout);
+        }
+
+        this.log = new SimpleLog(getClass().getName());
+        this.target = target;
+        this.transactionSource = transactionSource;
+        this.p99ObjectiveInNanos = unit.toNanos(p99Objective);
+        this.warmUpInNanos = unit.toNanos(warmUp);
+        this.steadyStateInNanos = unit.toNanos(steadyState);
+        this.sealTimeoutInNanos = unit.toNanos(sealTimeout);
+    }
+
+    /**
+     * Sets how many transactions the backlog may grow by over the steady-state window and still be
+     * considered not to have grown, to allow for transactions that were in the middle of being
+     * sealed as the window closed. The default is 10 transactions.
+     *
+     * @param tolerance The backlog tolerance, in transactions.
+     */
+    public void setBacklogTolerance(int tolerance) {
+        if (tolerance < 0) {
+            throw new IllegalArgumentException("Backlog tolerance cannot be negative, found: " + tolerance);
+        }
+        this.backlogTolerance = tolerance;
+    }
+
+    /**
+     * Sets how long to wait before each run for the node to settle after the previous one. The
+     * default is 2 minutes.
+     *
+     * @param timeout The settle timeout.
+     * @param unit The time unit of the timeout.
+     */
+    public void setSettleTimeout(long timeout, TimeUnit unit) {
+        if (timeout < 0) {
+            throw new IllegalArgumentException("Timeout value was negative: " + timeout);
+        }
+        if (unit == null) {
+            throw new NullPointerException("Cannot specify a null time unit.");
+        }
+        this.settleTimeoutInNanos = unit.toNanos(timeout);
+    }
+
+    /**
+     * Tries the rates {@code startRate}, {@code startRate + increment}, ... up to and including
+     * {@code maximumRate}, stopping at the first rate that is not sustained.
+     *
+     * @param startRate The first rate to try, in transactions per second.
+     * @param increment The amount to increase the rate by at each step.
+     * @param maximumRate The highest rate to try.
+     * @return the capacity curve of every rate tried.
+     */
+    public CapacityCurve stepwiseSearch(double startRate, double increment, double maximumRate) throws InterruptedException {
+        if (!(startRate > 0) || !(increment > 0) || (maximumRate < startRate)) {
+            throw new IllegalArgumentException("Invalid stepwise search: start = " + startRate + ", increment = " + increment + ", maximum = " + maximumRate);
+        }
+
+        List<CapacityPoint> points = new ArrayList<>();
+        for (int step = 0; startRate + (step * increment) <= maximumRate; step++) {
+            CapacityPoint point = measure(startRate + (step * increment));
+            points.add(point);
+
+            if (!point.isSustained()) {
+                break;
+            }
+        }
+
+        return new CapacityCurve(points);
+    }
+
+    /**
+     * Binary searches the range [lowRate, highRate] for the highest sustained rate, stopping once
+     * the range between the highest sustained and lowest unsustained rates is no wider than the
+     * resolution.
+     *
+     * If the low rate is not sustained, or the high rate is, the search ends immediately.
+     *
+     * @param lowRate The lowest rate to consider, in transactions per second.
+     * @param highRate The highest rate to consider, in transactions per second.
+     * @param resolution The width of the range at which to stop searching.
+     * @return the capacity curve of every rate tried.
+     */
+    public CapacityCurve binarySearch(double lowRate, double highRate, double resolution) throws InterruptedException {
+        if (!(lowRate > 0) || !(highRate > lowRate) || !(resolution > 0)) {
+            throw new IllegalArgumentException("Invalid binary search: low = " + lowRate + ", high = " + highRate + ", resolution = " + resolution);
+        }
+
+        List<CapacityPoint> points = new ArrayList<>();
+
+        CapacityPoint low = measure(lowRate);
+        points.add(low);
+        if (!low.isSustained()) {
+            return new CapacityCurve(points);
+        }
+
+        CapacityPoint high = measure(highRate);
+        points.add(high);
+        if (high.isSustained()) {
+            return new CapacityCurve(points);
+        }
+
+        double sustained = lowRate;
+        double unsustained = highRate;
+        while (unsustained - sustained > resolution) {
+            double middle = (sustained + unsustained) / 2;
+            CapacityPoint point = measure(middle);
+            points.add(point);
+
+            if (point.isSustained()) {
+                sustained = middle;
+            } else {
+                unsustained = middle;
+            }
+        }
+
+        return new CapacityCurve(points);
+    }
+
+    /**
+     * Waits for the node to settle and then drives it at the specified rate for one warm-up and
+     * steady-state window and returns how it fared.
+     *
+     * @param ratePerSecond The rate to offer, in transactions per second.
+     * @return the measured point.
+     */
+    public CapacityPoint measure(double ratePerSecond) throws InterruptedException {
+        settle();
+        this.transactionSource.resynchronize();
+
+        ArrivalSchedule schedule = ArrivalSchedule.constantRate(ratePerSecond, this.warmUpInNanos + this.steadyStateInNanos, TimeUnit.NANOSECONDS);
+        List<RawTransaction> transactions = this.transactionSource.nextTransactions(schedule.numberOfArrivals());
+
+        this.log.log(Assumptions.LOGGER_BANNER + "Measuring offered rate of " + ratePerSecond + " tx/s...");
+        LoadRecord record = this.target.run(transactions, schedule, this.sealTimeoutInNanos, TimeUnit.NANOSECONDS);
+
+        CapacityPoint point = evaluate(record, ratePerSecond);
+        this.log.log(Assumptions.LOGGER_BANNER + point);
+        return point;
+    }
+
+    /**
+     * Waits, up to the settle timeout, for the node's pending pool to drain and then for the next
+     * block to be sealed.
+     */
+    private void settle() throws InterruptedException {
+        long deadline = System.nanoTime() + this.settleTimeoutInNanos;
+
+        RpcResult<Long> pending = this.target.getPendingTransactionCount();
+        while (!pending.isSuccess() || (pending.getResult() > 0)) {
+            if (System.nanoTime() - deadline > 0) {
+                this.log.log(Assumptions.LOGGER_BANNER + "Pending pool did not drain before the next run: "
+                    + (pending.isSuccess() ? pending.getResult() + " transactions pending." : pending.getError()));
+                return;
+            }
+            TimeUnit.MILLISECONDS.sleep(SETTLE_POLL_INTERVAL_IN_MILLIS);
+            pending = this.target.getPendingTransactionCount();
+        }
+
+        RpcResult<Long> drainedAt = this.target.blockNumber();
+        if (!drainedAt.isSuccess()) {
+            this.log.log(Assumptions.LOGGER_BANNER + "Failed to fetch the block number before the next run: " + drainedAt.getError());
+            return;
+        }
+
+        RpcResult<Long> latest = drainedAt;
+        while (!latest.isSuccess() || (latest.getResult() <= drainedAt.getResult())) {
+            if (System.nanoTime() - deadline > 0) {
+                this.log.log(Assumptions.LOGGER_BANNER + "No block was sealed after the pending pool drained before the next run.");
+                return;
+            }
+            TimeUnit.MILLISECONDS.sleep(SETTLE_POLL_INTERVAL_IN_MILLIS);
+            latest = this.target.blockNumber();
+        }
+    }
+
+    private CapacityPoint evaluate(LoadRecord record, double ratePerSecond) {
+        long steadyStart = record.startTime(TimeUnit.NANOSECONDS) + this.warmUpInNanos;
+        long steadyEnd = steadyStart + this.steadyStateInNanos;
+
+        int size = record.size();
+        Histogram latencies = new Histogram();
+        int steadyStateTransactions = 0;
+        int failed = 0;
+        int sealedInWindow = 0;
+
+        for (int i = 0; i < size; i++) {
+            long seal = record.sealTime(i, TimeUnit.NANOSECONDS);
+            if ((seal != LoadRecord.NOT_RECORDED) && (seal >= steadyStart) && (seal < steadyEnd)) {
+                sealedInWindow++;
+            }
+
+            long intended = record.intendedSendTime(i, TimeUnit.NANOSECONDS);
+            if ((intended < steadyStart) || (intended >= steadyEnd)) {
+                continue;
+            }
+
+            steadyStateTransactions++;
+            if (record.outcomeOf(i) == LoadRecord.Outcome.SEALED) {
+                latencies.record(record.correctedLatency(i, TimeUnit.NANOSECONDS));
+            } else {
+                failed++;
+            }
+        }
+
+        long p50 = percentile(latencies, 50.0);
+        long p99 = percentile(latencies, 99.0);
+        long p999 = percentile(latencies, 99.9);
+
+        int backlogGrowth = backlogAt(record, steadyEnd) - backlogAt(record, steadyStart);
+        double achievedRate = sealedInWindow / ((double) this.steadyStateInNanos / TimeUnit.SECONDS.toNanos(1));
+
+        boolean sustained = (latencies.getTotalCount() > 0)
+            && (failed == 0)
+            && (p99 <= this.p99ObjectiveInNanos)
+            && (backlogGrowth <= this.backlogTolerance);
+
+        return new CapacityPoint(ratePerSecond, achievedRate, p50, p99, p999, steadyStateTransactions, failed, backlogGrowth, sustained);
+    }
+
+    /**
+     * Returns the number of transactions that had been sent but not yet sealed at the given time.
+     */
+    private static int backlogAt(LoadRecord record, long timeInNanos) {
+        int backlog = 0;
+        for (int i = 0; i < record.size(); i++) {
+            long sent = record.actualSendTime(i, TimeUnit.NANOSECONDS);
+            long seal = record.sealTime(i, TimeUnit.NANOSECONDS);
+
+            if ((sent != LoadRecord.NOT_RECORDED) && (sent <= timeInNanos) && ((seal == LoadRecord.NOT_RECORDED) || (seal > timeInNanos))) {
+                backlog++;
+            }
+        }
+        return backlog;
+    }
+
+    /**
+     * Returns the given percentile of the recorded latencies, or {@link LoadRecord#NOT_RECORDED} if
+     * there are none.
+     */
+    private static long percentile(Histogram latencies, double percentile) {
+        return (latencies.getTotalCount() == 0) ? LoadRecord.NOT_RECORDED : latencies.getValueAtPercentile(percentile);
+    }
+}
@@ -0,0 +1,35 @@
+package org.aion.harness.load;
+
+import java.util.List;
+import org.aion.harness.kernel.RawTransaction;
+
+/**
+ * A supplier of fresh, signed transactions for a load run.
+ *
+ * Every call must return transactions that have never been handed out before (in particular,
+ * with nonces that have not been used), since each run sends everything it is given.
+ *
+ * Transactions of a run that were never sealed leave a gap in their sender's nonces, which would
+ * keep every later transaction of that sender from being sealed. A source that reserves nonces from
+ * a {@link org.aion.harness.main.NonceManager} should therefore resynchronize it with the node when
+ * {@link #resynchronize()} is called between runs.
+ */
+public interface TransactionSource {
+
+    /**
+     * Returns exactly the specified number of new transactions.
+     *
+     * @param count The number of transactions to return.
+     * @return the transactions.
+     */
+    List<RawTransaction> nextTransactions(int count) throws InterruptedException;
+
+    /**
+     * Brings the nonces of the transactions still to be returned in line with the node's. This is
+     * called between runs, once the node has settled after the previous run and before the next
+     * run's transactions are requested.
+     *
+     * The default does nothing, which suits sources that do not track nonces themselves.
+     */
+    default void resynchronize() throws InterruptedException {}
+}
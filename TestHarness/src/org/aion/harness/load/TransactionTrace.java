@@ -0,0 +1,242 @@
+package org.aion.harness.load;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.aion.harness.result.TransactionResult;
+import org.aion.harness.statistics.Histogram;
+
+/**
+ * The lifecycle of every transaction in a load run, broken down stage by stage.
+ *
+ * For every transaction the trace holds the time at which each {@link Stage} was reached, along
+ * with the number and kernel timestamp of the block the transaction was included in. Timings are
+ * kept in primitive arrays, one per stage, indexed by the transaction's position in the run, and
+ * are all taken from {@link System#nanoTime()}. Stages that were never reached are
+ * {@link #NOT_RECORDED}.
+ *
+ * The time a transaction spent in a stage is the time from the previous stage it reached to this
+ * one. These per-stage latencies are what tell a slowdown in the harness (building, signing) apart
+ * from one in the RPC server (submission), the pending pool (pending, inclusion) or block
+ * production (sealing). See {@link #getStageLatencies(Stage)}.
+ *
+ * Block timestamps are reported by the kernel in whole seconds of wall-clock time. To place them on
+ * the same clock as every other stage, the trace pairs {@link System#currentTimeMillis()} with
+ * {@link System#nanoTime()} when it is constructed. The {@link Stage#INCLUDED} stage is therefore
+ * only accurate to about a second, and its latency, and that of the stage after it, should be read
+ * in that light.
+ *
+ * Each stage of a given transaction is recorded by at most one thread, and the trace is read only
+ * once the run is over, so recording from many sender threads at once is safe.
+ */
+public final class TransactionTrace {
+    public static final long NOT_RECORDED = -1;
+
+    /**
+     * The stages of a transaction's lifecycle, in the order they occur.
+     */
+    public enum Stage {
+        /** The harness began building the transaction. */
+        BUILD_STARTED,
+        /** The transaction was built and signed. */
+        SIGNED,
+        /** The RPC call to submit the transaction was begun. */
+        SUBMIT_STARTED,
+        /** The RPC server acknowledged the submission. */
+        SUBMIT_ACKNOWLEDGED,
+        /** The node logged the transaction entering its pending pool, if it logs this at all. */
+        PENDING,
+        /** The block the transaction was included in was produced, according to its kernel timestamp. */
+        INCLUDED,
+        /** The transaction's sealed event was observed in the node's log. */
+        SEALED_OBSERVED,
+        /** The transaction's receipt was fetched from the node. */
+        RECEIPT_FETCHED
+    }
+
+    private static final Stage[] STAGES = Stage.values();
+
+    private final long[][] stageTimesInNanos;
+    private final long[] blockNumbers;
+    private final long[] blockTimestamps;
+    private final long referenceNanoTime;
+    private final long referenceWallClockMillis;
+
+    /**
+     * Constructs an empty trace for the specified number of transactions.
+     *
+     * @param size The number of transactions to trace.
+     */
+    public TransactionTrace(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Cannot trace a negative number of transactions: " + size);
+        }
+
+        this.stageTimesInNanos = new long[STAGES.length][size];
+        this.blockNumbers = new long[size];
+        this.blockTimestamps = new long[size];
+
+        for (long[] times : this.stageTimesInNanos) {
+            Arrays.fill(times, NOT_RECORDED);
+        }
+        Arrays.fill(this.blockNumbers, NOT_RECORDED);
+        Arrays.fill(this.blockTimestamps, NOT_RECORDED);
+
+        this.referenceWallClockMillis = System.currentTimeMillis();
+        this.referenceNanoTime = System.nanoTime();
+    }
+
+    /**
+     * Returns the number of transactions in this trace.
+     */
+    public int size() {
+        return this.blockNumbers.length;
+    }
+
+    /**
+     * Builds a transaction using the given builder, recording the {@link Stage#BUILD_STARTED} and
+     * {@link Stage#SIGNED} stages of the specified transaction around it. The signed stage is only
+     * recorded if the build succeeds.
+     *
+     * @param transaction The index of the transaction being built.
+     * @param builder Builds and signs the transaction.
+     * @return the result of the builder.
+     */
+    public TransactionResult traceBuild(int transaction, Supplier<TransactionResult> builder) {
+        if (builder == null) {
+            throw new NullPointerException("Cannot trace a null builder.");
+        }
+
+        recordStage(transaction, Stage.BUILD_STARTED, System.nanoTime());
+        TransactionResult result = builder.get();
+        if (result.isSuccess()) {
+            recordStage(transaction, Stage.SIGNED, System.nanoTime());
+        }
+        return result;
+    }
+
+    /**
+     * Records that the specified transaction reached the specified stage at the specified time.
+     *
+     * @param transaction The index of the transaction.
+     * @param stage The stage reached.
+     * @param timeInNanos The time, from {@link System#nanoTime()}, at which the stage was reached.
+     */
+    public void recordStage(int transaction, Stage stage, long timeInNanos) {
+        if (stage == null) {
+            throw new NullPointerException("Cannot record a null stage.");
+        }
+        this.stageTimesInNanos[stage.ordinal()][transaction] = timeInNanos;
+    }
+
+    /**
+     * Records the block the specified transaction was included in, which also records the
+     * {@link Stage#INCLUDED} stage from the block's timestamp.
+     *
+     * @param transaction The index of the transaction.
+     * @param blockNumber The number of the block.
+     * @param blockTimestamp The kernel timestamp of the block, in seconds since the epoch.
+     */
+    public void recordInclusion(int transaction, long blockNumber, long blockTimestamp) {
+        this.blockNumbers[transaction] = blockNumber;
+        this.blockTimestamps[transaction] = blockTimestamp;
+
+        long offsetInNanos = TimeUnit.SECONDS.toNanos(blockTimestamp) - TimeUnit.MILLISECONDS.toNanos(this.referenceWallClockMillis);
+        recordStage(transaction, Stage.INCLUDED, this.referenceNanoTime + offsetInNanos);
+    }
+
+    /**
+     * Returns the time at which the specified transaction reached the specified stage, or
+     * {@link #NOT_RECORDED} if it never did.
+     */
+    public long stageTime(int transaction, Stage stage, TimeUnit unit) {
+        long time = this.stageTimesInNanos[stage.ordinal()][transaction];
+        return (time == NOT_RECORDED) ? NOT_RECORDED : unit.convert(time, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns the number of the block the specified transaction was included in, or
+     * {@link #NOT_RECORDED} if it is not known.
+     */
+    public long blockNumber(int transaction) {
+        return this.blockNumbers[transaction];
+    }
+
+    /**
+     * Returns the kernel timestamp, in seconds since the epoch, of the block the specified
+     * transaction was included in, or {@link #NOT_RECORDED} if it is not known.
+     */
+    public long blockTimestamp(int transaction) {
+        return this.blockTimestamps[transaction];
+    }
+
+    /**
+     * Returns the time the specified transaction spent reaching the specified stage from the
+     * previous stage it reached, or {@link #NOT_RECORDED} if it did not reach this stage or reached
+     * no stage before it.
+     *
+     * Since block timestamps are only accurate to a second, a negative duration may arise around
+     * the {@link Stage#INCLUDED} stage; such durations are reported as zero.
+     */
+    public long stageLatency(int transaction, Stage stage, TimeUnit unit) {
+        long end = this.stageTimesInNanos[stage.ordinal()][transaction];
+        if (end == NOT_RECORDED) {
+            return NOT_RECORDED;
+        }
+
+        for (int previous = stage.ordinal() - 1; previous >= 0; previous--) {
+            long start = this.stageTimesInNanos[previous][transaction];
+            if (start != NOT_RECORDED) {
+                return unit.convert(Math.max(0, end - start), TimeUnit.NANOSECONDS);
+            }
+        }
+        return NOT_RECORDED;
+    }
+
+    /**
+     * Returns a histogram, in nanoseconds, of the time every transaction spent reaching the
+     * specified stage from the previous stage it reached.
+     *
+     * @param stage The stage.
+     * @return the latencies of the stage.
+     */
+    public Histogram getStageLatencies(Stage stage) {
+        if (stage == null) {
+            throw new NullPointerException("Cannot get latencies of a null stage.");
+        }
+
+        Histogram latencies = new Histogram();
+        for (int i = 0; i < size(); i++) {
+            long latency = stageLatency(i, stage, TimeUnit.NANOSECONDS);
+            if (latency != NOT_RECORDED) {
+                latencies.record(latency);
+            }
+        }
+        return latencies;
+    }
+
+    /**
+     * Prints to console, for every stage that any transaction reached, the number of
+     * transactions that reached it and the p50, p99 and maximum time spent reaching it, in
+     * milliseconds.
+     */
+    public void printBreakdown() {
+        System.out.println("---------------------------------------------------------------------");
+        System.out.println(String.format("%-20s %8s %12s %12s %12s", "stage", "count", "p50(ms)", "p99(ms)", "max(ms)"));
+        for (Stage stage : STAGES) {
+            Histogram latencies = getStageLatencies(stage);
+            if (latencies.getTotalCount() == 0) {
+                continue;
+            }
+
+            System.out.println(String.format("%-20s %8d %12.3f %12.3f %12.3f",
+                stage,
+                latencies.getTotalCount(),
+                latencies.getValueAtPercentile(50) / 1_000_000.0,
+                latencies.getValueAtPercentile(99) / 1_000_000.0,
+                latencies.getMaximum() / 1_000_000.0));
+        }
+        System.out.println("---------------------------------------------------------------------");
+    }
+
+}
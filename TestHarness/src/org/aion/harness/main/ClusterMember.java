@@ -0,0 +1,110 @@
+package org.aion.harness.main;
+
+import java.io.File;
+
+/**
+ * A member of a {@link LocalCluster}: a local node with its own kernel directory, ports and node id,
+ * peered with every other member of the cluster.
+ *
+ * The node itself is started and stopped by the cluster.
+ */
+public final class ClusterMember {
+    private static final String IP = "127.0.0.1";
+
+    private final int index;
+    private final LocalNode node;
+    private final String nodeId;
+    private final File directory;
+    private final int rpcPort;
+    private final int p2pPort;
+    private final boolean mining;
+
+    ClusterMember(int index, LocalNode node, String nodeId, File directory, int rpcPort, int p2pPort, boolean mining) {
+        if (node == null) {
+            throw new NullPointerException("Cannot construct ClusterMember with a null node.");
+        }
+        if (nodeId == null) {
+            throw new NullPointerException("Cannot construct ClusterMember with a null node id.");
+        }
+        if (directory == null) {
+            throw new NullPointerException("Cannot construct ClusterMember with a null directory.");
+        }
+
+        this.index = index;
+        this.node = node;
+        this.nodeId = nodeId;
+        this.directory = directory;
+        this.rpcPort = rpcPort;
+        this.p2pPort = p2pPort;
+        this.mining = mining;
+    }
+
+    /**
+     * Returns the position of this member in the cluster, starting at 0.
+     */
+    public int getIndex() {
+        return this.index;
+    }
+
+    /**
+     * Returns the node of this member.
+     */
+    public LocalNode getNode() {
+        return this.node;
+    }
+
+    /**
+     * Returns the p2p node id of this member.
+     */
+    public String getNodeId() {
+        return this.nodeId;
+    }
+
+    /**
+     * Returns the kernel directory of this member.
+     */
+    public File getDirectory() {
+        return this.directory;
+    }
+
+    public int getRpcPort() {
+        return this.rpcPort;
+    }
+
+    public int getP2pPort() {
+        return this.p2pPort;
+    }
+
+    /**
+     * Returns the url other members use to peer with this member.
+     */
+    public String getP2pUrl() {
+        return "p2p://" + this.nodeId + "@" + IP + ":" + this.p2pPort;
+    }
+
+    /**
+     * Returns true if this member mines blocks, otherwise it only imports the blocks of its peers.
+     */
+    public boolean isMining() {
+        return this.mining;
+    }
+
+    /**
+     * Returns a new RPC client of this member's rpc server.
+     */
+    public RPC newRpc() {
+        return new RPC(IP, Integer.toString(this.rpcPort));
+    }
+
+    /**
+     * Returns a newly created node listener that is listening to this member's node.
+     */
+    public NodeListener newListener() {
+        return NodeListener.listenTo(this.node);
+    }
+
+    @Override
+    public String toString() {
+        return "ClusterMember { index = " + this.index + ", rpc port = " + this.rpcPort + ", p2p port = " + this.p2pPort + ", mining = " + this.mining + " }";
+    }
+}
@@ -0,0 +1,123 @@
+package org.aion.harness.main;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A named set of JVM options to run the Java kernel with, such as its heap size, its garbage
+ * collector and whether it should write a gc log.
+ *
+ * A profile is attached to a node via {@link NodeConfigurations#withJvmProfile(JvmProfile)}, and
+ * its options are applied each time the node is started. They are added to the kernel's java
+ * invocation in its launch script, after the script's own options, and are seen by the kernel's jvm
+ * alone. A profile that selects a different garbage collector than the launch script does is
+ * refused when the node starts, since the jvm would not start with both. Running the same benchmark
+ * under several profiles is then a matter of reconfiguring the node between runs.
+ *
+ * When gc logging is enabled, the kernel writes a unified gc log decorated with its
+ * {@link System#nanoTime()} clock, which can be parsed with
+ * {@link org.aion.harness.statistics.GcLog} and lined up against rpc results and log events.
+ *
+ * Profiles are constructed using a {@link JvmProfileBuilder}.
+ *
+ * This class is immutable.
+ */
+public final class JvmProfile {
+    /**
+     * The profile that applies no options at all, leaving the kernel with its launch script's
+     * defaults.
+     */
+    public static final JvmProfile DEFAULT = new JvmProfile("default", null, null, GarbageCollector.KERNEL_DEFAULT, false, Collections.emptyList());
+
+    public final String name;
+    public final String initialHeapSize;
+    public final String maximumHeapSize;
+    public final GarbageCollector collector;
+    public final boolean gcLogging;
+    private final List<String> additionalOptions;
+
+    public enum GarbageCollector {
+        KERNEL_DEFAULT(null),
+        G1("-XX:+UseG1GC"),
+        PARALLEL("-XX:+UseParallelGC"),
+        SERIAL("-XX:+UseSerialGC"),
+        Z("-XX:+UseZGC"),
+        SHENANDOAH("-XX:+UseShenandoahGC");
+
+        private final String option;
+
+        GarbageCollector(String option) {
+            this.option = option;
+        }
+    }
+
+    JvmProfile(String name, String initialHeapSize, String maximumHeapSize, GarbageCollector collector, boolean gcLogging, List<String> additionalOptions) {
+        this.name = name;
+        this.initialHeapSize = initialHeapSize;
+        this.maximumHeapSize = maximumHeapSize;
+        this.collector = collector;
+        this.gcLogging = gcLogging;
+        this.additionalOptions = Collections.unmodifiableList(new ArrayList<>(additionalOptions));
+    }
+
+    /**
+     * Returns the options given to the builder verbatim, in the order they were given.
+     */
+    public List<String> getAdditionalOptions() {
+        return this.additionalOptions;
+    }
+
+    /**
+     * Returns {@code true} only if this profile applies no options.
+     */
+    public boolean isEmpty() {
+        return toOptions(null).isEmpty();
+    }
+
+    /**
+     * Returns the JVM options of this profile.
+     *
+     * If gc logging is enabled and a file is specified, the gc log is written to that file. Its path
+     * is quoted within the logging option, so that it may contain the colons that otherwise
+     * separate the parts of the option, but for that reason it may not contain a double quote.
+     *
+     * @param gcLogFile The file to write the gc log to, or null for no gc log.
+     * @return the options.
+     * @throws IllegalArgumentException if the path of the gc log file contains a double quote.
+     */
+    public List<String> toOptions(File gcLogFile) {
+        List<String> options = new ArrayList<>();
+        if (this.initialHeapSize != null) {
+            options.add("-Xms" + this.initialHeapSize);
+        }
+        if (this.maximumHeapSize != null) {
+            options.add("-Xmx" + this.maximumHeapSize);
+        }
+        if (this.collector.option != null) {
+            options.add(this.collector.option);
+        }
+        if (this.gcLogging && (gcLogFile != null)) {
+            String path = gcLogFile.getAbsolutePath();
+            if (path.contains("\"")) {
+                throw new IllegalArgumentException("The gc log file path may not contain a double quote: " + path);
+            }
+            // timenanos is the same clock as System.nanoTime() in the harness.
+            options.add("-Xlog:gc*:file=\"" + path + "\":uptime,timenanos,level,tags");
+        }
+        options.addAll(this.additionalOptions);
+        return options;
+    }
+
+    @Override
+    public String toString() {
+        return "JvmProfile { name = " + this.name
+            + ", initial heap = " + this.initialHeapSize
+            + ", maximum heap = " + this.maximumHeapSize
+            + ", collector = " + this.collector
+            + ", gc logging = " + this.gcLogging
+            + ", additional options = " + this.additionalOptions + " }";
+    }
+
+}
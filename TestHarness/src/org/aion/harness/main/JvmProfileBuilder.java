@@ -0,0 +1,140 @@
+package org.aion.harness.main;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * A builder that constructs a {@link JvmProfile}.
+ *
+ * Only the name of the profile is required. Any setting that is not specified is left to the
+ * kernel's launch script.
+ *
+ * If a setting is specified multiple times then the latest invocation takes precedence.
+ *
+ * This class is not thread-safe.
+ */
+public final class JvmProfileBuilder {
+    private static final Pattern MEMORY_SIZE = Pattern.compile("[0-9]+[kKmMgGtT]?");
+
+    private String name = null;
+    private String initialHeapSize = null;
+    private String maximumHeapSize = null;
+    private JvmProfile.GarbageCollector collector = JvmProfile.GarbageCollector.KERNEL_DEFAULT;
+    private boolean gcLogging = false;
+    private List<String> additionalOptions = new ArrayList<>();
+
+    /**
+     * Constructs a builder with no settings specified.
+     */
+    public JvmProfileBuilder() {}
+
+    /**
+     * Sets the name of the profile, which identifies it in gc logs and reports.
+     *
+     * The name may only contain letters, digits, dashes and underscores, since it is used in the
+     * names of log files.
+     */
+    public JvmProfileBuilder name(String name) {
+        if (name == null) {
+            throw new NullPointerException("Cannot set a null name.");
+        }
+        if (!name.matches("[A-Za-z0-9_-]+")) {
+            throw new IllegalArgumentException("Name may only contain letters, digits, dashes and underscores, found: " + name);
+        }
+        this.name = name;
+        return this;
+    }
+
+    /**
+     * Sets the initial and maximum heap size to the same value, for example "4g". Fixing the heap
+     * size keeps heap resizing out of the measurements.
+     */
+    public JvmProfileBuilder heapSize(String size) {
+        return initialHeapSize(size).maximumHeapSize(size);
+    }
+
+    /**
+     * Sets the initial heap size, for example "512m".
+     */
+    public JvmProfileBuilder initialHeapSize(String size) {
+        this.initialHeapSize = checkMemorySize(size);
+        return this;
+    }
+
+    /**
+     * Sets the maximum heap size, for example "4g".
+     */
+    public JvmProfileBuilder maximumHeapSize(String size) {
+        this.maximumHeapSize = checkMemorySize(size);
+        return this;
+    }
+
+    public JvmProfileBuilder collector(JvmProfile.GarbageCollector collector) {
+        if (collector == null) {
+            throw new NullPointerException("Cannot set a null collector.");
+        }
+        this.collector = collector;
+        return this;
+    }
+
+    /**
+     * Enables the kernel's unified gc log, which is written to the gc directory within the node's
+     * logs directory.
+     */
+    public JvmProfileBuilder enableGcLogging() {
+        this.gcLogging = true;
+        return this;
+    }
+
+    /**
+     * Adds an option that is passed to the kernel's JVM verbatim, after all other options.
+     */
+    public JvmProfileBuilder addOption(String option) {
+        if (option == null) {
+            throw new NullPointerException("Cannot add a null option.");
+        }
+        if (option.isEmpty() || option.contains(" ")) {
+            throw new IllegalArgumentException("Option must be non-empty and contain no spaces, found: '" + option + "'");
+        }
+        this.additionalOptions.add(option);
+        return this;
+    }
+
+    /**
+     * Constructs the profile.
+     *
+     * @return the profile.
+     * @throws IllegalStateException if no name was specified.
+     */
+    public JvmProfile build() {
+        if (this.name == null) {
+            throw new IllegalStateException("Cannot build a profile with no name specified.");
+        }
+        return new JvmProfile(this.name, this.initialHeapSize, this.maximumHeapSize, this.collector, this.gcLogging, this.additionalOptions);
+    }
+
+    /**
+     * Restores this builder to its initial state, as if it had just been constructed.
+     */
+    public JvmProfileBuilder clear() {
+        this.name = null;
+        this.initialHeapSize = null;
+        this.maximumHeapSize = null;
+        this.collector = JvmProfile.GarbageCollector.KERNEL_DEFAULT;
+        this.gcLogging = false;
+        this.additionalOptions = new ArrayList<>();
+        return this;
+    }
+
+    private static String checkMemorySize(String size) {
+        if (size == null) {
+            throw new NullPointerException("Cannot set a null memory size.");
+        }
+        if (!MEMORY_SIZE.matcher(size).matches()) {
+            throw new IllegalArgumentException("Memory size must be a number optionally followed by k, m, g or t, found: " + size);
+        }
+        return size;
+    }
+
+}
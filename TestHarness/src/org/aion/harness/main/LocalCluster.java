@@ -0,0 +1,187 @@
+package org.aion.harness.main;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.aion.harness.misc.Assumptions;
+import org.aion.harness.result.Result;
+import org.aion.harness.util.SimpleLog;
+
+/**
+ * A cluster of local nodes running side by side on this machine, for measuring how blocks and
+ * transactions propagate across a network rather than through a single node.
+ *
+ * Every member has its own kernel directory, ports, node id and logs, and is peered with every
+ * other member. Clusters are constructed by a {@link LocalClusterBuilder}; see there for how the
+ * members are laid out. Tests talk to a member through the {@link RPC} and {@link NodeListener}
+ * it hands out.
+ *
+ * The members are started and stopped in parallel, so bringing up a cluster takes about as long as
+ * starting a single node.
+ *
+ * A LocalCluster is not thread-safe.
+ */
+public final class LocalCluster implements AutoCloseable {
+    private static final long STOP_TIMEOUT = 3;
+    private static final TimeUnit STOP_TIMEOUT_UNIT = TimeUnit.MINUTES;
+
+    private final SimpleLog log = new SimpleLog(LocalCluster.class.getName());
+    private final List<ClusterMember> members;
+    private boolean isInitialized = false;
+
+    LocalCluster(List<ClusterMember> members) {
+        if (members == null) {
+            throw new NullPointerException("Cannot construct LocalCluster with null members.");
+        }
+        if (members.isEmpty()) {
+            throw new IllegalArgumentException("Cannot construct LocalCluster with no members.");
+        }
+        this.members = Collections.unmodifiableList(new ArrayList<>(members));
+    }
+
+    /**
+     * Returns the members of the cluster, in order of their index.
+     */
+    public List<ClusterMember> getMembers() {
+        return this.members;
+    }
+
+    /**
+     * Returns the member with the specified index.
+     */
+    public ClusterMember getMember(int index) {
+        if ((index < 0) || (index >= this.members.size())) {
+            throw new IllegalArgumentException("The cluster has no member " + index + ", it has " + this.members.size() + " members.");
+        }
+        return this.members.get(index);
+    }
+
+    /**
+     * Returns the number of members in the cluster.
+     */
+    public int size() {
+        return this.members.size();
+    }
+
+    /**
+     * Starts every member of the cluster in parallel, initializing them first if this is the first
+     * time the cluster is started.
+     *
+     * If any member fails to start, the members that did start are stopped again.
+     *
+     * @return a result indicating the success or failure of this method.
+     * @throws IllegalStateException if a member of the cluster is already running.
+     */
+    public Result start() throws InterruptedException {
+        for (ClusterMember member : this.members) {
+            if (member.getNode().isAlive()) {
+                throw new IllegalStateException("Member " + member.getIndex() + " of the cluster is already running.");
+            }
+        }
+
+        if (!this.isInitialized) {
+            Result result = forEachMember("initialize", member -> member.getNode().initialize());
+            if (!result.isSuccess()) {
+                return result;
+            }
+            this.isInitialized = true;
+        }
+
+        log.log(Assumptions.LOGGER_BANNER + "Starting a cluster of " + this.members.size() + " nodes...");
+        Result result = forEachMember("start", member -> member.getNode().start());
+        if (!result.isSuccess()) {
+            stop();
+            return result;
+        }
+
+        log.log(Assumptions.LOGGER_BANNER + "Cluster started: " + this.members);
+        return Result.successful();
+    }
+
+    /**
+     * Stops every running member of the cluster in parallel, blocking until their databases are
+     * released.
+     *
+     * @return a result indicating the success or failure of this method.
+     */
+    public Result stop() throws InterruptedException {
+        log.log(Assumptions.LOGGER_BANNER + "Stopping the cluster...");
+        return forEachMember("stop", member -> member.getNode().isAlive()
+            ? member.getNode().blockingStop(STOP_TIMEOUT, STOP_TIMEOUT_UNIT)
+            : Result.successful());
+    }
+
+    /**
+     * Returns true if every member of the cluster is running.
+     */
+    public boolean isAlive() {
+        for (ClusterMember member : this.members) {
+            if (!member.getNode().isAlive()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Stops the cluster.
+     *
+     * If the calling thread is interrupted while the members are stopping, they are no longer waited
+     * on and the thread's interrupt status is restored.
+     */
+    @Override
+    public void close() {
+        try {
+            Result result = stop();
+            if (!result.isSuccess()) {
+                log.log(Assumptions.LOGGER_BANNER + "Failed to stop the cluster: " + result.getError());
+            }
+        } catch (InterruptedException e) {
+            log.log(Assumptions.LOGGER_BANNER + "Interrupted while stopping the cluster.");
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Performs the operation on every member at once and waits for all of them to finish, returning
+     * an unsuccessful result listing every member the operation failed for.
+     */
+    private Result forEachMember(String operation, MemberOperation memberOperation) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(this.members.size());
+        try {
+            List<Future<Result>> results = new ArrayList<>();
+            for (ClusterMember member : this.members) {
+                Callable<Result> task = () -> memberOperation.perform(member);
+                results.add(executor.submit(task));
+            }
+
+            List<String> errors = new ArrayList<>();
+            for (int i = 0; i < results.size(); i++) {
+                try {
+                    Result result = results.get(i).get();
+                    if (!result.isSuccess()) {
+                        errors.add("member " + i + ": " + result.getError());
+                    }
+                } catch (ExecutionException e) {
+                    errors.add("member " + i + ": " + e.getCause());
+                }
+            }
+
+            return errors.isEmpty()
+                ? Result.successful()
+                : Result.unsuccessfulDueTo("Failed to " + operation + " " + errors.size() + " of " + this.members.size() + " cluster members: " + String.join("; ", errors));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private interface MemberOperation {
+        Result perform(ClusterMember member) throws Exception;
+    }
+}
@@ -0,0 +1,186 @@
+package org.aion.harness.main;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.aion.harness.main.NodeConfigurations.DatabaseOption;
+import org.aion.harness.main.NodeFactory.NodeType;
+import org.aion.harness.main.impl.JavaNode;
+import org.aion.harness.main.impl.RustNode;
+import org.aion.harness.main.impl.RustNodeWithMiner;
+import org.aion.harness.main.impl.internal.ClusterSandbox;
+import org.aion.harness.util.NodeFileManager;
+import org.aion.harness.util.PortAllocator;
+
+/**
+ * A builder that constructs a {@link LocalCluster} of Java or Rust kernels from a built kernel.
+ *
+ * The node type, the built kernel directory and the size of the cluster are required. By default
+ * the cluster runs on the custom network and only its first member mines, so that every other
+ * member receives its blocks over the network.
+ *
+ * Building the cluster lays out a kernel directory for each member under the harness's
+ * {@code cluster} directory, hard linking the built kernel's files and rewriting its configuration
+ * with free ports, a new node id and the p2p urls of every other member as its peers. Each member
+ * writes its logs to its own directory under the harness's logs directory. The directories of a
+ * previously built cluster are replaced.
+ *
+ * If a setting is specified multiple times then the latest invocation takes precedence.
+ *
+ * This class is not thread-safe.
+ */
+public final class LocalClusterBuilder {
+    // Each member is given an rpc, p2p, websockets, wallet and stratum port.
+    private static final int PORTS_PER_MEMBER = 5;
+
+    private NodeType nodeType = null;
+    private String builtKernelDirectory = null;
+    private Network network = Network.CUSTOM;
+    private int size = 0;
+    private int miners = 1;
+    private JvmProfile jvmProfile = JvmProfile.DEFAULT;
+
+    /**
+     * Constructs a builder with no settings specified.
+     */
+    public LocalClusterBuilder() {}
+
+    /**
+     * Sets the kind of kernel the members run, which must be either {@code JAVA_NODE} or
+     * {@code RUST_NODE}.
+     */
+    public LocalClusterBuilder nodeType(NodeType nodeType) {
+        if (nodeType == null) {
+            throw new NullPointerException("Cannot set a null node type.");
+        }
+        if ((nodeType != NodeType.JAVA_NODE) && (nodeType != NodeType.RUST_NODE)) {
+            throw new IllegalArgumentException("Clusters can only be built of JAVA_NODE or RUST_NODE kernels, found: " + nodeType);
+        }
+        this.nodeType = nodeType;
+        return this;
+    }
+
+    /**
+     * Sets the root directory of the built kernel that every member runs.
+     */
+    public LocalClusterBuilder builtKernelDirectory(String builtKernelDirectory) {
+        if (builtKernelDirectory == null) {
+            throw new NullPointerException("Cannot set a null built kernel directory.");
+        }
+        this.builtKernelDirectory = builtKernelDirectory;
+        return this;
+    }
+
+    /**
+     * Sets the network the members run on, whose configuration in the built kernel is copied and
+     * rewritten for each member.
+     */
+    public LocalClusterBuilder network(Network network) {
+        if (network == null) {
+            throw new NullPointerException("Cannot set a null network.");
+        }
+        this.network = network;
+        return this;
+    }
+
+    /**
+     * Sets the number of members in the cluster.
+     */
+    public LocalClusterBuilder size(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("The cluster size must be positive, found: " + size);
+        }
+        this.size = size;
+        return this;
+    }
+
+    /**
+     * Sets the number of members that mine blocks, which are the members with the lowest indices.
+     */
+    public LocalClusterBuilder miners(int miners) {
+        if (miners < 0) {
+            throw new IllegalArgumentException("The number of miners cannot be negative, found: " + miners);
+        }
+        this.miners = miners;
+        return this;
+    }
+
+    /**
+     * Sets the jvm profile of the members, which only applies to Java kernels.
+     */
+    public LocalClusterBuilder jvmProfile(JvmProfile jvmProfile) {
+        if (jvmProfile == null) {
+            throw new NullPointerException("Cannot set a null jvm profile.");
+        }
+        this.jvmProfile = jvmProfile;
+        return this;
+    }
+
+    /**
+     * Lays out the kernel directories of the members and returns the cluster, which is not yet
+     * started.
+     *
+     * @return the cluster.
+     * @throws IllegalStateException if a required setting was not specified.
+     */
+    public LocalCluster build() throws IOException {
+        if (this.nodeType == null) {
+            throw new IllegalStateException("Cannot build a cluster without a node type.");
+        }
+        if (this.builtKernelDirectory == null) {
+            throw new IllegalStateException("Cannot build a cluster without a built kernel directory.");
+        }
+        if (this.size == 0) {
+            throw new IllegalStateException("Cannot build a cluster without a size.");
+        }
+        if (this.miners > this.size) {
+            throw new IllegalStateException("Cannot have " + this.miners + " miners in a cluster of " + this.size + " members.");
+        }
+
+        List<Integer> ports = PortAllocator.allocate(this.size * PORTS_PER_MEMBER);
+        List<String> nodeIds = new ArrayList<>();
+        List<String> p2pUrls = new ArrayList<>();
+        for (int i = 0; i < this.size; i++) {
+            String nodeId = UUID.randomUUID().toString();
+            nodeIds.add(nodeId);
+            p2pUrls.add("p2p://" + nodeId + "@127.0.0.1:" + p2pPortOf(ports, i));
+        }
+
+        File builtKernel = new File(this.builtKernelDirectory);
+        List<ClusterMember> members = new ArrayList<>();
+        for (int i = 0; i < this.size; i++) {
+            int rpcPort = ports.get(i * PORTS_PER_MEMBER);
+            int p2pPort = p2pPortOf(ports, i);
+            int websocketsPort = ports.get(i * PORTS_PER_MEMBER + 2);
+            int walletPort = ports.get(i * PORTS_PER_MEMBER + 3);
+            int stratumPort = ports.get(i * PORTS_PER_MEMBER + 4);
+            boolean mining = i < this.miners;
+
+            List<String> peers = new ArrayList<>(p2pUrls);
+            peers.remove(i);
+
+            File directory = NodeFileManager.getClusterMemberDirectory(i);
+            LocalNode node;
+            if (this.nodeType == NodeType.JAVA_NODE) {
+                ClusterSandbox.createJavaMember(builtKernel, this.network, directory, nodeIds.get(i), rpcPort, walletPort, p2pPort, peers, mining);
+                node = new JavaNode();
+            } else {
+                ClusterSandbox.createRustMember(builtKernel, this.network, directory, nodeIds.get(i), rpcPort, websocketsPort, walletPort, stratumPort, p2pPort, peers);
+                node = mining ? new RustNodeWithMiner(stratumPort) : new RustNode();
+            }
+
+            node.configure(NodeConfigurations.alwaysUseBuiltKernel(this.network, directory.getAbsolutePath(), DatabaseOption.PRESERVE_DATABASE)
+                .withJvmProfile(this.jvmProfile)
+                .withLogsDirectory(NodeFileManager.getClusterMemberLogsDirectory(i)));
+
+            members.add(new ClusterMember(i, node, nodeIds.get(i), directory, rpcPort, p2pPort, mining));
+        }
+        return new LocalCluster(members);
+    }
+
+    private static int p2pPortOf(List<Integer> ports, int member) {
+        return ports.get(member * PORTS_PER_MEMBER + 1);
+    }
+}
@@ -1,6 +1,8 @@
 package org.aion.harness.main;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 import org.aion.harness.result.Result;
 
@@ -67,6 +69,39 @@ public interface LocalNode extends Node {
      */
     public boolean isAlive();
 
+    /**
+     * Returns the process this node started to run the kernel, or an empty optional if the node
+     * is not running.
+     *
+     * This may be a launch script rather than the kernel itself, in which case the kernel is one of
+     * its descendants.
+     *
+     * Nodes that do not expose their kernel's process do not override this, which always returns
+     * an empty optional.
+     *
+     * @return the process of the running node.
+     */
+    public default Optional<ProcessHandle> getKernelProcess() {
+        return Optional.empty();
+    }
+
+    /**
+     * Writes a dump of the threads of the running kernel to the specified file, for diagnosing a
+     * kernel that has stalled.
+     *
+     * Nodes whose kernel cannot be dumped do not override this, which always returns an
+     * unsuccessful result.
+     *
+     * @param destination The file to write the dump to.
+     * @return a result indicating the success or failure of this method.
+     */
+    public default Result dumpThreads(File destination) throws IOException, InterruptedException {
+        if (destination == null) {
+            throw new NullPointerException("Cannot dump threads to a null file.");
+        }
+        return Result.unsuccessfulDueTo("Thread dumps are not supported by " + getClass().getSimpleName() + ".");
+    }
+
     /**
      * Resets the node's database.
      *
@@ -77,4 +112,48 @@ public interface LocalNode extends Node {
      */
     public Result resetState() throws IOException;
 
+    /**
+     * Saves the node's database as a snapshot with the specified name, replacing any snapshot of
+     * the same name, so that {@code restoreState()} can later reset the node to its current chain
+     * state.
+     *
+     * Saving a snapshot does not copy the database's table files, so it is fast regardless of the
+     * size of the chain. Snapshots are kept across runs of the harness.
+     *
+     * Typically this method is only safe to call if {@code isAlive() == false}.
+     *
+     * Nodes whose database cannot be snapshotted do not override this, which always returns an
+     * unsuccessful result.
+     *
+     * @param snapshotName The name of the snapshot.
+     * @return a result indicating the success of failure of this method.
+     * @throws IllegalStateException if the node has not been configured yet.
+     */
+    public default Result saveState(String snapshotName) throws IOException {
+        if (snapshotName == null) {
+            throw new NullPointerException("Cannot save a snapshot with a null name.");
+        }
+        return Result.unsuccessfulDueTo("Database snapshots are not supported by " + getClass().getSimpleName() + ".");
+    }
+
+    /**
+     * Resets the node's database to the snapshot with the specified name, which was saved by
+     * {@code saveState()}.
+     *
+     * Typically this method is only safe to call if {@code isAlive() == false}.
+     *
+     * Nodes whose database cannot be snapshotted do not override this, which always returns an
+     * unsuccessful result.
+     *
+     * @param snapshotName The name of the snapshot.
+     * @return a result indicating the success of failure of this method.
+     * @throws IllegalStateException if the node has not been configured yet.
+     */
+    public default Result restoreState(String snapshotName) throws IOException {
+        if (snapshotName == null) {
+            throw new NullPointerException("Cannot restore a snapshot with a null name.");
+        }
+        return Result.unsuccessfulDueTo("Database snapshots are not supported by " + getClass().getSimpleName() + ".");
+    }
+
 }
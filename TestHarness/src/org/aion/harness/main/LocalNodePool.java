@@ -0,0 +1,343 @@
+package org.aion.harness.main;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.aion.harness.misc.Assumptions;
+import org.aion.harness.result.Result;
+import org.aion.harness.util.SimpleLog;
+
+/**
+ * A pool of running local nodes that test runners and scenarios lease and give back, so that
+ * back-to-back suites do not each wait for a kernel to start up.
+ *
+ * Nodes are started by the starter the pool is constructed with, which must return a configured,
+ * initialized and running node. The pool starts at most its capacity of nodes, either on demand
+ * when a node is leased or ahead of time in the background with {@code prewarm()}.
+ *
+ * A node given back to the pool is either handed out again as it is, or has its state reset in the
+ * background first: the node is stopped, its database reset or restored to a snapshot, and it is
+ * started again, all while the caller gets on with its work. A node whose reset fails is stopped
+ * and dropped from the pool, and the next lease starts a new one in its place.
+ *
+ * Since nodes started from the same kernel share its ports and database, the capacity of a pool of
+ * such nodes must be 1.
+ *
+ * This class is thread-safe.
+ */
+public final class LocalNodePool implements AutoCloseable {
+    private static final long STOP_TIMEOUT = 3;
+    private static final TimeUnit STOP_TIMEOUT_UNIT = TimeUnit.MINUTES;
+
+    private final SimpleLog log = new SimpleLog(LocalNodePool.class.getName());
+    private final Callable<LocalNode> starter;
+    private final int capacity;
+    private final ExecutorService background;
+
+    // Guarded by this. The pool owns every node in 'nodes'; the idle ones are ready to be leased.
+    private final Set<LocalNode> nodes = new HashSet<>();
+    private final LinkedList<LocalNode> idle = new LinkedList<>();
+    private int nodesStarting = 0;
+    private boolean isClosed = false;
+
+    /**
+     * Constructs an empty pool of at most the specified number of nodes.
+     *
+     * @param starter Starts a new node and returns it running.
+     * @param capacity The maximum number of nodes in the pool.
+     */
+    public LocalNodePool(Callable<LocalNode> starter, int capacity) {
+        if (starter == null) {
+            throw new NullPointerException("Cannot construct LocalNodePool with a null starter.");
+        }
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The pool capacity must be positive, found: " + capacity);
+        }
+
+        this.starter = starter;
+        this.capacity = capacity;
+        this.background = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "local-node-pool");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts nodes in the background until the pool is at capacity, so that later leases do not
+     * have to wait for them to start up.
+     */
+    public synchronized void prewarm() {
+        checkNotClosed();
+        while (this.nodes.size() + this.nodesStarting < this.capacity) {
+            this.nodesStarting++;
+            this.background.execute(this::startNodeInBackground);
+        }
+    }
+
+    /**
+     * Leases a running node from the pool, starting one if none is idle and the pool is not yet at
+     * capacity, or otherwise waiting for one to be given back or finish resetting.
+     *
+     * The node must be given back to the pool once the caller is done with it, and must not be
+     * stopped by the caller.
+     *
+     * @param timeout The longest to wait for a node.
+     * @param unit The unit of the timeout.
+     * @return the leased node.
+     * @throws TimeoutException if no node became available in time.
+     * @throws ExecutionException if a node could not be started, with the starter's exception as
+     * its cause.
+     */
+    public LocalNode lease(long timeout, TimeUnit unit) throws InterruptedException, TimeoutException, ExecutionException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+
+        synchronized (this) {
+            while (true) {
+                checkNotClosed();
+                if (!this.idle.isEmpty()) {
+                    return this.idle.removeFirst();
+                }
+                if (this.nodes.size() + this.nodesStarting < this.capacity) {
+                    this.nodesStarting++;
+                    break;
+                }
+
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new TimeoutException("Timed out waiting to lease a node from the pool.");
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            }
+        }
+
+        // Start the node outside of the lock, it takes a while.
+        LocalNode node;
+        try {
+            node = this.starter.call();
+        } catch (Exception e) {
+            synchronized (this) {
+                this.nodesStarting--;
+                this.notifyAll();
+            }
+            throw new ExecutionException("Failed to start a node for the pool: " + e.getMessage(), e);
+        }
+
+        synchronized (this) {
+            this.nodesStarting--;
+            this.nodes.add(node);
+            this.notifyAll();
+        }
+        return node;
+    }
+
+    /**
+     * Gives a leased node back to the pool as it is, to be leased again straight away.
+     *
+     * If the pool is closed the node is stopped instead, and this method blocks until it is.
+     *
+     * @param node The leased node.
+     */
+    public void giveBack(LocalNode node) {
+        synchronized (this) {
+            checkLeased(node);
+            if (!this.isClosed) {
+                this.idle.addLast(node);
+                this.notifyAll();
+                return;
+            }
+        }
+        discard(node);
+    }
+
+    /**
+     * Gives a leased node back to the pool, which resets its database in the background before the
+     * node can be leased again.
+     *
+     * @param node The leased node.
+     */
+    public void giveBackWithFreshState(LocalNode node) {
+        giveBackAndReset(node, node::resetState);
+    }
+
+    /**
+     * Gives a leased node back to the pool, which restores its database to the specified snapshot
+     * in the background before the node can be leased again.
+     *
+     * @param node The leased node.
+     * @param snapshotName The name of a snapshot saved by {@link LocalNode#saveState(String)}.
+     */
+    public void giveBackWithState(LocalNode node, String snapshotName) {
+        if (snapshotName == null) {
+            throw new NullPointerException("Cannot restore a null snapshot.");
+        }
+        giveBackAndReset(node, () -> node.restoreState(snapshotName));
+    }
+
+    /**
+     * Returns the number of nodes in the pool, whether leased, idle or resetting.
+     */
+    public synchronized int size() {
+        return this.nodes.size();
+    }
+
+    /**
+     * Returns the number of nodes that are ready to be leased without waiting.
+     */
+    public synchronized int idleCount() {
+        return this.idle.size();
+    }
+
+    /**
+     * Stops every idle node and closes the pool, blocking until they have stopped. Nodes that are
+     * leased or resetting are stopped once they are given back or finish resetting.
+     *
+     * If the calling thread is interrupted while closing, the pool is still closed, but the nodes
+     * are no longer waited on and the thread's interrupt status is restored.
+     */
+    @Override
+    public void close() {
+        List<LocalNode> toStop;
+        synchronized (this) {
+            if (this.isClosed) {
+                return;
+            }
+            this.isClosed = true;
+            toStop = new ArrayList<>(this.idle);
+            this.idle.clear();
+            this.nodes.removeAll(toStop);
+            this.notifyAll();
+        }
+
+        for (LocalNode node : toStop) {
+            stopQuietly(node);
+        }
+        this.background.shutdown();
+        try {
+            this.background.awaitTermination(STOP_TIMEOUT, STOP_TIMEOUT_UNIT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void giveBackAndReset(LocalNode node, StateReset reset) {
+        synchronized (this) {
+            checkLeased(node);
+
+            // The executor is only shut down once the pool is closed, which happens under this lock.
+            if (!this.isClosed) {
+                this.background.execute(() -> resetInBackground(node, reset));
+                return;
+            }
+        }
+        discard(node);
+    }
+
+    private void resetInBackground(LocalNode node, StateReset reset) {
+        String error;
+        try {
+            Result result = node.blockingStop(STOP_TIMEOUT, STOP_TIMEOUT_UNIT);
+            if (result.isSuccess()) {
+                result = reset.reset();
+            }
+            if (result.isSuccess()) {
+                result = node.start();
+            }
+            error = result.isSuccess() ? null : result.getError();
+        } catch (Exception e) {
+            error = e.toString();
+        }
+
+        synchronized (this) {
+            if ((error == null) && !this.isClosed) {
+                this.idle.addLast(node);
+                this.notifyAll();
+                return;
+            }
+        }
+        if (error != null) {
+            this.log.log(Assumptions.LOGGER_BANNER + "Failed to reset a pooled node, dropping it from the pool: " + error);
+        }
+        discard(node);
+    }
+
+    private void startNodeInBackground() {
+        try {
+            LocalNode node = this.starter.call();
+            boolean keep;
+            synchronized (this) {
+                this.nodesStarting--;
+                keep = !this.isClosed;
+                if (keep) {
+                    this.nodes.add(node);
+                    this.idle.addLast(node);
+                }
+                this.notifyAll();
+            }
+            if (!keep) {
+                stopQuietly(node);
+            }
+        } catch (Exception e) {
+            // The place is freed up, so the next lease will try to start the node itself.
+            this.log.log(Assumptions.LOGGER_BANNER + "Failed to start a node for the pool: " + e);
+            synchronized (this) {
+                this.nodesStarting--;
+                this.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Stops the node and removes it from the pool, freeing its place for a new node.
+     */
+    private void discard(LocalNode node) {
+        stopQuietly(node);
+        synchronized (this) {
+            this.nodes.remove(node);
+            this.notifyAll();
+        }
+    }
+
+    private void stopQuietly(LocalNode node) {
+        try {
+            if (node.isAlive()) {
+                Result result = node.blockingStop(STOP_TIMEOUT, STOP_TIMEOUT_UNIT);
+                if (!result.isSuccess()) {
+                    this.log.log(Assumptions.LOGGER_BANNER + "Failed to stop a pooled node: " + result.getError());
+                }
+            }
+        } catch (InterruptedException e) {
+            this.log.log(Assumptions.LOGGER_BANNER + "Interrupted while stopping a pooled node.");
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            this.log.log(Assumptions.LOGGER_BANNER + "Failed to stop a pooled node: " + e);
+        }
+    }
+
+    private void checkLeased(LocalNode node) {
+        if (node == null) {
+            throw new NullPointerException("Cannot give back a null node.");
+        }
+        if (!this.nodes.contains(node) || this.idle.contains(node)) {
+            throw new IllegalArgumentException("The node was not leased from this pool.");
+        }
+    }
+
+    private void checkNotClosed() {
+        if (this.isClosed) {
+            throw new IllegalStateException("The node pool is closed.");
+        }
+    }
+
+    private interface StateReset {
+        Result reset() throws Exception;
+    }
+}
@@ -20,6 +20,9 @@ public final class NodeConfigurations {
     private final DatabaseOption databaseNodeOption;
     private final BuildOption buildOption;
     private final String buildDirectory;
+    private final JvmProfile jvmProfile;
+    private final boolean useBuildCache;
+    private final File logsDirectory;
 
     private enum BuildOption { ALWAYS_FROM_SOURCE, USE_BUILD }
 
@@ -28,7 +31,7 @@ public final class NodeConfigurations {
     /**
      * Constructs an instance of this class using the specified parameters.
      */
-    private NodeConfigurations(Network network, String kernelSourceDirectory, String builtKernelDirectory, DatabaseOption databaseOption, BuildOption buildOption) {
+    private NodeConfigurations(Network network, String kernelSourceDirectory, String builtKernelDirectory, DatabaseOption databaseOption, BuildOption buildOption, JvmProfile jvmProfile, boolean useBuildCache, File logsDirectory) {
         if (network == null) {
             throw new NullPointerException("Cannot construct NodeConfigurations with null network.");
         }
@@ -38,12 +41,21 @@ public final class NodeConfigurations {
         if (buildOption == null) {
             throw new NullPointerException("Cannot construct NodeConfigurations with null build option specified.");
         }
+        if (jvmProfile == null) {
+            throw new NullPointerException("Cannot construct NodeConfigurations with null jvm profile.");
+        }
+        if (logsDirectory == null) {
+            throw new NullPointerException("Cannot construct NodeConfigurations with null logs directory.");
+        }
 
         this.network = network;
         this.kernelSourceDirectory = kernelSourceDirectory;
         this.builtKernelDir = builtKernelDirectory;
         this.databaseNodeOption = databaseOption;
         this.buildOption = buildOption;
+        this.jvmProfile = jvmProfile;
+        this.useBuildCache = useBuildCache;
+        this.logsDirectory = logsDirectory;
 
         this.buildDirectory = (kernelSourceDirectory == null) ? builtKernelDirectory : NodeFileManager.getSandboxPath();
     }
@@ -53,7 +65,7 @@ public final class NodeConfigurations {
             throw new NullPointerException("Cannot construct NodeConfigurations with null kernelSourceDirectory.");
         }
 
-        return new NodeConfigurations(network, kernelSourceDirectory, null, DatabaseOption.DO_NOT_PRESERVE_DATABASE, BuildOption.ALWAYS_FROM_SOURCE);
+        return new NodeConfigurations(network, kernelSourceDirectory, null, DatabaseOption.DO_NOT_PRESERVE_DATABASE, BuildOption.ALWAYS_FROM_SOURCE, JvmProfile.DEFAULT, true, NodeFileManager.getLogsDirectory());
     }
 
     public static NodeConfigurations alwaysUseBuiltKernel(Network network, String builtKernelDirectory, DatabaseOption databaseOption) {
@@ -61,7 +73,44 @@ public final class NodeConfigurations {
             throw new NullPointerException("Cannot construct NodeConfigurations with null builtKernelDirectory.");
         }
 
-        return new NodeConfigurations(network, null, builtKernelDirectory, databaseOption, BuildOption.USE_BUILD);
+        return new NodeConfigurations(network, null, builtKernelDirectory, databaseOption, BuildOption.USE_BUILD, JvmProfile.DEFAULT, false, NodeFileManager.getLogsDirectory());
+    }
+
+    /**
+     * Returns a copy of these configurations that run the kernel with the specified JVM profile.
+     *
+     * The profile only applies to Java kernels.
+     *
+     * @param jvmProfile The JVM profile.
+     * @return the new configurations.
+     */
+    public NodeConfigurations withJvmProfile(JvmProfile jvmProfile) {
+        return new NodeConfigurations(this.network, this.kernelSourceDirectory, this.builtKernelDir, this.databaseNodeOption, this.buildOption, jvmProfile, this.useBuildCache, this.logsDirectory);
+    }
+
+    /**
+     * Returns a copy of these configurations that do or do not reuse cached builds of unchanged
+     * kernel sources. The cache is used by default when building from source.
+     *
+     * The setting only applies when always building from source.
+     *
+     * @param useBuildCache Whether or not to use the kernel build cache.
+     * @return the new configurations.
+     */
+    public NodeConfigurations withBuildCache(boolean useBuildCache) {
+        return new NodeConfigurations(this.network, this.kernelSourceDirectory, this.builtKernelDir, this.databaseNodeOption, this.buildOption, this.jvmProfile, useBuildCache, this.logsDirectory);
+    }
+
+    /**
+     * Returns a copy of these configurations whose node keeps its log files in the specified
+     * directory rather than the harness's logs directory. Nodes that run at the same time must each
+     * have their own logs directory.
+     *
+     * @param logsDirectory The directory of the node's log files.
+     * @return the new configurations.
+     */
+    public NodeConfigurations withLogsDirectory(File logsDirectory) {
+        return new NodeConfigurations(this.network, this.kernelSourceDirectory, this.builtKernelDir, this.databaseNodeOption, this.buildOption, this.jvmProfile, this.useBuildCache, logsDirectory);
     }
 
     /**
@@ -136,6 +185,16 @@ public final class NodeConfigurations {
         return this.buildOption == BuildOption.ALWAYS_FROM_SOURCE;
     }
 
+    /**
+     * Returns {@code true} only if builds from source reuse the cached build of unchanged kernel
+     * sources.
+     *
+     * @return whether or not to use the kernel build cache.
+     */
+    public boolean useBuildCache() {
+        return this.alwaysBuildFromSource() && this.useBuildCache;
+    }
+
     public File getDirectoryOfBuiltKernel() {
         return new File(this.builtKernelDir);
     }
@@ -144,4 +203,24 @@ public final class NodeConfigurations {
         return new File(this.buildDirectory);
     }
 
+    /**
+     * Returns the JVM profile the kernel is run with, which is {@link JvmProfile#DEFAULT} unless
+     * otherwise specified.
+     *
+     * @return the JVM profile.
+     */
+    public JvmProfile getJvmProfile() {
+        return this.jvmProfile;
+    }
+
+    /**
+     * Returns the directory the node keeps its log files in, which is the harness's logs directory
+     * unless otherwise specified.
+     *
+     * @return the logs directory.
+     */
+    public File getLogsDirectory() {
+        return this.logsDirectory;
+    }
+
 }
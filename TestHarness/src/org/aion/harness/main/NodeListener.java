@@ -1,5 +1,6 @@
 package org.aion.harness.main;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
@@ -11,6 +12,7 @@ import org.aion.harness.main.global.SingletonFactory;
 import org.aion.harness.result.FutureResult;
 import org.aion.harness.result.LogEventResult;
 import org.aion.harness.util.LogListener;
+import org.aion.harness.util.NodeFileManager;
 
 /**
  * A listener that listens to a node and waits for logging events to occur.
@@ -25,9 +27,11 @@ import org.aion.harness.util.LogListener;
  * This class is not thread-safe.
  */
 public final class NodeListener {
+    private final Node node;
     private final LogListener logListener;
 
-    private NodeListener(LogListener logListener) {
+    private NodeListener(Node node, LogListener logListener) {
+        this.node = node;
         this.logListener = logListener;
     }
 
@@ -35,7 +39,7 @@ public final class NodeListener {
         if (node == null) {
             throw new IllegalStateException("node cannot be null");
         }
-        return new NodeListener(SingletonFactory.singleton().nodeWatcher().getReaderForNodeByID(node.getID()).getLogListener());
+        return new NodeListener(node, SingletonFactory.singleton().nodeWatcher().getReaderForNodeByID(node.getID()).getLogListener());
     }
 
     /**
@@ -87,6 +91,61 @@ public final class NodeListener {
         return this.logListener.submitEventToBeListenedFor(event, timeout, unit);
     }
 
+    /**
+     * Stops listening for the event whose result is the specified future, if it is still being
+     * listened for, so that it no longer counts towards the events being listened for. The future
+     * is finished with the event rejected for the specified reason.
+     *
+     * This is for events that can no longer occur, such as those of a transaction that failed to be
+     * sent.
+     *
+     * @param future The result returned when the event was listened for.
+     * @param reason Why the event is no longer being listened for.
+     * @return true only if the event was still being listened for.
+     */
+    public boolean stopListeningForEvent(FutureResult<LogEventResult> future, String reason) {
+        if (future == null) {
+            throw new NullPointerException("Cannot stop listening for the event of a null future.");
+        }
+        if (reason == null) {
+            throw new NullPointerException("Cannot stop listening for an event for a null reason.");
+        }
+
+        return this.logListener.withdrawEventRequest(future, reason);
+    }
+
+    /**
+     * Starts a watchdog that captures diagnostics of the node, including kernel thread dumps, each
+     * time its heartbeat or its sealed blocks are not observed for the specified duration. See
+     * {@link StallWatchdog} for what is captured and where.
+     *
+     * The watchdog runs in the background until it is stopped or the node shuts down.
+     *
+     * @param events The prepackaged events of the node's kernel.
+     * @param stallThreshold The duration without the events after which the node is stalled.
+     * @param unit The time unit of the duration.
+     * @return the running watchdog.
+     */
+    public StallWatchdog watchForStalls(PrepackagedLogEvents events, long stallThreshold, TimeUnit unit) {
+        return watchForStalls(events, stallThreshold, unit, NodeFileManager.getLogsArchiveDirectory());
+    }
+
+    /**
+     * Starts a watchdog as {@link #watchForStalls(PrepackagedLogEvents, long, TimeUnit)} does, but
+     * captures the stalls into the specified directory instead of the logs archive directory.
+     *
+     * @param events The prepackaged events of the node's kernel.
+     * @param stallThreshold The duration without the events after which the node is stalled.
+     * @param unit The time unit of the duration.
+     * @param captureDirectory The directory to capture each stall into a directory of.
+     * @return the running watchdog.
+     */
+    public StallWatchdog watchForStalls(PrepackagedLogEvents events, long stallThreshold, TimeUnit unit, File captureDirectory) {
+        StallWatchdog watchdog = new StallWatchdog(this.node, this.logListener, events, stallThreshold, unit, captureDirectory);
+        watchdog.start();
+        return watchdog;
+    }
+
     /**
      * Returns the number of events that are currently being listened for. These events may have
      * been requested by separate {@link NodeListener} objects. But these are the total number
@@ -0,0 +1,192 @@
+package org.aion.harness.main;
+
+import java.math.BigInteger;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.aion.harness.kernel.Address;
+import org.aion.harness.main.event.IEvent;
+import org.aion.harness.result.RpcResult;
+
+/**
+ * A local, per-sender source of transaction nonces.
+ *
+ * Each sender's next nonce is held in its own counter, so handing out nonces never blocks and
+ * never touches the kernel once a sender is known. The kernel is only queried the first time an
+ * unknown sender is asked about and whenever a sender is explicitly resynchronized, typically
+ * after one of its transactions has been rejected.
+ *
+ * Senders whose starting nonce is already known (a freshly generated account, for instance) can
+ * be registered via {@link #track(Address, BigInteger)} so that the kernel is never queried for
+ * them at all.
+ *
+ * Note that the kernel reports the nonce of its latest block, so resynchronizing a sender while
+ * it still has transactions in flight will hand out nonces that those transactions already hold.
+ *
+ * This class is thread-safe.
+ */
+public final class NonceManager {
+    private final RPC rpc;
+    private final Object rpcLock = new Object();
+    private final ConcurrentMap<Address, AtomicLong> nonces = new ConcurrentHashMap<>();
+
+    public NonceManager(RPC rpc) {
+        if (rpc == null) {
+            throw new NullPointerException("Cannot create a nonce manager with a null rpc.");
+        }
+        this.rpc = rpc;
+    }
+
+    /**
+     * Begins tracking the specified sender, whose next nonce is the given nonce. If the sender is
+     * already being tracked then its next nonce is overwritten.
+     *
+     * @param sender The sender to track.
+     * @param nonce The next nonce the sender should use.
+     */
+    public void track(Address sender, BigInteger nonce) {
+        if (sender == null) {
+            throw new NullPointerException("Cannot track a null sender.");
+        }
+
+        long value = toLong(nonce);
+        AtomicLong counter = this.nonces.putIfAbsent(sender, new AtomicLong(value));
+        if (counter != null) {
+            counter.set(value);
+        }
+    }
+
+    /**
+     * Stops tracking the specified sender. If it is asked about again its nonce will be fetched
+     * from the kernel.
+     *
+     * @param sender The sender to stop tracking.
+     */
+    public void forget(Address sender) {
+        if (sender == null) {
+            throw new NullPointerException("Cannot forget a null sender.");
+        }
+        this.nonces.remove(sender);
+    }
+
+    /**
+     * Returns the next nonce of the specified sender but does NOT consume it.
+     *
+     * @param sender The sender whose nonce is to be returned.
+     * @return the next nonce.
+     */
+    public BigInteger peekNonce(Address sender) throws InterruptedException {
+        return BigInteger.valueOf(counterOf(sender).get());
+    }
+
+    /**
+     * Returns the next nonce of the specified sender and consumes it, so that no other caller will
+     * ever be handed the same nonce.
+     *
+     * @param sender The sender whose nonce is to be consumed.
+     * @return the consumed nonce.
+     */
+    public BigInteger getAndIncrementNonce(Address sender) throws InterruptedException {
+        return BigInteger.valueOf(counterOf(sender).getAndIncrement());
+    }
+
+    /**
+     * Consumes a contiguous block of nonces for the specified sender and returns the first of them.
+     *
+     * The returned nonce, n, reserves the nonces n, n + 1, ..., n + count - 1 for the caller. This
+     * is what a {@link org.aion.harness.kernel.BulkRawTransactionBuilder} with a single sender
+     * expects as its initial nonce.
+     *
+     * @param sender The sender whose nonces are to be consumed.
+     * @param count The number of nonces to consume.
+     * @return the first nonce in the consumed block.
+     */
+    public BigInteger allocateNonces(Address sender, int count) throws InterruptedException {
+        if (count < 1) {
+            throw new IllegalArgumentException("Cannot allocate fewer than 1 nonce: " + count);
+        }
+        return BigInteger.valueOf(counterOf(sender).getAndAdd(count));
+    }
+
+    /**
+     * Overwrites the next nonce of the specified sender with the nonce the kernel currently
+     * reports for it.
+     *
+     * @param sender The sender to resynchronize.
+     * @return the sender's new next nonce.
+     */
+    public BigInteger resynchronize(Address sender) throws InterruptedException {
+        if (sender == null) {
+            throw new NullPointerException("Cannot resynchronize a null sender.");
+        }
+
+        long nonce = fetchNonceFromKernel(sender);
+        track(sender, BigInteger.valueOf(nonce));
+        return BigInteger.valueOf(nonce);
+    }
+
+    /**
+     * Resynchronizes the specified sender with the kernel if and only if the given rejection event
+     * has been observed.
+     *
+     * @param sender The sender of the transaction the event corresponds to.
+     * @param rejectionEvent The event signalling that the sender's transaction was rejected.
+     * @return true only if the event was observed and the sender was resynchronized.
+     */
+    public boolean resynchronizeIfRejected(Address sender, IEvent rejectionEvent) throws InterruptedException {
+        if (rejectionEvent == null) {
+            throw new NullPointerException("Cannot check a null rejection event.");
+        }
+
+        if (!rejectionEvent.hasBeenObserved()) {
+            return false;
+        }
+
+        resynchronize(sender);
+        return true;
+    }
+
+    private AtomicLong counterOf(Address sender) throws InterruptedException {
+        if (sender == null) {
+            throw new NullPointerException("Cannot get the nonce of a null sender.");
+        }
+
+        AtomicLong counter = this.nonces.get(sender);
+        if (counter != null) {
+            return counter;
+        }
+
+        // Unknown sender: ask the kernel, but let whoever gets there first win.
+        AtomicLong fetched = new AtomicLong(fetchNonceFromKernel(sender));
+        counter = this.nonces.putIfAbsent(sender, fetched);
+        return (counter == null) ? fetched : counter;
+    }
+
+    private long fetchNonceFromKernel(Address sender) throws InterruptedException {
+        RpcResult<BigInteger> nonceResult;
+
+        // The RPC class is not thread-safe.
+        synchronized (this.rpcLock) {
+            nonceResult = this.rpc.getNonce(sender);
+        }
+
+        if (!nonceResult.isSuccess()) {
+            throw new IllegalStateException("Unable to get the nonce of " + sender + ": " + nonceResult.getError());
+        }
+
+        return toLong(nonceResult.getResult());
+    }
+
+    private static long toLong(BigInteger nonce) {
+        if (nonce == null) {
+            throw new NullPointerException("Cannot use a null nonce.");
+        }
+        if (nonce.signum() < 0) {
+            throw new IllegalArgumentException("Nonce cannot be negative: " + nonce);
+        }
+        if (nonce.bitLength() > 63) {
+            throw new IllegalArgumentException("Nonce is too large to be tracked: " + nonce);
+        }
+        return nonce.longValue();
+    }
+}
@@ -516,6 +516,28 @@ public final class RPC {
         return callSyncing(false);
     }
 
+    /**
+     * Returns the number of transactions in the node's pending block, which is the best view the
+     * RPC server offers of the depth of the node's pending transaction pool.
+     *
+     * Displays the I/O of the attempt to hit the RPC endpoint.
+     *
+     * @return the result of the call.
+     */
+    public RpcResult<Long> getPendingTransactionCountVerbose() throws InterruptedException {
+        return callGetPendingTransactionCount(true);
+    }
+
+    /**
+     * Returns the number of transactions in the node's pending block, which is the best view the
+     * RPC server offers of the depth of the node's pending transaction pool.
+     *
+     * @return the result of the call.
+     */
+    public RpcResult<Long> getPendingTransactionCount() throws InterruptedException {
+        return callGetPendingTransactionCount(false);
+    }
+
     /**
      * Blocks until the node has finished syncing with the rest of the network, or until the request
      * times out.
@@ -762,6 +784,33 @@ public final class RPC {
         }
     }
 
+    private RpcResult<Long> callGetPendingTransactionCount(boolean verbose) throws InterruptedException {
+        RpcPayload payload = new RpcPayloadBuilder()
+            .method(RpcMethod.GET_BLOCK_TRANSACTION_COUNT_BY_NUMBER)
+            .usePendingBlock()
+            .build();
+
+        InternalRpcResult internalResult = this.rpc.call(payload, verbose);
+
+        if (internalResult.success) {
+            JsonStringParser outputParser = new JsonStringParser(internalResult.output);
+            String result = outputParser.attributeToString("result");
+
+            // This should never happen.
+            if (result == null) {
+                throw new IllegalStateException("No 'result' content to parse from: " + internalResult.output);
+            }
+
+            return RpcResult.successful(
+                Long.parseLong(result, 16),
+                internalResult.getTimeOfCall(TimeUnit.NANOSECONDS),
+                TimeUnit.NANOSECONDS);
+
+        } else {
+            return RpcResult.unsuccessful(internalResult.error);
+        }
+    }
+
     private RpcResult<SyncStatus> callSyncing(boolean verbose) throws InterruptedException {
         RpcPayload payload = new RpcPayloadBuilder()
             .method(RpcMethod.IS_SYNCED)
@@ -0,0 +1,284 @@
+package org.aion.harness.main;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import org.aion.harness.main.event.IEvent;
+import org.aion.harness.main.event.PrepackagedLogEvents;
+import org.aion.harness.misc.Assumptions;
+import org.aion.harness.result.FutureResult;
+import org.aion.harness.result.LogEventResult;
+import org.aion.harness.result.Result;
+import org.aion.harness.statistics.ResourceSampler;
+import org.aion.harness.util.LogListener;
+import org.aion.harness.util.SimpleLog;
+
+/**
+ * A watchdog that detects a node stalling, meaning that its heartbeat or (if the node logs them) its
+ * sealed blocks have not been observed in its log for some threshold, and captures diagnostics of
+ * the stall while it is still happening.
+ *
+ * Each stall is captured into its own directory, named {@code stall-<millis>}, in the logs archive
+ * directory or the directory the watchdog was given, which holds:
+ *   - stall.txt: the reason for the capture, the harness's pending event requests, a sample of
+ *     the resources used by the kernel, and the outcome of each thread dump.
+ *   - thread-dump-1.txt ... : a series of {@link #NUMBER_OF_THREAD_DUMPS} kernel thread dumps,
+ *     {@link #SECONDS_BETWEEN_THREAD_DUMPS} seconds apart, so that threads that are stuck can be
+ *     told apart from threads that are merely busy.
+ *
+ * Thread dumps and resource samples are only captured for local nodes. A stall is captured once;
+ * the watchdog captures again only after the stalled event has been observed again.
+ *
+ * A watchdog is created by {@link NodeListener#watchForStalls(PrepackagedLogEvents, long, TimeUnit)}.
+ *
+ * This class is thread-safe.
+ */
+public final class StallWatchdog {
+    public static final int NUMBER_OF_THREAD_DUMPS = 3;
+    public static final long SECONDS_BETWEEN_THREAD_DUMPS = 5;
+
+    private final SimpleLog log;
+    private final Node node;
+    private final LogListener logListener;
+    private final PrepackagedLogEvents events;
+    private final long stallThresholdInNanos;
+    private final File captureDirectory;
+
+    private final List<Thread> watchers = new ArrayList<>();
+    private final List<File> captures = new ArrayList<>();
+    private volatile boolean isRunning = false;
+
+    // Held while capturing, which takes seconds, so that stop() is not blocked by a capture.
+    private final Object captureMonitor = new Object();
+    private long timeOfLastCaptureInNanos = -1;
+
+    StallWatchdog(Node node, LogListener logListener, PrepackagedLogEvents events, long stallThreshold, TimeUnit unit, File captureDirectory) {
+        if (node == null) {
+            throw new NullPointerException("Cannot watch a null node.");
+        }
+        if (logListener == null) {
+            throw new NullPointerException("Cannot watch a node with a null log listener.");
+        }
+        if (events == null) {
+            throw new NullPointerException("Cannot watch for stalls with null events.");
+        }
+        if (stallThreshold <= 0) {
+            throw new IllegalArgumentException("Stall threshold must be positive, found: " + stallThreshold);
+        }
+        if (unit == null) {
+            throw new NullPointerException("Cannot specify a null time unit.");
+        }
+        if (captureDirectory == null) {
+            throw new NullPointerException("Cannot capture stalls into a null directory.");
+        }
+
+        this.log = new SimpleLog(getClass().getName());
+        this.node = node;
+        this.logListener = logListener;
+        this.events = events;
+        this.stallThresholdInNanos = unit.toNanos(stallThreshold);
+        this.captureDirectory = captureDirectory;
+    }
+
+    /**
+     * Starts watching the node in the background.
+     */
+    synchronized void start() {
+        if (this.isRunning) {
+            throw new IllegalStateException("The watchdog is already running.");
+        }
+        this.isRunning = true;
+
+        startWatcher("heartbeat", this.events::getHeartbeatEvent);
+        if (this.events.getBlockSealedEvent() != null) {
+            startWatcher("sealed block", this.events::getBlockSealedEvent);
+        }
+    }
+
+    private void startWatcher(String description, Supplier<IEvent> event) {
+        Thread watcher = new Thread(() -> watch(description, event), "stall-watchdog-" + description.replace(' ', '-'));
+        watcher.setDaemon(true);
+        watcher.start();
+        this.watchers.add(watcher);
+    }
+
+    /**
+     * Stops watching the node and waits for any capture in progress to finish.
+     */
+    public void stop() throws InterruptedException {
+        List<Thread> threads;
+        synchronized (this) {
+            this.isRunning = false;
+            threads = new ArrayList<>(this.watchers);
+            this.watchers.clear();
+        }
+
+        for (Thread thread : threads) {
+            thread.interrupt();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    /**
+     * Returns {@code true} only if the watchdog has been started and not stopped.
+     */
+    public boolean isRunning() {
+        return this.isRunning;
+    }
+
+    /**
+     * Returns the directories of the stalls captured so far, oldest first.
+     */
+    public synchronized List<File> getCaptures() {
+        return Collections.unmodifiableList(new ArrayList<>(this.captures));
+    }
+
+    /**
+     * Repeatedly listens for the event until the watchdog is stopped or the listener stops
+     * listening, capturing a stall when the event is not observed within the threshold.
+     *
+     * Requests only expire when the listener handles a line, so a kernel that has stopped logging
+     * altogether is detected by the wait for the request timing out. The request is then kept,
+     * rather than another one submitted each threshold, until the log resumes.
+     */
+    private void watch(String description, Supplier<IEvent> event) {
+        boolean isStalled = false;
+        FutureResult<LogEventResult> request = null;
+
+        while (this.isRunning) {
+            if (request == null) {
+                request = this.logListener.submitEventToBeListenedFor(event.get(), this.stallThresholdInNanos, TimeUnit.NANOSECONDS);
+            }
+
+            LogEventResult result;
+            try {
+                result = request.get(this.stallThresholdInNanos, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                result = null;
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            if ((result != null) && result.eventWasObserved()) {
+                isStalled = false;
+            } else if ((result == null) || result.eventExpired()) {
+                if (!isStalled && this.isRunning) {
+                    isStalled = true;
+                    capture("No " + description + " observed for " + TimeUnit.NANOSECONDS.toSeconds(this.stallThresholdInNanos) + " seconds.");
+                }
+            } else {
+                String cause = result.eventWasRejected() ? result.causeOfRejection() : "the node shut down";
+                this.log.log(Assumptions.LOGGER_BANNER + "Stopped watching for " + description + " stalls: " + cause);
+                return;
+            }
+
+            if (result != null) {
+                request = null;
+            }
+        }
+    }
+
+    /**
+     * Captures the state of the stalled node into a new directory in the capture directory.
+     *
+     * If another watcher captured a stall within the threshold, this is the same stall and nothing
+     * is captured.
+     */
+    private void capture(String reason) {
+        synchronized (this.captureMonitor) {
+            File directory = captureInto(reason);
+            if (directory != null) {
+                synchronized (this) {
+                    this.captures.add(directory);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the directory the stall was captured into, or null if nothing was captured.
+     */
+    private File captureInto(String reason) {
+        long now = System.nanoTime();
+        if ((this.timeOfLastCaptureInNanos != -1) && (now - this.timeOfLastCaptureInNanos < this.stallThresholdInNanos)) {
+            return null;
+        }
+        this.timeOfLastCaptureInNanos = now;
+
+        File directory = new File(this.captureDirectory, "stall-" + System.currentTimeMillis());
+        if (!directory.mkdirs()) {
+            this.log.log(Assumptions.LOGGER_BANNER + "Node stalled (" + reason + ") but failed to create " + directory);
+            return null;
+        }
+        this.log.log(Assumptions.LOGGER_BANNER + "Node stalled: " + reason + " Capturing diagnostics to " + directory);
+
+        // Capture the harness's view first, since the thread dumps take a while.
+        List<String> report = new ArrayList<>();
+        report.add("Stall detected at " + Instant.now() + ": " + reason);
+        report.add("");
+        report.add("Pending event requests:");
+        for (String request : this.logListener.describePendingEventRequests()) {
+            report.add("  " + request);
+        }
+        report.add("");
+        report.add("Kernel resources: " + sampleResources());
+        report.add("");
+        report.add("Thread dumps:");
+
+        if (this.node instanceof LocalNode) {
+            captureThreadDumps((LocalNode) this.node, directory, report);
+        } else {
+            report.add("  Not available for remote nodes.");
+        }
+
+        try {
+            Files.write(new File(directory, "stall.txt").toPath(), report, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            this.log.log(Assumptions.LOGGER_BANNER + "Failed to write stall report: " + e);
+        }
+        return directory;
+    }
+
+    private String sampleResources() {
+        if (!(this.node instanceof LocalNode) || !ResourceSampler.isSupported()) {
+            return "not available";
+        }
+        Optional<ProcessHandle> kernel = ((LocalNode) this.node).getKernelProcess();
+        return kernel.isPresent() ? new ResourceSampler(kernel.get()).sampleNow().toString() : "not available, the node is not running";
+    }
+
+    private void captureThreadDumps(LocalNode localNode, File directory, List<String> report) {
+        for (int i = 1; i <= NUMBER_OF_THREAD_DUMPS; i++) {
+            File dump = new File(directory, "thread-dump-" + i + ".txt");
+            try {
+                Result result = localNode.dumpThreads(dump);
+                report.add("  " + Instant.now() + " " + (result.isSuccess() ? dump.getName() : "failed: " + result.getError()));
+                if (!result.isSuccess()) {
+                    return;
+                }
+                if (i < NUMBER_OF_THREAD_DUMPS) {
+                    TimeUnit.SECONDS.sleep(SECONDS_BETWEEN_THREAD_DUMPS);
+                }
+            } catch (IOException e) {
+                report.add("  " + Instant.now() + " failed: " + e);
+                return;
+            } catch (InterruptedException e) {
+                report.add("  Interrupted, the watchdog was stopped.");
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+}
@@ -30,4 +30,9 @@ public final class JavaPrepackagedLogEvents implements PrepackagedLogEvents {
         return new Event("p2p-status");
     }
 
+    @Override
+    public IEvent getBlockSealedEvent() {
+        return new Event("block sealed");
+    }
+
 }
@@ -49,6 +49,17 @@ public interface PrepackagedLogEvents {
      */
     IEvent getTransactionRejectedEvent(RawTransaction transaction);
 
+    /**
+     * Returns an event that captures a transaction being admitted into the node's pending pool, or
+     * {@code null} if the node does not log this.
+     *
+     * @param transaction The transaction.
+     * @return the event, or null.
+     */
+    default IEvent getTransactionPendingEvent(RawTransaction transaction) {
+        return null;
+    }
+
     /**
      * Returns an event that captures a log line that is expected to occur consistently over the
      * lifetime of a node.
@@ -56,4 +67,14 @@ public interface PrepackagedLogEvents {
      * @return the event.
      */
     IEvent getHeartbeatEvent();
+
+    /**
+     * Returns an event that captures the node sealing a new block, or {@code null} if the node does
+     * not log this.
+     *
+     * @return the event, or null.
+     */
+    default IEvent getBlockSealedEvent() {
+        return null;
+    }
 }
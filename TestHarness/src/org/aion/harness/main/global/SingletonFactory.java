@@ -1,5 +1,6 @@
 package org.aion.harness.main.global;
 
+import org.aion.harness.metrics.MetricsRegistry;
 import org.aion.harness.util.NodeWatcher;
 
 /**
@@ -45,4 +46,15 @@ public final class SingletonFactory {
         return this.nodeWatcher;
     }
 
+    /**
+     * Returns the {@link MetricsRegistry} that the harness records its own measurements into.
+     *
+     * This is the same instance as {@link MetricsRegistry#global()}.
+     *
+     * @return the global metrics registry.
+     */
+    public MetricsRegistry metricsRegistry() {
+        return MetricsRegistry.global();
+    }
+
 }
@@ -6,6 +6,7 @@ import org.aion.harness.result.Result;
 import org.aion.harness.util.LogReader;
 
 import java.io.File;
+import java.io.InputStream;
 
 public final class GenericRemoteNode implements RemoteNode {
     private final LogReader logReader;
@@ -41,6 +42,26 @@ public final class GenericRemoteNode implements RemoteNode {
         return this.logReader.startReading(logFile);
     }
 
+    /**
+     * Connects to the remote node by reading its log as it is written to the specified stream, for
+     * instance a socket, rather than from a file. The stream is closed when the node disconnects.
+     *
+     * @param logStream the stream the remote node's log is written to
+     * @return connection result
+     */
+    public Result connectToStream(InputStream logStream) {
+        if (this.isConnected) {
+            throw new IllegalStateException("the remote node is already connected");
+        }
+
+        if (logStream == null) {
+            throw new NullPointerException("log stream cannot be null");
+        }
+
+        this.isConnected = true;
+        return this.logReader.startReading(logStream);
+    }
+
     @Override
     public Result disconnect() throws InterruptedException {
         if (this.isConnected) {
@@ -1,19 +1,33 @@
 package org.aion.harness.main.impl;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.TimeoutException;
+import java.util.regex.Pattern;
 import org.aion.harness.main.LocalNode;
 import org.aion.harness.main.NodeListener;
 import org.aion.harness.main.event.Event;
 import org.aion.harness.main.event.IEvent;
 import org.aion.harness.main.global.SingletonFactory;
+import org.aion.harness.main.JvmProfile;
 import org.aion.harness.main.Network;
 import org.aion.harness.main.NodeConfigurations;
+import org.aion.harness.main.impl.internal.DatabaseSnapshots;
+import org.aion.harness.main.impl.internal.KernelLaunchScript;
 import org.aion.harness.main.impl.internal.NodeInitializer;
+import org.aion.harness.main.impl.internal.StartupProfiler;
 import org.aion.harness.misc.Assumptions;
 import org.aion.harness.result.Result;
+import org.aion.harness.statistics.FlightRecordingSummary;
+import org.aion.harness.statistics.ShutdownTimings;
+import org.aion.harness.statistics.StartupPhase;
+import org.aion.harness.statistics.StartupProfile;
+import org.aion.harness.statistics.StartupProfileStore;
 import org.aion.harness.sys.LeveldbLockAwaiter;
+import org.aion.harness.sys.ProcessTree;
 import org.aion.harness.util.*;
 import org.apache.commons.io.FileUtils;
 
@@ -35,9 +49,42 @@ public class JavaNode implements LocalNode {
     private NodeInitializer initializer;
     private boolean isInitialized = false;
 
+    // How long the kernel's processes are given to exit once asked to, and once killed.
+    private static final long GRACEFUL_STOP_TIMEOUT_IN_SECONDS = 60;
+    private static final long FORCED_STOP_TIMEOUT_IN_SECONDS = 10;
+
+    // The subdirectory of the logs directory that gc logs are written to.
+    private static final String GC_LOGS_DIRECTORY_NAME = "gc";
+
     // The running instance of the kernel.
     private Process runningKernel = null;
 
+    // The processes of the running or most recently run kernel, and the timings of its last shutdown.
+    private ProcessTree kernelProcesses = null;
+    private ShutdownTimings lastShutdownTimings = null;
+
+    // Times the phases of the running or most recently run kernel's startup.
+    private StartupProfiler startupProfiler = null;
+
+    // The first line the kernel logs from the database, genesis and p2p modules marks them starting up.
+    private static final Map<StartupPhase, Pattern> STARTUP_MARKERS = Map.of(
+        StartupPhase.KERNEL_UP, Pattern.compile("\\S"),
+        StartupPhase.DATABASE_OPEN, Pattern.compile("\\bDB\\b"),
+        StartupPhase.GENESIS_LOADED, Pattern.compile("(?i)genesis block loaded|loaded block"),
+        StartupPhase.P2P_UP, Pattern.compile("(?i)\\bp2p\\b"),
+        StartupPhase.RPC_UP, Pattern.compile(Pattern.quote("rpc-server - (UNDERTOW) started")),
+        StartupPhase.FIRST_PEER, Pattern.compile(Pattern.quote("outbound -> active")),
+        StartupPhase.NEAR_BEST_BLOCK, Pattern.compile(Pattern.quote("closeToNetworkBest[true]"))
+    );
+
+    // The gc log of the running or most recently run kernel, if its jvm profile enables one.
+    private File currentGcLogFile = null;
+
+    // Flight recordings by name: the jvms of those in progress, and the files and summaries of those stopped.
+    private final Map<String, ProcessHandle> activeFlightRecordings = new HashMap<>();
+    private final Map<String, File> flightRecordings = new HashMap<>();
+    private final Map<String, FlightRecordingSummary> flightRecordingSummaries = new HashMap<>();
+
     public JavaNode() {
         this.log = new SimpleLog(getClass().getName());
         this.logReader = new LogReader();
@@ -74,16 +121,21 @@ public class JavaNode implements LocalNode {
 
         this.configurations = configurations;
         this.initializer = new NodeInitializer(this.configurations);
+        this.logManager = new LogManager(this.configurations.getLogsDirectory());
     }
 
     @Override
     public Result initializeVerbose() throws IOException, InterruptedException {
+        long startTimeInNanos = System.nanoTime();
         Result result = this.initializer.initializeJavaKernel(true);
 
         // If initialization was successful then set up the log files.
         if (result.isSuccess()) {
             result = this.logManager.setupLogFiles();
         }
+        if (result.isSuccess()) {
+            NodeMetrics.recordInitialize(this, startTimeInNanos);
+        }
 
         this.isInitialized = true;
         return result;
@@ -91,12 +143,16 @@ public class JavaNode implements LocalNode {
 
     @Override
     public Result initialize() throws IOException, InterruptedException {
+        long startTimeInNanos = System.nanoTime();
         Result result = this.initializer.initializeJavaKernel(false);
 
         // If initialization was successful then set up the log files.
         if (result.isSuccess()) {
             result = this.logManager.setupLogFiles();
         }
+        if (result.isSuccess()) {
+            NodeMetrics.recordInitialize(this, startTimeInNanos);
+        }
 
         this.isInitialized = true;
         return result;
@@ -120,9 +176,7 @@ public class JavaNode implements LocalNode {
         }
 
         log.log(Assumptions.LOGGER_BANNER + "Starting Java kernel node...");
-
-        ProcessBuilder builder = new ProcessBuilder("./aion.sh", "-n", this.configurations.getNetwork().string())
-            .directory(this.configurations.getActualBuildLocation());
+        long startTimeInNanos = System.nanoTime();
 
         File outputLog = this.logManager.getCurrentOutputLogFile();
 
@@ -134,17 +188,66 @@ public class JavaNode implements LocalNode {
             outputLog = this.logManager.getCurrentOutputLogFile();
         }
 
+        // The profile's options are written into a copy of the launch script, so that they reach the kernel's jvm and no other.
+        String script = KernelLaunchScript.SCRIPT_NAME;
+        JvmProfile profile = this.configurations.getJvmProfile();
+        this.currentGcLogFile = null;
+        File gcLogFile = null;
+        if (profile.gcLogging) {
+            // Kept in a directory of its own, since plain files in the logs directory are archived on the next initialize.
+            File gcLogsDirectory = new File(this.configurations.getLogsDirectory(), GC_LOGS_DIRECTORY_NAME);
+            if (!gcLogsDirectory.isDirectory() && !gcLogsDirectory.mkdirs()) {
+                return Result.unsuccessfulDueTo("Failed to create the gc logs directory: " + gcLogsDirectory);
+            }
+            gcLogFile = new File(gcLogsDirectory, "gc-" + profile.name + "-" + System.currentTimeMillis() + ".txt");
+        }
+        List<String> jvmOptions;
+        try {
+            jvmOptions = profile.toOptions(gcLogFile);
+        } catch (IllegalArgumentException e) {
+            return Result.unsuccessfulDueTo("Cannot apply jvm profile '" + profile.name + "': " + e.getMessage());
+        }
+        if (!jvmOptions.isEmpty()) {
+            log.log(Assumptions.LOGGER_BANNER + "Applying jvm profile '" + profile.name + "': " + jvmOptions);
+            Result scriptResult = KernelLaunchScript.writeProfiledScript(this.configurations.getActualBuildLocation(), jvmOptions);
+            if (!scriptResult.isSuccess()) {
+                log.log(Assumptions.LOGGER_BANNER + "Failed to apply jvm profile '" + profile.name + "': " + scriptResult.getError());
+                return scriptResult;
+            }
+            script = KernelLaunchScript.PROFILED_SCRIPT_NAME;
+        }
+        this.currentGcLogFile = gcLogFile;
+
+        ProcessBuilder builder = new ProcessBuilder("./" + script, "-n", this.configurations.getNetwork().string())
+            .directory(this.configurations.getActualBuildLocation());
         builder.redirectOutput(outputLog);
         builder.redirectError(this.logManager.getCurrentErrorLogFile());
 
         new LeveldbLockAwaiter(this.configurations.getDatabaseJava().getAbsolutePath()).await();
+        long launchTimeInNanos = System.nanoTime();
         this.runningKernel = builder.start();
+        this.kernelProcesses = new ProcessTree(this.runningKernel.toHandle());
+        this.startupProfiler = new StartupProfiler(getClass().getSimpleName(), this.configurations.getNetwork().string(), outputLog, STARTUP_MARKERS, launchTimeInNanos, StartupProfileStore.global());
+        this.startupProfiler.start();
 
-        return waitForKernelReadyOrError(outputLog);
+        Result result = waitForKernelReadyOrError(outputLog);
+        if (result.isSuccess()) {
+            // The launch script has forked the kernel's jvm by now, so track it in case the script dies first.
+            this.kernelProcesses.refresh();
+            NodeMetrics.recordStart(this, startTimeInNanos);
+        } else {
+            this.startupProfiler.finish();
+        }
+        return result;
     }
 
     /**
      * Stops the node if it is currently running.
+     *
+     * Every process of the kernel is asked to terminate at once, and any that has not exited within
+     * a minute is killed. The timings of the shutdown are available from
+     * {@link #getLastShutdownTimings()}. If the node is not running but its kernel outlived the
+     * launch script, the kernel is stopped all the same.
      */
     @Override
     public Result stop() throws IOException, InterruptedException {
@@ -153,28 +256,28 @@ public class JavaNode implements LocalNode {
 
         if (isAlive()) {
             log.log(Assumptions.LOGGER_BANNER + "Stopping Java kernel node...");
+            long startTimeInNanos = System.nanoTime();
 
-            this.runningKernel.destroy();
-            boolean shutdown = this.runningKernel.waitFor(1, TimeUnit.MINUTES);
+            this.startupProfiler.finish();
+            ShutdownTimings timings = stopKernelProcesses();
             this.runningKernel = null;
+            this.activeFlightRecordings.clear();
             this.logReader.stopReading();
 
-            result = (shutdown) ? Result.successful() : Result.unsuccessfulDueTo("Timed out waiting for node to shut down!");
+            result = (timings.allExited()) ? Result.successful() : Result.unsuccessfulDueTo("Timed out waiting for node to shut down! " + timings);
+            if (timings.allExited()) {
+                NodeMetrics.recordStop(this, startTimeInNanos);
+            }
 
-            log.log(Assumptions.LOGGER_BANNER + "Java kernel node stopped.");
+            log.log(Assumptions.LOGGER_BANNER + "Java kernel node stopped: " + timings);
 
         } else {
             result = Result.unsuccessfulDueTo("Node is not currently alive!");
-        }
 
-        if (this.isInitialized) {
-            // Finds the kernel and kills it (above we are killing the aion.sh script,
-            // which is not guaranteed to kill the kernel). We find these processes because we know the
-            // directory of the executable, so we can hunt it down precisely.
-            String executableDir = NodeFileManager.getExecutableDirectoryOf(this.configurations.getActualBuildLocation());
-            ProcessHandle.allProcesses()
-                .filter(process -> process.info().command().toString().contains(executableDir))
-                .forEach(kernel -> kernel.destroy());
+            if ((this.kernelProcesses != null) && this.kernelProcesses.isAlive()) {
+                log.log(Assumptions.LOGGER_BANNER + "Stopping Java kernel processes left behind by the launch script: " + stopKernelProcesses());
+            }
+            this.activeFlightRecordings.clear();
         }
 
         return result;
@@ -189,17 +292,51 @@ public class JavaNode implements LocalNode {
      */
     @Override
     public Result blockingStop(long timeout, TimeUnit timeoutUnit) throws IOException, InterruptedException {
+        if (this.kernelProcesses == null) {
+            // The node was never started, so there is neither a kernel to stop nor a lock to await.
+            return Result.unsuccessfulDueTo("Node is not currently alive!");
+        }
+
         Result res = stop();
         if(! res.isSuccess()) {
             return res;
         }
 
+        // The locks are released as soon as the kernel's processes exit.
         boolean leveldbLockReleased = new LeveldbLockAwaiter(
-            this.configurations.getDatabaseJava().getAbsolutePath()).await();
+            this.configurations.getDatabaseJava().getAbsolutePath(), this.kernelProcesses.getProcesses()).await(timeout, timeoutUnit);
         return leveldbLockReleased? Result.successful() : Result.unsuccessfulDueTo(
             "Leveldb lock used by node was not released after node termination");
     }
 
+    /**
+     * Returns the timings of the most recent shutdown of the kernel's processes, if the kernel has
+     * been stopped.
+     *
+     * @return the shutdown timings.
+     */
+    public Optional<ShutdownTimings> getLastShutdownTimings() {
+        return Optional.ofNullable(this.lastShutdownTimings);
+    }
+
+    /**
+     * Returns the profile of the phases of the most recent start of the kernel, once it is
+     * complete. Profiling completes when the kernel has logged the marker of every phase, or when
+     * the node is stopped.
+     *
+     * @return the startup profile.
+     */
+    public Optional<StartupProfile> getLastStartupProfile() {
+        return (this.startupProfiler == null) ? Optional.empty() : this.startupProfiler.getProfile();
+    }
+
+    private ShutdownTimings stopKernelProcesses() throws InterruptedException {
+        ShutdownTimings timings = this.kernelProcesses.stop(GRACEFUL_STOP_TIMEOUT_IN_SECONDS, FORCED_STOP_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS);
+        NodeMetrics.recordShutdown(timings);
+        this.lastShutdownTimings = timings;
+        return timings;
+    }
+
     /**
      * Returns true if the node is currently running.
      */
@@ -208,6 +345,151 @@ public class JavaNode implements LocalNode {
         return ((this.runningKernel != null) && (this.runningKernel.isAlive()));
     }
 
+    /**
+     * Starts a Java Flight Recorder recording with the specified name in the running kernel, for
+     * example at the start of a load phase. Several recordings with different names may be in
+     * progress at once.
+     *
+     * @param name The name of the recording, made of letters, digits, dashes and underscores.
+     * @return a result indicating the success or failure of this method.
+     * @throws IllegalStateException if a recording with this name is already in progress.
+     */
+    public Result startFlightRecording(String name) throws IOException, InterruptedException {
+        checkFlightRecordingName(name);
+        if (this.activeFlightRecordings.containsKey(name)) {
+            throw new IllegalStateException("A flight recording named " + name + " is already in progress.");
+        }
+        if (!isAlive()) {
+            return Result.unsuccessfulDueTo("Node is not currently alive!");
+        }
+
+        Optional<ProcessHandle> jvm = KernelJvm.findJvm(this.kernelProcesses);
+        if (!jvm.isPresent()) {
+            return Result.unsuccessfulDueTo("Could not find the kernel's jvm among the node's processes.");
+        }
+
+        Result result = KernelJvm.startFlightRecording(jvm.get(), name);
+        if (result.isSuccess()) {
+            this.activeFlightRecordings.put(name, jvm.get());
+            log.log(Assumptions.LOGGER_BANNER + "Started flight recording '" + name + "' in kernel jvm " + jvm.get().pid() + ".");
+        }
+        return result;
+    }
+
+    /**
+     * Stops the Java Flight Recorder recording with the specified name, for example at the end of a
+     * load phase.
+     *
+     * The recording is written to the logs archive directory, alongside a summary of its hot methods
+     * and allocations that is also available from {@link #getFlightRecordingSummary(String)}. If the
+     * summary cannot be produced, for instance because the jfr tool is unavailable, the recording
+     * is still kept.
+     *
+     * @param name The name of the recording.
+     * @return a result indicating the success or failure of this method.
+     * @throws IllegalStateException if no recording with this name is in progress.
+     */
+    public Result stopFlightRecording(String name) throws IOException, InterruptedException {
+        checkFlightRecordingName(name);
+        ProcessHandle jvm = this.activeFlightRecordings.remove(name);
+        if (jvm == null) {
+            throw new IllegalStateException("No flight recording named " + name + " is in progress.");
+        }
+        if (!jvm.isAlive()) {
+            return Result.unsuccessfulDueTo("The kernel jvm exited before flight recording " + name + " was stopped.");
+        }
+
+        File archive = new File(this.configurations.getLogsDirectory(), NodeFileManager.getLogsArchiveDirectory().getName());
+        if (!archive.exists() && !archive.mkdirs()) {
+            return Result.unsuccessfulDueTo("Failed to create the logs archive directory: " + archive);
+        }
+        String basename = name + "-" + System.currentTimeMillis();
+        File recording = new File(archive, basename + ".jfr");
+
+        Result result = KernelJvm.stopFlightRecording(jvm, name, recording);
+        if (!result.isSuccess()) {
+            return result;
+        }
+        this.flightRecordings.put(name, recording);
+        log.log(Assumptions.LOGGER_BANNER + "Flight recording '" + name + "' written to " + recording + ".");
+
+        try {
+            FlightRecordingSummary summary = FlightRecordingSummary.summarize(name, recording, FlightRecordingSummary.DEFAULT_NUMBER_OF_ENTRIES);
+            File summaryFile = new File(archive, basename + "-summary.txt");
+            summary.writeTo(summaryFile);
+            this.flightRecordingSummaries.put(name, summary);
+            log.log(Assumptions.LOGGER_BANNER + "Flight recording '" + name + "' summarized to " + summaryFile + ".");
+        } catch (IOException e) {
+            // Never leave the summary of an earlier recording with this name in place of this one's.
+            this.flightRecordingSummaries.remove(name);
+            log.log(Assumptions.LOGGER_BANNER + "Failed to summarize flight recording '" + name + "': " + e.getMessage());
+        }
+        return Result.successful();
+    }
+
+    /**
+     * Returns the file of the most recently stopped flight recording with the specified name, if
+     * there is one.
+     */
+    public Optional<File> getFlightRecording(String name) {
+        return Optional.ofNullable(this.flightRecordings.get(name));
+    }
+
+    /**
+     * Returns the summary of the most recently stopped flight recording with the specified name, if
+     * there is one.
+     */
+    public Optional<FlightRecordingSummary> getFlightRecordingSummary(String name) {
+        return Optional.ofNullable(this.flightRecordingSummaries.get(name));
+    }
+
+    private static void checkFlightRecordingName(String name) {
+        if (name == null) {
+            throw new NullPointerException("Cannot use a null flight recording name.");
+        }
+        if (!name.matches("[A-Za-z0-9_-]+")) {
+            throw new IllegalArgumentException("Flight recording name may only contain letters, digits, dashes and underscores, found: " + name);
+        }
+    }
+
+    /**
+     * Returns the gc log written by the running or most recently run kernel, or an empty optional
+     * if its jvm profile did not enable gc logging.
+     *
+     * @return the gc log file.
+     */
+    public Optional<File> getGcLogFile() {
+        return Optional.ofNullable(this.currentGcLogFile);
+    }
+
+    /**
+     * Returns the process this node started to run the kernel, if the node is running.
+     */
+    @Override
+    public Optional<ProcessHandle> getKernelProcess() {
+        return isAlive() ? Optional.of(this.runningKernel.toHandle()) : Optional.empty();
+    }
+
+    /**
+     * Writes a dump of the threads of the running kernel jvm, with the locks they hold, to the
+     * specified file.
+     */
+    @Override
+    public Result dumpThreads(File destination) throws IOException, InterruptedException {
+        if (destination == null) {
+            throw new NullPointerException("Cannot dump threads to a null file.");
+        }
+        if (!isAlive()) {
+            return Result.unsuccessfulDueTo("Node is not currently alive!");
+        }
+
+        Optional<ProcessHandle> jvm = KernelJvm.findJvm(this.kernelProcesses);
+        if (!jvm.isPresent()) {
+            return Result.unsuccessfulDueTo("Could not find the kernel's jvm among the node's processes.");
+        }
+        return KernelJvm.dumpThreads(jvm.get(), destination);
+    }
+
     /**
      * Resets the state of the node.
      *
@@ -234,6 +516,50 @@ public class JavaNode implements LocalNode {
         return Result.successful();
     }
 
+    @Override
+    public Result saveState(String snapshotName) throws IOException {
+        checkStateCanBeSnapshotted();
+
+        File database = this.configurations.getDatabaseJava();
+        if (!database.isDirectory()) {
+            return Result.unsuccessfulDueTo("The node has no database to save: " + database.getAbsolutePath());
+        }
+
+        log.log(Assumptions.LOGGER_BANNER + "Saving the state of the Java kernel node as snapshot " + snapshotName + "...");
+        databaseSnapshots().save(snapshotName, database);
+        return Result.successful();
+    }
+
+    @Override
+    public Result restoreState(String snapshotName) throws IOException {
+        checkStateCanBeSnapshotted();
+
+        DatabaseSnapshots snapshots = databaseSnapshots();
+        if (!snapshots.contains(snapshotName)) {
+            return Result.unsuccessfulDueTo("No database snapshot exists with the name " + snapshotName);
+        }
+
+        log.log(Assumptions.LOGGER_BANNER + "Restoring the state of the Java kernel node to snapshot " + snapshotName + "...");
+        snapshots.restore(snapshotName, this.configurations.getDatabaseJava());
+        return Result.successful();
+    }
+
+    private void checkStateCanBeSnapshotted() {
+        if (this.configurations == null) {
+            throw new IllegalStateException("Node has not been configured yet! Cannot snapshot kernel state.");
+        }
+        if (isAlive()) {
+            throw new IllegalStateException("Cannot snapshot state while the node is running.");
+        }
+        if (!this.isInitialized) {
+            throw new IllegalStateException("Node has not been initialized yet!");
+        }
+    }
+
+    private DatabaseSnapshots databaseSnapshots() {
+        return new DatabaseSnapshots(NodeFileManager.getDatabaseSnapshotsDirectory("java", this.configurations.getNetwork()));
+    }
+
     /**
      * Returns the network that this node will attempt to connect to when {@code start()} is invoked,
      * or, if the node is running, then the network it has connected to.
@@ -0,0 +1,119 @@
+package org.aion.harness.main.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.aion.harness.result.Result;
+import org.aion.harness.sys.ProcessTree;
+
+/**
+ * Diagnostic commands for a running kernel jvm, such as controlling Java Flight Recorder recordings
+ * and dumping threads, sent using {@code jcmd}.
+ *
+ * The kernels are launched through scripts, so the jvm is found among the processes of the tree
+ * rooted at the process the node started.
+ */
+final class KernelJvm {
+    private static final long JCMD_TIMEOUT_IN_SECONDS = 60;
+
+    private KernelJvm() {}
+
+    /**
+     * Returns the first live java process in the specified tree, if there is one.
+     */
+    static Optional<ProcessHandle> findJvm(ProcessTree tree) {
+        tree.refresh();
+        for (ProcessHandle process : tree.getProcesses()) {
+            Optional<String> command = process.info().command();
+            if (process.isAlive() && command.isPresent() && new File(command.get()).getName().equals("java")) {
+                return Optional.of(process);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Starts a recording with the specified name in the jvm, using the jvm's built-in profiling
+     * settings.
+     */
+    static Result startFlightRecording(ProcessHandle jvm, String name) throws IOException, InterruptedException {
+        return jcmd(jvm, "JFR.start", "name=" + name, "settings=profile");
+    }
+
+    /**
+     * Stops the recording with the specified name in the jvm and has the jvm write it to the
+     * specified file.
+     */
+    static Result stopFlightRecording(ProcessHandle jvm, String name, File destination) throws IOException, InterruptedException {
+        Result result = jcmd(jvm, "JFR.stop", "name=" + name, "filename=" + destination.getAbsolutePath());
+        if (result.isSuccess() && !destination.isFile()) {
+            return Result.unsuccessfulDueTo("jcmd did not write the recording to " + destination);
+        }
+        return result;
+    }
+
+    /**
+     * Writes a dump of every thread in the jvm, with their locks, to the specified file.
+     */
+    static Result dumpThreads(ProcessHandle jvm, File destination) throws IOException, InterruptedException {
+        List<String> output = new ArrayList<>();
+        Result result = jcmd(jvm, output, "Thread.print", "-l");
+        if (result.isSuccess()) {
+            Files.write(destination.toPath(), output, StandardCharsets.UTF_8);
+        }
+        return result;
+    }
+
+    private static Result jcmd(ProcessHandle jvm, String... arguments) throws IOException, InterruptedException {
+        return jcmd(jvm, new ArrayList<>(), arguments);
+    }
+
+    /**
+     * Runs jcmd with the specified arguments against the jvm, adding the lines of its output to the
+     * specified list.
+     *
+     * The output, which for a thread dump can be far larger than a pipe's buffer, is written to a
+     * temporary file rather than piped, so that jcmd never blocks on it while it is being waited for.
+     */
+    private static Result jcmd(ProcessHandle jvm, List<String> output, String... arguments) throws IOException, InterruptedException {
+        File jcmd = new File(System.getProperty("java.home"), "bin" + File.separator + "jcmd");
+
+        List<String> command = new ArrayList<>();
+        command.add(jcmd.exists() ? jcmd.getAbsolutePath() : "jcmd");
+        command.add(String.valueOf(jvm.pid()));
+        command.addAll(Arrays.asList(arguments));
+
+        File outputFile = File.createTempFile("jcmd", ".txt");
+        int exitValue;
+        String text;
+        try {
+            Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(outputFile).start();
+            if (!process.waitFor(JCMD_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+                return Result.unsuccessfulDueTo("Timed out waiting for jcmd " + String.join(" ", arguments));
+            }
+            exitValue = process.exitValue();
+            text = new String(Files.readAllBytes(outputFile.toPath()), StandardCharsets.UTF_8).trim();
+        } finally {
+            Files.deleteIfExists(outputFile.toPath());
+        }
+
+        // jcmd reports some failures of the diagnostic command itself with a zero exit code. Thread
+        // dumps are only checked for the jvm failing to attach, since their stacks contain exceptions.
+        boolean isThreadDump = arguments[0].equals("Thread.print");
+        boolean failed = (exitValue != 0) || text.contains("com.sun.tools.attach")
+            || (!isThreadDump && (text.contains("Exception") || text.contains("Could not")));
+        if (failed) {
+            return Result.unsuccessfulDueTo("jcmd " + String.join(" ", arguments) + " failed: " + text);
+        }
+        output.addAll(Arrays.asList(text.split("\\R")));
+        return Result.successful();
+    }
+
+}
@@ -5,6 +5,7 @@ import org.aion.harness.main.global.SingletonFactory;
 import org.aion.harness.result.Result;
 import org.aion.harness.util.LogReader;
 import org.aion.harness.util.NodeFileManager;
+import org.aion.harness.util.StreamLogSource;
 
 import java.io.BufferedReader;
 import java.io.File;
@@ -40,6 +41,51 @@ public final class KubernetesNode implements RemoteNode {
         return this.ID;
     }
 
+    /**
+     * Connects to the remote node by streaming its log straight from {@code kubectl logs -f} to the
+     * listeners, so each line is seen as soon as kubectl prints it rather than after being written
+     * to and polled back from a file.
+     *
+     * @return connection result
+     */
+    public Result connect() throws IOException {
+        if (this.isConnected) {
+            throw new IllegalStateException("the remote node is already connected");
+        }
+
+        String nodeName = getKubernetesNodeName();
+
+        if (nodeName == null) {
+            return Result.unsuccessfulDueTo("failed to get kubernetes node name");
+        }
+
+        // Nothing reads kubectl's errors, so they are discarded rather than left to fill the pipe and stall it.
+        Process process = new ProcessBuilder(IMPORT_LOG_COMMAND_1, IMPORT_LOG_COMMAND_2, IMPORT_LOG_COMMAND_3, nodeName)
+                .directory(NodeFileManager.getLogsDirectory())
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+
+        // Closing kubectl's output does not unblock its reader, so the source ends it by destroying kubectl.
+        Result result = this.logReader.startReading(new StreamLogSource(process.getInputStream(), process::destroy));
+
+        if (result.isSuccess()) {
+            this.nodeProcess = process;
+            this.isConnected = true;
+        } else {
+            process.destroy();
+            this.nodeProcess = null;
+        }
+
+        return result;
+    }
+
+    /**
+     * Connects to the remote node by having {@code kubectl logs -f} write its log to the specified
+     * file, which is then tailed. Use {@link #connect()} to read the log without the file.
+     *
+     * @param logFile the file to write the remote node's log to
+     * @return connection result
+     */
     @Override
     public Result connect(File logFile) throws IOException {
         if (this.isConnected) {
@@ -81,6 +127,10 @@ public final class KubernetesNode implements RemoteNode {
             this.isConnected = false;
         }
 
+        if (this.nodeProcess == null) {
+            return Result.successful();
+        }
+
         this.nodeProcess.destroy();
         boolean shutdown = this.nodeProcess.waitFor(1, TimeUnit.MINUTES);
 
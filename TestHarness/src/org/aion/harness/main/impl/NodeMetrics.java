@@ -0,0 +1,65 @@
+package org.aion.harness.main.impl;
+
+import java.util.concurrent.TimeUnit;
+import org.aion.harness.metrics.FlightRecorderEvent;
+import org.aion.harness.metrics.HarnessEvents;
+import org.aion.harness.metrics.MetricsRegistry;
+import org.aion.harness.statistics.Histogram;
+import org.aion.harness.statistics.ShutdownTimings;
+
+/**
+ * The node lifecycle timings that local nodes record into the global {@link MetricsRegistry}, and
+ * emit as {@link HarnessEvents#NODE_LIFECYCLE} flight recorder events.
+ *
+ * Only successful lifecycle transitions are recorded.
+ */
+final class NodeMetrics {
+    static final Histogram INITIALIZE_TIMES = MetricsRegistry.global().histogram("harness_node_initialize_nanos", "Time taken to initialize a local node.");
+    static final Histogram START_TIMES = MetricsRegistry.global().histogram("harness_node_start_nanos", "Time from launching a local node to its RPC server being ready.");
+    static final Histogram STOP_TIMES = MetricsRegistry.global().histogram("harness_node_stop_nanos", "Time taken to stop a local node.");
+    static final Histogram GRACEFUL_STOP_TIMES = MetricsRegistry.global().histogram("harness_node_stop_graceful_nanos", "Time taken by a local node's processes to exit once asked to terminate.");
+    static final Histogram FORCED_STOP_TIMES = MetricsRegistry.global().histogram("harness_node_stop_forced_nanos", "Time taken by a local node's processes to exit once killed, for shutdowns that had to kill them.");
+
+    private NodeMetrics() {}
+
+    static void recordInitialize(Object node, long startTimeInNanos) {
+        recordSince(INITIALIZE_TIMES, node, "initialize", startTimeInNanos);
+    }
+
+    static void recordStart(Object node, long startTimeInNanos) {
+        recordSince(START_TIMES, node, "start", startTimeInNanos);
+    }
+
+    static void recordStop(Object node, long startTimeInNanos) {
+        recordSince(STOP_TIMES, node, "stop", startTimeInNanos);
+    }
+
+    /**
+     * Records the phases of a shutdown of a node's processes. The forced phase is only recorded if
+     * the shutdown had to kill any of them.
+     */
+    static void recordShutdown(ShutdownTimings timings) {
+        GRACEFUL_STOP_TIMES.record(timings.getGracefulDuration(TimeUnit.NANOSECONDS));
+        if (timings.wasEscalated()) {
+            FORCED_STOP_TIMES.record(timings.getForcedDuration(TimeUnit.NANOSECONDS));
+        }
+    }
+
+    /**
+     * Records the time elapsed since the specified start time into the specified histogram and
+     * emits it as a lifecycle event of the specified node.
+     */
+    private static void recordSince(Histogram histogram, Object node, String operation, long startTimeInNanos) {
+        long elapsedTimeInNanos = Math.max(0, System.nanoTime() - startTimeInNanos);
+        histogram.record(elapsedTimeInNanos);
+
+        FlightRecorderEvent event = HarnessEvents.NODE_LIFECYCLE.begin();
+        if (event.isRecording()) {
+            event
+                .set(HarnessEvents.NODE_LIFECYCLE_NODE, node.getClass().getSimpleName())
+                .set(HarnessEvents.NODE_LIFECYCLE_OPERATION, operation)
+                .set(HarnessEvents.NODE_LIFECYCLE_ELAPSED, elapsedTimeInNanos)
+                .commit();
+        }
+    }
+}
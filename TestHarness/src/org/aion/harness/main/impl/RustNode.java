@@ -4,8 +4,11 @@ import java.io.File;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.regex.Pattern;
 import org.aion.harness.main.LocalNode;
 import org.aion.harness.main.Network;
 import org.aion.harness.main.NodeConfigurations;
@@ -13,12 +16,20 @@ import org.aion.harness.main.NodeListener;
 import org.aion.harness.main.event.Event;
 import org.aion.harness.main.event.IEvent;
 import org.aion.harness.main.global.SingletonFactory;
+import org.aion.harness.main.impl.internal.DatabaseSnapshots;
+import org.aion.harness.main.impl.internal.StartupProfiler;
 import org.aion.harness.misc.Assumptions;
 import org.aion.harness.result.Result;
+import org.aion.harness.statistics.ShutdownTimings;
+import org.aion.harness.statistics.StartupPhase;
+import org.aion.harness.statistics.StartupProfile;
+import org.aion.harness.statistics.StartupProfileStore;
 import org.aion.harness.sys.LeveldbLockAwaiter;
+import org.aion.harness.sys.ProcessTree;
 import org.aion.harness.sys.RustLeveldbLockAwaiter;
 import org.aion.harness.util.LogManager;
 import org.aion.harness.util.LogReader;
+import org.aion.harness.util.NodeFileManager;
 import org.aion.harness.util.SimpleLog;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.filefilter.DirectoryFileFilter;
@@ -31,9 +42,28 @@ public class RustNode implements LocalNode {
     private final int ID;
     private boolean isInitialized;
 
+    // How long the kernel's processes are given to exit once asked to, and once killed.
+    private static final long GRACEFUL_STOP_TIMEOUT_IN_SECONDS = 60;
+    private static final long FORCED_STOP_TIMEOUT_IN_SECONDS = 10;
+
     // The running instance of the kernel.
     private Process runningKernel = null;
 
+    // The processes of the running or most recently run kernel, and the timings of its last shutdown.
+    private ProcessTree kernelProcesses = null;
+    private ShutdownTimings lastShutdownTimings = null;
+
+    // Times the phases of the running or most recently run kernel's startup.
+    private StartupProfiler startupProfiler = null;
+
+    // Only the phases whose log lines are known for the rust kernel are profiled.
+    private static final Map<StartupPhase, Pattern> STARTUP_MARKERS = Map.of(
+        StartupPhase.KERNEL_UP, Pattern.compile("\\S"),
+        StartupPhase.RPC_UP, Pattern.compile(Pattern.quote("= Sync Statics =")),
+        StartupPhase.FIRST_PEER, Pattern.compile(Pattern.quote("outbound -> active")),
+        StartupPhase.NEAR_BEST_BLOCK, Pattern.compile(Pattern.quote("closeToNetworkBest[true]"))
+    );
+
     /** The directory name of the database (relative to path of aionr root).  */
     private static final String DATA_DIR = "data";
 
@@ -65,6 +95,7 @@ public class RustNode implements LocalNode {
         }
 
         this.configurations = nc;
+        this.logManager = new LogManager(nc.getLogsDirectory());
     }
 
     @Override
@@ -74,6 +105,7 @@ public class RustNode implements LocalNode {
 
     @Override
     public Result initialize() throws IOException, InterruptedException {
+        long startTimeInNanos = System.nanoTime();
         Result result = useExistingBuild();
 
         // If initialization was successful then set up the log files.
@@ -81,6 +113,9 @@ public class RustNode implements LocalNode {
             result = this.logManager.setupLogFiles();
             this.isInitialized = true;
         }
+        if (result.isSuccess()) {
+            NodeMetrics.recordInitialize(this, startTimeInNanos);
+        }
 
         return result;
 
@@ -128,6 +163,7 @@ public class RustNode implements LocalNode {
         }
 
         log.log("Starting Rust kernel node...");
+        long startTimeInNanos = System.nanoTime();
 
         final String cfgFile;
         switch(configurations.getNetwork()) {
@@ -168,8 +204,20 @@ public class RustNode implements LocalNode {
             new RustLeveldbLockAwaiter(levelDbBaseDir.getAbsolutePath()).await();
         }
 
+        long launchTimeInNanos = System.nanoTime();
         this.runningKernel = builder.start();
-        return waitForKernelReadyOrError(this.logManager.getCurrentOutputLogFile());
+        this.kernelProcesses = new ProcessTree(this.runningKernel.toHandle());
+        this.startupProfiler = new StartupProfiler(getClass().getSimpleName(), this.configurations.getNetwork().string(), this.logManager.getCurrentOutputLogFile(), STARTUP_MARKERS, launchTimeInNanos, StartupProfileStore.global());
+        this.startupProfiler.start();
+
+        Result result = waitForKernelReadyOrError(this.logManager.getCurrentOutputLogFile());
+        if (result.isSuccess()) {
+            this.kernelProcesses.refresh();
+            NodeMetrics.recordStart(this, startTimeInNanos);
+        } else {
+            this.startupProfiler.finish();
+        }
+        return result;
     }
 
     @Override
@@ -179,10 +227,17 @@ public class RustNode implements LocalNode {
         }
 
         log.log("Destroying the process");
-        runningKernel.destroy();
+        long startTimeInNanos = System.nanoTime();
+        this.startupProfiler.finish();
+
+        // Every process of the kernel is asked to terminate at once, and any still running after a minute is killed.
+        ShutdownTimings timings = this.kernelProcesses.stop(GRACEFUL_STOP_TIMEOUT_IN_SECONDS, FORCED_STOP_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS);
+        NodeMetrics.recordShutdown(timings);
+        this.lastShutdownTimings = timings;
+        log.log("Process stopped: " + timings);
 
-        boolean terminated = runningKernel.waitFor(1, TimeUnit.MINUTES);
-        if(terminated) {
+        if(timings.allExited()) {
+            NodeMetrics.recordStop(this, startTimeInNanos);
             try {
                 resetState();
             } catch (IOException ioe) {
@@ -194,7 +249,7 @@ public class RustNode implements LocalNode {
             // resetState won't succeed if not terminated, so don't bother -- at this
             // point need manual intervention from the user anyway.
             return Result.unsuccessfulDueTo(
-                "Process still running one minute after issuing termination.");
+                "Process still running after issuing termination and killing it: " + timings);
         }
     }
 
@@ -207,10 +262,11 @@ public class RustNode implements LocalNode {
 
         File levelDbBaseDir = configurations.getDatabaseRust(DATA_DIR);
         final boolean leveldbLockReleased;
+        // The locks are released as soon as the kernel's processes exit.
         // if null, don't need to wait because the db doesn't exist yet
         if(levelDbBaseDir != null) {
             leveldbLockReleased = new RustLeveldbLockAwaiter(
-                levelDbBaseDir.getAbsolutePath()).await(timeout, timeoutUnit);
+                levelDbBaseDir.getAbsolutePath(), this.kernelProcesses.getProcesses()).await(timeout, timeoutUnit);
         } else {
             leveldbLockReleased = true;
         }
@@ -219,11 +275,40 @@ public class RustNode implements LocalNode {
             "Leveldb lock used by node was not released after node termination");
     }
 
+    /**
+     * Returns the timings of the most recent shutdown of the kernel's processes, if the kernel has
+     * been stopped.
+     *
+     * @return the shutdown timings.
+     */
+    public Optional<ShutdownTimings> getLastShutdownTimings() {
+        return Optional.ofNullable(this.lastShutdownTimings);
+    }
+
+    /**
+     * Returns the profile of the phases of the most recent start of the kernel, once it is
+     * complete. Profiling completes when the kernel has logged the marker of every phase, or when
+     * the node is stopped.
+     *
+     * @return the startup profile.
+     */
+    public Optional<StartupProfile> getLastStartupProfile() {
+        return (this.startupProfiler == null) ? Optional.empty() : this.startupProfiler.getProfile();
+    }
+
     @Override
     public boolean isAlive() {
         return this.runningKernel != null && this.runningKernel.isAlive();
     }
 
+    /**
+     * Returns the process this node started to run the kernel, if the node is running.
+     */
+    @Override
+    public Optional<ProcessHandle> getKernelProcess() {
+        return isAlive() ? Optional.of(this.runningKernel.toHandle()) : Optional.empty();
+    }
+
     @Override
     public Result resetState() throws IOException {
         if (this.configurations == null) {
@@ -247,6 +332,50 @@ public class RustNode implements LocalNode {
         return Result.successful();
     }
 
+    @Override
+    public Result saveState(String snapshotName) throws IOException {
+        checkStateCanBeSnapshotted();
+
+        File database = new File(configurations.getDirectoryOfBuiltKernel() + File.separator + DATA_DIR);
+        if (!database.isDirectory()) {
+            return Result.unsuccessfulDueTo("The node has no data dir to save: " + database.getAbsolutePath());
+        }
+
+        log.log("Saving aionr data dir as snapshot " + snapshotName + "...");
+        databaseSnapshots().save(snapshotName, database);
+        return Result.successful();
+    }
+
+    @Override
+    public Result restoreState(String snapshotName) throws IOException {
+        checkStateCanBeSnapshotted();
+
+        DatabaseSnapshots snapshots = databaseSnapshots();
+        if (!snapshots.contains(snapshotName)) {
+            return Result.unsuccessfulDueTo("No database snapshot exists with the name " + snapshotName);
+        }
+
+        log.log("Restoring aionr data dir to snapshot " + snapshotName + "...");
+        snapshots.restore(snapshotName, new File(configurations.getDirectoryOfBuiltKernel() + File.separator + DATA_DIR));
+        return Result.successful();
+    }
+
+    private void checkStateCanBeSnapshotted() {
+        if (this.configurations == null) {
+            throw new IllegalStateException("Node has not been configured yet! Cannot snapshot kernel state.");
+        }
+        if (isAlive()){
+            throw new IllegalStateException("Cannot snapshot state while the node is running.");
+        }
+        if (!this.isInitialized) {
+            throw new IllegalStateException("Node has not been initialized yet!");
+        }
+    }
+
+    private DatabaseSnapshots databaseSnapshots() {
+        return new DatabaseSnapshots(NodeFileManager.getDatabaseSnapshotsDirectory("rust", this.configurations.getNetwork()));
+    }
+
     @Override
     public int getID() {
         return ID;
@@ -13,16 +13,35 @@ import org.aion.harness.result.Result;
 import org.aion.harness.util.SimpleLog;
 
 public class RustNodeWithMiner extends RustNode {
+    private static final int DEFAULT_STRATUM_PORT = 8008;
+
+    private final int stratumPort;
     private Process proc = null;
 
     private static final SimpleLog log = new SimpleLog(RustNodeWithMiner.class.getName());
 
+    public RustNodeWithMiner() {
+        this(DEFAULT_STRATUM_PORT);
+    }
+
+    /**
+     * Constructs a node whose miner connects to the kernel's stratum server on the specified port,
+     * which must match the port in the kernel's configuration.
+     */
+    public RustNodeWithMiner(int stratumPort) {
+        super();
+        if ((stratumPort < 1) || (stratumPort > 65535)) {
+            throw new IllegalArgumentException("Invalid stratum port: " + stratumPort);
+        }
+        this.stratumPort = stratumPort;
+    }
+
     @Override
     public Result start() throws IOException, InterruptedException {
         File minerWd = setupMinerProgram();
         ProcessBuilder pb = new ProcessBuilder()
             .directory(minerWd)
-            .command("./aionrminer", "-l", "localhost:8008", "-t", "1");
+            .command("./aionrminer", "-l", "localhost:" + this.stratumPort, "-t", "1");
         proc = pb.start();
         return super.start();
     }
@@ -0,0 +1,220 @@
+package org.aion.harness.main.impl.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.aion.harness.main.Network;
+import org.apache.commons.io.FileUtils;
+
+/**
+ * Creates the kernel directory of one member of a local cluster from a built kernel.
+ *
+ * The kernel's binaries and libraries are hard linked rather than copied, so a member costs next
+ * to no disk space or time however large the kernel is. The kernel's network directory, which holds
+ * its configuration, is copied instead, since each member's configuration is rewritten to give it
+ * its own node id, ports and peers. The database and logs of the built kernel are not carried over,
+ * so every member starts from the genesis block, and neither is the launch script written for the
+ * built kernel's jvm profile, which each member writes for itself. Where hard links are not
+ * supported, for example when the cluster and the built kernel are on different file systems,
+ * files are copied.
+ *
+ * Any previous directory of the member is destroyed.
+ */
+public final class ClusterSandbox {
+    private static final Pattern NODE_ID = Pattern.compile("(<aion>.*?<id>)[^<]*(</id>)", Pattern.DOTALL);
+    private static final Pattern RPC_PORT = Pattern.compile("(<rpc\\b[^>]*\\bport=\")[0-9]+(\")");
+    private static final Pattern JAVA_API_PORT = Pattern.compile("(<java\\b[^>]*\\bport=\")[0-9]+(\")");
+    private static final Pattern P2P_PORT = Pattern.compile("(<p2p>.*?<port>)[0-9]+(</port>)", Pattern.DOTALL);
+    private static final Pattern PEERS = Pattern.compile("<nodes>.*?</nodes>|<nodes\\s*/>", Pattern.DOTALL);
+    private static final Pattern MINING = Pattern.compile("(<mining>)[a-z]+(</mining>)");
+
+    private static final Pattern TOML_SECTION = Pattern.compile("\\s*\\[([^\\]]+)\\]\\s*");
+    private static final Pattern TOML_KEY = Pattern.compile("\\s*([A-Za-z0-9_]+)\\s*=.*");
+
+    private ClusterSandbox() {}
+
+    /**
+     * Creates the directory of a member running the Java kernel.
+     *
+     * @param builtKernel The root directory of the built kernel.
+     * @param network The network whose configuration is rewritten.
+     * @param member The directory of the member.
+     * @param nodeId The p2p node id of the member.
+     * @param rpcPort The port of the member's rpc server.
+     * @param javaApiPort The port of the member's java api server.
+     * @param p2pPort The port the member listens for peers on.
+     * @param peers The p2p urls of the other members.
+     * @param mining Whether or not the member mines blocks.
+     */
+    public static void createJavaMember(File builtKernel, Network network, File member, String nodeId, int rpcPort, int javaApiPort, int p2pPort, List<String> peers, boolean mining) throws IOException {
+        String networkDirectory = network.string();
+        linkKernel(builtKernel, member, networkDirectory, Set.of(networkDirectory + File.separator + "database", networkDirectory + File.separator + "log", KernelLaunchScript.PROFILED_SCRIPT_NAME));
+
+        File config = new File(member, networkDirectory + File.separator + "config" + File.separator + "config.xml");
+        String xml = read(config);
+        xml = replace(config, xml, NODE_ID, "$1" + nodeId + "$2");
+        xml = replace(config, xml, RPC_PORT, "$1" + rpcPort + "$2");
+        xml = replace(config, xml, JAVA_API_PORT, "$1" + javaApiPort + "$2");
+        xml = replace(config, xml, P2P_PORT, "$1" + p2pPort + "$2");
+        xml = replace(config, xml, MINING, "$1" + mining + "$2");
+
+        StringBuilder nodes = new StringBuilder("<nodes>\n");
+        for (String peer : peers) {
+            nodes.append("\t\t\t<node>").append(peer).append("</node>\n");
+        }
+        nodes.append("\t\t</nodes>");
+        xml = replace(config, xml, PEERS, Matcher.quoteReplacement(nodes.toString()));
+
+        write(config, xml);
+    }
+
+    /**
+     * Creates the directory of a member running the Rust kernel.
+     *
+     * @param builtKernel The root directory of the built kernel.
+     * @param network The network whose configuration is rewritten.
+     * @param member The directory of the member.
+     * @param nodeId The p2p node id of the member.
+     * @param rpcPort The port of the member's http rpc server.
+     * @param websocketsPort The port of the member's websockets rpc server.
+     * @param walletPort The port of the member's wallet server.
+     * @param stratumPort The port of the member's stratum server, which its miner connects to.
+     * @param p2pPort The port the member listens for peers on.
+     * @param peers The p2p urls of the other members.
+     */
+    public static void createRustMember(File builtKernel, Network network, File member, String nodeId, int rpcPort, int websocketsPort, int walletPort, int stratumPort, int p2pPort, List<String> peers) throws IOException {
+        String networkDirectory = network.string();
+        linkKernel(builtKernel, member, networkDirectory, Set.of("data"));
+
+        File config = new File(member, networkDirectory + File.separator + networkDirectory + ".toml");
+        List<String> lines = new ArrayList<>();
+        List<String> rewritten = new ArrayList<>();
+        String section = "";
+
+        for (String line : read(config).split("\n", -1)) {
+            Matcher sectionMatcher = TOML_SECTION.matcher(line);
+            Matcher keyMatcher = TOML_KEY.matcher(line);
+            if (sectionMatcher.matches()) {
+                section = sectionMatcher.group(1).trim();
+            } else if (keyMatcher.matches()) {
+                String setting = section + "." + keyMatcher.group(1);
+                String value = null;
+                switch (setting) {
+                    case "network.local_node": value = quote("p2p://" + nodeId + "@0.0.0.0:" + p2pPort); break;
+                    case "network.boot_nodes": value = tomlArrayOf(peers); break;
+                    case "http.port": value = Integer.toString(rpcPort); break;
+                    case "websockets.port": value = Integer.toString(websocketsPort); break;
+                    case "wallet.port": value = Integer.toString(walletPort); break;
+                    case "stratum.port": value = Integer.toString(stratumPort); break;
+                }
+                if (value != null) {
+                    if (line.contains("[") && !line.contains("]")) {
+                        throw new IOException("Cannot rewrite the multi-line setting " + setting + " in " + config);
+                    }
+                    line = keyMatcher.group(1) + " = " + value;
+                    rewritten.add(setting);
+                }
+            }
+            lines.add(line);
+        }
+
+        for (String setting : List.of("network.local_node", "network.boot_nodes", "http.port", "websockets.port", "wallet.port", "stratum.port")) {
+            if (!rewritten.contains(setting)) {
+                throw new IOException("Expected to find the setting " + setting + " in " + config);
+            }
+        }
+        write(config, String.join("\n", lines));
+    }
+
+    /**
+     * Recreates the built kernel at the member directory, hard linking its files except for those
+     * in the network directory, which are copied, and skipping the excluded paths.
+     */
+    private static void linkKernel(File builtKernel, File member, String networkDirectory, Set<String> excluded) throws IOException {
+        if (!builtKernel.isDirectory()) {
+            throw new IOException("Could not find built kernel directory at location: " + builtKernel.getAbsolutePath());
+        }
+        if (!new File(builtKernel, networkDirectory).isDirectory()) {
+            throw new IOException("The built kernel has no configuration for the network: " + networkDirectory);
+        }
+
+        if (member.exists()) {
+            FileUtils.deleteDirectory(member);
+        }
+
+        Path source = builtKernel.toPath();
+        Path destination = member.toPath();
+        Path network = source.resolve(networkDirectory);
+        Files.walkFileTree(source, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attributes) throws IOException {
+                if (excluded.contains(source.relativize(dir).toString())) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                Files.createDirectories(destination.resolve(source.relativize(dir).toString()));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+                if (excluded.contains(source.relativize(file).toString())) {
+                    return FileVisitResult.CONTINUE;
+                }
+                Path target = destination.resolve(source.relativize(file).toString());
+                if (attributes.isRegularFile() && !file.startsWith(network)) {
+                    try {
+                        Files.createLink(target, file);
+                        return FileVisitResult.CONTINUE;
+                    } catch (UnsupportedOperationException | IOException e) {
+                        // Fall back to copying the file.
+                    }
+                }
+                Files.copy(file, target, StandardCopyOption.COPY_ATTRIBUTES, LinkOption.NOFOLLOW_LINKS);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static String replace(File config, String contents, Pattern pattern, String replacement) throws IOException {
+        Matcher matcher = pattern.matcher(contents);
+        if (!matcher.find()) {
+            throw new IOException("Expected to find " + pattern.pattern() + " in " + config);
+        }
+        return matcher.replaceFirst(replacement);
+    }
+
+    private static String tomlArrayOf(List<String> values) {
+        List<String> quoted = new ArrayList<>();
+        for (String value : values) {
+            quoted.add(quote(value));
+        }
+        return "[" + String.join(", ", quoted) + "]";
+    }
+
+    private static String quote(String value) {
+        return "\"" + value + "\"";
+    }
+
+    private static String read(File file) throws IOException {
+        if (!file.isFile()) {
+            throw new IOException("Expected to find the kernel configuration at: " + file.getAbsolutePath());
+        }
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+
+    private static void write(File file, String contents) throws IOException {
+        Files.write(file.toPath(), contents.getBytes(StandardCharsets.UTF_8));
+    }
+}
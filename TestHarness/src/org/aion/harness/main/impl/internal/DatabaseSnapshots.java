@@ -0,0 +1,149 @@
+package org.aion.harness.main.impl.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import org.apache.commons.io.FileUtils;
+
+/**
+ * Named snapshots of the database of a stopped node, which the node's database can later be reset
+ * to in place of being deleted, so that a test can start from a known chain state (for example one
+ * with deployed contracts and funded accounts) without rebuilding it with transactions.
+ *
+ * Snapshots are trees of hard links rather than copies. The table files of LevelDB and RocksDB
+ * ({@code .sst} and {@code .ldb}) are never modified once written, only deleted, so a snapshot and
+ * the live database can safely share them; every other file (the manifest, the write-ahead log,
+ * CURRENT and so on) may be modified in place and is copied instead. Saving and restoring a
+ * snapshot therefore only copies a few small files, whatever the size of the chain. Where hard
+ * links are not supported, for example when the snapshots and the database are on different file
+ * systems, table files are copied as well.
+ *
+ * The database must not be in use by a running node while a snapshot is saved or restored.
+ *
+ * This class is not thread-safe.
+ */
+public final class DatabaseSnapshots {
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+
+    private final File directory;
+
+    /**
+     * Constructs the snapshots in the specified directory, which is created when a snapshot is first
+     * saved.
+     *
+     * @param directory The directory of the snapshots.
+     */
+    public DatabaseSnapshots(File directory) {
+        if (directory == null) {
+            throw new NullPointerException("Cannot construct DatabaseSnapshots with a null directory.");
+        }
+        this.directory = directory;
+    }
+
+    /**
+     * Returns {@code true} only if a snapshot with the specified name exists.
+     */
+    public boolean contains(String name) {
+        return snapshotOf(name).isDirectory();
+    }
+
+    /**
+     * Saves the specified database as the snapshot with the specified name, replacing any snapshot
+     * already saved under that name.
+     *
+     * @param name The name of the snapshot.
+     * @param database The database directory.
+     */
+    public void save(String name, File database) throws IOException {
+        File snapshot = snapshotOf(name);
+        if (!database.isDirectory()) {
+            throw new IllegalArgumentException("The database is not a directory: " + database);
+        }
+
+        // Link into a temporary snapshot first, so that an interrupted save is never mistaken for a snapshot.
+        File temporary = new File(this.directory, name + TEMPORARY_SUFFIX);
+        FileUtils.deleteDirectory(temporary);
+        linkTree(database.toPath(), temporary.toPath());
+        FileUtils.deleteDirectory(snapshot);
+        Files.move(temporary.toPath(), snapshot.toPath(), StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Replaces the specified database with the snapshot with the specified name. The snapshot itself
+     * is unaffected, and may be restored again.
+     *
+     * @param name The name of the snapshot.
+     * @param database The database directory, which need not exist.
+     * @throws IllegalStateException if no snapshot with the name exists.
+     */
+    public void restore(String name, File database) throws IOException {
+        File snapshot = snapshotOf(name);
+        if (!snapshot.isDirectory()) {
+            throw new IllegalStateException("No database snapshot exists with the name " + name);
+        }
+
+        FileUtils.deleteDirectory(database);
+        linkTree(snapshot.toPath(), database.toPath());
+    }
+
+    /**
+     * Deletes the snapshot with the specified name, if it exists. The space held by its table files
+     * is only reclaimed once no database or other snapshot still links to them.
+     *
+     * @param name The name of the snapshot.
+     */
+    public void delete(String name) throws IOException {
+        FileUtils.deleteDirectory(snapshotOf(name));
+    }
+
+    private File snapshotOf(String name) {
+        if (name == null) {
+            throw new NullPointerException("Cannot use a null snapshot name.");
+        }
+        if (!name.matches("[A-Za-z0-9_-][A-Za-z0-9._-]*") || name.endsWith(TEMPORARY_SUFFIX)) {
+            throw new IllegalArgumentException("Snapshot names may only contain letters, digits, '.', '_' and '-', found: " + name);
+        }
+        return new File(this.directory, name);
+    }
+
+    /**
+     * Recreates the source tree at the destination, hard linking its immutable table files and
+     * copying all other files.
+     */
+    private static void linkTree(Path source, Path destination) throws IOException {
+        Files.walkFileTree(source, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attributes) throws IOException {
+                Files.createDirectories(destination.resolve(source.relativize(dir).toString()));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+                Path target = destination.resolve(source.relativize(file).toString());
+                if (attributes.isRegularFile() && isImmutable(file)) {
+                    try {
+                        Files.createLink(target, file);
+                        return FileVisitResult.CONTINUE;
+                    } catch (UnsupportedOperationException | IOException e) {
+                        // Fall back to copying the file.
+                    }
+                }
+                Files.copy(file, target, StandardCopyOption.COPY_ATTRIBUTES, StandardCopyOption.REPLACE_EXISTING, LinkOption.NOFOLLOW_LINKS);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static boolean isImmutable(Path file) {
+        String name = file.getFileName().toString();
+        return name.endsWith(".sst") || name.endsWith(".ldb");
+    }
+
+}
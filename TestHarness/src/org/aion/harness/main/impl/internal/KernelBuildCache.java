@@ -0,0 +1,327 @@
+package org.aion.harness.main.impl.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.io.FileUtils;
+
+/**
+ * A local cache of unpacked kernel builds, keyed by the content of the kernel source tree that they
+ * were built from, so that building unchanged sources can reuse the previous build instead of
+ * running the kernel's gradle build again.
+ *
+ * The key of a source tree is a digest of the git tree id of its directory in the HEAD commit and of
+ * the path and content of every modified or untracked file beneath it that git does not ignore,
+ * recursing into submodules. The source directory may be nested anywhere within its repository;
+ * changes elsewhere in the repository do not affect its key. Sources that are not in a git
+ * repository have no key and are never cached.
+ *
+ * The cache is bounded in size: after storing a build, the least recently used builds are evicted
+ * until the cache fits, though the build just stored is always kept.
+ *
+ * This class is not thread-safe.
+ */
+public final class KernelBuildCache {
+    public static final long DEFAULT_MAXIMUM_SIZE_IN_BYTES = 4L * 1024 * 1024 * 1024;
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+
+    private final File directory;
+    private final long maximumSizeInBytes;
+
+    /**
+     * Constructs a cache in the specified directory, which is created when a build is first stored.
+     *
+     * @param directory The directory of the cache.
+     * @param maximumSizeInBytes The size in bytes that eviction keeps the cache within.
+     */
+    public KernelBuildCache(File directory, long maximumSizeInBytes) {
+        if (directory == null) {
+            throw new NullPointerException("Cannot construct KernelBuildCache with a null directory.");
+        }
+        if (maximumSizeInBytes <= 0) {
+            throw new IllegalArgumentException("Maximum cache size must be positive, found: " + maximumSizeInBytes);
+        }
+
+        this.directory = directory;
+        this.maximumSizeInBytes = maximumSizeInBytes;
+    }
+
+    /**
+     * Returns the cache key of the kernel source tree in the specified directory, or an empty
+     * optional if the directory is not in a git repository.
+     *
+     * @param sourceDirectory The root directory of the kernel source.
+     * @return the key of the source tree.
+     */
+    public static Optional<String> keyOf(File sourceDirectory) throws IOException, InterruptedException {
+        if (sourceDirectory == null) {
+            throw new NullPointerException("Cannot compute the key of a null source directory.");
+        }
+
+        MessageDigest digest = newDigest();
+        if (!digestSourceTree(sourceDirectory, digest)) {
+            return Optional.empty();
+        }
+        return Optional.of(Hex.encodeHexString(digest.digest()));
+    }
+
+    /**
+     * Adds the git tree id and the modified and untracked files of the source tree to the digest.
+     * Returns false if the directory is not in a git repository.
+     */
+    private static boolean digestSourceTree(File sourceDirectory, MessageDigest digest) throws IOException, InterruptedException {
+        // The paths git status reports are relative to the top of the repository, not to the source directory.
+        Optional<String> topLevel = git(sourceDirectory, "rev-parse", "--show-toplevel");
+        Optional<String> prefix = git(sourceDirectory, "rev-parse", "--show-prefix");
+        if (!topLevel.isPresent() || !prefix.isPresent()) {
+            return false;
+        }
+        File repository = new File(topLevel.get().trim());
+
+        Optional<String> tree = git(sourceDirectory, "rev-parse", "HEAD:" + prefix.get().trim());
+        Optional<String> status = git(sourceDirectory, "status", "--porcelain", "-z", "--untracked-files=all", "--", ".");
+        if (!tree.isPresent() || !status.isPresent()) {
+            return false;
+        }
+        update(digest, "tree " + tree.get().trim());
+
+        // Entries are "XY path", where renames and copies are followed by their original path.
+        List<String> entries = new ArrayList<>(Arrays.asList(status.get().split("\0")));
+        for (int i = 0; i < entries.size(); i++) {
+            String entry = entries.get(i);
+            if (entry.length() < 4) {
+                continue;
+            }
+            String state = entry.substring(0, 2);
+            String path = entry.substring(3);
+            update(digest, state + " " + path);
+
+            if ((state.indexOf('R') >= 0) || (state.indexOf('C') >= 0)) {
+                i++;
+                update(digest, (i < entries.size()) ? entries.get(i) : "");
+            }
+
+            File file = new File(repository, path);
+            if (Files.isSymbolicLink(file.toPath())) {
+                update(digest, Files.readSymbolicLink(file.toPath()).toString());
+            } else if (file.isFile()) {
+                try (InputStream stream = Files.newInputStream(file.toPath())) {
+                    byte[] buffer = new byte[64 * 1024];
+                    int read;
+                    while ((read = stream.read(buffer)) != -1) {
+                        digest.update(buffer, 0, read);
+                    }
+                }
+            } else if (file.isDirectory()) {
+                // A submodule with changes of its own.
+                digestSourceTree(file, digest);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns {@code true} only if a build of the source tree with the specified key is cached.
+     */
+    public boolean contains(String key) {
+        return entryOf(key).isDirectory();
+    }
+
+    /**
+     * Copies the cached build with the specified key into the destination directory, which must
+     * already exist, and marks the build as recently used.
+     *
+     * @param key The key of the source tree.
+     * @param destination The directory to copy the build into.
+     * @throws IllegalStateException if no build with the key is cached.
+     */
+    public void restore(String key, File destination) throws IOException {
+        File entry = entryOf(key);
+        if (!entry.isDirectory()) {
+            throw new IllegalStateException("No kernel build is cached for key " + key);
+        }
+        if (!destination.isDirectory()) {
+            throw new IllegalArgumentException("The destination is not a directory: " + destination);
+        }
+
+        copyTree(entry.toPath(), destination.toPath());
+        Files.setLastModifiedTime(entry.toPath(), FileTime.fromMillis(System.currentTimeMillis()));
+    }
+
+    /**
+     * Stores a copy of the contents of the specified directory as the build of the source tree with
+     * the specified key, replacing any build already cached for it, and then evicts the least
+     * recently used builds until the cache fits within its maximum size.
+     *
+     * @param key The key of the source tree.
+     * @param build The directory holding the unpacked build.
+     */
+    public void store(String key, File build) throws IOException {
+        if (!build.isDirectory()) {
+            throw new IllegalArgumentException("The build is not a directory: " + build);
+        }
+
+        File entry = entryOf(key);
+        File temporary = new File(this.directory, key + TEMPORARY_SUFFIX);
+        FileUtils.deleteDirectory(temporary);
+        if (!temporary.mkdirs()) {
+            throw new IOException("Failed to create cache entry: " + temporary);
+        }
+
+        // Copy into a temporary entry first, so that an interrupted copy is never mistaken for a build.
+        copyTree(build.toPath(), temporary.toPath());
+        FileUtils.deleteDirectory(entry);
+        Files.move(temporary.toPath(), entry.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        Files.setLastModifiedTime(entry.toPath(), FileTime.fromMillis(System.currentTimeMillis()));
+
+        evictAllBut(entry);
+    }
+
+    /**
+     * Returns the total size in bytes of the cached builds.
+     */
+    public long sizeInBytes() throws IOException {
+        long size = 0;
+        for (File entry : entries()) {
+            size += sizeOf(entry.toPath());
+        }
+        return size;
+    }
+
+    /**
+     * Evicts the least recently used builds, other than the specified one, until the cache fits
+     * within its maximum size. Leftover temporary entries are always removed.
+     */
+    private void evictAllBut(File keep) throws IOException {
+        File[] files = this.directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.getName().endsWith(TEMPORARY_SUFFIX)) {
+                    FileUtils.deleteDirectory(file);
+                }
+            }
+        }
+
+        List<File> entries = entries();
+        entries.sort(Comparator.comparingLong(File::lastModified));
+
+        long size = sizeInBytes();
+        for (File entry : entries) {
+            if (size <= this.maximumSizeInBytes) {
+                break;
+            }
+            if (!entry.equals(keep)) {
+                size -= sizeOf(entry.toPath());
+                FileUtils.deleteDirectory(entry);
+            }
+        }
+    }
+
+    private List<File> entries() {
+        List<File> entries = new ArrayList<>();
+        File[] files = this.directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.isDirectory() && !file.getName().endsWith(TEMPORARY_SUFFIX)) {
+                    entries.add(file);
+                }
+            }
+        }
+        return entries;
+    }
+
+    private File entryOf(String key) {
+        if (key == null) {
+            throw new NullPointerException("Cannot use a null cache key.");
+        }
+        if (!key.matches("[0-9a-f]+")) {
+            throw new IllegalArgumentException("Cache keys are hexadecimal digests, found: " + key);
+        }
+        return new File(this.directory, key);
+    }
+
+    /**
+     * Copies the contents of the source directory into the destination directory, preserving file
+     * permissions (the kernel's launch scripts and bundled jre must stay executable) and copying
+     * symbolic links as links.
+     */
+    private static void copyTree(Path source, Path destination) throws IOException {
+        Files.walkFileTree(source, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attributes) throws IOException {
+                Path target = destination.resolve(source.relativize(dir).toString());
+                if (!Files.isDirectory(target)) {
+                    Files.copy(dir, target, StandardCopyOption.COPY_ATTRIBUTES);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+                Path target = destination.resolve(source.relativize(file).toString());
+                Files.copy(file, target, StandardCopyOption.COPY_ATTRIBUTES, StandardCopyOption.REPLACE_EXISTING, LinkOption.NOFOLLOW_LINKS);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static long sizeOf(Path root) throws IOException {
+        long[] size = new long[1];
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                size[0] += attributes.size();
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return size[0];
+    }
+
+    /**
+     * Runs git with the specified arguments in the directory and returns its output, or an empty
+     * optional if git failed.
+     */
+    private static Optional<String> git(File directory, String... arguments) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add("git");
+        command.addAll(Arrays.asList(arguments));
+
+        Process process = new ProcessBuilder(command)
+            .directory(directory)
+            .redirectError(ProcessBuilder.Redirect.DISCARD)
+            .start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        return (process.waitFor() == 0) ? Optional.of(output) : Optional.empty();
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available.", e);
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+}
@@ -0,0 +1,139 @@
+package org.aion.harness.main.impl.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.aion.harness.result.Result;
+
+/**
+ * Writes a copy of the Java kernel's launch script that passes extra options to the kernel's jvm,
+ * so that a {@link org.aion.harness.main.JvmProfile} reaches the kernel and nothing else.
+ *
+ * The options are inserted into the script's java invocation right before the kernel's main class,
+ * after the script's own options, so that where both set the same option (the heap sizes, say) the
+ * profile takes precedence. Options the jvm refuses to see twice cannot be overridden this way: if
+ * the script and the options select different garbage collectors the jvm would not start, so the
+ * script is not written and the conflict is reported instead.
+ *
+ * The copy is written next to the script, since the script locates the kernel relative to itself.
+ *
+ * This class is not thread-safe.
+ */
+public final class KernelLaunchScript {
+    public static final String SCRIPT_NAME = "aion.sh";
+    public static final String PROFILED_SCRIPT_NAME = "aion-profiled.sh";
+
+    private static final Pattern MAIN_CLASS = Pattern.compile("(?:(?:-m|--module)\\s+\\S*/|(?<![\\w./]))org\\.aion\\.Aion(?![\\w.])");
+    private static final Pattern COLLECTOR = Pattern.compile("-XX:\\+Use[A-Za-z0-9]+GC\\b");
+
+    private KernelLaunchScript() {}
+
+    /**
+     * Writes the copy of the launch script in the specified kernel directory that passes the
+     * specified options to the kernel's jvm.
+     *
+     * The result is unsuccessful, and nothing is written, if the script's java invocation cannot be
+     * found or the script selects a garbage collector other than one selected by the options.
+     *
+     * @param kernelDirectory The directory of the kernel build holding the launch script.
+     * @param jvmOptions The options to pass to the kernel's jvm.
+     * @return a result indicating the success or failure of this method.
+     */
+    public static Result writeProfiledScript(File kernelDirectory, List<String> jvmOptions) throws IOException {
+        if (kernelDirectory == null) {
+            throw new NullPointerException("Cannot write a launch script into a null directory.");
+        }
+        if (jvmOptions == null) {
+            throw new NullPointerException("Cannot pass null jvm options to the kernel.");
+        }
+
+        File script = new File(kernelDirectory, SCRIPT_NAME);
+        if (!script.isFile()) {
+            return Result.unsuccessfulDueTo("Cannot apply jvm options, no launch script found at " + script);
+        }
+        List<String> lines = Files.readAllLines(script.toPath(), StandardCharsets.UTF_8);
+
+        Set<String> scriptCollectors = collectorsIn(lines);
+        Set<String> optionCollectors = collectorsIn(jvmOptions);
+        if (!scriptCollectors.isEmpty() && !optionCollectors.isEmpty() && !scriptCollectors.equals(optionCollectors)) {
+            return Result.unsuccessfulDueTo("Cannot apply jvm options, " + SCRIPT_NAME + " selects the garbage collector "
+                + scriptCollectors + " and the options select " + optionCollectors + ", which the jvm refuses to start with.");
+        }
+
+        int invocation = -1;
+        Matcher mainClass = null;
+        for (int i = 0; i < lines.size(); i++) {
+            if (isComment(lines.get(i))) {
+                continue;
+            }
+            Matcher matcher = MAIN_CLASS.matcher(lines.get(i));
+            if (matcher.find()) {
+                if (invocation != -1) {
+                    return Result.unsuccessfulDueTo("Cannot apply jvm options, " + SCRIPT_NAME + " launches the kernel on more than one line.");
+                }
+                invocation = i;
+                mainClass = matcher;
+            }
+        }
+        if (invocation == -1) {
+            return Result.unsuccessfulDueTo("Cannot apply jvm options, the kernel's java invocation was not found in " + SCRIPT_NAME);
+        }
+
+        StringBuilder quotedOptions = new StringBuilder();
+        for (String option : jvmOptions) {
+            quotedOptions.append(quote(option)).append(' ');
+        }
+        String line = lines.get(invocation);
+        lines.set(invocation, line.substring(0, mainClass.start()) + quotedOptions + line.substring(mainClass.start()));
+
+        // Written beside the script and moved into place, rather than through an existing file that
+        // may be a hard link shared with another kernel directory.
+        File profiledScript = new File(kernelDirectory, PROFILED_SCRIPT_NAME);
+        Path temporaryScript = Files.createTempFile(kernelDirectory.toPath(), PROFILED_SCRIPT_NAME, ".tmp");
+        try {
+            Files.write(temporaryScript, lines, StandardCharsets.UTF_8);
+            Files.setPosixFilePermissions(temporaryScript, Files.getPosixFilePermissions(script.toPath()));
+            if (!temporaryScript.toFile().setExecutable(true)) {
+                return Result.unsuccessfulDueTo("Failed to make the launch script executable: " + profiledScript);
+            }
+            Files.move(temporaryScript, profiledScript.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporaryScript);
+        }
+        return Result.successful();
+    }
+
+    private static Set<String> collectorsIn(List<String> lines) {
+        Set<String> collectors = new TreeSet<>();
+        for (String line : lines) {
+            if (!isComment(line)) {
+                Matcher matcher = COLLECTOR.matcher(line);
+                while (matcher.find()) {
+                    collectors.add(matcher.group());
+                }
+            }
+        }
+        return collectors;
+    }
+
+    private static boolean isComment(String line) {
+        return line.trim().startsWith("#");
+    }
+
+    /**
+     * Quotes the option for the shell, so that characters such as the {@code *} of a gc logging
+     * option are passed to the jvm as they are.
+     */
+    private static String quote(String option) {
+        return "'" + option.replace("'", "'\\''") + "'";
+    }
+
+}
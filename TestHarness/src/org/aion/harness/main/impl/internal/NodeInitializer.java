@@ -2,12 +2,16 @@ package org.aion.harness.main.impl.internal;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Optional;
+import java.util.function.DoubleConsumer;
 import org.aion.harness.main.Network;
 import org.aion.harness.main.NodeConfigurations;
 import org.aion.harness.misc.Assumptions;
 import org.aion.harness.result.Result;
 import org.aion.harness.util.NodeFileManager;
+import org.aion.harness.util.ParallelBzip2InputStream;
 import org.aion.harness.util.SimpleLog;
+import org.aion.harness.util.TarExtractor;
 import org.apache.commons.io.FileUtils;
 
 /**
@@ -42,6 +46,15 @@ public final class NodeInitializer {
      * If the sandbox directory exists prior to this call, it will be destroyed.
      */
     private Result buildFromSource(boolean verbose) throws IOException, InterruptedException {
+        KernelBuildCache cache = new KernelBuildCache(NodeFileManager.getKernelBuildCacheDirectory(), KernelBuildCache.DEFAULT_MAXIMUM_SIZE_IN_BYTES);
+        Optional<String> key = this.configurations.useBuildCache()
+            ? KernelBuildCache.keyOf(this.configurations.getKernelSourceDirectory())
+            : Optional.empty();
+
+        // 0. Reuse the cached build if the source has not changed since it was built.
+        if (key.isPresent() && cache.contains(key.get())) {
+            return useCachedBuild(cache, key.get());
+        }
 
         // 1. Build the kernel from source.
         Result result = buildJavaKernel(verbose);
@@ -72,9 +85,41 @@ public final class NodeInitializer {
         }
 
         destroyTemporaryTarFile();
+
+        // 6. Cache the extracted build for the next build of the same source.
+        if (result.isSuccess() && key.isPresent()) {
+            try {
+                cache.store(key.get(), new File(NodeFileManager.getSandboxPath()));
+            } catch (IOException e) {
+                log.log(Assumptions.LOGGER_BANNER + "Failed to cache the built kernel: " + e.getMessage());
+            }
+        }
         return result;
     }
 
+    /**
+     * Copies the cached build of the kernel source into a new sandbox directory.
+     *
+     * If the sandbox directory exists prior to this call, it will be destroyed.
+     */
+    private Result useCachedBuild(KernelBuildCache cache, String key) throws IOException {
+        log.log(Assumptions.LOGGER_BANNER + "Kernel source is unchanged, using the cached build " + key.substring(0, 12) + "...");
+
+        destroySandbox();
+        Result result = createSandbox();
+        if (!result.isSuccess()) {
+            return result;
+        }
+
+        try {
+            cache.restore(key, new File(NodeFileManager.getSandboxPath()));
+        } catch (IOException e) {
+            cleanup();
+            return Result.unsuccessfulDueTo("Failed to copy the cached kernel build into the sandbox: " + e.getMessage());
+        }
+        return Result.successful();
+    }
+
     /**
      * Uses an existing built kernel.
      *
@@ -137,25 +182,34 @@ public final class NodeInitializer {
             : Result.unsuccessfulDueTo("An error occurred building the kernel!");
     }
 
-    private Result extractTarFile(boolean verbose) throws IOException, InterruptedException {
+    private Result extractTarFile(boolean verbose) throws IOException {
         log.log(Assumptions.LOGGER_BANNER + "Extracting the built kernel...");
-        if (verbose) {
-            log.log(Assumptions.LOGGER_BANNER + "Extracting contents of Java Kernel tar.bz2 file using command: tar xvjf");
-        }
 
         File temporaryTarFile = NodeFileManager.getTemporaryTarFile();
-        ProcessBuilder builder = new ProcessBuilder("tar", "xvjf", temporaryTarFile.getName())
-            .directory(temporaryTarFile.getParentFile());
-
+        int threads = Runtime.getRuntime().availableProcessors();
         if (verbose) {
-            builder.inheritIO();
+            log.log(Assumptions.LOGGER_BANNER + "Extracting contents of Java Kernel tar.bz2 file using " + threads + " decompression threads.");
         }
 
-        int status = builder.start().waitFor();
-
-        return (status == 0)
-            ? Result.successful()
-            : Result.unsuccessfulDueTo("Failed to extract the built assets from the tar.bz2 file. Tar command exit code: " + status);
+        // Log every tenth of the archive decompressed, rather than every block.
+        int[] lastDecile = new int[]{ 0 };
+        DoubleConsumer progress = fraction -> {
+            int decile = (int) (fraction * 10);
+            if (decile > lastDecile[0]) {
+                lastDecile[0] = decile;
+                log.log(Assumptions.LOGGER_BANNER + "Extracted " + (decile * 10) + "% of the built kernel.");
+            }
+        };
+
+        try (ParallelBzip2InputStream stream = new ParallelBzip2InputStream(temporaryTarFile, threads, progress)) {
+            int entries = TarExtractor.extract(stream, temporaryTarFile.getParentFile());
+            if (verbose) {
+                log.log(Assumptions.LOGGER_BANNER + "Extracted " + entries + " files and directories.");
+            }
+        } catch (IOException e) {
+            return Result.unsuccessfulDueTo("Failed to extract the built assets from the tar.bz2 file: " + e.getMessage());
+        }
+        return Result.successful();
     }
 
     private Result moveTarFileToSandbox() throws IOException {
@@ -0,0 +1,193 @@
+package org.aion.harness.main.impl.internal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import org.aion.harness.misc.Assumptions;
+import org.aion.harness.statistics.StartupPhase;
+import org.aion.harness.statistics.StartupProfile;
+import org.aion.harness.statistics.StartupProfileStore;
+import org.aion.harness.util.SimpleLog;
+
+/**
+ * Times the phases of a kernel's startup by reading its output log from the moment it is launched
+ * and noting when the first line matching the marker of each phase appears.
+ *
+ * The log is read from its beginning on a background thread every {@link #POLL_INTERVAL_MILLIS}
+ * milliseconds, independently of the node's log reader, which only tails the log and so misses the
+ * lines written before it starts. Profiling finishes once every phase has been seen, once
+ * {@link #finish()} is called, for instance because the node is stopping, or after
+ * {@link #PROFILING_TIMEOUT_MINUTES} minutes. The profile is then appended to the store.
+ *
+ * This class is thread-safe.
+ */
+public final class StartupProfiler {
+    public static final long POLL_INTERVAL_MILLIS = 20;
+    public static final long PROFILING_TIMEOUT_MINUTES = 5;
+
+    private final SimpleLog log = new SimpleLog(StartupProfiler.class.getName());
+    private final String node;
+    private final String network;
+    private final File outputLog;
+    private final Map<StartupPhase, Pattern> markers;
+    private final long launchTimeInNanos;
+    private final StartupProfileStore store;
+    private final Thread reader;
+
+    // Only touched by the reader thread.
+    private final Map<StartupPhase, Long> timesSinceLaunchInNanos = new EnumMap<>(StartupPhase.class);
+    private final ByteArrayOutputStream partialLine = new ByteArrayOutputStream();
+    private RandomAccessFile file = null;
+
+    private volatile boolean isFinishing = false;
+    private volatile StartupProfile profile = null;
+
+    /**
+     * Constructs a profiler of a kernel that was launched at the specified time, writing to the
+     * specified output log.
+     *
+     * @param node The kind of node being started, for example {@code JavaNode}.
+     * @param network The network the node is started on.
+     * @param outputLog The output log of the kernel.
+     * @param markers The pattern that the line marking each phase contains.
+     * @param launchTimeInNanos The {@link System#nanoTime()} at which the kernel was launched.
+     * @param store The store to append the profile to.
+     */
+    public StartupProfiler(String node, String network, File outputLog, Map<StartupPhase, Pattern> markers, long launchTimeInNanos, StartupProfileStore store) {
+        if (node == null) {
+            throw new NullPointerException("Cannot construct StartupProfiler with null node.");
+        }
+        if (network == null) {
+            throw new NullPointerException("Cannot construct StartupProfiler with null network.");
+        }
+        if (outputLog == null) {
+            throw new NullPointerException("Cannot construct StartupProfiler with null output log.");
+        }
+        if (markers == null) {
+            throw new NullPointerException("Cannot construct StartupProfiler with null markers.");
+        }
+        if (store == null) {
+            throw new NullPointerException("Cannot construct StartupProfiler with null store.");
+        }
+        this.node = node;
+        this.network = network;
+        this.outputLog = outputLog;
+        this.markers = new EnumMap<>(markers);
+        this.launchTimeInNanos = launchTimeInNanos;
+        this.store = store;
+        this.reader = new Thread(this::profile, "startup-profiler-" + node);
+        this.reader.setDaemon(true);
+    }
+
+    /**
+     * Starts reading the output log in the background.
+     */
+    public void start() {
+        this.reader.start();
+    }
+
+    /**
+     * Finishes profiling with the phases seen so far, after reading whatever the kernel has logged
+     * by now, and returns the profile. If profiling has already finished, this returns the same
+     * profile.
+     *
+     * @return the profile, or an empty optional if profiling was never started.
+     */
+    public Optional<StartupProfile> finish() throws InterruptedException {
+        this.isFinishing = true;
+        if (this.reader.isAlive()) {
+            this.reader.join();
+        }
+        return getProfile();
+    }
+
+    /**
+     * Returns the profile if profiling has finished.
+     */
+    public Optional<StartupProfile> getProfile() {
+        return Optional.ofNullable(this.profile);
+    }
+
+    private void profile() {
+        long deadlineInNanos = this.launchTimeInNanos + TimeUnit.MINUTES.toNanos(PROFILING_TIMEOUT_MINUTES);
+        try {
+            while (true) {
+                // Read once more after being asked to finish, so that lines already logged are seen.
+                boolean isLastRound = this.isFinishing || (System.nanoTime() >= deadlineInNanos);
+                readNewLines();
+                if (isLastRound || (this.timesSinceLaunchInNanos.size() == this.markers.size())) {
+                    break;
+                }
+                Thread.sleep(POLL_INTERVAL_MILLIS);
+            }
+        } catch (IOException e) {
+            log.log(Assumptions.LOGGER_BANNER + "Stopped profiling the startup of " + this.node + ": " + e.getMessage());
+        } catch (InterruptedException e) {
+            // Finish with the phases seen so far.
+        } finally {
+            closeFile();
+        }
+
+        StartupProfile profile = StartupProfile.of(this.node, this.network, this.timesSinceLaunchInNanos, TimeUnit.NANOSECONDS);
+        log.log(Assumptions.LOGGER_BANNER + "Startup phases: " + profile);
+        try {
+            this.store.append(profile);
+        } catch (IOException e) {
+            log.log(Assumptions.LOGGER_BANNER + "Failed to persist the startup profile: " + e.getMessage());
+        }
+        this.profile = profile;
+    }
+
+    /**
+     * Reads every complete line appended to the output log since the last read, noting the phases
+     * they mark.
+     */
+    private void readNewLines() throws IOException {
+        if (this.file == null) {
+            if (!this.outputLog.exists()) {
+                return;
+            }
+            this.file = new RandomAccessFile(this.outputLog, "r");
+        }
+
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = this.file.read(buffer)) > 0) {
+            long timeSinceLaunchInNanos = Math.max(0, System.nanoTime() - this.launchTimeInNanos);
+            for (int i = 0; i < read; i++) {
+                if (buffer[i] == '\n') {
+                    onLine(new String(this.partialLine.toByteArray(), StandardCharsets.UTF_8), timeSinceLaunchInNanos);
+                    this.partialLine.reset();
+                } else {
+                    this.partialLine.write(buffer[i]);
+                }
+            }
+        }
+    }
+
+    private void onLine(String line, long timeSinceLaunchInNanos) {
+        for (Map.Entry<StartupPhase, Pattern> marker : this.markers.entrySet()) {
+            if (!this.timesSinceLaunchInNanos.containsKey(marker.getKey()) && marker.getValue().matcher(line).find()) {
+                this.timesSinceLaunchInNanos.put(marker.getKey(), timeSinceLaunchInNanos);
+            }
+        }
+    }
+
+    private void closeFile() {
+        if (this.file != null) {
+            try {
+                this.file.close();
+            } catch (IOException e) {
+                // Nothing more is read from it either way.
+            }
+            this.file = null;
+        }
+    }
+}
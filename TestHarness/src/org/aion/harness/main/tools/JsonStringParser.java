@@ -1,5 +1,6 @@
 package org.aion.harness.main.tools;
 
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 
@@ -60,6 +61,24 @@ public final class JsonStringParser {
         return element;
     }
 
+    /**
+     * Returns the number of elements in the array corresponding to the specified attribute.
+     *
+     * If the specified attribute does not exist, or if its content is not an array, then this
+     * method returns -1.
+     *
+     * @param attribute The attribute whose array content is to be sized.
+     * @return the size of the corresponding array.
+     */
+    public int attributeArraySize(String attribute) {
+        if (!hasAttribute(attribute)) {
+            return -1;
+        }
+
+        JsonElement element = this.stringAsJson.get(attribute);
+        return (element.isJsonArray()) ? element.getAsJsonArray().size() : -1;
+    }
+
     /**
      * Returns rawElement with no leading or trailing quotation marks and with no '0x' hex
      * identifier.
@@ -6,11 +6,20 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.concurrent.TimeUnit;
+import org.aion.harness.metrics.Counter;
+import org.aion.harness.metrics.FlightRecorderEvent;
+import org.aion.harness.metrics.HarnessEvents;
+import org.aion.harness.metrics.MetricsRegistry;
+import org.aion.harness.statistics.Histogram;
 
 /**
  * A class responsible for calling an RPC endpoint using the provided payload.
  */
 public final class RpcCaller {
+    private static final Counter CALLS = MetricsRegistry.global().counter("harness_rpc_calls_total", "RPC calls made by the harness.");
+    private static final Counter FAILED_CALLS = MetricsRegistry.global().counter("harness_rpc_call_failures_total", "RPC calls made by the harness that were unsuccessful.");
+    private static final Histogram CALL_LATENCIES = MetricsRegistry.global().histogram("harness_rpc_call_latency_nanos", "Round trip time of RPC calls made by the harness.");
+
     private final String ip;
     private final String port;
 
@@ -43,6 +52,30 @@ public final class RpcCaller {
      * parsed.
      */
     public InternalRpcResult call(RpcPayload payload, boolean verbose) throws InterruptedException {
+        FlightRecorderEvent event = HarnessEvents.RPC_CALL.begin();
+        long startTimeInNanos = System.nanoTime();
+        InternalRpcResult result = null;
+        try {
+            result = callEndpoint(payload, verbose);
+            return result;
+        } finally {
+            CALLS.increment();
+            CALL_LATENCIES.record(System.nanoTime() - startTimeInNanos);
+            if ((result == null) || (!result.success)) {
+                FAILED_CALLS.increment();
+            }
+            if (event.isRecording()) {
+                event
+                    .set(HarnessEvents.RPC_CALL_METHOD, payload.method)
+                    .set(HarnessEvents.RPC_CALL_PAYLOAD_SIZE, (payload.payload == null) ? 0L : (long) payload.payload.length())
+                    .set(HarnessEvents.RPC_CALL_SUCCESS, (result != null) && result.success)
+                    .set(HarnessEvents.RPC_CALL_ERROR, (result == null) ? "no result" : result.error)
+                    .commit();
+            }
+        }
+    }
+
+    private InternalRpcResult callEndpoint(RpcPayload payload, boolean verbose) throws InterruptedException {
         ProcessBuilder processBuilder = new ProcessBuilder()
             .command("curl", "-X", "POST", "-H", "Content-type: application/json", "--data", payload.payload, this.ip + ":" + this.port);
 
@@ -18,7 +18,9 @@ public enum RpcMethod {
 
     GET_NONCE("eth_getTransactionCount"),
 
-    BLOCK_NUMBER("eth_blockNumber");
+    BLOCK_NUMBER("eth_blockNumber"),
+
+    GET_BLOCK_TRANSACTION_COUNT_BY_NUMBER("eth_getBlockTransactionCountByNumber");
 
     private String method;
 
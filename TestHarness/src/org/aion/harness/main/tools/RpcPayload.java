@@ -12,8 +12,12 @@ package org.aion.harness.main.tools;
 public final class RpcPayload {
     public final String payload;
 
+    // The name of the rpc method being called, or null if it could not be determined.
+    public final String method;
+
     public RpcPayload(String payload) {
         this.payload = payload;
+        this.method = extractMethod(payload);
     }
 
     public RpcPayload(RpcMethod method, String params, String defaultBlock) {
@@ -32,10 +36,31 @@ public final class RpcPayload {
             parameters = "\"" + params + "\",\"" + defaultBlock + "\"";
         } else if ((!params.isEmpty()) && (defaultBlock.isEmpty())) {
             parameters = "\"" + params + "\"";
+        } else if (!defaultBlock.isEmpty()) {
+            parameters = "\"" + defaultBlock + "\"";
         } else {
             parameters = "";
         }
 
+        this.method = method.getMethod();
         this.payload = "{\"jsonrpc\":\"2.0\",\"method\":\"" + method.getMethod() + "\",\"params\":[" + parameters + "],\"id\":1}";
     }
+
+    /**
+     * Returns the value of the "method" attribute of a raw payload, found without parsing the
+     * payload, since this happens on every rpc call.
+     */
+    private static String extractMethod(String payload) {
+        if (payload == null) {
+            return null;
+        }
+        String attribute = "\"method\":\"";
+        int start = payload.indexOf(attribute);
+        if (start < 0) {
+            return null;
+        }
+        start += attribute.length();
+        int end = payload.indexOf('"', start);
+        return (end < 0) ? null : payload.substring(start, end);
+    }
 }
@@ -48,6 +48,17 @@ public final class RpcPayloadBuilder {
         return this;
     }
 
+    /**
+     * The block that the RPC call will derive its world-view from will be the pending block (the
+     * block the node is currently assembling from its pending transaction pool).
+     *
+     * @return this builder.
+     */
+    public RpcPayloadBuilder usePendingBlock() {
+        this.defaultBlock = "pending";
+        return this;
+    }
+
     /**
      * Builds the RPC payload
      *
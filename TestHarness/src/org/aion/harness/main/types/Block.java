@@ -5,6 +5,9 @@ import java.util.Arrays;
 import org.apache.commons.codec.binary.Hex;
 
 public final class Block {
+    public static final long UNKNOWN_TIMESTAMP = -1;
+    public static final int UNKNOWN_NUMBER_OF_TRANSACTIONS = -1;
+
     private final long difficulty;
     private final long blockSizeInBytes;
     private final long blockEnergyLimit;
@@ -17,11 +20,24 @@ public final class Block {
     private final byte[] nonce;
     private final BigInteger number;
     private final BigInteger totalDifficulty;
+    private final long timestamp;
+    private final int numberOfTransactions;
 
+    /**
+     * Constructs a block whose timestamp and number of transactions are unknown.
+     */
     public Block(long difficulty, long blockSizeInBytes, long blockEnergyLimit, long blockEnergyUsed,
         byte[] hash, byte[] parentHash, byte[] bloomFilter, byte[] receiptTrieRoot, byte[] stateRoot,
         byte[] nonce, BigInteger number, BigInteger totalDifficulty) {
 
+        this(difficulty, blockSizeInBytes, blockEnergyLimit, blockEnergyUsed, hash, parentHash, bloomFilter, receiptTrieRoot,
+            stateRoot, nonce, number, totalDifficulty, UNKNOWN_TIMESTAMP, UNKNOWN_NUMBER_OF_TRANSACTIONS);
+    }
+
+    public Block(long difficulty, long blockSizeInBytes, long blockEnergyLimit, long blockEnergyUsed,
+        byte[] hash, byte[] parentHash, byte[] bloomFilter, byte[] receiptTrieRoot, byte[] stateRoot,
+        byte[] nonce, BigInteger number, BigInteger totalDifficulty, long timestamp, int numberOfTransactions) {
+
         this.difficulty = difficulty;
         this.blockSizeInBytes = blockSizeInBytes;
         this.blockEnergyLimit = blockEnergyLimit;
@@ -34,6 +50,8 @@ public final class Block {
         this.nonce = Arrays.copyOf(nonce, nonce.length);
         this.number = number;
         this.totalDifficulty = totalDifficulty;
+        this.timestamp = timestamp;
+        this.numberOfTransactions = numberOfTransactions;
     }
 
     /**
@@ -146,11 +164,33 @@ public final class Block {
         return this.totalDifficulty;
     }
 
+    /**
+     * Returns the time at which this block was sealed, as reported by the kernel, in seconds since
+     * the epoch, or {@link #UNKNOWN_TIMESTAMP} if the block was constructed without one.
+     *
+     * @return the block's timestamp.
+     */
+    public long getTimestamp() {
+        return this.timestamp;
+    }
+
+    /**
+     * Returns the number of transactions included in this block, or
+     * {@link #UNKNOWN_NUMBER_OF_TRANSACTIONS} if the block was constructed without it.
+     *
+     * @return the block's transaction count.
+     */
+    public int getNumberOfTransactions() {
+        return this.numberOfTransactions;
+    }
+
     @Override
     public String toString() {
         return "Block { number = " + this.number
             + ", difficulty = " + this.difficulty
             + ", total difficulty = " + this.totalDifficulty
+            + ", timestamp = " + this.timestamp
+            + ", number of transactions = " + this.numberOfTransactions
             + ", block energy limit = " + this.blockEnergyLimit
             + ", block energy used = " + this.blockEnergyUsed
             + ", block size (in bytes) = " + this.blockSizeInBytes
@@ -19,6 +19,8 @@ public final class BlockBuilder {
     private byte[] nonce = null;
     private BigInteger number = null;
     private BigInteger totalDifficulty = null;
+    private long timestamp = Block.UNKNOWN_TIMESTAMP;
+    private int numberOfTransactions = Block.UNKNOWN_NUMBER_OF_TRANSACTIONS;
 
     public BlockBuilder difficulty(long difficulty) {
         this.difficulty = difficulty;
@@ -80,6 +82,16 @@ public final class BlockBuilder {
         return this;
     }
 
+    public BlockBuilder timestamp(long timestamp) {
+        this.timestamp = timestamp;
+        return this;
+    }
+
+    public BlockBuilder numberOfTransactions(int numberOfTransactions) {
+        this.numberOfTransactions = numberOfTransactions;
+        return this;
+    }
+
     public Block build() {
         if (this.difficulty < 0) {
             throw new IllegalStateException("Cannot build block with no difficulty set.");
@@ -130,7 +142,9 @@ public final class BlockBuilder {
             this.stateRoot,
             this.nonce,
             this.number,
-            this.totalDifficulty);
+            this.totalDifficulty,
+            this.timestamp,
+            this.numberOfTransactions);
     }
 
     public Block buildFromJsonString(String jsonString) throws DecoderException  {
@@ -148,6 +162,8 @@ public final class BlockBuilder {
         String nonce = jsonParser.attributeToString("nonce");
         String number = jsonParser.attributeToString("number");
         String totalDifficulty = jsonParser.attributeToString("totalDifficulty");
+        String timestamp = jsonParser.attributeToString("timestamp");
+        int numberOfTransactions = jsonParser.attributeArraySize("transactions");
 
         return new BlockBuilder()
             .difficulty((difficulty == null) ? -1 : Long.parseLong(difficulty, 16))
@@ -162,6 +178,8 @@ public final class BlockBuilder {
             .nonce((nonce == null) ? null : Hex.decodeHex(nonce))
             .number((number == null) ? null : new BigInteger(number, 16))
             .totalDifficulty((totalDifficulty == null) ? null : new BigInteger(totalDifficulty, 16))
+            .timestamp((timestamp == null) ? Block.UNKNOWN_TIMESTAMP : Long.parseLong(timestamp, 16))
+            .numberOfTransactions(numberOfTransactions)
             .build();
     }
 
@@ -181,6 +199,8 @@ public final class BlockBuilder {
         this.nonce = null;
         this.number = null;
         this.totalDifficulty = null;
+        this.timestamp = Block.UNKNOWN_TIMESTAMP;
+        this.numberOfTransactions = Block.UNKNOWN_NUMBER_OF_TRANSACTIONS;
     }
 
 }
@@ -0,0 +1,43 @@
+package org.aion.harness.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A monotonically increasing count, such as the number of RPC calls made.
+ *
+ * Counters are obtained from a {@link MetricsRegistry}. Incrementing a counter is cheap and does
+ * not contend between threads, so counters may be updated on hot paths.
+ *
+ * This class is thread-safe.
+ */
+public final class Counter {
+    private final LongAdder count = new LongAdder();
+
+    Counter() {}
+
+    /**
+     * Increments the counter by one.
+     */
+    public void increment() {
+        this.count.increment();
+    }
+
+    /**
+     * Increments the counter by the specified amount.
+     *
+     * @param amount The amount to increment by. Must be non-negative.
+     */
+    public void add(long amount) {
+        if (amount < 0) {
+            throw new IllegalArgumentException("Cannot decrement a counter, found: " + amount);
+        }
+        this.count.add(amount);
+    }
+
+    /**
+     * Returns the current count.
+     */
+    public long get() {
+        return this.count.sum();
+    }
+}
@@ -0,0 +1,68 @@
+package org.aion.harness.metrics;
+
+/**
+ * A single event of a {@link FlightRecorderEventType}, timed from when it was begun until it is
+ * committed.
+ *
+ * Values are set by the index of their field in the event type's definition. Since setting values
+ * boxes them, callers on hot paths should only compute and set values if {@link #isRecording()}.
+ *
+ * An event is not thread-safe and must be committed at most once.
+ */
+public final class FlightRecorderEvent {
+    static final FlightRecorderEvent NO_OP = new FlightRecorderEvent(null, 0);
+
+    private final Object event;
+    private final int numberOfFields;
+
+    FlightRecorderEvent(Object event, int numberOfFields) {
+        this.event = event;
+        this.numberOfFields = numberOfFields;
+    }
+
+    /**
+     * Returns {@code true} only if this event will be recorded when committed.
+     */
+    public boolean isRecording() {
+        return this.event != null;
+    }
+
+    /**
+     * Sets the value of the field at the specified index.
+     *
+     * @param field The index of the field in the event type's definition.
+     * @param value The value, of the field's type.
+     * @return this event.
+     */
+    public FlightRecorderEvent set(int field, Object value) {
+        if (this.event == null) {
+            return this;
+        }
+        if ((field < 0) || (field >= this.numberOfFields)) {
+            throw new IndexOutOfBoundsException("Field index " + field + " out of bounds for " + this.numberOfFields + " fields.");
+        }
+        try {
+            FlightRecorderEventType.Jfr.SET.invoke(this.event, field, value);
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (Throwable e) {
+            // The event is lost but the harness is unaffected.
+        }
+        return this;
+    }
+
+    /**
+     * Ends the event and writes it to every running recording that records it.
+     */
+    public void commit() {
+        if (this.event == null) {
+            return;
+        }
+        try {
+            FlightRecorderEventType.Jfr.COMMIT.invoke(this.event);
+        } catch (Throwable e) {
+            // The event is lost but the harness is unaffected.
+        }
+    }
+
+}
@@ -0,0 +1,264 @@
+package org.aion.harness.metrics;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A custom Java Flight Recorder event type that the harness emits from its hot paths, so that
+ * recordings of the harness itself can attribute time to specific rpc methods, log lines and
+ * event requests. The events show up under the "Aion Harness" category in JDK Mission Control and
+ * can be printed with {@code jfr print --events <name>} like any other event.
+ *
+ * The harness is compiled against a JDK that predates the public flight recorder api, so event
+ * types are defined at runtime through {@code jdk.jfr.EventFactory}, looked up reflectively. If the
+ * running JVM has no {@code jdk.jfr} module (or it is not resolved, in which case
+ * {@code --add-modules jdk.jfr} resolves it), every event is a no-op.
+ *
+ * Emitting is cheap when no recording is running: {@link #begin()} checks whether the event type
+ * is enabled and, if not, returns a shared no-op event without allocating. Stack traces are not
+ * captured, to keep the events cheap enough to leave enabled during load runs.
+ *
+ * This class is thread-safe.
+ */
+public final class FlightRecorderEventType {
+    private final String name;
+    private final List<Field> fields;
+    private final Object factory;
+    private final Object eventType;
+
+    /**
+     * A field of an event type.
+     */
+    public static final class Field {
+        final String name;
+        final String label;
+        final Class<?> type;
+        final String annotation;
+        final String annotationValue;
+
+        private Field(String name, String label, Class<?> type, String annotation, String annotationValue) {
+            if (name == null) {
+                throw new NullPointerException("Cannot define a field with a null name.");
+            }
+            if (label == null) {
+                throw new NullPointerException("Cannot define a field with a null label.");
+            }
+            this.name = name;
+            this.label = label;
+            this.type = type;
+            this.annotation = annotation;
+            this.annotationValue = annotationValue;
+        }
+
+        public static Field ofString(String name, String label) {
+            return new Field(name, label, String.class, null, null);
+        }
+
+        public static Field ofLong(String name, String label) {
+            return new Field(name, label, long.class, null, null);
+        }
+
+        public static Field ofInt(String name, String label) {
+            return new Field(name, label, int.class, null, null);
+        }
+
+        public static Field ofBoolean(String name, String label) {
+            return new Field(name, label, boolean.class, null, null);
+        }
+
+        /**
+         * A duration in nanoseconds.
+         */
+        public static Field ofTimespan(String name, String label) {
+            return new Field(name, label, long.class, "jdk.jfr.Timespan", "NANOSECONDS");
+        }
+
+        /**
+         * An amount of data in bytes.
+         */
+        public static Field ofBytes(String name, String label) {
+            return new Field(name, label, long.class, "jdk.jfr.DataAmount", "BYTES");
+        }
+    }
+
+    private FlightRecorderEventType(String name, List<Field> fields, Object factory, Object eventType) {
+        this.name = name;
+        this.fields = fields;
+        this.factory = factory;
+        this.eventType = eventType;
+    }
+
+    /**
+     * Defines and registers a new event type.
+     *
+     * Values are set on events of this type by the index of their field in the specified fields.
+     *
+     * @param name The fully qualified name of the event type, for example org.aion.harness.RpcCall.
+     * @param label A human-readable name of the event type.
+     * @param description A sentence describing the event type.
+     * @param fields The fields of the event type.
+     * @return the event type.
+     */
+    public static FlightRecorderEventType define(String name, String label, String description, Field... fields) {
+        if (name == null) {
+            throw new NullPointerException("Cannot define an event type with a null name.");
+        }
+        if (label == null) {
+            throw new NullPointerException("Cannot define an event type with a null label.");
+        }
+        if (description == null) {
+            throw new NullPointerException("Cannot define an event type with a null description.");
+        }
+        if (fields == null) {
+            throw new NullPointerException("Cannot define an event type with null fields.");
+        }
+
+        List<Field> fieldList = Collections.unmodifiableList(new ArrayList<>(Arrays.asList(fields)));
+        if (!Jfr.AVAILABLE) {
+            return new FlightRecorderEventType(name, fieldList, null, null);
+        }
+
+        try {
+            List<Object> annotations = new ArrayList<>();
+            annotations.add(Jfr.annotation("jdk.jfr.Name", name));
+            annotations.add(Jfr.annotation("jdk.jfr.Label", label));
+            annotations.add(Jfr.annotation("jdk.jfr.Description", description));
+            annotations.add(Jfr.annotation("jdk.jfr.Category", new String[]{ "Aion Harness" }));
+            annotations.add(Jfr.annotation("jdk.jfr.StackTrace", false));
+
+            List<Object> valueDescriptors = new ArrayList<>();
+            for (Field field : fieldList) {
+                List<Object> fieldAnnotations = new ArrayList<>();
+                fieldAnnotations.add(Jfr.annotation("jdk.jfr.Label", field.label));
+                if (field.annotation != null) {
+                    fieldAnnotations.add(Jfr.annotation(field.annotation, field.annotationValue));
+                }
+                valueDescriptors.add(Jfr.NEW_VALUE_DESCRIPTOR.invoke(field.type, field.name, fieldAnnotations));
+            }
+
+            Object factory = Jfr.CREATE_FACTORY.invoke(annotations, valueDescriptors);
+            return new FlightRecorderEventType(name, fieldList, factory, Jfr.GET_EVENT_TYPE.invoke(factory));
+        } catch (Throwable e) {
+            throw new IllegalStateException("Failed to define flight recorder event type " + name, e);
+        }
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Returns {@code true} only if a flight recording that records this event type is running.
+     */
+    public boolean isEnabled() {
+        if (this.eventType == null) {
+            return false;
+        }
+        try {
+            return (boolean) Jfr.IS_ENABLED.invoke(this.eventType);
+        } catch (Throwable e) {
+            return false;
+        }
+    }
+
+    /**
+     * Begins timing a new event of this type. If no recording is recording this event type, a
+     * shared no-op event is returned.
+     *
+     * @return the event.
+     */
+    public FlightRecorderEvent begin() {
+        if (!isEnabled()) {
+            return FlightRecorderEvent.NO_OP;
+        }
+        try {
+            Object event = Jfr.NEW_EVENT.invoke(this.factory);
+            Jfr.BEGIN.invoke(event);
+            return new FlightRecorderEvent(event, this.fields.size());
+        } catch (Throwable e) {
+            return FlightRecorderEvent.NO_OP;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "FlightRecorderEventType { name = " + this.name + ", available = " + (this.factory != null) + " }";
+    }
+
+    /**
+     * Method handles into the jdk.jfr module, if the running jvm has it.
+     */
+    static final class Jfr {
+        static final boolean AVAILABLE;
+        static final MethodHandle CREATE_FACTORY;
+        static final MethodHandle GET_EVENT_TYPE;
+        static final MethodHandle IS_ENABLED;
+        static final MethodHandle NEW_EVENT;
+        static final MethodHandle NEW_ANNOTATION;
+        static final MethodHandle NEW_VALUE_DESCRIPTOR;
+        static final MethodHandle BEGIN;
+        static final MethodHandle SET;
+        static final MethodHandle COMMIT;
+
+        static {
+            MethodHandle createFactory = null;
+            MethodHandle getEventType = null;
+            MethodHandle isEnabled = null;
+            MethodHandle newEvent = null;
+            MethodHandle newAnnotation = null;
+            MethodHandle newValueDescriptor = null;
+            MethodHandle begin = null;
+            MethodHandle set = null;
+            MethodHandle commit = null;
+            boolean available;
+
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+                Class<?> eventFactory = Class.forName("jdk.jfr.EventFactory");
+                Class<?> eventType = Class.forName("jdk.jfr.EventType");
+                Class<?> event = Class.forName("jdk.jfr.Event");
+                Class<?> annotationElement = Class.forName("jdk.jfr.AnnotationElement");
+                Class<?> valueDescriptor = Class.forName("jdk.jfr.ValueDescriptor");
+
+                createFactory = lookup.findStatic(eventFactory, "create", MethodType.methodType(eventFactory, List.class, List.class));
+                getEventType = lookup.findVirtual(eventFactory, "getEventType", MethodType.methodType(eventType));
+                isEnabled = lookup.findVirtual(eventType, "isEnabled", MethodType.methodType(boolean.class));
+                newEvent = lookup.findVirtual(eventFactory, "newEvent", MethodType.methodType(event));
+                newAnnotation = lookup.findConstructor(annotationElement, MethodType.methodType(void.class, Class.class, Object.class));
+                newValueDescriptor = lookup.findConstructor(valueDescriptor, MethodType.methodType(void.class, Class.class, String.class, List.class));
+                begin = lookup.findVirtual(event, "begin", MethodType.methodType(void.class));
+                set = lookup.findVirtual(event, "set", MethodType.methodType(void.class, int.class, Object.class));
+                commit = lookup.findVirtual(event, "commit", MethodType.methodType(void.class));
+                available = true;
+            } catch (ReflectiveOperationException | LinkageError | SecurityException e) {
+                available = false;
+            }
+
+            AVAILABLE = available;
+            CREATE_FACTORY = createFactory;
+            GET_EVENT_TYPE = getEventType;
+            IS_ENABLED = isEnabled;
+            NEW_EVENT = newEvent;
+            NEW_ANNOTATION = newAnnotation;
+            NEW_VALUE_DESCRIPTOR = newValueDescriptor;
+            BEGIN = begin;
+            SET = set;
+            COMMIT = commit;
+        }
+
+        private Jfr() {}
+
+        @SuppressWarnings("unchecked")
+        static Object annotation(String annotationClass, Object value) throws Throwable {
+            Class<? extends Annotation> type = (Class<? extends Annotation>) Class.forName(annotationClass);
+            return NEW_ANNOTATION.invoke(type, value);
+        }
+    }
+
+}
@@ -0,0 +1,54 @@
+package org.aion.harness.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * A value that may go up and down, such as the number of pending event requests.
+ *
+ * A gauge either holds a value that is set explicitly, or reads its value from a supplier each
+ * time it is sampled. Gauges are obtained from a {@link MetricsRegistry}.
+ *
+ * This class is thread-safe.
+ */
+public final class Gauge {
+    private final AtomicLong value = new AtomicLong(0);
+    private final LongSupplier supplier;
+
+    Gauge(LongSupplier supplier) {
+        this.supplier = supplier;
+    }
+
+    /**
+     * Sets the value of this gauge.
+     *
+     * @throws IllegalStateException if this gauge reads its value from a supplier.
+     */
+    public void set(long value) {
+        assertNotSupplied();
+        this.value.set(value);
+    }
+
+    /**
+     * Adds the specified amount, which may be negative, to the value of this gauge.
+     *
+     * @throws IllegalStateException if this gauge reads its value from a supplier.
+     */
+    public void add(long amount) {
+        assertNotSupplied();
+        this.value.addAndGet(amount);
+    }
+
+    /**
+     * Returns the current value of this gauge.
+     */
+    public long get() {
+        return (this.supplier == null) ? this.value.get() : this.supplier.getAsLong();
+    }
+
+    private void assertNotSupplied() {
+        if (this.supplier != null) {
+            throw new IllegalStateException("Cannot set the value of a gauge that reads its value from a supplier.");
+        }
+    }
+}
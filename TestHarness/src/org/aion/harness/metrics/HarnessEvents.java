@@ -0,0 +1,66 @@
+package org.aion.harness.metrics;
+
+import org.aion.harness.metrics.FlightRecorderEventType.Field;
+
+/**
+ * The custom flight recorder event types emitted by the harness.
+ *
+ * Each event type is accompanied by the indices of its fields, for use with
+ * {@link FlightRecorderEvent#set(int, Object)}.
+ */
+public final class HarnessEvents {
+
+    /**
+     * An rpc call, timed from sending its payload to parsing its response.
+     */
+    public static final FlightRecorderEventType RPC_CALL = FlightRecorderEventType.define(
+        "org.aion.harness.RpcCall", "RPC Call", "An RPC call made by the harness to a node.",
+        Field.ofString("method", "Method"),
+        Field.ofBytes("payloadSize", "Payload Size"),
+        Field.ofBoolean("success", "Success"),
+        Field.ofString("error", "Error"));
+    public static final int RPC_CALL_METHOD = 0;
+    public static final int RPC_CALL_PAYLOAD_SIZE = 1;
+    public static final int RPC_CALL_SUCCESS = 2;
+    public static final int RPC_CALL_ERROR = 3;
+
+    /**
+     * The handling of a batch of lines of a node's log, spanning up to a second of lines, so that
+     * busy logs do not flood the recording.
+     */
+    public static final FlightRecorderEventType LOG_LINES = FlightRecorderEventType.define(
+        "org.aion.harness.LogLines", "Log Lines Handled", "A batch of log lines checked against the pending event requests.",
+        Field.ofInt("linesProcessed", "Lines Processed"),
+        Field.ofInt("requestsEvaluated", "Requests Evaluated"),
+        Field.ofInt("requestsSatisfied", "Requests Satisfied"));
+    public static final int LOG_LINES_PROCESSED = 0;
+    public static final int LOG_LINES_REQUESTS_EVALUATED = 1;
+    public static final int LOG_LINES_REQUESTS_SATISFIED = 2;
+
+    /**
+     * The completion of an event request, emitted when its outcome is handed to the requester.
+     */
+    public static final FlightRecorderEventType EVENT_REQUEST = FlightRecorderEventType.define(
+        "org.aion.harness.EventRequest", "Event Request Completed", "An event request leaving the pending state.",
+        Field.ofString("event", "Event"),
+        Field.ofString("state", "Final State"),
+        Field.ofTimespan("waitTime", "Wait Time"));
+    public static final int EVENT_REQUEST_EVENT = 0;
+    public static final int EVENT_REQUEST_STATE = 1;
+    public static final int EVENT_REQUEST_WAIT_TIME = 2;
+
+    /**
+     * A successful lifecycle transition of a local node.
+     */
+    public static final FlightRecorderEventType NODE_LIFECYCLE = FlightRecorderEventType.define(
+        "org.aion.harness.NodeLifecycle", "Node Lifecycle", "A local node being initialized, started or stopped.",
+        Field.ofString("node", "Node"),
+        Field.ofString("operation", "Operation"),
+        Field.ofTimespan("elapsed", "Elapsed Time"));
+    public static final int NODE_LIFECYCLE_NODE = 0;
+    public static final int NODE_LIFECYCLE_OPERATION = 1;
+    public static final int NODE_LIFECYCLE_ELAPSED = 2;
+
+    private HarnessEvents() {}
+
+}
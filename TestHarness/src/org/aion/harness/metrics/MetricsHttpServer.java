@@ -0,0 +1,94 @@
+package org.aion.harness.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A local HTTP endpoint that serves the contents of a {@link MetricsRegistry} in the Prometheus
+ * text exposition format at {@code /metrics}, so that a Prometheus server can scrape a running
+ * test.
+ *
+ * The server only binds to the loopback address.
+ *
+ * This class is thread-safe.
+ */
+public final class MetricsHttpServer {
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    private MetricsHttpServer(HttpServer server, ExecutorService executor) {
+        this.server = server;
+        this.executor = executor;
+    }
+
+    /**
+     * Starts serving the specified registry on the specified port of the loopback address.
+     *
+     * @param registry The registry to serve.
+     * @param port The port to listen on, or 0 to listen on any free port.
+     * @return the running server.
+     */
+    public static MetricsHttpServer start(MetricsRegistry registry, int port) throws IOException {
+        if (registry == null) {
+            throw new NullPointerException("Cannot serve a null registry.");
+        }
+        if ((port < 0) || (port > 65535)) {
+            throw new IllegalArgumentException("Invalid port: " + port);
+        }
+
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/metrics", exchange -> serve(registry, exchange));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-http-server");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.start();
+
+        return new MetricsHttpServer(server, executor);
+    }
+
+    /**
+     * Returns the port this server is listening on.
+     */
+    public int getPort() {
+        return this.server.getAddress().getPort();
+    }
+
+    /**
+     * Stops this server. Any exchange in progress is given up to one second to complete.
+     */
+    public void stop() {
+        this.server.stop(1);
+        this.executor.shutdownNow();
+    }
+
+    private static void serve(MetricsRegistry registry, HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+
+            byte[] body = registry.toPrometheusText().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+}
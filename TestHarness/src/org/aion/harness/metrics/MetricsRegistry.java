@@ -0,0 +1,234 @@
+package org.aion.harness.metrics;
+
+import com.google.gson.JsonObject;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.LongSupplier;
+import java.util.regex.Pattern;
+import org.aion.harness.statistics.Histogram;
+
+/**
+ * A registry of named counters, gauges and histograms.
+ *
+ * The harness records its own measurements (RPC calls, log listening, load generation and node
+ * lifecycle timings) into the {@link #global()} registry, and tests may add metrics of their own.
+ * The contents of a registry can be exported in the Prometheus text exposition format (see
+ * {@link MetricsHttpServer}) or as JSON and CSV snapshots (see {@link MetricsSnapshotWriter}), so
+ * that long runs can be graphed rather than read out of log dumps.
+ *
+ * Metric names must follow the Prometheus naming rules. Asking for a metric by name returns the
+ * existing metric of that name if there is one, so the same metric may be fetched from many places.
+ * Histograms of durations should be recorded in nanoseconds and named with a {@code _nanos} suffix.
+ *
+ * This class is thread-safe.
+ */
+public final class MetricsRegistry {
+    private static final Pattern VALID_NAME = Pattern.compile("[a-zA-Z_:][a-zA-Z0-9_:]*");
+    private static final double[] QUANTILES = new double[]{ 0.5, 0.9, 0.99, 0.999 };
+
+    private enum Type { COUNTER, GAUGE, HISTOGRAM }
+
+    private static final MetricsRegistry GLOBAL = new MetricsRegistry();
+
+    private final Map<String, Metric> metrics = new ConcurrentSkipListMap<>();
+
+    /**
+     * Constructs an empty registry, separate from the {@link #global()} registry.
+     */
+    public MetricsRegistry() {}
+
+    /**
+     * Returns the registry that the harness records its own measurements into.
+     *
+     * @return the global registry.
+     */
+    public static MetricsRegistry global() {
+        return GLOBAL;
+    }
+
+    /**
+     * Returns the counter with the specified name, creating it if it does not yet exist.
+     *
+     * @param name The name of the counter.
+     * @param help A short description of what is being counted.
+     * @return the counter.
+     */
+    public Counter counter(String name, String help) {
+        return (Counter) getOrCreate(name, help, Type.COUNTER, null);
+    }
+
+    /**
+     * Returns the gauge with the specified name, creating it if it does not yet exist. The value of
+     * a newly created gauge is set explicitly.
+     *
+     * @param name The name of the gauge.
+     * @param help A short description of what is being measured.
+     * @return the gauge.
+     */
+    public Gauge gauge(String name, String help) {
+        return (Gauge) getOrCreate(name, help, Type.GAUGE, null);
+    }
+
+    /**
+     * Returns the gauge with the specified name, creating it if it does not yet exist. The value of
+     * a newly created gauge is read from the specified supplier each time it is sampled.
+     *
+     * @param name The name of the gauge.
+     * @param help A short description of what is being measured.
+     * @param supplier Supplies the value of the gauge.
+     * @return the gauge.
+     */
+    public Gauge gauge(String name, String help, LongSupplier supplier) {
+        if (supplier == null) {
+            throw new NullPointerException("Cannot create a gauge with a null supplier.");
+        }
+        return (Gauge) getOrCreate(name, help, Type.GAUGE, supplier);
+    }
+
+    /**
+     * Returns the histogram with the specified name, creating it if it does not yet exist.
+     *
+     * @param name The name of the histogram.
+     * @param help A short description of what is being measured.
+     * @return the histogram.
+     */
+    public Histogram histogram(String name, String help) {
+        return (Histogram) getOrCreate(name, help, Type.HISTOGRAM, null);
+    }
+
+    /**
+     * Returns the contents of this registry in the Prometheus text exposition format.
+     *
+     * Histograms are exposed as summaries: a line for each of the p50, p90, p99 and p99.9 quantiles,
+     * followed by a count and a sum. The sum is the mean of the histogram multiplied by its count and
+     * so is only accurate to within the histogram's precision.
+     *
+     * @return the contents of this registry.
+     */
+    public String toPrometheusText() {
+        StringBuilder builder = new StringBuilder();
+
+        for (Metric metric : this.metrics.values()) {
+            builder.append("# HELP ").append(metric.name).append(' ').append(escapeHelp(metric.help)).append('\n');
+
+            switch (metric.type) {
+                case COUNTER:
+                    builder.append("# TYPE ").append(metric.name).append(" counter\n");
+                    builder.append(metric.name).append(' ').append(((Counter) metric.instrument).get()).append('\n');
+                    break;
+                case GAUGE:
+                    builder.append("# TYPE ").append(metric.name).append(" gauge\n");
+                    builder.append(metric.name).append(' ').append(((Gauge) metric.instrument).get()).append('\n');
+                    break;
+                case HISTOGRAM:
+                    Histogram histogram = ((Histogram) metric.instrument).copy();
+                    builder.append("# TYPE ").append(metric.name).append(" summary\n");
+                    for (double quantile : QUANTILES) {
+                        builder.append(metric.name).append("{quantile=\"").append(quantile).append("\"} ")
+                            .append(histogram.getValueAtPercentile(quantile * 100)).append('\n');
+                    }
+                    builder.append(metric.name).append("_sum ").append((long) (histogram.getMean() * histogram.getTotalCount())).append('\n');
+                    builder.append(metric.name).append("_count ").append(histogram.getTotalCount()).append('\n');
+                    break;
+            }
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Returns the current value of every metric in this registry as a json object, keyed by metric
+     * name. Counters and gauges map to their value; histograms map to an object holding their count,
+     * minimum, mean, maximum and p50, p90, p99 and p99.9 values.
+     *
+     * @return the current values of the metrics, as a json string.
+     */
+    public String toJson() {
+        return toJsonObject().toString();
+    }
+
+    /**
+     * Returns the current value of every metric in this registry as described by {@link #toJson()}.
+     */
+    JsonObject toJsonObject() {
+        JsonObject json = new JsonObject();
+
+        for (Metric metric : this.metrics.values()) {
+            switch (metric.type) {
+                case COUNTER:
+                    json.addProperty(metric.name, ((Counter) metric.instrument).get());
+                    break;
+                case GAUGE:
+                    json.addProperty(metric.name, ((Gauge) metric.instrument).get());
+                    break;
+                case HISTOGRAM:
+                    Histogram histogram = ((Histogram) metric.instrument).copy();
+                    JsonObject summary = new JsonObject();
+                    summary.addProperty("count", histogram.getTotalCount());
+                    summary.addProperty("min", histogram.getMinimum());
+                    summary.addProperty("mean", histogram.getMean());
+                    summary.addProperty("max", histogram.getMaximum());
+                    for (double quantile : QUANTILES) {
+                        summary.addProperty("p" + formatPercentile(quantile), histogram.getValueAtPercentile(quantile * 100));
+                    }
+                    json.add(metric.name, summary);
+                    break;
+            }
+        }
+
+        return json;
+    }
+
+    private Object getOrCreate(String name, String help, Type type, LongSupplier supplier) {
+        if (name == null) {
+            throw new NullPointerException("Cannot create a metric with a null name.");
+        }
+        if (help == null) {
+            throw new NullPointerException("Cannot create a metric with null help.");
+        }
+        if (!VALID_NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("Invalid metric name: " + name);
+        }
+
+        Metric metric = this.metrics.computeIfAbsent(name, n -> new Metric(n, help, type, newInstrument(type, supplier)));
+        if (metric.type != type) {
+            throw new IllegalArgumentException("A metric named " + name + " already exists as a " + metric.type);
+        }
+        return metric.instrument;
+    }
+
+    private static Object newInstrument(Type type, LongSupplier supplier) {
+        switch (type) {
+            case COUNTER: return new Counter();
+            case GAUGE: return new Gauge(supplier);
+            default: return new Histogram();
+        }
+    }
+
+    private static String escapeHelp(String help) {
+        return help.replace("\\", "\\\\").replace("\n", "\\n");
+    }
+
+    /**
+     * Returns the quantile as a percentile without a trailing fraction where there is none, such
+     * that 0.5 becomes "50" and 0.999 becomes "99.9".
+     */
+    private static String formatPercentile(double quantile) {
+        double percentile = quantile * 100;
+        return (percentile == Math.rint(percentile)) ? String.valueOf((long) percentile) : String.valueOf(Math.round(percentile * 10) / 10.0);
+    }
+
+    private static final class Metric {
+        private final String name;
+        private final String help;
+        private final Type type;
+        private final Object instrument;
+
+        private Metric(String name, String help, Type type, Object instrument) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+            this.instrument = instrument;
+        }
+    }
+}
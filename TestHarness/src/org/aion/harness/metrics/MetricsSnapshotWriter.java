@@ -0,0 +1,156 @@
+package org.aion.harness.metrics;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.aion.harness.misc.Assumptions;
+import org.aion.harness.util.SimpleLog;
+
+/**
+ * Periodically appends snapshots of a {@link MetricsRegistry} to a JSON file, a CSV file, or both.
+ *
+ * The JSON file holds one snapshot per line: an object with a {@code timestamp} in milliseconds
+ * since the epoch and a {@code metrics} object as produced by {@link MetricsRegistry#toJson()}.
+ *
+ * The CSV file holds one row per value, with the columns {@code timestamp,metric,field,value}. For
+ * counters and gauges the field is {@code value}; for histograms it names the summary statistic.
+ * This long format is used so that metrics registered part way through a run need no new columns.
+ *
+ * This class is thread-safe.
+ */
+public final class MetricsSnapshotWriter {
+    private static final String CSV_HEADER = "timestamp,metric,field,value";
+
+    private final SimpleLog log;
+    private final MetricsRegistry registry;
+    private final File jsonFile;
+    private final File csvFile;
+    private ScheduledExecutorService scheduler = null;
+
+    /**
+     * Constructs a new snapshot writer for the specified registry. Either file may be null, in
+     * which case snapshots are not written in that format, but not both.
+     *
+     * @param registry The registry to snapshot.
+     * @param jsonFile The file to append JSON snapshots to.
+     * @param csvFile The file to append CSV snapshots to.
+     */
+    public MetricsSnapshotWriter(MetricsRegistry registry, File jsonFile, File csvFile) {
+        if (registry == null) {
+            throw new NullPointerException("Cannot snapshot a null registry.");
+        }
+        if ((jsonFile == null) && (csvFile == null)) {
+            throw new IllegalArgumentException("At least one of the json and csv files must be given.");
+        }
+
+        this.log = new SimpleLog(getClass().getName());
+        this.registry = registry;
+        this.jsonFile = jsonFile;
+        this.csvFile = csvFile;
+    }
+
+    /**
+     * Begins writing a snapshot every period, starting immediately.
+     *
+     * @param period The time between snapshots.
+     * @param unit The time unit of the period.
+     * @throws IllegalStateException if snapshots are already being written.
+     */
+    public synchronized void start(long period, TimeUnit unit) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("Period must be positive, found: " + period);
+        }
+        if (unit == null) {
+            throw new NullPointerException("Cannot specify a null time unit.");
+        }
+        if (this.scheduler != null) {
+            throw new IllegalStateException("Snapshots are already being written.");
+        }
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-snapshot-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.scheduleAtFixedRate(this::writeSnapshotQuietly, 0, period, unit);
+    }
+
+    /**
+     * Stops writing periodic snapshots, then writes one final snapshot so that the files capture the
+     * end of the run. Does nothing if snapshots are not being written.
+     */
+    public synchronized void stop() throws IOException, InterruptedException {
+        if (this.scheduler == null) {
+            return;
+        }
+
+        this.scheduler.shutdown();
+        this.scheduler.awaitTermination(1, TimeUnit.MINUTES);
+        this.scheduler = null;
+        writeSnapshot();
+    }
+
+    /**
+     * Appends a single snapshot of the registry's current values to the files.
+     */
+    public void writeSnapshot() throws IOException {
+        long timestamp = System.currentTimeMillis();
+        JsonObject metrics = this.registry.toJsonObject();
+
+        synchronized (this) {
+            if (this.jsonFile != null) {
+                JsonObject snapshot = new JsonObject();
+                snapshot.addProperty("timestamp", timestamp);
+                snapshot.add("metrics", metrics);
+                append(this.jsonFile, Collections.singletonList(snapshot.toString()), false);
+            }
+            if (this.csvFile != null) {
+                append(this.csvFile, toCsvRows(timestamp, metrics), true);
+            }
+        }
+    }
+
+    private void writeSnapshotQuietly() {
+        try {
+            writeSnapshot();
+        } catch (IOException | UncheckedIOException e) {
+            this.log.log(Assumptions.LOGGER_BANNER + "Failed to write metrics snapshot: " + e);
+        }
+    }
+
+    private static List<String> toCsvRows(long timestamp, JsonObject metrics) {
+        List<String> rows = new ArrayList<>();
+        for (Map.Entry<String, JsonElement> metric : metrics.entrySet()) {
+            if (metric.getValue().isJsonObject()) {
+                for (Map.Entry<String, JsonElement> field : metric.getValue().getAsJsonObject().entrySet()) {
+                    rows.add(timestamp + "," + metric.getKey() + "," + field.getKey() + "," + field.getValue().getAsString());
+                }
+            } else {
+                rows.add(timestamp + "," + metric.getKey() + ",value," + metric.getValue().getAsString());
+            }
+        }
+        return rows;
+    }
+
+    private static void append(File file, List<String> lines, boolean isCsv) throws IOException {
+        List<String> toWrite = lines;
+        if (isCsv && (!file.exists() || (file.length() == 0))) {
+            toWrite = new ArrayList<>(lines.size() + 1);
+            toWrite.add(CSV_HEADER);
+            toWrite.addAll(lines);
+        }
+        Files.write(file.toPath(), toWrite, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+}
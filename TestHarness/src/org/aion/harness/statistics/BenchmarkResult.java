@@ -0,0 +1,237 @@
+package org.aion.harness.statistics;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.security.CodeSource;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+
+/**
+ * The outcome of a single benchmark run, in a form that can be persisted and later compared
+ * against other runs of the same scenario (see {@link BenchmarkResultStore} and
+ * {@link RegressionComparator}).
+ *
+ * A result identifies the scenario that was run, the kernel build it was run against and the
+ * version of the harness that ran it, and holds the run's latency histogram, in nanoseconds, and
+ * a series of throughput samples, in transactions per second. The samples are compared as if they
+ * were independent, so they should be measured over separate stretches of the run, such as the
+ * non-overlapping windows of a {@link BlockTimeline}, rather than over overlapping ones.
+ *
+ * The harness version is the Implementation-Version of the harness jar's manifest, which the build
+ * stamps with the harness's git revision, or "unknown" when the harness is not run from its jar.
+ *
+ * A benchmark result is immutable.
+ */
+public final class BenchmarkResult {
+    private static final String UNKNOWN_VERSION = "unknown";
+
+    private final String scenario;
+    private final String kernelBuild;
+    private final String harnessVersion;
+    private final long timestampInMillis;
+    private final Histogram latencies;
+    private final double[] throughputSamples;
+
+    private BenchmarkResult(String scenario, String kernelBuild, String harnessVersion, long timestampInMillis, Histogram latencies, double[] throughputSamples) {
+        if (scenario == null) {
+            throw new NullPointerException("Cannot construct a benchmark result with a null scenario.");
+        }
+        if (kernelBuild == null) {
+            throw new NullPointerException("Cannot construct a benchmark result with a null kernel build.");
+        }
+        if (harnessVersion == null) {
+            throw new NullPointerException("Cannot construct a benchmark result with a null harness version.");
+        }
+        if (latencies == null) {
+            throw new NullPointerException("Cannot construct a benchmark result with null latencies.");
+        }
+        if (throughputSamples == null) {
+            throw new NullPointerException("Cannot construct a benchmark result with null throughput samples.");
+        }
+
+        this.scenario = scenario;
+        this.kernelBuild = kernelBuild;
+        this.harnessVersion = harnessVersion;
+        this.timestampInMillis = timestampInMillis;
+        this.latencies = latencies.copy();
+        this.throughputSamples = Arrays.copyOf(throughputSamples, throughputSamples.length);
+    }
+
+    /**
+     * Constructs a result for a run that has just completed, stamped with the current time and the
+     * version of this harness.
+     *
+     * @param scenario The name of the scenario that was run.
+     * @param kernelBuild An identifier of the kernel build the scenario was run against, such as its commit hash.
+     * @param latencies The run's latencies, in nanoseconds.
+     * @param throughputSamples The run's throughput samples, in transactions per second.
+     * @return the result.
+     */
+    public static BenchmarkResult of(String scenario, String kernelBuild, Histogram latencies, double[] throughputSamples) {
+        return new BenchmarkResult(scenario, kernelBuild, currentHarnessVersion(), System.currentTimeMillis(), latencies, throughputSamples);
+    }
+
+    /**
+     * Constructs a result for a run that has just completed from its duration statistics and block
+     * timeline, using the timeline's transactions per second over non-overlapping windows as the
+     * throughput samples.
+     *
+     * @param scenario The name of the scenario that was run.
+     * @param kernelBuild An identifier of the kernel build the scenario was run against.
+     * @param durations The run's latencies.
+     * @param timeline The run's block timeline.
+     * @return the result.
+     */
+    public static BenchmarkResult of(String scenario, String kernelBuild, DurationStatistics durations, BlockTimeline timeline) {
+        if (durations == null) {
+            throw new NullPointerException("Cannot construct a benchmark result from null duration statistics.");
+        }
+        if (timeline == null) {
+            throw new NullPointerException("Cannot construct a benchmark result from a null block timeline.");
+        }
+
+        return of(scenario, kernelBuild, durations.getHistogram(), timeline.nonOverlappingTransactionsPerSecond());
+    }
+
+    public String getScenario() {
+        return this.scenario;
+    }
+
+    public String getKernelBuild() {
+        return this.kernelBuild;
+    }
+
+    public String getHarnessVersion() {
+        return this.harnessVersion;
+    }
+
+    /**
+     * Returns the time at which this result was produced, in the specified unit since the epoch.
+     */
+    public long getTimestamp(TimeUnit unit) {
+        return unit.convert(this.timestampInMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns a copy of this run's latency histogram, in nanoseconds.
+     */
+    public Histogram getLatencies() {
+        return this.latencies.copy();
+    }
+
+    /**
+     * Returns this run's throughput samples, in transactions per second.
+     */
+    public double[] getThroughputSamples() {
+        return Arrays.copyOf(this.throughputSamples, this.throughputSamples.length);
+    }
+
+    /**
+     * Returns the mean of this run's throughput samples, or 0 if there are none.
+     */
+    public double getMeanThroughput() {
+        return mean(this.throughputSamples);
+    }
+
+    /**
+     * Returns this result as a single-line json string, from which it can be restored using
+     * {@link #fromJson(String)}.
+     */
+    public String toJson() {
+        JsonObject json = new JsonObject();
+        json.addProperty("scenario", this.scenario);
+        json.addProperty("kernelBuild", this.kernelBuild);
+        json.addProperty("harnessVersion", this.harnessVersion);
+        json.addProperty("timestamp", this.timestampInMillis);
+        json.addProperty("latencies", Base64.getEncoder().encodeToString(this.latencies.toBytes()));
+
+        JsonArray throughput = new JsonArray();
+        for (double sample : this.throughputSamples) {
+            throughput.add(sample);
+        }
+        json.add("throughput", throughput);
+
+        return json.toString();
+    }
+
+    /**
+     * Restores a result from the json string produced by {@link #toJson()}.
+     *
+     * @param jsonString The json string.
+     * @return the result.
+     */
+    public static BenchmarkResult fromJson(String jsonString) {
+        if (jsonString == null) {
+            throw new NullPointerException("Cannot restore a benchmark result from a null string.");
+        }
+
+        JsonObject json = new JsonParser().parse(jsonString).getAsJsonObject();
+
+        JsonArray throughput = json.getAsJsonArray("throughput");
+        double[] throughputSamples = new double[throughput.size()];
+        int index = 0;
+        for (JsonElement sample : throughput) {
+            throughputSamples[index++] = sample.getAsDouble();
+        }
+
+        return new BenchmarkResult(
+            json.get("scenario").getAsString(),
+            json.get("kernelBuild").getAsString(),
+            json.get("harnessVersion").getAsString(),
+            json.get("timestamp").getAsLong(),
+            Histogram.fromBytes(Base64.getDecoder().decode(json.get("latencies").getAsString())),
+            throughputSamples);
+    }
+
+    static double mean(double[] values) {
+        if (values.length == 0) {
+            return 0;
+        }
+        double sum = 0;
+        for (double value : values) {
+            sum += value;
+        }
+        return sum / values.length;
+    }
+
+    /**
+     * Returns the Implementation-Version of the manifest of the jar this class was loaded from.
+     *
+     * The manifest is read from the jar itself, since the versions of the packages of a named
+     * module are not taken from it.
+     */
+    private static String currentHarnessVersion() {
+        CodeSource source = BenchmarkResult.class.getProtectionDomain().getCodeSource();
+        if ((source == null) || (source.getLocation() == null) || !source.getLocation().getPath().endsWith(".jar")) {
+            return UNKNOWN_VERSION;
+        }
+
+        try (JarFile jar = new JarFile(new File(source.getLocation().toURI()))) {
+            Manifest manifest = jar.getManifest();
+            String version = (manifest == null) ? null : manifest.getMainAttributes().getValue(Attributes.Name.IMPLEMENTATION_VERSION);
+            return (version == null) ? UNKNOWN_VERSION : version;
+        } catch (IOException | URISyntaxException | IllegalArgumentException e) {
+            return UNKNOWN_VERSION;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "BenchmarkResult { scenario = " + this.scenario
+            + ", kernel build = " + this.kernelBuild
+            + ", harness version = " + this.harnessVersion
+            + ", timestamp = " + this.timestampInMillis
+            + ", latencies = " + this.latencies
+            + ", mean throughput = " + getMeanThroughput() + " }";
+    }
+
+}
@@ -0,0 +1,127 @@
+package org.aion.harness.statistics;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * An append-only local file of {@link BenchmarkResult}s, one json-encoded result per line.
+ *
+ * Results are never rewritten or removed, so the file forms a history of every run of every
+ * scenario, against which new runs can be compared using a {@link RegressionComparator}.
+ *
+ * This class is thread-safe within a single process.
+ */
+public final class BenchmarkResultStore {
+    private final File file;
+
+    /**
+     * Constructs a store backed by the specified file. The file is created when the first result is
+     * appended to it.
+     *
+     * @param file The results file.
+     */
+    public BenchmarkResultStore(File file) {
+        if (file == null) {
+            throw new NullPointerException("Cannot construct a result store with a null file.");
+        }
+        this.file = file;
+    }
+
+    /**
+     * Appends the specified result to the end of the results file.
+     *
+     * @param result The result to append.
+     */
+    public synchronized void append(BenchmarkResult result) throws IOException {
+        if (result == null) {
+            throw new NullPointerException("Cannot append a null result.");
+        }
+
+        File parent = this.file.getAbsoluteFile().getParentFile();
+        if ((parent != null) && (!parent.exists()) && (!parent.mkdirs())) {
+            throw new IOException("Failed to create the directory of the results file: " + parent);
+        }
+
+        Files.write(this.file.toPath(), Collections.singletonList(result.toJson()), StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Returns every result in the results file, oldest first.
+     *
+     * @return the results.
+     */
+    public synchronized List<BenchmarkResult> readAll() throws IOException {
+        List<BenchmarkResult> results = new ArrayList<>();
+        if (!this.file.exists()) {
+            return results;
+        }
+
+        for (String line : Files.readAllLines(this.file.toPath(), StandardCharsets.UTF_8)) {
+            if (!line.trim().isEmpty()) {
+                results.add(BenchmarkResult.fromJson(line));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Returns every result of the specified scenario, oldest first.
+     *
+     * @param scenario The scenario.
+     * @return the results of the scenario.
+     */
+    public List<BenchmarkResult> getResults(String scenario) throws IOException {
+        if (scenario == null) {
+            throw new NullPointerException("Cannot get the results of a null scenario.");
+        }
+
+        List<BenchmarkResult> results = new ArrayList<>();
+        for (BenchmarkResult result : readAll()) {
+            if (result.getScenario().equals(scenario)) {
+                results.add(result);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Returns the most recent result of the specified scenario, if there is one.
+     *
+     * @param scenario The scenario.
+     * @return the latest result of the scenario.
+     */
+    public Optional<BenchmarkResult> getLatest(String scenario) throws IOException {
+        List<BenchmarkResult> results = getResults(scenario);
+        return results.isEmpty() ? Optional.empty() : Optional.of(results.get(results.size() - 1));
+    }
+
+    /**
+     * Returns the most recent result of the specified scenario run against the specified kernel
+     * build, if there is one. This is typically how a baseline is chosen.
+     *
+     * @param scenario The scenario.
+     * @param kernelBuild The kernel build.
+     * @return the latest result of the scenario against the kernel build.
+     */
+    public Optional<BenchmarkResult> getLatest(String scenario, String kernelBuild) throws IOException {
+        if (kernelBuild == null) {
+            throw new NullPointerException("Cannot get the results of a null kernel build.");
+        }
+
+        BenchmarkResult latest = null;
+        for (BenchmarkResult result : getResults(scenario)) {
+            if (result.getKernelBuild().equals(kernelBuild)) {
+                latest = result;
+            }
+        }
+        return Optional.ofNullable(latest);
+    }
+
+}
@@ -0,0 +1,352 @@
+package org.aion.harness.statistics;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import org.aion.harness.main.types.Block;
+import org.aion.harness.result.RpcResult;
+
+/**
+ * A per-block time series of throughput over a run, built from the blocks the run's transactions
+ * were sealed into.
+ *
+ * For every block, in block number order, the timeline holds the number of transactions in the
+ * block, the energy it used, the interval since the previous block and the transactions per second
+ * sealed over a sliding window ending at that block. Unlike {@link BlockStatistics}, which reduces a
+ * run to a handful of aggregates, this makes ramp-up, stalls and periodic dips visible.
+ *
+ * All times come from the kernel's block timestamps, which have a resolution of one second, and so
+ * the sliding window must be at least one second long. The windowed rate of the blocks within the
+ * first window of the run is computed over the full window and therefore understates the rate while
+ * the run is ramping up.
+ *
+ * A block timeline is immutable.
+ */
+public final class BlockTimeline {
+    public static final long NOT_AVAILABLE = -1;
+
+    private final long windowInSeconds;
+    private final long[] numbers;
+    private final long[] timestamps;
+    private final int[] transactions;
+    private final long[] energyUsed;
+    private final long[] energyLimits;
+    private final double[] windowedRates;
+
+    private BlockTimeline(List<Block> blocks, long windowInSeconds) {
+        this.windowInSeconds = windowInSeconds;
+
+        // Order by block number and drop the duplicates that arise from fetching a block per transaction.
+        Map<BigInteger, Block> ordered = new TreeMap<>();
+        for (Block block : blocks) {
+            if (block == null) {
+                throw new NullPointerException("Cannot construct BlockTimeline with a null block.");
+            }
+            if ((block.getTimestamp() == Block.UNKNOWN_TIMESTAMP) || (block.getNumberOfTransactions() == Block.UNKNOWN_NUMBER_OF_TRANSACTIONS)) {
+                throw new IllegalArgumentException("Cannot construct BlockTimeline with a block whose timestamp or number of transactions is unknown: " + block.getBlockNumber());
+            }
+            ordered.put(block.getBlockNumber(), block);
+        }
+
+        int size = ordered.size();
+        this.numbers = new long[size];
+        this.timestamps = new long[size];
+        this.transactions = new int[size];
+        this.energyUsed = new long[size];
+        this.energyLimits = new long[size];
+        this.windowedRates = new double[size];
+
+        int index = 0;
+        for (Block block : ordered.values()) {
+            this.numbers[index] = block.getBlockNumber().longValueExact();
+            this.timestamps[index] = block.getTimestamp();
+            this.transactions[index] = block.getNumberOfTransactions();
+            this.energyUsed[index] = block.getBlockEnergyUsed();
+            this.energyLimits[index] = block.getBlockEnergyLimit();
+            index++;
+        }
+
+        // Slide a window of windowInSeconds over the timestamps, keeping a running transaction count.
+        long transactionsInWindow = 0;
+        int windowStart = 0;
+        for (int i = 0; i < size; i++) {
+            transactionsInWindow += this.transactions[i];
+            while (this.timestamps[windowStart] <= this.timestamps[i] - windowInSeconds) {
+                transactionsInWindow -= this.transactions[windowStart];
+                windowStart++;
+            }
+            this.windowedRates[i] = ((double) transactionsInWindow) / windowInSeconds;
+        }
+    }
+
+    /**
+     * Constructs a timeline from the specified blocks. The blocks may be given in any order and may
+     * contain duplicates.
+     *
+     * @param blocks The blocks of the run.
+     * @param window The length of the sliding window used to compute transactions per second.
+     * @param unit The time unit of the window.
+     * @return the timeline.
+     */
+    public static BlockTimeline from(List<Block> blocks, long window, TimeUnit unit) {
+        if (blocks == null) {
+            throw new NullPointerException("Cannot construct BlockTimeline with null list of blocks.");
+        }
+        if (unit == null) {
+            throw new NullPointerException("Cannot construct BlockTimeline with null time unit.");
+        }
+
+        long windowInSeconds = unit.toSeconds(window);
+        if (windowInSeconds < 1) {
+            throw new IllegalArgumentException("Window must be at least one second long, since block timestamps have a resolution of one second.");
+        }
+
+        return new BlockTimeline(blocks, windowInSeconds);
+    }
+
+    /**
+     * Constructs a timeline from the blocks held in the specified rpc results, as returned by
+     * {@link org.aion.harness.main.RPC#getBlocksByNumber(List)}.
+     *
+     * @param results The rpc results holding the blocks of the run.
+     * @param window The length of the sliding window used to compute transactions per second.
+     * @param unit The time unit of the window.
+     * @return the timeline.
+     */
+    public static BlockTimeline fromResults(List<RpcResult<Block>> results, long window, TimeUnit unit) {
+        if (results == null) {
+            throw new NullPointerException("Cannot construct BlockTimeline with null list of results.");
+        }
+
+        List<Block> blocks = new ArrayList<>();
+        for (RpcResult<Block> result : results) {
+            if (!result.isSuccess()) {
+                throw new IllegalArgumentException("Cannot construct BlockTimeline from an unsuccessful result: " + result.getError());
+            }
+            blocks.add(result.getResult());
+        }
+
+        return from(blocks, window, unit);
+    }
+
+    /**
+     * Returns the number of unique blocks in this timeline.
+     */
+    public int size() {
+        return this.numbers.length;
+    }
+
+    /**
+     * Returns the sliding window used to compute transactions per second, in the specified unit.
+     */
+    public long getWindow(TimeUnit unit) {
+        return unit.convert(this.windowInSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Returns the block number of the i'th block of the timeline.
+     */
+    public long blockNumber(int i) {
+        return this.numbers[i];
+    }
+
+    /**
+     * Returns the kernel timestamp of the i'th block of the timeline, in seconds since the epoch.
+     */
+    public long timestamp(int i) {
+        return this.timestamps[i];
+    }
+
+    /**
+     * Returns the number of transactions in the i'th block of the timeline.
+     */
+    public int numberOfTransactions(int i) {
+        return this.transactions[i];
+    }
+
+    /**
+     * Returns the energy used by the i'th block of the timeline.
+     */
+    public long energyUsed(int i) {
+        return this.energyUsed[i];
+    }
+
+    /**
+     * Returns the energy limit of the i'th block of the timeline.
+     */
+    public long energyLimit(int i) {
+        return this.energyLimits[i];
+    }
+
+    /**
+     * Returns the number of seconds between the i'th block of the timeline and the block before it,
+     * or {@link #NOT_AVAILABLE} for the first block.
+     */
+    public long blockInterval(int i) {
+        return (i == 0) ? NOT_AVAILABLE : this.timestamps[i] - this.timestamps[i - 1];
+    }
+
+    /**
+     * Returns the transactions per second sealed over the sliding window ending at the i'th block.
+     */
+    public double windowedTransactionsPerSecond(int i) {
+        return this.windowedRates[i];
+    }
+
+    /**
+     * Returns the total number of transactions in the timeline.
+     */
+    public long getTotalTransactions() {
+        long total = 0;
+        for (int count : this.transactions) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * Returns the number of seconds between the first and last block of the timeline.
+     */
+    public long getDurationInSeconds() {
+        return (size() == 0) ? 0 : this.timestamps[size() - 1] - this.timestamps[0];
+    }
+
+    /**
+     * Returns the mean transactions per second over the timeline, excluding the first block, whose
+     * transactions were gathered before the timeline begins. Returns 0 if the timeline spans less
+     * than one second.
+     */
+    public double getMeanTransactionsPerSecond() {
+        long duration = getDurationInSeconds();
+        return (duration == 0) ? 0 : ((double) (getTotalTransactions() - this.transactions[0])) / duration;
+    }
+
+    /**
+     * Returns the transactions per second sealed over each of the consecutive, non-overlapping
+     * windows of the timeline's window length that fit between its first and last block.
+     *
+     * The first window begins at the first block, whose transactions are excluded since they were
+     * gathered before the timeline begins, and a window includes the blocks sealed after its start
+     * up to and including its end. A final window that is cut short by the end of the timeline is
+     * left out. Unlike the sliding windows of {@link #windowedTransactionsPerSecond(int)}, no block
+     * is counted in more than one of these rates, so they can be treated as separate samples of
+     * the throughput.
+     */
+    public double[] nonOverlappingTransactionsPerSecond() {
+        if (size() == 0) {
+            return new double[0];
+        }
+
+        double[] rates = new double[(int) (getDurationInSeconds() / this.windowInSeconds)];
+        int block = 1;
+        for (int window = 0; window < rates.length; window++) {
+            long end = this.timestamps[0] + ((window + 1) * this.windowInSeconds);
+            long transactionsInWindow = 0;
+            while ((block < size()) && (this.timestamps[block] <= end)) {
+                transactionsInWindow += this.transactions[block];
+                block++;
+            }
+            rates[window] = ((double) transactionsInWindow) / this.windowInSeconds;
+        }
+        return rates;
+    }
+
+    /**
+     * Returns the highest transactions per second observed over any window of the timeline.
+     */
+    public double getPeakTransactionsPerSecond() {
+        double peak = 0;
+        for (double rate : this.windowedRates) {
+            peak = Math.max(peak, rate);
+        }
+        return peak;
+    }
+
+    /**
+     * Returns the longest interval between two consecutive blocks, in seconds, or
+     * {@link #NOT_AVAILABLE} if the timeline has fewer than two blocks.
+     */
+    public long getLongestBlockInterval() {
+        long longest = NOT_AVAILABLE;
+        for (int i = 1; i < size(); i++) {
+            longest = Math.max(longest, blockInterval(i));
+        }
+        return longest;
+    }
+
+    /**
+     * Returns the number of blocks in the timeline that contain no transactions.
+     */
+    public int getNumberOfEmptyBlocks() {
+        int empty = 0;
+        for (int count : this.transactions) {
+            if (count == 0) {
+                empty++;
+            }
+        }
+        return empty;
+    }
+
+    /**
+     * Prints the timeline to console, one line per block, followed by a summary.
+     *
+     * Each line shows the offset of the block from the start of the timeline, its block number, the
+     * interval since the previous block, its transaction count, its energy used and the windowed
+     * transactions per second.
+     */
+    public void printTimeline() {
+        System.out.println("---------------------------------------------------------------------");
+        System.out.println(String.format("%8s %12s %9s %6s %14s %10s", "t(s)", "block", "interval", "txs", "energy used", "tps(" + this.windowInSeconds + "s)"));
+        for (int i = 0; i < size(); i++) {
+            long interval = blockInterval(i);
+            System.out.println(String.format("%8d %12d %9s %6d %14d %10.2f",
+                this.timestamps[i] - this.timestamps[0],
+                this.numbers[i],
+                (interval == NOT_AVAILABLE) ? "-" : String.valueOf(interval),
+                this.transactions[i],
+                this.energyUsed[i],
+                this.windowedRates[i]));
+        }
+        System.out.println();
+        System.out.println(getTotalTransactions() + " transaction(s) in " + size() + " block(s) over " + getDurationInSeconds() + " second(s).");
+        System.out.println("Mean transactions per second = " + String.format("%.2f", getMeanTransactionsPerSecond()));
+        System.out.println("Peak transactions per second = " + String.format("%.2f", getPeakTransactionsPerSecond()));
+        System.out.println("Longest block interval = " + getLongestBlockInterval() + " second(s)");
+        System.out.println("Number of empty blocks = " + getNumberOfEmptyBlocks());
+        System.out.println("---------------------------------------------------------------------");
+    }
+
+    /**
+     * Writes the timeline to the specified file as comma-separated values, with a header line
+     * followed by one line per block.
+     *
+     * @param file The file to write to. It is overwritten if it already exists.
+     */
+    public void writeCsv(File file) throws IOException {
+        if (file == null) {
+            throw new NullPointerException("Cannot write timeline to a null file.");
+        }
+
+        List<String> lines = new ArrayList<>(size() + 1);
+        lines.add("block,timestamp,interval,transactions,energy_used,energy_limit,windowed_tps");
+        for (int i = 0; i < size(); i++) {
+            lines.add(this.numbers[i]
+                + "," + this.timestamps[i]
+                + "," + blockInterval(i)
+                + "," + this.transactions[i]
+                + "," + this.energyUsed[i]
+                + "," + this.energyLimits[i]
+                + "," + this.windowedRates[i]);
+        }
+
+        Files.write(file.toPath(), lines, StandardCharsets.UTF_8);
+    }
+
+}
@@ -1,26 +1,35 @@
 package org.aion.harness.statistics;
 
 import java.math.BigDecimal;
-import java.math.MathContext;
 import java.math.RoundingMode;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import org.aion.harness.main.util.TestHarnessHelper;
 import org.aion.harness.result.LogEventResult;
 import org.aion.harness.result.RpcResult;
 
+/**
+ * Statistics over a collection of durations, each given as a start and an end time.
+ *
+ * Durations are recorded into a {@link Histogram} in nanoseconds, so memory use is fixed no matter
+ * how many durations are recorded, and percentiles out to p99.99 are available alongside the
+ * usual summary statistics.
+ *
+ * Durations may be recorded incrementally, from any number of threads, while a run is still going
+ * (see {@link #newRecorder()}), and statistics from separate threads or runs may be merged.
+ *
+ * This class is thread-safe.
+ */
 public final class DurationStatistics {
     private static final BigDecimal SECONDS_DIVISOR = BigDecimal.TEN.pow(9);
-    private final List<BigDecimal> startTimes;
-    private final List<BigDecimal> endTimes;
+    private final Histogram durations;
+    private final AtomicLong earliestStartTime = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong latestEndTime = new AtomicLong(Long.MIN_VALUE);
 
-    private boolean statsHaveBeenComputed = false;
-    private BigDecimal maximumDuration = null;
-    private BigDecimal minimumDuration = null;
-    private BigDecimal meanDuration = null;
-    private BigDecimal totalDuration = BigDecimal.ZERO;
-    private BigDecimal durationsStandardDeviation = null;
+    private DurationStatistics(Histogram durations) {
+        this.durations = durations;
+    }
 
     private DurationStatistics(long[] startTimes, long[] endTimes) {
         if (startTimes == null) {
@@ -33,15 +42,12 @@ public final class DurationStatistics {
             throw new IllegalArgumentException("Cannot construct statics when results and futures differ in size.");
         }
 
-        this.startTimes = new ArrayList<>();
-        this.endTimes = new ArrayList<>();
+        this.durations = new Histogram();
 
         int length = startTimes.length;
         for (int i = 0; i < length; i++) {
-            this.startTimes.add(BigDecimal.valueOf(startTimes[i]));
-            this.endTimes.add(BigDecimal.valueOf(endTimes[i]));
+            record(startTimes[i], endTimes[i], TimeUnit.NANOSECONDS);
         }
-
     }
 
     /**
@@ -70,89 +76,102 @@ public final class DurationStatistics {
     }
 
     /**
-     * Prints some basic duration statistics to console.
+     * Constructs an empty duration statistics object, into which durations can be recorded as
+     * they complete using {@link #record(long, long, TimeUnit)}.
+     *
+     * @return an empty duration statistics object.
+     */
+    public static DurationStatistics newRecorder() {
+        return new DurationStatistics(new Histogram());
+    }
+
+    /**
+     * Records a single duration.
      *
-     * These statistics are just the maximum & minimum durations, the mean duration, the total
-     * amount of time elapsed between the earliest & latest timestamps, as well as the standard
-     * deviation for the durations.
+     * A duration that ends before it starts, as when an event is observed before the rpc call that
+     * triggered it has returned, is recorded as zero, since the histogram holds no negative values.
      *
-     * @param decimalPrecision The number of decimal places for the numbers to be accurate to.
+     * @param startTime The time at which the duration began.
+     * @param endTime The time at which the duration ended.
+     * @param unit The time unit of both times.
      */
-    public void printStatistics(int decimalPrecision) {
-        if (!this.statsHaveBeenComputed) {
-            computeStatistics(decimalPrecision);
+    public void record(long startTime, long endTime, TimeUnit unit) {
+        if (unit == null) {
+            throw new NullPointerException("Cannot specify a null time unit.");
         }
+        long startInNanos = unit.toNanos(startTime);
+        long endInNanos = unit.toNanos(endTime);
 
-        System.out.println("---------------------------------------------------------------------");
-        System.out.println("Maximum duration: " + this.maximumDuration.toPlainString() + " seconds(s)");
-        System.out.println("Minimum duration: " + this.minimumDuration.toPlainString() + " seconds(s)");
-        System.out.println("Mean duration: " + this.meanDuration.toPlainString() + " second(s)");
-        System.out.println("Total duration: " + this.totalDuration.toPlainString() + " second(s)");
-        System.out.println("Standard deviation of durations: " + this.durationsStandardDeviation.toPlainString() + " second(s)");
-        System.out.println("---------------------------------------------------------------------");
+        this.durations.record(Math.max(endInNanos - startInNanos, 0));
+        this.earliestStartTime.accumulateAndGet(startInNanos, Math::min);
+        this.latestEndTime.accumulateAndGet(endInNanos, Math::max);
     }
 
-    private void computeStatistics(int precision) {
-        int size = this.startTimes.size();
-
-        BigDecimal earliestTime = null;
-        BigDecimal latestTime = null;
-
-        List<BigDecimal> durations = new ArrayList<>();
-        for (int i = 0; i < size; i++) {
-            BigDecimal currentResultTime = this.startTimes.get(i);
-            BigDecimal currentFutureTime = this.endTimes.get(i);
-
-            earliestTime = (earliestTime == null) ? currentResultTime : ((earliestTime.compareTo(currentResultTime) < 0) ? earliestTime : currentResultTime);
-            latestTime = (latestTime == null) ? currentFutureTime : ((latestTime.compareTo(currentFutureTime) > 0) ? latestTime : currentFutureTime);
-
-            BigDecimal duration = currentFutureTime.subtract(currentResultTime);
-
-            this.maximumDuration = (this.maximumDuration == null) ? duration : ((this.maximumDuration.compareTo(duration) < 0) ? duration : this.maximumDuration);
-            this.minimumDuration = (this.minimumDuration == null) ? duration : ((this.minimumDuration.compareTo(duration) > 0) ? duration : this.minimumDuration);
-
-            durations.add(duration.divide(SECONDS_DIVISOR, precision, RoundingMode.HALF_UP));
+    /**
+     * Adds every duration recorded in the other statistics into these statistics.
+     *
+     * @param other The statistics to merge into these.
+     */
+    public void add(DurationStatistics other) {
+        if (other == null) {
+            throw new NullPointerException("Cannot add null statistics.");
         }
 
-        // In this case, we must have had a size zero list.
-        if (earliestTime == null) {
-            this.totalDuration = BigDecimal.ZERO;
-            this.maximumDuration = BigDecimal.ZERO;
-            this.minimumDuration = BigDecimal.ZERO;
-            this.meanDuration = BigDecimal.ZERO;
-            this.durationsStandardDeviation = BigDecimal.ZERO;
-        } else {
-            this.totalDuration = latestTime.subtract(earliestTime).divide(SECONDS_DIVISOR, precision, RoundingMode.HALF_UP);
-            this.maximumDuration = this.maximumDuration.divide(SECONDS_DIVISOR, precision, RoundingMode.HALF_UP);
-            this.minimumDuration = this.minimumDuration.divide(SECONDS_DIVISOR, precision, RoundingMode.HALF_UP);
-
-            // The mean is calculated over the individual durations, not the length of time (totalDuration).
-            BigDecimal durationsTotal = sum(durations);
-            this.meanDuration = durationsTotal.divide(BigDecimal.valueOf(size), precision, RoundingMode.HALF_UP);
-
-            this.durationsStandardDeviation = computeStandardDeviation(durations, precision);
+        this.durations.add(other.durations);
+        if (other.durations.getTotalCount() > 0) {
+            this.earliestStartTime.accumulateAndGet(other.earliestStartTime.get(), Math::min);
+            this.latestEndTime.accumulateAndGet(other.latestEndTime.get(), Math::max);
         }
+    }
 
-        this.statsHaveBeenComputed = true;
+    /**
+     * Returns the histogram of the recorded durations, in nanoseconds. The returned histogram is a
+     * live view and will reflect any durations recorded later.
+     */
+    public Histogram getHistogram() {
+        return this.durations;
     }
 
-    private BigDecimal computeStandardDeviation(List<BigDecimal> times, int precision) {
-        BigDecimal squares = BigDecimal.ZERO;
+    /**
+     * Returns the duration at the specified percentile, to within the histogram's precision.
+     *
+     * @param percentile The percentile, in the range [0, 100].
+     * @param unit The time unit to return the duration in.
+     * @return the duration.
+     */
+    public long getDurationAtPercentile(double percentile, TimeUnit unit) {
+        return unit.convert(this.durations.getValueAtPercentile(percentile), TimeUnit.NANOSECONDS);
+    }
 
-        for (BigDecimal time : times) {
-            squares = squares.add((time.subtract(this.meanDuration)).pow(2));
-        }
+    /**
+     * Prints some basic duration statistics to console.
+     *
+     * These statistics are the maximum & minimum durations, the mean duration, the total amount of
+     * time elapsed between the earliest & latest timestamps, the standard deviation for the
+     * durations, and the p50, p90, p99, p99.9 and p99.99 durations.
+     *
+     * @param decimalPrecision The number of decimal places for the numbers to be accurate to.
+     */
+    public void printStatistics(int decimalPrecision) {
+        boolean isEmpty = this.durations.getTotalCount() == 0;
+        long totalDuration = isEmpty ? 0 : this.latestEndTime.get() - this.earliestStartTime.get();
 
-        BigDecimal variance = squares.divide(this.meanDuration, precision, RoundingMode.HALF_UP);
-        return variance.sqrt(new MathContext(precision, RoundingMode.HALF_UP));
+        System.out.println("---------------------------------------------------------------------");
+        System.out.println("Maximum duration: " + toSeconds(this.durations.getMaximum(), decimalPrecision) + " seconds(s)");
+        System.out.println("Minimum duration: " + toSeconds(this.durations.getMinimum(), decimalPrecision) + " seconds(s)");
+        System.out.println("Mean duration: " + toSeconds(this.durations.getMean(), decimalPrecision) + " second(s)");
+        System.out.println("Total duration: " + toSeconds(totalDuration, decimalPrecision) + " second(s)");
+        System.out.println("Standard deviation of durations: " + toSeconds(this.durations.getStandardDeviation(), decimalPrecision) + " second(s)");
+        System.out.println("p50 duration: " + toSeconds(this.durations.getValueAtPercentile(50), decimalPrecision) + " second(s)");
+        System.out.println("p90 duration: " + toSeconds(this.durations.getValueAtPercentile(90), decimalPrecision) + " second(s)");
+        System.out.println("p99 duration: " + toSeconds(this.durations.getValueAtPercentile(99), decimalPrecision) + " second(s)");
+        System.out.println("p99.9 duration: " + toSeconds(this.durations.getValueAtPercentile(99.9), decimalPrecision) + " second(s)");
+        System.out.println("p99.99 duration: " + toSeconds(this.durations.getValueAtPercentile(99.99), decimalPrecision) + " second(s)");
+        System.out.println("---------------------------------------------------------------------");
     }
 
-    private BigDecimal sum(List<BigDecimal> numbers) {
-        BigDecimal sum = BigDecimal.ZERO;
-        for (BigDecimal number : numbers) {
-            sum = sum.add(number);
-        }
-        return sum;
+    private static String toSeconds(double nanos, int precision) {
+        return BigDecimal.valueOf(nanos).divide(SECONDS_DIVISOR, precision, RoundingMode.HALF_UP).toPlainString();
     }
 
 }
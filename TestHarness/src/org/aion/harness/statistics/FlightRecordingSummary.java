@@ -0,0 +1,344 @@
+package org.aion.harness.statistics;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The hottest methods and the most allocated classes of a Java Flight Recorder recording of the
+ * kernel, as a first look at where a run spent its time and memory.
+ *
+ * Hot methods are ranked by the number of execution samples in which they were the top frame.
+ * Allocations are ranked by the estimated number of bytes allocated: the sampled weight of
+ * {@code jdk.ObjectAllocationSample} events where the recording has them, and otherwise the TLAB
+ * size or object size of the {@code jdk.ObjectAllocationInNewTLAB} and
+ * {@code jdk.ObjectAllocationOutsideTLAB} events that older JVMs record instead.
+ *
+ * The recording is read with the {@code jfr} tool of the JDK running the harness.
+ *
+ * A flight recording summary is immutable.
+ */
+public final class FlightRecordingSummary {
+    public static final int DEFAULT_NUMBER_OF_ENTRIES = 20;
+    private static final String EVENTS = "jdk.ExecutionSample,jdk.ObjectAllocationSample,jdk.ObjectAllocationInNewTLAB,jdk.ObjectAllocationOutsideTLAB";
+
+    private final String name;
+    private final long totalSamples;
+    private final long totalAllocatedBytes;
+    private final List<Entry> hotMethods;
+    private final List<Entry> allocations;
+
+    /**
+     * A method or class, and the number of samples or bytes attributed to it.
+     */
+    public static final class Entry {
+        public final String name;
+        public final long amount;
+        public final double fraction;
+
+        Entry(String name, long amount, double fraction) {
+            this.name = name;
+            this.amount = amount;
+            this.fraction = fraction;
+        }
+
+        @Override
+        public String toString() {
+            return this.name + " = " + this.amount + " (" + String.format("%.2f", this.fraction * 100) + "%)";
+        }
+    }
+
+    private FlightRecordingSummary(String name, long totalSamples, long totalAllocatedBytes, List<Entry> hotMethods, List<Entry> allocations) {
+        this.name = name;
+        this.totalSamples = totalSamples;
+        this.totalAllocatedBytes = totalAllocatedBytes;
+        this.hotMethods = Collections.unmodifiableList(hotMethods);
+        this.allocations = Collections.unmodifiableList(allocations);
+    }
+
+    /**
+     * Summarizes the specified recording, keeping the specified number of hot methods and
+     * allocated classes.
+     *
+     * @param name A name for the summary, typically the phase of the run that was recorded.
+     * @param recording The .jfr recording file.
+     * @param numberOfEntries The number of hot methods and allocated classes to keep.
+     * @return the summary.
+     * @throws IOException if the jfr tool is not available, fails to read the recording, or its
+     * output cannot be parsed.
+     */
+    public static FlightRecordingSummary summarize(String name, File recording, int numberOfEntries) throws IOException, InterruptedException {
+        if (recording == null) {
+            throw new NullPointerException("Cannot summarize a null recording.");
+        }
+        if (!recording.isFile()) {
+            throw new IllegalArgumentException("The recording does not exist: " + recording);
+        }
+
+        File jfr = new File(System.getProperty("java.home"), "bin" + File.separator + "jfr");
+        Process process = new ProcessBuilder(jfr.exists() ? jfr.getAbsolutePath() : "jfr", "print", "--json", "--events", EVENTS, recording.getAbsolutePath())
+            .redirectError(ProcessBuilder.Redirect.DISCARD)
+            .start();
+
+        FlightRecordingSummary summary = null;
+        Exception failure = null;
+        try (Reader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            summary = fromJson(name, reader, numberOfEntries);
+        } catch (IOException | RuntimeException e) {
+            failure = e;
+        }
+
+        // A tool that failed usually also produced output that could not be parsed, which is kept as the cause.
+        int exitValue = process.waitFor();
+        if (exitValue != 0) {
+            throw new IOException("The jfr tool failed to read the recording (exit code " + exitValue + "): " + recording, failure);
+        }
+        if (failure != null) {
+            throw new IOException("Failed to parse the jfr tool's output for the recording: " + recording, failure);
+        }
+        return summary;
+    }
+
+    /**
+     * Summarizes a recording from the output of {@code jfr print --json}.
+     *
+     * The json is read as a stream, one event at a time, since recordings of long runs are large.
+     *
+     * @param name A name for the summary.
+     * @param json The output of {@code jfr print --json}.
+     * @param numberOfEntries The number of hot methods and allocated classes to keep.
+     * @return the summary.
+     */
+    public static FlightRecordingSummary fromJson(String name, Reader json, int numberOfEntries) throws IOException {
+        if (name == null) {
+            throw new NullPointerException("Cannot construct a summary with a null name.");
+        }
+        if (numberOfEntries < 1) {
+            throw new IllegalArgumentException("Must keep at least 1 entry, found: " + numberOfEntries);
+        }
+
+        Map<String, Long> methodSamples = new HashMap<>();
+        Map<String, Long> sampledAllocations = new HashMap<>();
+        Map<String, Long> tlabAllocations = new HashMap<>();
+
+        JsonReader reader = new JsonReader(json);
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (!reader.nextName().equals("recording")) {
+                reader.skipValue();
+                continue;
+            }
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (!reader.nextName().equals("events") || (reader.peek() != JsonToken.BEGIN_ARRAY)) {
+                    reader.skipValue();
+                    continue;
+                }
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    JsonObject event = new JsonParser().parse(reader).getAsJsonObject();
+                    accumulate(event, methodSamples, sampledAllocations, tlabAllocations);
+                }
+                reader.endArray();
+            }
+            reader.endObject();
+        }
+        reader.endObject();
+
+        // Newer jvms record allocation samples instead of tlab events; never count both.
+        Map<String, Long> allocations = sampledAllocations.isEmpty() ? tlabAllocations : sampledAllocations;
+
+        long totalSamples = sum(methodSamples);
+        long totalBytes = sum(allocations);
+        return new FlightRecordingSummary(name, totalSamples, totalBytes, top(methodSamples, totalSamples, numberOfEntries), top(allocations, totalBytes, numberOfEntries));
+    }
+
+    private static void accumulate(JsonObject event, Map<String, Long> methodSamples, Map<String, Long> sampledAllocations, Map<String, Long> tlabAllocations) {
+        String type = getString(event, "type");
+        JsonObject values = event.has("values") ? event.getAsJsonObject("values") : null;
+        if ((type == null) || (values == null)) {
+            return;
+        }
+
+        switch (type) {
+            case "jdk.ExecutionSample":
+                String method = topFrame(values);
+                if (method != null) {
+                    methodSamples.merge(method, 1L, Long::sum);
+                }
+                break;
+            case "jdk.ObjectAllocationSample":
+                addAllocation(sampledAllocations, values, "weight");
+                break;
+            case "jdk.ObjectAllocationInNewTLAB":
+                addAllocation(tlabAllocations, values, "tlabSize");
+                break;
+            case "jdk.ObjectAllocationOutsideTLAB":
+                addAllocation(tlabAllocations, values, "allocationSize");
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static String topFrame(JsonObject values) {
+        JsonElement stackTrace = values.get("stackTrace");
+        if ((stackTrace == null) || !stackTrace.isJsonObject()) {
+            return null;
+        }
+        JsonElement frames = stackTrace.getAsJsonObject().get("frames");
+        if ((frames == null) || !frames.isJsonArray() || (frames.getAsJsonArray().size() == 0)) {
+            return null;
+        }
+
+        JsonElement method = frames.getAsJsonArray().get(0).getAsJsonObject().get("method");
+        if ((method == null) || !method.isJsonObject()) {
+            return null;
+        }
+        JsonElement declaringType = method.getAsJsonObject().get("type");
+        String className = ((declaringType != null) && declaringType.isJsonObject()) ? getString(declaringType.getAsJsonObject(), "name") : null;
+        String methodName = getString(method.getAsJsonObject(), "name");
+        return (className == null) ? methodName : toBinaryName(className) + "." + methodName;
+    }
+
+    private static void addAllocation(Map<String, Long> allocations, JsonObject values, String sizeField) {
+        JsonElement objectClass = values.get("objectClass");
+        JsonElement size = values.get(sizeField);
+        if ((objectClass == null) || !objectClass.isJsonObject() || (size == null) || !size.isJsonPrimitive()) {
+            return;
+        }
+        String className = getString(objectClass.getAsJsonObject(), "name");
+        if (className != null) {
+            allocations.merge(toBinaryName(className), size.getAsLong(), Long::sum);
+        }
+    }
+
+    /**
+     * Recordings name classes in their internal form, for example java/lang/String.
+     */
+    private static String toBinaryName(String className) {
+        return className.replace('/', '.');
+    }
+
+    private static String getString(JsonObject object, String field) {
+        JsonElement element = object.get(field);
+        return ((element == null) || !element.isJsonPrimitive()) ? null : element.getAsString();
+    }
+
+    private static long sum(Map<String, Long> amounts) {
+        long total = 0;
+        for (long amount : amounts.values()) {
+            total += amount;
+        }
+        return total;
+    }
+
+    private static List<Entry> top(Map<String, Long> amounts, long total, int numberOfEntries) {
+        List<Map.Entry<String, Long>> sorted = new ArrayList<>(amounts.entrySet());
+        sorted.sort((a, b) -> (a.getValue().equals(b.getValue())) ? a.getKey().compareTo(b.getKey()) : Long.compare(b.getValue(), a.getValue()));
+
+        List<Entry> entries = new ArrayList<>();
+        for (Map.Entry<String, Long> amount : sorted.subList(0, Math.min(numberOfEntries, sorted.size()))) {
+            entries.add(new Entry(amount.getKey(), amount.getValue(), (total == 0) ? 0 : amount.getValue() / (double) total));
+        }
+        return entries;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Returns the number of execution samples in the recording.
+     */
+    public long getTotalSamples() {
+        return this.totalSamples;
+    }
+
+    /**
+     * Returns the estimated number of bytes allocated over the recording.
+     */
+    public long getTotalAllocatedBytes() {
+        return this.totalAllocatedBytes;
+    }
+
+    /**
+     * Returns the hottest methods by execution samples, hottest first.
+     */
+    public List<Entry> getHotMethods() {
+        return this.hotMethods;
+    }
+
+    /**
+     * Returns the most allocated classes by estimated bytes, most allocated first.
+     */
+    public List<Entry> getAllocations() {
+        return this.allocations;
+    }
+
+    /**
+     * Returns the summary as human-readable lines, as printed by {@link #printSummary()}.
+     */
+    public List<String> toLines() {
+        List<String> lines = new ArrayList<>();
+        lines.add("---------------------------------------------------------------------");
+        lines.add("Flight recording: " + this.name);
+        lines.add("");
+        lines.add("Hot methods (" + this.totalSamples + " execution samples):");
+        for (Entry entry : this.hotMethods) {
+            lines.add(String.format("  %6.2f%% %10d  %s", entry.fraction * 100, entry.amount, entry.name));
+        }
+        lines.add("");
+        lines.add("Allocations (" + this.totalAllocatedBytes + " bytes):");
+        for (Entry entry : this.allocations) {
+            lines.add(String.format("  %6.2f%% %14d  %s", entry.fraction * 100, entry.amount, entry.name));
+        }
+        lines.add("---------------------------------------------------------------------");
+        return lines;
+    }
+
+    /**
+     * Prints the summary to console.
+     */
+    public void printSummary() {
+        for (String line : toLines()) {
+            System.out.println(line);
+        }
+    }
+
+    /**
+     * Writes the summary to the specified file, as printed by {@link #printSummary()}.
+     *
+     * @param file The file to write to. It is overwritten if it already exists.
+     */
+    public void writeTo(File file) throws IOException {
+        if (file == null) {
+            throw new NullPointerException("Cannot write summary to a null file.");
+        }
+        Files.write(file.toPath(), toLines(), StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString() {
+        return "FlightRecordingSummary { name = " + this.name
+            + ", samples = " + this.totalSamples
+            + ", allocated bytes = " + this.totalAllocatedBytes
+            + ", hot methods = " + this.hotMethods
+            + ", allocations = " + this.allocations + " }";
+    }
+
+}
@@ -0,0 +1,238 @@
+package org.aion.harness.statistics;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The stop-the-world pauses recorded in a Java kernel's unified gc log, as written when the
+ * kernel is run with a {@link org.aion.harness.main.JvmProfile} that enables gc logging.
+ *
+ * Pauses are recognized from the summary line each collector logs when a pause completes, for
+ * example:
+ *
+ * {@code [2.345s][1234567890123ns][info][gc] GC(3) Pause Young (Normal) (G1 Evacuation Pause) 24M->4M(256M) 5.678ms}
+ *
+ * The {@code timenanos} decoration places every pause on the same clock as the harness's rpc
+ * results and log events, so that latency outliers can be attributed to gc using
+ * {@link #getPauseTimeBetween(long, long, TimeUnit)}. Logs from several profiles can be compared
+ * side by side with {@link #printComparison(List)}.
+ *
+ * A gc log is immutable.
+ */
+public final class GcLog {
+    private static final Pattern DECORATION = Pattern.compile("^\\[([^\\]]*)\\]");
+    private static final Pattern PAUSE = Pattern.compile("^GC\\((\\d+)\\) (Pause .*?)(?: (\\d+)([BKMGT])->(\\d+)([BKMGT])\\(\\d+[BKMGT]\\))? (\\d+(?:[.,]\\d+)?)ms$");
+
+    private final String name;
+    private final List<GcPause> pauses;
+
+    private GcLog(String name, List<GcPause> pauses) {
+        this.name = name;
+        this.pauses = Collections.unmodifiableList(pauses);
+    }
+
+    /**
+     * Parses the gc log in the specified file.
+     *
+     * @param name A name for the log, typically that of the jvm profile it was produced under.
+     * @param file The gc log file.
+     * @return the parsed log.
+     */
+    public static GcLog parse(String name, File file) throws IOException {
+        if (file == null) {
+            throw new NullPointerException("Cannot parse a null gc log file.");
+        }
+        return parse(name, Files.readAllLines(file.toPath(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parses the specified lines of a gc log. Lines that do not describe a pause are ignored.
+     *
+     * @param name A name for the log, typically that of the jvm profile it was produced under.
+     * @param lines The lines of the gc log.
+     * @return the parsed log.
+     */
+    public static GcLog parse(String name, List<String> lines) {
+        if (name == null) {
+            throw new NullPointerException("Cannot parse a gc log with a null name.");
+        }
+        if (lines == null) {
+            throw new NullPointerException("Cannot parse null gc log lines.");
+        }
+
+        List<GcPause> pauses = new ArrayList<>();
+        for (String line : lines) {
+            GcPause pause = parseLine(line);
+            if (pause != null) {
+                pauses.add(pause);
+            }
+        }
+        return new GcLog(name, pauses);
+    }
+
+    private static GcPause parseLine(String line) {
+        // Peel off the leading [decorations], the last of which holds the tags.
+        long timeInNanos = GcPause.NOT_AVAILABLE;
+        String tags = null;
+        String remainder = line;
+        Matcher decoration = DECORATION.matcher(remainder);
+        while (decoration.find()) {
+            String value = decoration.group(1).trim();
+            if (value.matches("\\d+ns")) {
+                timeInNanos = Long.parseLong(value.substring(0, value.length() - 2));
+            }
+            tags = value;
+            remainder = remainder.substring(decoration.end());
+            decoration = DECORATION.matcher(remainder);
+        }
+
+        // Most collectors log their pauses under gc, but ZGC logs them under gc,phases.
+        if (!"gc".equals(tags) && !"gc,phases".equals(tags)) {
+            return null;
+        }
+
+        Matcher pause = PAUSE.matcher(remainder.trim());
+        if (!pause.matches()) {
+            return null;
+        }
+
+        long durationInNanos = (long) (Double.parseDouble(pause.group(7).replace(',', '.')) * 1_000_000);
+        long heapBefore = (pause.group(3) == null) ? GcPause.NOT_AVAILABLE : toBytes(pause.group(3), pause.group(4));
+        long heapAfter = (pause.group(5) == null) ? GcPause.NOT_AVAILABLE : toBytes(pause.group(5), pause.group(6));
+        return new GcPause(Long.parseLong(pause.group(1)), pause.group(2), timeInNanos, durationInNanos, heapBefore, heapAfter);
+    }
+
+    private static long toBytes(String amount, String unit) {
+        return Long.parseLong(amount) << (10 * "BKMGT".indexOf(unit));
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Returns every pause in the log, in the order they were logged.
+     */
+    public List<GcPause> getPauses() {
+        return this.pauses;
+    }
+
+    /**
+     * Returns the pauses that overlap the specified range of the {@link System#nanoTime()} clock,
+     * for example the interval between sending a transaction and observing it sealed.
+     *
+     * @param start The start of the range.
+     * @param end The end of the range.
+     * @param unit The time units of the range.
+     * @return the overlapping pauses.
+     */
+    public List<GcPause> getPausesBetween(long start, long end, TimeUnit unit) {
+        long startInNanos = unit.toNanos(start);
+        long endInNanos = unit.toNanos(end);
+
+        List<GcPause> overlapping = new ArrayList<>();
+        for (GcPause pause : this.pauses) {
+            if (pause.overlapInNanos(startInNanos, endInNanos) > 0) {
+                overlapping.add(pause);
+            }
+        }
+        return overlapping;
+    }
+
+    /**
+     * Returns how much of the specified range of the {@link System#nanoTime()} clock the kernel
+     * spent paused for gc.
+     *
+     * @param start The start of the range.
+     * @param end The end of the range.
+     * @param unit The time units of the range, and of the returned result.
+     * @return the pause time within the range.
+     */
+    public long getPauseTimeBetween(long start, long end, TimeUnit unit) {
+        long startInNanos = unit.toNanos(start);
+        long endInNanos = unit.toNanos(end);
+
+        long total = 0;
+        for (GcPause pause : this.pauses) {
+            total += pause.overlapInNanos(startInNanos, endInNanos);
+        }
+        return unit.convert(total, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns the total time spent in all pauses in the desired time units.
+     */
+    public long getTotalPauseTime(TimeUnit unit) {
+        long total = 0;
+        for (GcPause pause : this.pauses) {
+            total += pause.getDuration(TimeUnit.NANOSECONDS);
+        }
+        return unit.convert(total, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns the histogram of pause durations, in nanoseconds.
+     */
+    public Histogram getPauseHistogram() {
+        Histogram histogram = new Histogram();
+        for (GcPause pause : this.pauses) {
+            histogram.record(pause.getDuration(TimeUnit.NANOSECONDS));
+        }
+        return histogram;
+    }
+
+    /**
+     * Prints the number of pauses and the distribution of their durations to console.
+     */
+    public void printSummary() {
+        System.out.println("---------------------------------------------------------------------");
+        System.out.println("GC log: " + this.name);
+        System.out.println("Number of pauses = " + this.pauses.size());
+        System.out.println("Total pause time = " + getTotalPauseTime(TimeUnit.MILLISECONDS) + " (millis)");
+        if (!this.pauses.isEmpty()) {
+            getPauseHistogram().printPercentiles("millis", 1_000_000.0);
+        }
+        System.out.println("---------------------------------------------------------------------");
+    }
+
+    /**
+     * Prints the pause statistics of each of the specified logs side by side, one line per log, so
+     * that the effects of different jvm profiles can be compared.
+     *
+     * @param logs The logs to compare.
+     */
+    public static void printComparison(List<GcLog> logs) {
+        if (logs == null) {
+            throw new NullPointerException("Cannot compare a null list of gc logs.");
+        }
+
+        System.out.println("---------------------------------------------------------------------");
+        System.out.println(String.format("%-20s %8s %12s %10s %10s %10s", "profile", "pauses", "total(ms)", "p50(ms)", "p99(ms)", "max(ms)"));
+        for (GcLog log : logs) {
+            Histogram histogram = log.getPauseHistogram();
+            boolean empty = histogram.getTotalCount() == 0;
+            System.out.println(String.format("%-20s %8d %12d %10.3f %10.3f %10.3f",
+                log.name,
+                log.pauses.size(),
+                log.getTotalPauseTime(TimeUnit.MILLISECONDS),
+                empty ? 0 : histogram.getValueAtPercentile(50) / 1_000_000.0,
+                empty ? 0 : histogram.getValueAtPercentile(99) / 1_000_000.0,
+                empty ? 0 : histogram.getMaximum() / 1_000_000.0));
+        }
+        System.out.println("---------------------------------------------------------------------");
+    }
+
+    @Override
+    public String toString() {
+        return "GcLog { name = " + this.name + ", pauses = " + this.pauses.size() + " }";
+    }
+
+}
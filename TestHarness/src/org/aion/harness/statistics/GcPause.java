@@ -0,0 +1,104 @@
+package org.aion.harness.statistics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A single stop-the-world pause of the kernel's garbage collector, as parsed from its unified gc
+ * log by {@link GcLog}.
+ *
+ * The end of the pause is the time the collector logged it, taken from the log's
+ * {@code timenanos} decoration, which is the kernel's {@link System#nanoTime()} clock and so
+ * directly comparable to the timestamps of rpc results and log events. If the log was written
+ * without that decoration, the pause's times are {@link #NOT_AVAILABLE}.
+ *
+ * A gc pause is immutable.
+ */
+public final class GcPause {
+    public static final long NOT_AVAILABLE = -1;
+
+    private final long gcId;
+    private final String description;
+    private final long endTimeInNanos;
+    private final long durationInNanos;
+    private final long heapBeforeInBytes;
+    private final long heapAfterInBytes;
+
+    GcPause(long gcId, String description, long endTimeInNanos, long durationInNanos, long heapBeforeInBytes, long heapAfterInBytes) {
+        this.gcId = gcId;
+        this.description = description;
+        this.endTimeInNanos = endTimeInNanos;
+        this.durationInNanos = durationInNanos;
+        this.heapBeforeInBytes = heapBeforeInBytes;
+        this.heapAfterInBytes = heapAfterInBytes;
+    }
+
+    /**
+     * Returns the number of the collection this pause belongs to. A concurrent collection may
+     * pause several times.
+     */
+    public long getGcId() {
+        return this.gcId;
+    }
+
+    /**
+     * Returns the collector's description of the pause, for example
+     * {@code Pause Young (Normal) (G1 Evacuation Pause)}.
+     */
+    public String getDescription() {
+        return this.description;
+    }
+
+    public long getStartTime(TimeUnit unit) {
+        return (this.endTimeInNanos < 0)
+            ? NOT_AVAILABLE
+            : unit.convert(this.endTimeInNanos - this.durationInNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public long getEndTime(TimeUnit unit) {
+        return (this.endTimeInNanos < 0)
+            ? NOT_AVAILABLE
+            : unit.convert(this.endTimeInNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public long getDuration(TimeUnit unit) {
+        return unit.convert(this.durationInNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns the heap occupancy before the pause in bytes, or {@link #NOT_AVAILABLE} if it was
+     * not logged.
+     */
+    public long getHeapBefore() {
+        return this.heapBeforeInBytes;
+    }
+
+    /**
+     * Returns the heap occupancy after the pause in bytes, or {@link #NOT_AVAILABLE} if it was not
+     * logged.
+     */
+    public long getHeapAfter() {
+        return this.heapAfterInBytes;
+    }
+
+    /**
+     * Returns the number of nanoseconds of this pause that fall within the specified range of the
+     * {@link System#nanoTime()} clock, or 0 if the time of the pause is not available.
+     */
+    long overlapInNanos(long startInNanos, long endInNanos) {
+        if (this.endTimeInNanos < 0) {
+            return 0;
+        }
+        long overlapStart = Math.max(startInNanos, this.endTimeInNanos - this.durationInNanos);
+        long overlapEnd = Math.min(endInNanos, this.endTimeInNanos);
+        return Math.max(0, overlapEnd - overlapStart);
+    }
+
+    @Override
+    public String toString() {
+        return "GcPause { GC(" + this.gcId + ") " + this.description
+            + ", end = " + this.endTimeInNanos + " (nanos)"
+            + ", duration = " + this.durationInNanos + " (nanos)"
+            + ", heap = " + this.heapBeforeInBytes + " -> " + this.heapAfterInBytes + " }";
+    }
+
+}
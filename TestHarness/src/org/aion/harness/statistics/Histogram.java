@@ -0,0 +1,576 @@
+package org.aion.harness.statistics;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed-memory histogram of non-negative {@code long} values with log-linear buckets, in the
+ * style of an HDR histogram.
+ *
+ * Values below {@code 2^precisionBits} each get their own bucket. Above that, every power-of-two
+ * range is split into {@code 2^(precisionBits - 1)} equal-width buckets, so any recorded value is
+ * reported back with a relative error of at most {@code 2^-(precisionBits - 1)}. With the default
+ * precision of 8 bits this is under 0.8%, and the whole {@code long} range is covered by 7,296
+ * buckets.
+ *
+ * Values may be recorded from any number of threads, and the histogram may be queried while it is
+ * still being recorded into. Histograms of the same precision can be merged, and can be written
+ * to and read from a compact byte encoding.
+ *
+ * This class is thread-safe. Queries made while values are being recorded reflect some, but not
+ * necessarily all, of the concurrently recorded values.
+ */
+public final class Histogram {
+    public static final int DEFAULT_PRECISION_BITS = 8;
+    private static final int MINIMUM_PRECISION_BITS = 2;
+    private static final int MAXIMUM_PRECISION_BITS = 16;
+    private static final byte ENCODING_VERSION = 1;
+
+    private final int precisionBits;
+    private final int subBucketCount;
+    private final int halfSubBucketCount;
+    private final AtomicLongArray counts;
+    private final AtomicLong totalCount = new AtomicLong(0);
+    private final AtomicLong minimum = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong maximum = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     * Constructs a new empty histogram with the default precision.
+     */
+    public Histogram() {
+        this(DEFAULT_PRECISION_BITS);
+    }
+
+    /**
+     * Constructs a new empty histogram with the specified precision.
+     *
+     * @param precisionBits The number of significant bits preserved for every recorded value.
+     */
+    public Histogram(int precisionBits) {
+        if ((precisionBits < MINIMUM_PRECISION_BITS) || (precisionBits > MAXIMUM_PRECISION_BITS)) {
+            throw new IllegalArgumentException("Precision must be between " + MINIMUM_PRECISION_BITS
+                + " and " + MAXIMUM_PRECISION_BITS + " bits, found: " + precisionBits);
+        }
+
+        this.precisionBits = precisionBits;
+        this.subBucketCount = 1 << precisionBits;
+        this.halfSubBucketCount = this.subBucketCount >>> 1;
+        this.counts = new AtomicLongArray(this.subBucketCount + ((63 - precisionBits) * this.halfSubBucketCount));
+    }
+
+    /**
+     * Records a single occurrence of the specified value.
+     *
+     * @param value The value to record.
+     */
+    public void record(long value) {
+        record(value, 1);
+    }
+
+    /**
+     * Records the specified number of occurrences of the specified value.
+     *
+     * @param value The value to record.
+     * @param count The number of times the value occurred.
+     */
+    public void record(long value, long count) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Cannot record a negative value: " + value);
+        }
+        if (count < 0) {
+            throw new IllegalArgumentException("Cannot record a negative count: " + count);
+        }
+        if (count == 0) {
+            return;
+        }
+
+        this.counts.addAndGet(indexOf(value), count);
+        this.totalCount.addAndGet(count);
+        this.minimum.accumulateAndGet(value, Math::min);
+        this.maximum.accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * Adds every value recorded in the other histogram into this histogram.
+     *
+     * @param other The histogram to merge into this one.
+     */
+    public void add(Histogram other) {
+        if (other == null) {
+            throw new NullPointerException("Cannot add a null histogram.");
+        }
+        if (other.precisionBits != this.precisionBits) {
+            throw new IllegalArgumentException("Cannot add a histogram of " + other.precisionBits
+                + "-bit precision to one of " + this.precisionBits + "-bit precision.");
+        }
+
+        long added = 0;
+        for (int i = 0; i < this.counts.length(); i++) {
+            long count = other.counts.get(i);
+            if (count != 0) {
+                this.counts.addAndGet(i, count);
+                added += count;
+            }
+        }
+
+        if (added > 0) {
+            this.totalCount.addAndGet(added);
+            this.minimum.accumulateAndGet(other.minimum.get(), Math::min);
+            this.maximum.accumulateAndGet(other.maximum.get(), Math::max);
+        }
+    }
+
+    /**
+     * Returns a new histogram holding exactly the values recorded in this one.
+     */
+    public Histogram copy() {
+        Histogram copy = new Histogram(this.precisionBits);
+        copy.add(this);
+        return copy;
+    }
+
+    /**
+     * Returns a bootstrap resample of this histogram: a new histogram of the same size and
+     * precision holding values drawn, with replacement, from the values recorded in this one.
+     *
+     * Each drawn value is recorded as the value this histogram would report for its bucket, so the
+     * percentiles of a resample are directly comparable to those of this histogram.
+     *
+     * To draw many resamples, use a {@link #resampler()}, which scans the buckets only once.
+     *
+     * @param random The source of randomness.
+     * @return the resample.
+     */
+    public Histogram resample(Random random) {
+        return resampler().resample(random);
+    }
+
+    /**
+     * Returns a resampler of the values currently recorded in this histogram, which draws
+     * resamples as {@link #resample(Random)} does.
+     *
+     * The resampler holds the counts of the non-empty buckets, so that each resample costs one
+     * binomial draw per non-empty bucket rather than a scan of every bucket or a draw per value.
+     * Values recorded after the resampler was created are not drawn.
+     *
+     * @return the resampler.
+     */
+    public Resampler resampler() {
+        return new Resampler(this);
+    }
+
+    /**
+     * Draws bootstrap resamples of a snapshot of a histogram. See {@link Histogram#resampler()}.
+     *
+     * A resampler is immutable.
+     */
+    public static final class Resampler {
+        // The threshold of n * p below which a binomial is drawn by inversion rather than rejection.
+        private static final double INVERSION_THRESHOLD = 10;
+        // The error of Stirling's approximation, log(k!) - (k + 1/2) log(k + 1) + (k + 1) - log(2 pi) / 2, for k from 0 to 9.
+        private static final double[] STIRLING_TAILS = {
+            0.0810614667953272, 0.0413406959554092, 0.0276779256849983, 0.02079067210376509, 0.0166446911898211,
+            0.0138761288230707, 0.0118967099458917, 0.0104112652619720, 0.00925546218271273, 0.00833056343336287
+        };
+
+        private final int precisionBits;
+        private final long[] values;
+        private final long[] counts;
+        private final long total;
+
+        private Resampler(Histogram histogram) {
+            // Gather the non-empty buckets, the value each is reported as, and their counts.
+            int numberOfBuckets = 0;
+            long[] values = new long[histogram.counts.length()];
+            long[] counts = new long[histogram.counts.length()];
+            long total = 0;
+            long minimum = histogram.getMinimum();
+            long maximum = histogram.getMaximum();
+            for (int i = 0; i < histogram.counts.length(); i++) {
+                long count = histogram.counts.get(i);
+                if (count != 0) {
+                    total += count;
+                    values[numberOfBuckets] = Math.max(Math.min(histogram.highestValueOf(i), maximum), minimum);
+                    counts[numberOfBuckets] = count;
+                    numberOfBuckets++;
+                }
+            }
+
+            this.precisionBits = histogram.precisionBits;
+            this.values = Arrays.copyOf(values, numberOfBuckets);
+            this.counts = Arrays.copyOf(counts, numberOfBuckets);
+            this.total = total;
+        }
+
+        /**
+         * Returns a new bootstrap resample of the histogram's values.
+         *
+         * @param random The source of randomness.
+         * @return the resample.
+         */
+        public Histogram resample(Random random) {
+            if (random == null) {
+                throw new NullPointerException("Cannot resample using a null source of randomness.");
+            }
+
+            // The number of draws landing in each bucket is multinomial, so rather than making every
+            // draw, each bucket's count is drawn in turn as a binomial: each draw not yet placed lands
+            // in the bucket with its share of the counts of the buckets not yet visited.
+            Histogram resample = new Histogram(this.precisionBits);
+            long remainingDraws = this.total;
+            long remainingCount = this.total;
+            for (int i = 0; (i < this.values.length) && (remainingDraws > 0); i++) {
+                long drawn = (this.counts[i] == remainingCount)
+                    ? remainingDraws
+                    : binomial(random, remainingDraws, (double) this.counts[i] / remainingCount);
+                resample.record(this.values[i], drawn);
+                remainingDraws -= drawn;
+                remainingCount -= this.counts[i];
+            }
+            return resample;
+        }
+
+        /**
+         * Draws from the binomial distribution of n trials with success probability p, in expected
+         * constant time.
+         */
+        private static long binomial(Random random, long n, double p) {
+            if (p > 0.5) {
+                return n - binomial(random, n, 1 - p);
+            }
+            return (n * p < INVERSION_THRESHOLD) ? binomialByInversion(random, n, p) : binomialByRejection(random, n, p);
+        }
+
+        /**
+         * Counts the successes by summing the geometric gaps between them, which takes about n * p
+         * steps.
+         */
+        private static long binomialByInversion(Random random, long n, double p) {
+            double logOfFailure = Math.log1p(-p);
+            long successes = 0;
+            double trials = 0;
+            while (true) {
+                trials += Math.max(1, Math.ceil(Math.log(1 - random.nextDouble()) / logOfFailure));
+                if (trials > n) {
+                    return successes;
+                }
+                successes++;
+            }
+        }
+
+        /**
+         * The transformed rejection with squeeze algorithm (BTRS) of Hormann, "The generation of
+         * binomial random variates", for n * p of at least 10 and p of at most one half.
+         */
+        private static long binomialByRejection(Random random, long n, double p) {
+            double spread = Math.sqrt(n * p * (1 - p));
+            double b = 1.15 + 2.53 * spread;
+            double a = -0.0873 + 0.0248 * b + 0.01 * p;
+            double c = n * p + 0.5;
+            double alpha = (2.83 + 5.1 / b) * spread;
+            double r = p / (1 - p);
+            double vr = 0.92 - 4.2 / b;
+            double mode = Math.floor((n + 1) * p);
+
+            while (true) {
+                double u = random.nextDouble() - 0.5;
+                double v = random.nextDouble();
+                double us = 0.5 - Math.abs(u);
+                double k = Math.floor((2 * a / us + b) * u + c);
+
+                if ((us >= 0.07) && (v <= vr)) {
+                    return (long) k;
+                }
+                if ((k < 0) || (k > n)) {
+                    continue;
+                }
+
+                double logV = Math.log(v * alpha / (a / (us * us) + b));
+                double bound = (mode + 0.5) * Math.log((mode + 1) / (r * (n - mode + 1)))
+                    + (n + 1) * Math.log((n - mode + 1) / (n - k + 1))
+                    + (k + 0.5) * Math.log(r * (n - k + 1) / (k + 1))
+                    + stirlingTail(mode) + stirlingTail(n - mode) - stirlingTail(k) - stirlingTail(n - k);
+                if (logV <= bound) {
+                    return (long) k;
+                }
+            }
+        }
+
+        private static double stirlingTail(double k) {
+            if (k < STIRLING_TAILS.length) {
+                return STIRLING_TAILS[(int) k];
+            }
+            double kPlusOneSquared = (k + 1) * (k + 1);
+            return (1.0 / 12 - (1.0 / 360 - 1.0 / 1260 / kPlusOneSquared) / kPlusOneSquared) / (k + 1);
+        }
+    }
+
+    /**
+     * Discards every recorded value.
+     */
+    public void reset() {
+        for (int i = 0; i < this.counts.length(); i++) {
+            this.counts.set(i, 0);
+        }
+        this.totalCount.set(0);
+        this.minimum.set(Long.MAX_VALUE);
+        this.maximum.set(Long.MIN_VALUE);
+    }
+
+    /**
+     * Returns the number of significant bits preserved for every recorded value.
+     */
+    public int getPrecisionBits() {
+        return this.precisionBits;
+    }
+
+    /**
+     * Returns the number of values recorded.
+     */
+    public long getTotalCount() {
+        return this.totalCount.get();
+    }
+
+    /**
+     * Returns the smallest value recorded, exactly, or 0 if nothing has been recorded.
+     */
+    public long getMinimum() {
+        return (getTotalCount() == 0) ? 0 : this.minimum.get();
+    }
+
+    /**
+     * Returns the largest value recorded, exactly, or 0 if nothing has been recorded.
+     */
+    public long getMaximum() {
+        return (getTotalCount() == 0) ? 0 : this.maximum.get();
+    }
+
+    /**
+     * Returns the mean of the recorded values, taking each value to be the midpoint of its bucket,
+     * or 0 if nothing has been recorded.
+     */
+    public double getMean() {
+        long total = 0;
+        double sum = 0;
+        for (int i = 0; i < this.counts.length(); i++) {
+            long count = this.counts.get(i);
+            if (count != 0) {
+                total += count;
+                sum += count * midpointOf(i);
+            }
+        }
+        return (total == 0) ? 0 : sum / total;
+    }
+
+    /**
+     * Returns the population standard deviation of the recorded values, taking each value to be
+     * the midpoint of its bucket, or 0 if nothing has been recorded.
+     */
+    public double getStandardDeviation() {
+        double mean = getMean();
+        long total = 0;
+        double squares = 0;
+        for (int i = 0; i < this.counts.length(); i++) {
+            long count = this.counts.get(i);
+            if (count != 0) {
+                double deviation = midpointOf(i) - mean;
+                total += count;
+                squares += count * deviation * deviation;
+            }
+        }
+        return (total == 0) ? 0 : Math.sqrt(squares / total);
+    }
+
+    /**
+     * Returns the smallest value such that the given percentage of recorded values are less than
+     * or equal to it, to within this histogram's precision, or 0 if nothing has been recorded.
+     *
+     * @param percentile The percentile, in the range [0, 100].
+     * @return the value at the percentile.
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (!(percentile >= 0) || (percentile > 100)) {
+            throw new IllegalArgumentException("Percentile must be in the range [0, 100], found: " + percentile);
+        }
+
+        long total = getTotalCount();
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil((percentile / 100.0) * total));
+        long seen = 0;
+        for (int i = 0; i < this.counts.length(); i++) {
+            seen += this.counts.get(i);
+            if (seen >= rank) {
+                // Report no more than the true maximum, which we know exactly.
+                return Math.max(Math.min(highestValueOf(i), getMaximum()), getMinimum());
+            }
+        }
+
+        return getMaximum();
+    }
+
+    /**
+     * Returns this histogram in a compact binary form, from which it can be restored using
+     * {@link #fromBytes(byte[])}. Only non-empty buckets are written.
+     */
+    public byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bytes.write(ENCODING_VERSION);
+        bytes.write(this.precisionBits);
+
+        int previousIndex = -1;
+        for (int i = 0; i < this.counts.length(); i++) {
+            long count = this.counts.get(i);
+            if (count != 0) {
+                writeVarLong(bytes, i - previousIndex);
+                writeVarLong(bytes, count);
+                previousIndex = i;
+            }
+        }
+
+        // The exact extremes are not recoverable from the buckets, so they are written last.
+        writeVarLong(bytes, getMinimum());
+        writeVarLong(bytes, getMaximum());
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Returns the histogram encoded in the given bytes, as produced by {@link #toBytes()}.
+     *
+     * @param encoding The encoded histogram.
+     * @return the decoded histogram.
+     */
+    public static Histogram fromBytes(byte[] encoding) {
+        if (encoding == null) {
+            throw new NullPointerException("Cannot decode a null histogram.");
+        }
+        if ((encoding.length < 2) || (encoding[0] != ENCODING_VERSION)) {
+            throw new IllegalArgumentException("Not a histogram encoding.");
+        }
+
+        Histogram histogram = new Histogram(encoding[1]);
+        int[] position = new int[]{ 2 };
+
+        // Buckets are followed by exactly two trailing values, min and max.
+        long[] values = new long[encoding.length];
+        int numberOfValues = 0;
+        while (position[0] < encoding.length) {
+            values[numberOfValues++] = readVarLong(encoding, position);
+        }
+        if ((numberOfValues < 2) || (numberOfValues % 2 != 0)) {
+            throw new IllegalArgumentException("Truncated histogram encoding.");
+        }
+
+        int index = -1;
+        long total = 0;
+        for (int i = 0; i < numberOfValues - 2; i += 2) {
+            index += (int) values[i];
+            if ((index < 0) || (index >= histogram.counts.length())) {
+                throw new IllegalArgumentException("Bucket index out of range: " + index);
+            }
+            histogram.counts.set(index, values[i + 1]);
+            total += values[i + 1];
+        }
+
+        if (total > 0) {
+            histogram.totalCount.set(total);
+            histogram.minimum.set(values[numberOfValues - 2]);
+            histogram.maximum.set(values[numberOfValues - 1]);
+        }
+        return histogram;
+    }
+
+    /**
+     * Prints the standard percentiles of this histogram to console, with values divided by the
+     * given divisor (for example, 1,000,000 to print nanosecond values as milliseconds).
+     *
+     * @param unitName The name of the unit the values are printed in.
+     * @param divisor The amount to divide every value by before printing it.
+     */
+    public void printPercentiles(String unitName, double divisor) {
+        System.out.println(String.format("Count: %d", getTotalCount()));
+        System.out.println(String.format("p50: %.3f %s", getValueAtPercentile(50) / divisor, unitName));
+        System.out.println(String.format("p90: %.3f %s", getValueAtPercentile(90) / divisor, unitName));
+        System.out.println(String.format("p99: %.3f %s", getValueAtPercentile(99) / divisor, unitName));
+        System.out.println(String.format("p99.9: %.3f %s", getValueAtPercentile(99.9) / divisor, unitName));
+        System.out.println(String.format("p99.99: %.3f %s", getValueAtPercentile(99.99) / divisor, unitName));
+        System.out.println(String.format("Max: %.3f %s", getMaximum() / divisor, unitName));
+    }
+
+    private int indexOf(long value) {
+        if (value < this.subBucketCount) {
+            return (int) value;
+        }
+
+        int shift = (63 - Long.numberOfLeadingZeros(value)) - this.precisionBits + 1;
+        int mantissa = (int) (value >>> shift);
+        return this.subBucketCount + ((shift - 1) * this.halfSubBucketCount) + (mantissa - this.halfSubBucketCount);
+    }
+
+    private long lowestValueOf(int index) {
+        if (index < this.subBucketCount) {
+            return index;
+        }
+
+        int offset = index - this.subBucketCount;
+        int shift = (offset / this.halfSubBucketCount) + 1;
+        long mantissa = (offset % this.halfSubBucketCount) + this.halfSubBucketCount;
+        return mantissa << shift;
+    }
+
+    private long highestValueOf(int index) {
+        if (index < this.subBucketCount) {
+            return index;
+        }
+
+        int shift = ((index - this.subBucketCount) / this.halfSubBucketCount) + 1;
+        long highest = lowestValueOf(index) + ((1L << shift) - 1);
+        // The topmost buckets extend past Long.MAX_VALUE.
+        return (highest < 0) ? Long.MAX_VALUE : highest;
+    }
+
+    private double midpointOf(int index) {
+        return (lowestValueOf(index) / 2.0) + (highestValueOf(index) / 2.0);
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(byte[] in, int[] position) {
+        long value = 0;
+        int shift = 0;
+        while (true) {
+            if (position[0] >= in.length) {
+                throw new IllegalArgumentException("Truncated histogram encoding.");
+            }
+            byte next = in[position[0]++];
+            value |= ((long) (next & 0x7F)) << shift;
+            if ((next & 0x80) == 0) {
+                return value;
+            }
+            shift += 7;
+            if (shift > 63) {
+                throw new IllegalArgumentException("Malformed histogram encoding.");
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Histogram { count = " + getTotalCount()
+            + ", min = " + getMinimum()
+            + ", p50 = " + getValueAtPercentile(50)
+            + ", p99 = " + getValueAtPercentile(99)
+            + ", max = " + getMaximum() + " }";
+    }
+}
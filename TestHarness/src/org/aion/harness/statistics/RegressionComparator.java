@@ -0,0 +1,160 @@
+package org.aion.harness.statistics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares a candidate {@link BenchmarkResult} against a baseline and reports which changes are
+ * statistically significant.
+ *
+ * The p50, p99 and p99.9 latencies and the mean throughput are compared. For each, the relative
+ * change from baseline to candidate is bootstrapped: both runs are resampled with replacement many
+ * times, the change is computed for every pair of resamples, and the confidence interval is read
+ * off the resulting distribution. Resampling treats the latencies, and the throughput samples, as
+ * independent of one another, so throughput samples taken over overlapping windows, which share
+ * most of their blocks, would make the intervals far too narrow. See {@link BenchmarkResult}.
+ *
+ * A change is significant when its confidence interval excludes zero and the observed change is at
+ * least the minimum relative change of interest. A significant change for the worse (higher
+ * latency, lower throughput) is a regression.
+ *
+ * Comparisons are reproducible: the same comparator given the same results always produces the
+ * same report.
+ *
+ * A regression comparator is immutable.
+ */
+public final class RegressionComparator {
+    private static final double[] LATENCY_PERCENTILES = new double[]{ 50, 99, 99.9 };
+
+    private final int iterations;
+    private final double confidenceLevel;
+    private final double minimumRelativeChange;
+    private final long seed;
+
+    /**
+     * Constructs a comparator that bootstraps 1,000 resamples, reports 95% confidence intervals
+     * and treats any change of 2% or more as being of interest.
+     */
+    public RegressionComparator() {
+        this(1_000, 0.95, 0.02, 0);
+    }
+
+    /**
+     * Constructs a new comparator.
+     *
+     * @param iterations The number of bootstrap resamples to draw.
+     * @param confidenceLevel The confidence level of the reported intervals, in the range (0, 1).
+     * @param minimumRelativeChange The smallest relative change considered significant, for example 0.05 for 5%.
+     * @param seed The seed of the bootstrap's source of randomness.
+     */
+    public RegressionComparator(int iterations, double confidenceLevel, double minimumRelativeChange, long seed) {
+        if (iterations < 1) {
+            throw new IllegalArgumentException("Must draw at least 1 resample, found: " + iterations);
+        }
+        if (!(confidenceLevel > 0) || !(confidenceLevel < 1)) {
+            throw new IllegalArgumentException("Confidence level must be in the range (0, 1), found: " + confidenceLevel);
+        }
+        if (!(minimumRelativeChange >= 0)) {
+            throw new IllegalArgumentException("Minimum relative change must be non-negative, found: " + minimumRelativeChange);
+        }
+
+        this.iterations = iterations;
+        this.confidenceLevel = confidenceLevel;
+        this.minimumRelativeChange = minimumRelativeChange;
+        this.seed = seed;
+    }
+
+    /**
+     * Compares the candidate result against the baseline result.
+     *
+     * Metrics that either result has no data for are left out of the report.
+     *
+     * @param baseline The result to compare against.
+     * @param candidate The result being evaluated.
+     * @return the comparison of every metric.
+     */
+    public RegressionReport compare(BenchmarkResult baseline, BenchmarkResult candidate) {
+        if (baseline == null) {
+            throw new NullPointerException("Cannot compare against a null baseline.");
+        }
+        if (candidate == null) {
+            throw new NullPointerException("Cannot compare a null candidate.");
+        }
+
+        Random random = new Random(this.seed);
+        List<RegressionReport.Comparison> comparisons = new ArrayList<>();
+
+        Histogram baselineLatencies = baseline.getLatencies();
+        Histogram candidateLatencies = candidate.getLatencies();
+        if ((baselineLatencies.getTotalCount() > 0) && (candidateLatencies.getTotalCount() > 0)) {
+            // Every percentile is read off the same resamples.
+            Histogram.Resampler baselineResampler = baselineLatencies.resampler();
+            Histogram.Resampler candidateResampler = candidateLatencies.resampler();
+            double[][] changes = new double[LATENCY_PERCENTILES.length][this.iterations];
+            for (int i = 0; i < this.iterations; i++) {
+                Histogram baselineResample = baselineResampler.resample(random);
+                Histogram candidateResample = candidateResampler.resample(random);
+                for (int p = 0; p < LATENCY_PERCENTILES.length; p++) {
+                    changes[p][i] = relativeChange(baselineResample.getValueAtPercentile(LATENCY_PERCENTILES[p]), candidateResample.getValueAtPercentile(LATENCY_PERCENTILES[p]));
+                }
+            }
+
+            for (int p = 0; p < LATENCY_PERCENTILES.length; p++) {
+                double baselineValue = baselineLatencies.getValueAtPercentile(LATENCY_PERCENTILES[p]);
+                double candidateValue = candidateLatencies.getValueAtPercentile(LATENCY_PERCENTILES[p]);
+                comparisons.add(toComparison("p" + formatPercentile(LATENCY_PERCENTILES[p]) + " latency (nanos)", baselineValue, candidateValue, changes[p], false));
+            }
+        }
+
+        double[] baselineThroughput = baseline.getThroughputSamples();
+        double[] candidateThroughput = candidate.getThroughputSamples();
+        if ((baselineThroughput.length > 0) && (candidateThroughput.length > 0)) {
+            double[] changes = new double[this.iterations];
+            for (int i = 0; i < this.iterations; i++) {
+                changes[i] = relativeChange(resampledMean(baselineThroughput, random), resampledMean(candidateThroughput, random));
+            }
+            comparisons.add(toComparison("mean throughput (tps)", BenchmarkResult.mean(baselineThroughput), BenchmarkResult.mean(candidateThroughput), changes, true));
+        }
+
+        return new RegressionReport(baseline, candidate, this.confidenceLevel, comparisons);
+    }
+
+    private RegressionReport.Comparison toComparison(String metric, double baselineValue, double candidateValue, double[] changes, boolean higherIsBetter) {
+        Arrays.sort(changes);
+        double alpha = 1 - this.confidenceLevel;
+        double lower = changes[indexOfQuantile(changes.length, alpha / 2)];
+        double upper = changes[indexOfQuantile(changes.length, 1 - (alpha / 2))];
+
+        double change = relativeChange(baselineValue, candidateValue);
+        boolean significant = ((lower > 0) || (upper < 0)) && (Math.abs(change) >= this.minimumRelativeChange);
+        boolean regression = significant && (higherIsBetter ? (change < 0) : (change > 0));
+
+        return new RegressionReport.Comparison(metric, baselineValue, candidateValue, change, lower, upper, significant, regression);
+    }
+
+    private static int indexOfQuantile(int length, double quantile) {
+        return Math.min(length - 1, Math.max(0, (int) Math.ceil(quantile * length) - 1));
+    }
+
+    private static double relativeChange(double baseline, double candidate) {
+        if (baseline == 0) {
+            return (candidate == 0) ? 0 : Double.POSITIVE_INFINITY * Math.signum(candidate);
+        }
+        return (candidate - baseline) / baseline;
+    }
+
+    private static double resampledMean(double[] samples, Random random) {
+        double sum = 0;
+        for (int i = 0; i < samples.length; i++) {
+            sum += samples[random.nextInt(samples.length)];
+        }
+        return sum / samples.length;
+    }
+
+    private static String formatPercentile(double percentile) {
+        return (percentile == Math.rint(percentile)) ? String.valueOf((long) percentile) : String.valueOf(percentile);
+    }
+
+}
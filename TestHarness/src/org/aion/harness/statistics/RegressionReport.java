@@ -0,0 +1,120 @@
+package org.aion.harness.statistics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The outcome of comparing a candidate {@link BenchmarkResult} against a baseline using a
+ * {@link RegressionComparator}.
+ *
+ * A regression report is immutable.
+ */
+public final class RegressionReport {
+    private final BenchmarkResult baseline;
+    private final BenchmarkResult candidate;
+    private final double confidenceLevel;
+    private final List<Comparison> comparisons;
+
+    RegressionReport(BenchmarkResult baseline, BenchmarkResult candidate, double confidenceLevel, List<Comparison> comparisons) {
+        this.baseline = baseline;
+        this.candidate = candidate;
+        this.confidenceLevel = confidenceLevel;
+        this.comparisons = Collections.unmodifiableList(new ArrayList<>(comparisons));
+    }
+
+    /**
+     * The comparison of a single metric between the baseline and the candidate.
+     *
+     * Relative changes are expressed as fractions of the baseline value, so that 0.1 is a 10%
+     * increase.
+     */
+    public static final class Comparison {
+        public final String metric;
+        public final double baselineValue;
+        public final double candidateValue;
+        public final double relativeChange;
+        public final double lowerBound;
+        public final double upperBound;
+        public final boolean isSignificant;
+        public final boolean isRegression;
+
+        Comparison(String metric, double baselineValue, double candidateValue, double relativeChange, double lowerBound, double upperBound, boolean isSignificant, boolean isRegression) {
+            this.metric = metric;
+            this.baselineValue = baselineValue;
+            this.candidateValue = candidateValue;
+            this.relativeChange = relativeChange;
+            this.lowerBound = lowerBound;
+            this.upperBound = upperBound;
+            this.isSignificant = isSignificant;
+            this.isRegression = isRegression;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %.2f -> %.2f (%+.2f%%, CI [%+.2f%%, %+.2f%%])%s",
+                this.metric,
+                this.baselineValue,
+                this.candidateValue,
+                this.relativeChange * 100,
+                this.lowerBound * 100,
+                this.upperBound * 100,
+                this.isRegression ? " REGRESSION" : (this.isSignificant ? " IMPROVEMENT" : ""));
+        }
+    }
+
+    public BenchmarkResult getBaseline() {
+        return this.baseline;
+    }
+
+    public BenchmarkResult getCandidate() {
+        return this.candidate;
+    }
+
+    /**
+     * Returns the comparison of every metric that both results had data for.
+     */
+    public List<Comparison> getComparisons() {
+        return this.comparisons;
+    }
+
+    /**
+     * Returns {@code true} only if any metric regressed significantly.
+     */
+    public boolean hasRegression() {
+        for (Comparison comparison : this.comparisons) {
+            if (comparison.isRegression) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Prints the comparison of every metric to console.
+     */
+    public void printReport() {
+        System.out.println("---------------------------------------------------------------------");
+        System.out.println("Scenario: " + this.candidate.getScenario());
+        System.out.println("Baseline kernel build: " + this.baseline.getKernelBuild() + " (harness " + this.baseline.getHarnessVersion() + ")");
+        System.out.println("Candidate kernel build: " + this.candidate.getKernelBuild() + " (harness " + this.candidate.getHarnessVersion() + ")");
+        System.out.println("Confidence level: " + (this.confidenceLevel * 100) + "%");
+        System.out.println();
+        for (Comparison comparison : this.comparisons) {
+            System.out.println(comparison);
+        }
+        System.out.println();
+        System.out.println(hasRegression() ? "Result: REGRESSION DETECTED" : "Result: no significant regression");
+        System.out.println("---------------------------------------------------------------------");
+    }
+
+    @Override
+    public String toString() {
+        return "RegressionReport { scenario = " + this.candidate.getScenario()
+            + ", baseline = " + this.baseline.getKernelBuild()
+            + ", candidate = " + this.candidate.getKernelBuild()
+            + ", regression = " + hasRegression()
+            + ", comparisons = " + this.comparisons + " }";
+    }
+
+}
@@ -0,0 +1,109 @@
+package org.aion.harness.statistics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The resources consumed by a kernel process and its descendants at a single point in time, as
+ * read from {@code /proc} by a {@link ResourceSampler}.
+ *
+ * Every quantity is summed over all of the processes in the tree. The cpu time and I/O byte counts
+ * are cumulative since each process started. Any quantity that could not be read (for example, the
+ * I/O counters of a process owned by another user) is {@link #NOT_AVAILABLE}.
+ *
+ * The time of the sample is taken from {@link System#nanoTime()}, the same clock that timestamps
+ * {@link org.aion.harness.result.RpcResult} and {@link org.aion.harness.result.LogEventResult}, so
+ * that samples can be lined up against the calls and events of a run.
+ *
+ * A resource sample is immutable.
+ */
+public final class ResourceSample {
+    public static final long NOT_AVAILABLE = -1;
+
+    private final long timeOfSampleInNanos;
+    private final int numberOfProcesses;
+    private final long cpuTimeInNanos;
+    private final long residentBytes;
+    private final long threads;
+    private final long openFileDescriptors;
+    private final long readBytes;
+    private final long writeBytes;
+
+    ResourceSample(long timeOfSampleInNanos, int numberOfProcesses, long cpuTimeInNanos, long residentBytes, long threads, long openFileDescriptors, long readBytes, long writeBytes) {
+        this.timeOfSampleInNanos = timeOfSampleInNanos;
+        this.numberOfProcesses = numberOfProcesses;
+        this.cpuTimeInNanos = cpuTimeInNanos;
+        this.residentBytes = residentBytes;
+        this.threads = threads;
+        this.openFileDescriptors = openFileDescriptors;
+        this.readBytes = readBytes;
+        this.writeBytes = writeBytes;
+    }
+
+    /**
+     * Returns the time at which the sample was taken in the desired time units.
+     *
+     * @param unit The time units of the returned result.
+     * @return the time of the sample.
+     */
+    public long getTimeOfSample(TimeUnit unit) {
+        return unit.convert(this.timeOfSampleInNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns the number of processes in the sampled tree.
+     */
+    public int getNumberOfProcesses() {
+        return this.numberOfProcesses;
+    }
+
+    /**
+     * Returns the user plus system cpu time consumed so far, in the desired time units.
+     */
+    public long getCpuTime(TimeUnit unit) {
+        return (this.cpuTimeInNanos < 0)
+            ? this.cpuTimeInNanos
+            : unit.convert(this.cpuTimeInNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns the resident set size, in bytes.
+     */
+    public long getResidentBytes() {
+        return this.residentBytes;
+    }
+
+    public long getThreads() {
+        return this.threads;
+    }
+
+    public long getOpenFileDescriptors() {
+        return this.openFileDescriptors;
+    }
+
+    /**
+     * Returns the number of bytes read from storage so far.
+     */
+    public long getReadBytes() {
+        return this.readBytes;
+    }
+
+    /**
+     * Returns the number of bytes written to storage so far.
+     */
+    public long getWriteBytes() {
+        return this.writeBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "ResourceSample { timestamp = " + this.timeOfSampleInNanos + " (nanos)"
+            + ", processes = " + this.numberOfProcesses
+            + ", cpu time = " + this.cpuTimeInNanos + " (nanos)"
+            + ", rss = " + this.residentBytes
+            + ", threads = " + this.threads
+            + ", fds = " + this.openFileDescriptors
+            + ", read bytes = " + this.readBytes
+            + ", write bytes = " + this.writeBytes + " }";
+    }
+
+}
@@ -0,0 +1,287 @@
+package org.aion.harness.statistics;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.aion.harness.misc.Assumptions;
+import org.aion.harness.util.SimpleLog;
+
+/**
+ * Periodically samples the resources consumed by a process and all of its descendants by reading
+ * {@code /proc/<pid>}: cpu time, resident set size, threads, open file descriptors and storage I/O.
+ *
+ * Sampling the whole process tree matters because the kernels are launched through scripts, so the
+ * process a node holds is typically not the kernel itself. Descendants are looked up afresh for
+ * every sample, so processes spawned part way through a run are picked up.
+ *
+ * The collected samples form a {@link ResourceTimeline}, timestamped on the same clock as rpc
+ * results and log events so that saturation can be attributed to cpu, memory or disk.
+ *
+ * This sampler only works on Linux. Elsewhere, every quantity of every sample is
+ * {@link ResourceSample#NOT_AVAILABLE}.
+ *
+ * This class is thread-safe.
+ */
+public final class ResourceSampler {
+    private static final Path PROC = Paths.get("/proc");
+    private static final long DEFAULT_CLOCK_TICKS_PER_SECOND = 100;
+
+    private static volatile long clockTicksPerSecond = 0;
+
+    private final SimpleLog log;
+    private final ProcessHandle root;
+    private final List<ResourceSample> samples = new ArrayList<>();
+    private ScheduledExecutorService scheduler = null;
+
+    /**
+     * Constructs a sampler of the specified process and its descendants.
+     *
+     * @param root The root of the process tree to sample.
+     */
+    public ResourceSampler(ProcessHandle root) {
+        if (root == null) {
+            throw new NullPointerException("Cannot sample a null process.");
+        }
+        this.log = new SimpleLog(getClass().getName());
+        this.root = root;
+    }
+
+    /**
+     * Begins taking a sample every interval, starting immediately.
+     *
+     * @param interval The time between samples.
+     * @param unit The time unit of the interval.
+     * @throws IllegalStateException if the sampler is already running.
+     */
+    public synchronized void start(long interval, TimeUnit unit) {
+        if (interval <= 0) {
+            throw new IllegalArgumentException("Interval must be positive, found: " + interval);
+        }
+        if (unit == null) {
+            throw new NullPointerException("Cannot specify a null time unit.");
+        }
+        if (this.scheduler != null) {
+            throw new IllegalStateException("The sampler is already running.");
+        }
+
+        this.log.log(Assumptions.LOGGER_BANNER + "Sampling resources of process " + this.root.pid() + " every " + interval + " " + unit + ".");
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "resource-sampler-" + this.root.pid());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.scheduleAtFixedRate(this::sampleNow, 0, interval, unit);
+    }
+
+    /**
+     * Stops taking periodic samples, takes one final sample so that the timeline covers the end of
+     * the run, and returns the timeline of every sample taken. Does nothing but return the timeline
+     * if the sampler is not running.
+     *
+     * @return the timeline of samples.
+     */
+    public synchronized ResourceTimeline stop() throws InterruptedException {
+        if (this.scheduler != null) {
+            this.scheduler.shutdown();
+            this.scheduler.awaitTermination(1, TimeUnit.MINUTES);
+            this.scheduler = null;
+            sampleNow();
+        }
+        return getTimeline();
+    }
+
+    /**
+     * Returns the timeline of every sample taken so far.
+     *
+     * @return the timeline of samples.
+     */
+    public ResourceTimeline getTimeline() {
+        synchronized (this.samples) {
+            return new ResourceTimeline(this.samples);
+        }
+    }
+
+    /**
+     * Takes a single sample of the process tree right now and adds it to the timeline.
+     *
+     * If the root process has exited, nothing is sampled and null is returned.
+     *
+     * @return the sample taken.
+     */
+    public ResourceSample sampleNow() {
+        if (!this.root.isAlive()) {
+            return null;
+        }
+
+        List<ProcessHandle> processes = new ArrayList<>();
+        processes.add(this.root);
+        processes.addAll(this.root.descendants().collect(Collectors.toList()));
+
+        long cpuTicks = 0;
+        long residentBytes = 0;
+        long threads = 0;
+        long fds = 0;
+        long readBytes = 0;
+        long writeBytes = 0;
+        int sampled = 0;
+
+        for (ProcessHandle process : processes) {
+            long[] stat = readStat(process.pid());
+            if (stat == null) {
+                // The process exited since we listed it.
+                continue;
+            }
+            sampled++;
+            cpuTicks = accumulate(cpuTicks, stat[0]);
+            threads = accumulate(threads, stat[1]);
+            residentBytes = accumulate(residentBytes, readResidentBytes(process.pid()));
+            fds = accumulate(fds, countFileDescriptors(process.pid()));
+
+            long[] io = readIo(process.pid());
+            readBytes = accumulate(readBytes, io[0]);
+            writeBytes = accumulate(writeBytes, io[1]);
+        }
+
+        if (sampled == 0) {
+            cpuTicks = residentBytes = threads = fds = readBytes = writeBytes = ResourceSample.NOT_AVAILABLE;
+        }
+
+        long ticksPerSecond = getClockTicksPerSecond();
+        ResourceSample sample = new ResourceSample(
+            System.nanoTime(),
+            sampled,
+            (cpuTicks < 0) ? ResourceSample.NOT_AVAILABLE : (cpuTicks * 1_000_000_000L) / ticksPerSecond,
+            residentBytes,
+            threads,
+            fds,
+            readBytes,
+            writeBytes);
+
+        synchronized (this.samples) {
+            this.samples.add(sample);
+        }
+        return sample;
+    }
+
+    /**
+     * Adds to a running total, where a negative total or value means the quantity is unavailable.
+     */
+    private static long accumulate(long total, long value) {
+        return ((total < 0) || (value < 0)) ? ResourceSample.NOT_AVAILABLE : total + value;
+    }
+
+    /**
+     * Returns the cpu ticks (user plus system) and thread count of the process, or null if the
+     * process no longer exists.
+     */
+    private static long[] readStat(long pid) {
+        String stat;
+        try {
+            stat = new String(Files.readAllBytes(PROC.resolve(pid + "/stat")), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return null;
+        }
+
+        // The command name is in parentheses and may itself contain spaces and parentheses, so the
+        // remaining fields are counted from the last closing parenthesis, starting with field 3.
+        String[] fields = stat.substring(stat.lastIndexOf(')') + 2).trim().split(" ");
+        try {
+            long userTicks = Long.parseLong(fields[11]);
+            long systemTicks = Long.parseLong(fields[12]);
+            long threads = Long.parseLong(fields[17]);
+            return new long[]{ userTicks + systemTicks, threads };
+        } catch (RuntimeException e) {
+            return new long[]{ ResourceSample.NOT_AVAILABLE, ResourceSample.NOT_AVAILABLE };
+        }
+    }
+
+    /**
+     * Returns the resident set size of the process in bytes. Processes without an address space,
+     * such as zombies, have no resident set and so contribute 0.
+     */
+    private static long readResidentBytes(long pid) {
+        try {
+            for (String line : Files.readAllLines(PROC.resolve(pid + "/status"), StandardCharsets.UTF_8)) {
+                if (line.startsWith("VmRSS:")) {
+                    // The value is reported in kB, for example "VmRSS:     123456 kB".
+                    String kilobytes = line.substring("VmRSS:".length()).trim().split("\\s+")[0];
+                    return Long.parseLong(kilobytes) * 1024;
+                }
+            }
+            return 0;
+        } catch (IOException | RuntimeException e) {
+            return ResourceSample.NOT_AVAILABLE;
+        }
+    }
+
+    private static long countFileDescriptors(long pid) {
+        String[] fds = PROC.resolve(pid + "/fd").toFile().list();
+        return (fds == null) ? ResourceSample.NOT_AVAILABLE : fds.length;
+    }
+
+    /**
+     * Returns the bytes read from and written to storage by the process. These are unavailable for
+     * processes owned by other users.
+     */
+    private static long[] readIo(long pid) {
+        long readBytes = ResourceSample.NOT_AVAILABLE;
+        long writeBytes = ResourceSample.NOT_AVAILABLE;
+        try {
+            for (String line : Files.readAllLines(PROC.resolve(pid + "/io"), StandardCharsets.UTF_8)) {
+                if (line.startsWith("read_bytes:")) {
+                    readBytes = Long.parseLong(line.substring("read_bytes:".length()).trim());
+                } else if (line.startsWith("write_bytes:")) {
+                    writeBytes = Long.parseLong(line.substring("write_bytes:".length()).trim());
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            return new long[]{ ResourceSample.NOT_AVAILABLE, ResourceSample.NOT_AVAILABLE };
+        }
+        return new long[]{ readBytes, writeBytes };
+    }
+
+    /**
+     * Returns the number of clock ticks per second that {@code /proc/<pid>/stat} cpu times are
+     * expressed in, as reported by {@code getconf}, or the near-universal default of 100.
+     */
+    private static long getClockTicksPerSecond() {
+        if (clockTicksPerSecond == 0) {
+            long ticks = DEFAULT_CLOCK_TICKS_PER_SECOND;
+            try {
+                Process getconf = new ProcessBuilder("getconf", "CLK_TCK").redirectErrorStream(true).start();
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(getconf.getInputStream(), StandardCharsets.UTF_8))) {
+                    String line = reader.readLine();
+                    if ((getconf.waitFor() == 0) && (line != null)) {
+                        ticks = Long.parseLong(line.trim());
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException | NumberFormatException e) {
+                // Fall back to the default.
+            }
+            clockTicksPerSecond = (ticks > 0) ? ticks : DEFAULT_CLOCK_TICKS_PER_SECOND;
+        }
+        return clockTicksPerSecond;
+    }
+
+    /**
+     * Returns {@code true} only if this platform exposes the {@code /proc} filesystem this sampler
+     * reads from.
+     */
+    public static boolean isSupported() {
+        return new File(PROC.toFile(), "self/stat").exists();
+    }
+
+}
@@ -0,0 +1,258 @@
+package org.aion.harness.statistics;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A time series of the resources consumed by a kernel process tree over a run, as collected by a
+ * {@link ResourceSampler}.
+ *
+ * Alongside the raw samples, the timeline derives the rates that matter when attributing a
+ * saturated run: the cpu utilization (in cores) and the storage read and write rates between each
+ * sample and the one before it. Since samples share a clock with rpc results and log events, the
+ * portion of the timeline covering some part of a run can be selected with
+ * {@link #between(long, long, TimeUnit)}.
+ *
+ * A resource timeline is immutable.
+ */
+public final class ResourceTimeline {
+    public static final double NOT_AVAILABLE = -1;
+
+    private final List<ResourceSample> samples;
+
+    ResourceTimeline(List<ResourceSample> samples) {
+        this.samples = Collections.unmodifiableList(new ArrayList<>(samples));
+    }
+
+    public int size() {
+        return this.samples.size();
+    }
+
+    /**
+     * Returns the i'th sample, in the order the samples were taken.
+     */
+    public ResourceSample get(int i) {
+        return this.samples.get(i);
+    }
+
+    public List<ResourceSample> getSamples() {
+        return this.samples;
+    }
+
+    /**
+     * Returns the portion of this timeline whose samples were taken within the specified time range,
+     * inclusive. The times are on the {@link System#nanoTime()} clock, for example the time of an
+     * rpc call or of an observed log event.
+     *
+     * @param start The start of the range.
+     * @param end The end of the range.
+     * @param unit The time units of the range.
+     * @return the samples in the range.
+     */
+    public ResourceTimeline between(long start, long end, TimeUnit unit) {
+        long startInNanos = unit.toNanos(start);
+        long endInNanos = unit.toNanos(end);
+
+        List<ResourceSample> selected = new ArrayList<>();
+        for (ResourceSample sample : this.samples) {
+            long time = sample.getTimeOfSample(TimeUnit.NANOSECONDS);
+            if ((time >= startInNanos) && (time <= endInNanos)) {
+                selected.add(sample);
+            }
+        }
+        return new ResourceTimeline(selected);
+    }
+
+    /**
+     * Returns the average number of cores the process tree kept busy between the (i-1)'th and i'th
+     * samples, or {@link #NOT_AVAILABLE} for the first sample or if the cpu time was not readable.
+     */
+    public double cpuUtilization(int i) {
+        if (i == 0) {
+            return NOT_AVAILABLE;
+        }
+        long cpuTime = this.samples.get(i).getCpuTime(TimeUnit.NANOSECONDS);
+        long previousCpuTime = this.samples.get(i - 1).getCpuTime(TimeUnit.NANOSECONDS);
+        if ((cpuTime < 0) || (previousCpuTime < 0)) {
+            return NOT_AVAILABLE;
+        }
+
+        // Processes exiting between samples can make the total go backwards.
+        return Math.max(0, cpuTime - previousCpuTime) / (double) elapsedNanos(i);
+    }
+
+    /**
+     * Returns the bytes read from storage per second between the (i-1)'th and i'th samples, or
+     * {@link #NOT_AVAILABLE} for the first sample or if the I/O counters were not readable.
+     */
+    public double readBytesPerSecond(int i) {
+        return (i == 0) ? NOT_AVAILABLE : ratePerSecond(this.samples.get(i - 1).getReadBytes(), this.samples.get(i).getReadBytes(), i);
+    }
+
+    /**
+     * Returns the bytes written to storage per second between the (i-1)'th and i'th samples, or
+     * {@link #NOT_AVAILABLE} for the first sample or if the I/O counters were not readable.
+     */
+    public double writeBytesPerSecond(int i) {
+        return (i == 0) ? NOT_AVAILABLE : ratePerSecond(this.samples.get(i - 1).getWriteBytes(), this.samples.get(i).getWriteBytes(), i);
+    }
+
+    /**
+     * Returns the mean cpu utilization over the whole timeline, in cores, or {@link #NOT_AVAILABLE}
+     * if the timeline has fewer than two samples with a readable cpu time.
+     */
+    public double getMeanCpuUtilization() {
+        int first = -1;
+        int last = -1;
+        for (int i = 0; i < size(); i++) {
+            if (this.samples.get(i).getCpuTime(TimeUnit.NANOSECONDS) >= 0) {
+                first = (first < 0) ? i : first;
+                last = i;
+            }
+        }
+        if (first == last) {
+            return NOT_AVAILABLE;
+        }
+
+        long cpuTime = this.samples.get(last).getCpuTime(TimeUnit.NANOSECONDS) - this.samples.get(first).getCpuTime(TimeUnit.NANOSECONDS);
+        long elapsed = this.samples.get(last).getTimeOfSample(TimeUnit.NANOSECONDS) - this.samples.get(first).getTimeOfSample(TimeUnit.NANOSECONDS);
+        return Math.max(0, cpuTime) / (double) Math.max(1, elapsed);
+    }
+
+    /**
+     * Returns the highest cpu utilization between any two consecutive samples, in cores, or
+     * {@link #NOT_AVAILABLE} if there is none.
+     */
+    public double getPeakCpuUtilization() {
+        double peak = NOT_AVAILABLE;
+        for (int i = 1; i < size(); i++) {
+            peak = Math.max(peak, cpuUtilization(i));
+        }
+        return peak;
+    }
+
+    /**
+     * Returns the largest resident set size of any sample, in bytes, or
+     * {@link ResourceSample#NOT_AVAILABLE} if there is none.
+     */
+    public long getPeakResidentBytes() {
+        long peak = ResourceSample.NOT_AVAILABLE;
+        for (ResourceSample sample : this.samples) {
+            peak = Math.max(peak, sample.getResidentBytes());
+        }
+        return peak;
+    }
+
+    /**
+     * Returns the largest thread count of any sample, or {@link ResourceSample#NOT_AVAILABLE} if
+     * there is none.
+     */
+    public long getPeakThreads() {
+        long peak = ResourceSample.NOT_AVAILABLE;
+        for (ResourceSample sample : this.samples) {
+            peak = Math.max(peak, sample.getThreads());
+        }
+        return peak;
+    }
+
+    /**
+     * Returns the largest open file descriptor count of any sample, or
+     * {@link ResourceSample#NOT_AVAILABLE} if there is none.
+     */
+    public long getPeakOpenFileDescriptors() {
+        long peak = ResourceSample.NOT_AVAILABLE;
+        for (ResourceSample sample : this.samples) {
+            peak = Math.max(peak, sample.getOpenFileDescriptors());
+        }
+        return peak;
+    }
+
+    /**
+     * Prints the timeline to console, one line per sample, followed by a summary.
+     *
+     * Each line shows the offset of the sample from the start of the timeline, the cpu utilization
+     * in cores, the resident set size, the thread and file descriptor counts and the storage read
+     * and write rates.
+     */
+    public void printTimeline() {
+        System.out.println("---------------------------------------------------------------------");
+        System.out.println(String.format("%9s %6s %10s %8s %6s %11s %11s", "t(s)", "cpu", "rss(MiB)", "threads", "fds", "read(KiB/s)", "write(KiB/s)"));
+        for (int i = 0; i < size(); i++) {
+            ResourceSample sample = this.samples.get(i);
+            System.out.println(String.format("%9.3f %6s %10.1f %8d %6d %11s %11s",
+                elapsedSinceStart(i) / 1_000_000_000.0,
+                format(cpuUtilization(i), 1),
+                sample.getResidentBytes() / (1024.0 * 1024.0),
+                sample.getThreads(),
+                sample.getOpenFileDescriptors(),
+                format(readBytesPerSecond(i), 1024),
+                format(writeBytesPerSecond(i), 1024)));
+        }
+        System.out.println();
+        System.out.println(size() + " sample(s) over " + String.format("%.3f", (size() == 0) ? 0 : elapsedSinceStart(size() - 1) / 1_000_000_000.0) + " second(s).");
+        System.out.println("Mean cpu utilization = " + format(getMeanCpuUtilization(), 1) + " core(s)");
+        System.out.println("Peak cpu utilization = " + format(getPeakCpuUtilization(), 1) + " core(s)");
+        System.out.println("Peak resident set size = " + String.format("%.1f", getPeakResidentBytes() / (1024.0 * 1024.0)) + " MiB");
+        System.out.println("Peak threads = " + getPeakThreads());
+        System.out.println("Peak open file descriptors = " + getPeakOpenFileDescriptors());
+        System.out.println("---------------------------------------------------------------------");
+    }
+
+    /**
+     * Writes the timeline to the specified file as comma-separated values, with a header line
+     * followed by one line per sample.
+     *
+     * @param file The file to write to. It is overwritten if it already exists.
+     */
+    public void writeCsv(File file) throws IOException {
+        if (file == null) {
+            throw new NullPointerException("Cannot write timeline to a null file.");
+        }
+
+        List<String> lines = new ArrayList<>(size() + 1);
+        lines.add("timestamp_nanos,processes,cpu_time_nanos,cpu_utilization,rss_bytes,threads,fds,read_bytes,write_bytes,read_bytes_per_second,write_bytes_per_second");
+        for (int i = 0; i < size(); i++) {
+            ResourceSample sample = this.samples.get(i);
+            lines.add(sample.getTimeOfSample(TimeUnit.NANOSECONDS)
+                + "," + sample.getNumberOfProcesses()
+                + "," + sample.getCpuTime(TimeUnit.NANOSECONDS)
+                + "," + cpuUtilization(i)
+                + "," + sample.getResidentBytes()
+                + "," + sample.getThreads()
+                + "," + sample.getOpenFileDescriptors()
+                + "," + sample.getReadBytes()
+                + "," + sample.getWriteBytes()
+                + "," + readBytesPerSecond(i)
+                + "," + writeBytesPerSecond(i));
+        }
+
+        Files.write(file.toPath(), lines, StandardCharsets.UTF_8);
+    }
+
+    private double ratePerSecond(long previous, long current, int i) {
+        if ((previous < 0) || (current < 0)) {
+            return NOT_AVAILABLE;
+        }
+        return Math.max(0, current - previous) / (elapsedNanos(i) / 1_000_000_000.0);
+    }
+
+    private long elapsedNanos(int i) {
+        long elapsed = this.samples.get(i).getTimeOfSample(TimeUnit.NANOSECONDS) - this.samples.get(i - 1).getTimeOfSample(TimeUnit.NANOSECONDS);
+        return Math.max(1, elapsed);
+    }
+
+    private long elapsedSinceStart(int i) {
+        return this.samples.get(i).getTimeOfSample(TimeUnit.NANOSECONDS) - this.samples.get(0).getTimeOfSample(TimeUnit.NANOSECONDS);
+    }
+
+    private static String format(double value, double divisor) {
+        return (value == NOT_AVAILABLE) ? "-" : String.format("%.2f", value / divisor);
+    }
+
+}
@@ -0,0 +1,101 @@
+package org.aion.harness.statistics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How long it took to stop the processes of a local node, split into the phases of the shutdown.
+ *
+ * A node is stopped by asking every one of its processes to terminate at once and waiting for them
+ * to exit, which is the graceful phase. Any process still running when the graceful phase times out
+ * is killed, which is the forced phase. The forced phase takes no time if every process exited
+ * gracefully.
+ *
+ * Shutdown timings are immutable.
+ */
+public final class ShutdownTimings {
+    private final int processCount;
+    private final int forciblyDestroyedCount;
+    private final int survivorCount;
+    private final long gracefulDurationInNanos;
+    private final long forcedDurationInNanos;
+
+    /**
+     * Constructs the timings of a shutdown.
+     *
+     * @param processCount The number of processes that were running when the shutdown began.
+     * @param forciblyDestroyedCount The number of processes that had to be killed.
+     * @param survivorCount The number of processes still running after the forced phase.
+     * @param gracefulDurationInNanos The duration of the graceful phase.
+     * @param forcedDurationInNanos The duration of the forced phase.
+     */
+    public ShutdownTimings(int processCount, int forciblyDestroyedCount, int survivorCount, long gracefulDurationInNanos, long forcedDurationInNanos) {
+        if ((processCount < 0) || (forciblyDestroyedCount < 0) || (survivorCount < 0)) {
+            throw new IllegalArgumentException("Process counts cannot be negative.");
+        }
+        if ((gracefulDurationInNanos < 0) || (forcedDurationInNanos < 0)) {
+            throw new IllegalArgumentException("Durations cannot be negative.");
+        }
+        this.processCount = processCount;
+        this.forciblyDestroyedCount = forciblyDestroyedCount;
+        this.survivorCount = survivorCount;
+        this.gracefulDurationInNanos = gracefulDurationInNanos;
+        this.forcedDurationInNanos = forcedDurationInNanos;
+    }
+
+    /**
+     * Returns the number of processes that were running when the shutdown began.
+     */
+    public int getProcessCount() {
+        return this.processCount;
+    }
+
+    /**
+     * Returns the number of processes that did not exit within the graceful phase and were killed.
+     */
+    public int getForciblyDestroyedCount() {
+        return this.forciblyDestroyedCount;
+    }
+
+    /**
+     * Returns the number of processes that were still running at the end of the forced phase.
+     */
+    public int getSurvivorCount() {
+        return this.survivorCount;
+    }
+
+    /**
+     * Returns true if any process had to be killed.
+     */
+    public boolean wasEscalated() {
+        return this.forciblyDestroyedCount > 0;
+    }
+
+    /**
+     * Returns true if every process exited.
+     */
+    public boolean allExited() {
+        return this.survivorCount == 0;
+    }
+
+    public long getGracefulDuration(TimeUnit unit) {
+        return unit.convert(this.gracefulDurationInNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public long getForcedDuration(TimeUnit unit) {
+        return unit.convert(this.forcedDurationInNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public long getTotalDuration(TimeUnit unit) {
+        return unit.convert(this.gracefulDurationInNanos + this.forcedDurationInNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public String toString() {
+        return "ShutdownTimings { processes = " + this.processCount
+            + ", graceful = " + this.gracefulDurationInNanos + " (nanos)"
+            + ", forced = " + this.forcedDurationInNanos + " (nanos)"
+            + ", forcibly destroyed = " + this.forciblyDestroyedCount
+            + ", survivors = " + this.survivorCount + " }";
+    }
+
+}
@@ -0,0 +1,28 @@
+package org.aion.harness.statistics;
+
+/**
+ * The phases of a kernel's startup, in the order a kernel normally passes through them. Each phase
+ * is marked by a line in the kernel's output log; see {@link StartupProfile}.
+ */
+public enum StartupPhase {
+    /** The kernel process, for the Java kernel its jvm, has written its first line. */
+    KERNEL_UP,
+
+    /** The kernel has opened its database. */
+    DATABASE_OPEN,
+
+    /** The kernel has loaded its genesis block or the best block of its existing database. */
+    GENESIS_LOADED,
+
+    /** The kernel's p2p layer has started. */
+    P2P_UP,
+
+    /** The kernel's rpc server has started, which is when the harness considers it started. */
+    RPC_UP,
+
+    /** The kernel has made its first connection to a peer. */
+    FIRST_PEER,
+
+    /** The kernel has synced to near the best block of its network. */
+    NEAR_BEST_BLOCK
+}
@@ -0,0 +1,188 @@
+package org.aion.harness.statistics;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The time a single start of a local node took to reach each {@link StartupPhase}, in a form that
+ * can be persisted and compared across runs (see {@link StartupProfileStore}), so that when startup
+ * becomes slower the phase responsible can be told apart.
+ *
+ * Each phase is timed from the launch of the kernel to the moment the harness read the log line
+ * marking it. A phase the kernel never logged, or that was not reached before the node was stopped,
+ * is {@link #NOT_AVAILABLE}.
+ *
+ * A startup profile is immutable.
+ */
+public final class StartupProfile {
+    public static final long NOT_AVAILABLE = -1;
+
+    private final String node;
+    private final String network;
+    private final long timestampInMillis;
+    private final Map<StartupPhase, Long> timesSinceLaunchInNanos;
+
+    private StartupProfile(String node, String network, long timestampInMillis, Map<StartupPhase, Long> timesSinceLaunchInNanos) {
+        if (node == null) {
+            throw new NullPointerException("Cannot construct a startup profile with a null node.");
+        }
+        if (network == null) {
+            throw new NullPointerException("Cannot construct a startup profile with a null network.");
+        }
+        if (timesSinceLaunchInNanos == null) {
+            throw new NullPointerException("Cannot construct a startup profile with null phase times.");
+        }
+        for (Map.Entry<StartupPhase, Long> time : timesSinceLaunchInNanos.entrySet()) {
+            if (time.getValue() < 0) {
+                throw new IllegalArgumentException("The time of phase " + time.getKey() + " cannot be negative, found: " + time.getValue());
+            }
+        }
+
+        this.node = node;
+        this.network = network;
+        this.timestampInMillis = timestampInMillis;
+        this.timesSinceLaunchInNanos = Collections.unmodifiableMap(new EnumMap<>(timesSinceLaunchInNanos));
+    }
+
+    /**
+     * Constructs a profile of a start that has just completed, stamped with the current time.
+     *
+     * @param node The kind of node that was started, for example {@code JavaNode}.
+     * @param network The network the node was started on.
+     * @param timesSinceLaunch The time since launch at which each observed phase was reached.
+     * @param unit The time unit of the phase times.
+     * @return the profile.
+     */
+    public static StartupProfile of(String node, String network, Map<StartupPhase, Long> timesSinceLaunch, TimeUnit unit) {
+        if (timesSinceLaunch == null) {
+            throw new NullPointerException("Cannot construct a startup profile with null phase times.");
+        }
+        if (unit == null) {
+            throw new NullPointerException("Cannot construct a startup profile with a null time unit.");
+        }
+
+        Map<StartupPhase, Long> timesInNanos = new EnumMap<>(StartupPhase.class);
+        for (Map.Entry<StartupPhase, Long> time : timesSinceLaunch.entrySet()) {
+            timesInNanos.put(time.getKey(), unit.toNanos(time.getValue()));
+        }
+        return new StartupProfile(node, network, System.currentTimeMillis(), timesInNanos);
+    }
+
+    public String getNode() {
+        return this.node;
+    }
+
+    public String getNetwork() {
+        return this.network;
+    }
+
+    /**
+     * Returns the wall-clock time at which the profile was taken.
+     */
+    public long getTimestamp(TimeUnit unit) {
+        return unit.convert(this.timestampInMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns the phases that were observed, in the order a kernel normally reaches them.
+     */
+    public List<StartupPhase> getObservedPhases() {
+        return new ArrayList<>(this.timesSinceLaunchInNanos.keySet());
+    }
+
+    /**
+     * Returns the time from the launch of the kernel until it reached the specified phase, or
+     * {@link #NOT_AVAILABLE} if the phase was not observed.
+     */
+    public long getTimeSinceLaunch(StartupPhase phase, TimeUnit unit) {
+        Long time = this.timesSinceLaunchInNanos.get(phase);
+        return (time == null) ? NOT_AVAILABLE : unit.convert(time, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns the time the kernel spent in the specified phase: the time from the latest observed
+     * phase that normally precedes it, or from the launch of the kernel if there is none, until the
+     * phase was reached. Returns {@link #NOT_AVAILABLE} if the phase was not observed.
+     */
+    public long getPhaseDuration(StartupPhase phase, TimeUnit unit) {
+        Long time = this.timesSinceLaunchInNanos.get(phase);
+        if (time == null) {
+            return NOT_AVAILABLE;
+        }
+
+        long previous = 0;
+        for (Map.Entry<StartupPhase, Long> earlier : this.timesSinceLaunchInNanos.entrySet()) {
+            if (earlier.getKey().ordinal() < phase.ordinal()) {
+                previous = Math.max(previous, earlier.getValue());
+            }
+        }
+        return unit.convert(Math.max(0, time - previous), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns this profile as a single-line json string, from which it can be restored using
+     * {@link #fromJson(String)}.
+     */
+    public String toJson() {
+        JsonObject phases = new JsonObject();
+        for (Map.Entry<StartupPhase, Long> time : this.timesSinceLaunchInNanos.entrySet()) {
+            phases.addProperty(time.getKey().name(), time.getValue());
+        }
+
+        JsonObject json = new JsonObject();
+        json.addProperty("node", this.node);
+        json.addProperty("network", this.network);
+        json.addProperty("timestamp", this.timestampInMillis);
+        json.add("phases", phases);
+        return json.toString();
+    }
+
+    /**
+     * Restores a profile from the json string produced by {@link #toJson()}.
+     *
+     * @param jsonString The json string.
+     * @return the profile.
+     */
+    public static StartupProfile fromJson(String jsonString) {
+        if (jsonString == null) {
+            throw new NullPointerException("Cannot restore a startup profile from a null string.");
+        }
+
+        JsonObject json = new JsonParser().parse(jsonString).getAsJsonObject();
+
+        Map<StartupPhase, Long> timesInNanos = new EnumMap<>(StartupPhase.class);
+        JsonObject phases = json.getAsJsonObject("phases");
+        for (StartupPhase phase : StartupPhase.values()) {
+            if (phases.has(phase.name())) {
+                timesInNanos.put(phase, phases.get(phase.name()).getAsLong());
+            }
+        }
+
+        return new StartupProfile(
+            json.get("node").getAsString(),
+            json.get("network").getAsString(),
+            json.get("timestamp").getAsLong(),
+            timesInNanos);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder phases = new StringBuilder();
+        for (Map.Entry<StartupPhase, Long> time : this.timesSinceLaunchInNanos.entrySet()) {
+            phases.append(", ").append(time.getKey()).append(" = ")
+                .append(TimeUnit.NANOSECONDS.toMillis(time.getValue())).append(" (+")
+                .append(getPhaseDuration(time.getKey(), TimeUnit.MILLISECONDS)).append(") (millis)");
+        }
+        return "StartupProfile { node = " + this.node
+            + ", network = " + this.network
+            + ", timestamp = " + this.timestampInMillis
+            + phases + " }";
+    }
+
+}
@@ -0,0 +1,116 @@
+package org.aion.harness.statistics;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import org.aion.harness.util.NodeFileManager;
+
+/**
+ * An append-only local file of {@link StartupProfile}s, one json-encoded profile per line.
+ *
+ * Local nodes append the profile of every start to the store returned by {@link #global()}, so the
+ * file forms a history of how long each kind of node took to reach each phase of its startup.
+ *
+ * This class is thread-safe within a single process.
+ */
+public final class StartupProfileStore {
+    private static final StartupProfileStore GLOBAL = new StartupProfileStore(NodeFileManager.getStartupProfilesFile());
+
+    private final File file;
+
+    /**
+     * Constructs a store backed by the specified file. The file is created when the first profile
+     * is appended to it.
+     *
+     * @param file The profiles file.
+     */
+    public StartupProfileStore(File file) {
+        if (file == null) {
+            throw new NullPointerException("Cannot construct a startup profile store with a null file.");
+        }
+        this.file = file;
+    }
+
+    /**
+     * Returns the store that local nodes append their startup profiles to, which is the file
+     * {@code startup_profiles.jsonl} in the harness's {@code startup_profiles} directory.
+     */
+    public static StartupProfileStore global() {
+        return GLOBAL;
+    }
+
+    /**
+     * Appends the specified profile to the end of the profiles file.
+     *
+     * @param profile The profile to append.
+     */
+    public synchronized void append(StartupProfile profile) throws IOException {
+        if (profile == null) {
+            throw new NullPointerException("Cannot append a null profile.");
+        }
+
+        File parent = this.file.getAbsoluteFile().getParentFile();
+        if ((parent != null) && (!parent.exists()) && (!parent.mkdirs())) {
+            throw new IOException("Failed to create the directory of the profiles file: " + parent);
+        }
+
+        Files.write(this.file.toPath(), Collections.singletonList(profile.toJson()), StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Returns every profile in the profiles file, oldest first.
+     *
+     * @return the profiles.
+     */
+    public synchronized List<StartupProfile> readAll() throws IOException {
+        List<StartupProfile> profiles = new ArrayList<>();
+        if (!this.file.exists()) {
+            return profiles;
+        }
+
+        for (String line : Files.readAllLines(this.file.toPath(), StandardCharsets.UTF_8)) {
+            if (!line.trim().isEmpty()) {
+                profiles.add(StartupProfile.fromJson(line));
+            }
+        }
+        return profiles;
+    }
+
+    /**
+     * Returns every profile of the specified kind of node, oldest first.
+     *
+     * @param node The kind of node, for example {@code JavaNode}.
+     * @return the profiles of the node.
+     */
+    public List<StartupProfile> getProfiles(String node) throws IOException {
+        if (node == null) {
+            throw new NullPointerException("Cannot get the profiles of a null node.");
+        }
+
+        List<StartupProfile> profiles = new ArrayList<>();
+        for (StartupProfile profile : readAll()) {
+            if (profile.getNode().equals(node)) {
+                profiles.add(profile);
+            }
+        }
+        return profiles;
+    }
+
+    /**
+     * Returns the most recent profile of the specified kind of node, if there is one.
+     *
+     * @param node The kind of node.
+     * @return the latest profile of the node.
+     */
+    public Optional<StartupProfile> getLatest(String node) throws IOException {
+        List<StartupProfile> profiles = getProfiles(node);
+        return profiles.isEmpty() ? Optional.empty() : Optional.of(profiles.get(profiles.size() - 1));
+    }
+
+}
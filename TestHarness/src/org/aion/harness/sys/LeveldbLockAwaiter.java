@@ -1,28 +1,44 @@
 package org.aion.harness.sys;
 
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.MINUTES;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
-import static java.util.concurrent.TimeUnit.SECONDS;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.channels.FileChannel;
 import java.nio.channels.FileLock;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 import org.aion.harness.util.SimpleLog;
 
 /**
  * Block until OS-level lock released for leveldb lock files.
+ *
+ * The locks are released by the operating system as soon as the kernel process that holds them
+ * exits. If the awaiter is given the kernel's processes, it waits for them to exit by means of
+ * {@link ProcessHandle#onExit()} before checking the lock files, so it wakes up the moment the
+ * kernel is gone rather than on the next tick of a polling interval. Every lock file still held is
+ * then rechecked on each round, with a backoff that starts at a few milliseconds and doubles up to
+ * {@link #MAX_BACKOFF_MILLIS}, so that a release is noticed about as soon as it happens whether or
+ * not the processes are known.
  */
 public class LeveldbLockAwaiter {
     private File databaseDir;
+    private List<ProcessHandle> owners;
     private SimpleLog log;
 
-    public static final int AWAIT_INTERVAL_SEC = 3;
+    public static final long INITIAL_BACKOFF_MILLIS = 5;
+    public static final long MAX_BACKOFF_MILLIS = 500;
     public static final int AWAIT_LIMIT_MIN = 5;
     private static final List<String> LOCK_FILES = Collections.unmodifiableList(
         List.of(
@@ -48,7 +64,22 @@ public class LeveldbLockAwaiter {
      * @param databaseDir root of the dir of the Aion database dir we're waiting on
      */
     public LeveldbLockAwaiter(String databaseDir) {
+        this(databaseDir, Collections.emptyList());
+    }
+
+    /**
+     * Constructor
+     *
+     * @param databaseDir root of the dir of the Aion database dir we're waiting on
+     * @param owners the processes that may hold the locks, typically the kernel process and its
+     *               descendants, whose exit is awaited before the lock files are checked
+     */
+    public LeveldbLockAwaiter(String databaseDir, Collection<ProcessHandle> owners) {
+        if (owners == null) {
+            throw new NullPointerException("Cannot construct LeveldbLockAwaiter with null owners.");
+        }
         this.databaseDir = new File(databaseDir);
+        this.owners = new ArrayList<>(owners);
         this.log = new SimpleLog(getClass().getName());
     }
 
@@ -61,30 +92,48 @@ public class LeveldbLockAwaiter {
      * @return whether the lock was acquired
      */
     public boolean await(long duration, TimeUnit durationUnit) throws IOException, InterruptedException {
-        List<File> notChecked = getLockFiles().stream()
+        long t0 = System.nanoTime();
+        long deadline = t0 + durationUnit.toNanos(duration);
+
+        awaitOwnersExit(deadline);
+
+        List<File> locked = getLockFiles().stream()
             .map(f -> new File(databaseDir + File.separator + f))
             .collect(Collectors.toList());
 
-        long t0 = System.nanoTime();
-        while(! notChecked.isEmpty()
-            && System.nanoTime() - t0 < durationUnit.toNanos(duration)) {
+        long backoffMillis = INITIAL_BACKOFF_MILLIS;
+        boolean loggedWaiting = false;
+        while (true) {
+            Iterator<File> files = locked.iterator();
+            while (files.hasNext()) {
+                File file = files.next();
+                if (!file.exists() || !checkIsFileLocked(file)) {
+                    files.remove();
+                }
+            }
+
+            long remaining = deadline - System.nanoTime();
+            if (locked.isEmpty() || remaining <= 0) {
+                break;
+            }
 
-            File file = notChecked.get(0);
-            if(file.exists() && checkIsFileLocked(file)) {
+            if (!loggedWaiting) {
                 log.log(String.format(
-                    "Waiting for lock file to be unlocked: '%s' . [total lock waiting time so far: ~%s min, limit: ~%s min]",
-                    file.getPath(),
-                    NANOSECONDS.toMinutes(System.nanoTime() - t0),
-                    AWAIT_LIMIT_MIN
+                    "Waiting for %d lock files to be unlocked, including: '%s' . [limit: ~%s min]",
+                    locked.size(),
+                    locked.get(0).getPath(),
+                    NANOSECONDS.toMinutes(deadline - t0)
                 ));
-                SECONDS.sleep(AWAIT_INTERVAL_SEC);
-            } else {
-                log.log("Lock file OK: " + file.getParent());
-                notChecked.remove(0);
+                loggedWaiting = true;
             }
+            MILLISECONDS.sleep(Math.min(backoffMillis, Math.max(1, NANOSECONDS.toMillis(remaining))));
+            backoffMillis = Math.min(backoffMillis * 2, MAX_BACKOFF_MILLIS);
         }
 
-        return notChecked.isEmpty();
+        if (locked.isEmpty()) {
+            log.log(String.format("Lock files OK: %s [waited ~%d ms]", databaseDir, NANOSECONDS.toMillis(System.nanoTime() - t0)));
+        }
+        return locked.isEmpty();
     }
 
     /*
@@ -95,6 +144,27 @@ public class LeveldbLockAwaiter {
         return await(AWAIT_LIMIT_MIN, MINUTES);
     }
 
+    /**
+     * Blocks until every owner process has exited or the deadline passes. Either way the lock files
+     * are checked afterwards, since they are what actually matter.
+     */
+    private void awaitOwnersExit(long deadline) throws InterruptedException {
+        if (this.owners.isEmpty()) {
+            return;
+        }
+
+        CompletableFuture<?>[] exits = this.owners.stream()
+            .map(ProcessHandle::onExit)
+            .toArray(CompletableFuture[]::new);
+        try {
+            CompletableFuture.allOf(exits).get(Math.max(0, deadline - System.nanoTime()), NANOSECONDS);
+        } catch (TimeoutException e) {
+            log.log("Timed out waiting for the processes holding the lock files to exit.");
+        } catch (ExecutionException e) {
+            log.log("Could not wait for the processes holding the lock files to exit: " + e.getCause());
+        }
+    }
+
     /** @return whether file is locked */
     private static boolean
     checkIsFileLocked(File file) throws IOException {
@@ -0,0 +1,135 @@
+package org.aion.harness.sys;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+import org.aion.harness.statistics.ShutdownTimings;
+
+/**
+ * The processes of a launched kernel: the process the harness started and every descendant of it
+ * that has been seen since.
+ *
+ * A kernel is usually started through a launch script that forks the actual kernel, and if the
+ * script dies first the kernel is re-parented and no longer shows up among its descendants. The
+ * tree therefore remembers every descendant it has seen, and {@link #refresh()} should be called
+ * once the kernel is up so that its processes are known before they can be orphaned. Process
+ * handles identify a process by its start time as well as its pid, so a tracked process is never
+ * confused with a later process that reuses its pid.
+ *
+ * This class is thread-safe.
+ */
+public final class ProcessTree {
+    private final ProcessHandle root;
+    private final Set<ProcessHandle> processes = new LinkedHashSet<>();
+
+    public ProcessTree(ProcessHandle root) {
+        if (root == null) {
+            throw new NullPointerException("Cannot construct ProcessTree with null root.");
+        }
+        this.root = root;
+        this.processes.add(root);
+        refresh();
+    }
+
+    /**
+     * Adds the current descendants of every tracked process that is still alive to the tree.
+     */
+    public synchronized void refresh() {
+        for (ProcessHandle process : new ArrayList<>(this.processes)) {
+            if (process.isAlive()) {
+                process.descendants().forEach(this.processes::add);
+            }
+        }
+    }
+
+    /**
+     * Returns the process the tree was constructed from.
+     */
+    public ProcessHandle getRoot() {
+        return this.root;
+    }
+
+    /**
+     * Returns every process tracked by the tree, whether or not it is still alive, root first.
+     */
+    public synchronized List<ProcessHandle> getProcesses() {
+        return new ArrayList<>(this.processes);
+    }
+
+    /**
+     * Returns true if any tracked process is still alive.
+     */
+    public synchronized boolean isAlive() {
+        return this.processes.stream().anyMatch(ProcessHandle::isAlive);
+    }
+
+    /**
+     * Stops every live process of the tree, blocking until they have all exited or the timeouts
+     * have elapsed.
+     *
+     * Every process is asked to terminate at once and given the graceful timeout to exit. Any
+     * process still alive after that is killed, and given the forced timeout to exit.
+     *
+     * @param gracefulTimeout The time given to the processes to exit after being asked to.
+     * @param forcedTimeout The time given to the processes to exit after being killed.
+     * @param unit The unit of both timeouts.
+     * @return the timings of the shutdown.
+     */
+    public ShutdownTimings stop(long gracefulTimeout, long forcedTimeout, TimeUnit unit) throws InterruptedException {
+        if ((gracefulTimeout < 0) || (forcedTimeout < 0)) {
+            throw new IllegalArgumentException("Timeouts cannot be negative.");
+        }
+        if (unit == null) {
+            throw new NullPointerException("Cannot stop with a null time unit.");
+        }
+
+        refresh();
+        List<ProcessHandle> live = liveProcesses();
+        int processCount = live.size();
+
+        long gracefulStartInNanos = System.nanoTime();
+        live.forEach(ProcessHandle::destroy);
+        List<ProcessHandle> survivors = awaitExit(live, gracefulStartInNanos + unit.toNanos(gracefulTimeout));
+        long gracefulDurationInNanos = System.nanoTime() - gracefulStartInNanos;
+
+        if (survivors.isEmpty()) {
+            return new ShutdownTimings(processCount, 0, 0, gracefulDurationInNanos, 0);
+        }
+
+        // Processes forked while the others were shutting down are killed along with them.
+        refresh();
+        survivors = liveProcesses();
+        int forciblyDestroyedCount = survivors.size();
+
+        long forcedStartInNanos = System.nanoTime();
+        survivors.forEach(ProcessHandle::destroyForcibly);
+        survivors = awaitExit(survivors, forcedStartInNanos + unit.toNanos(forcedTimeout));
+        long forcedDurationInNanos = System.nanoTime() - forcedStartInNanos;
+
+        return new ShutdownTimings(processCount, forciblyDestroyedCount, survivors.size(), gracefulDurationInNanos, forcedDurationInNanos);
+    }
+
+    private synchronized List<ProcessHandle> liveProcesses() {
+        return this.processes.stream().filter(ProcessHandle::isAlive).collect(Collectors.toList());
+    }
+
+    /**
+     * Waits until every one of the processes has exited or the deadline is reached, and returns
+     * those still alive.
+     */
+    private static List<ProcessHandle> awaitExit(List<ProcessHandle> processes, long deadlineInNanos) throws InterruptedException {
+        CompletableFuture<?>[] exits = processes.stream().map(ProcessHandle::onExit).toArray(CompletableFuture[]::new);
+        try {
+            CompletableFuture.allOf(exits).get(Math.max(0, deadlineInNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            // Whichever processes are still alive are reported below.
+        }
+        return processes.stream().filter(ProcessHandle::isAlive).collect(Collectors.toList());
+    }
+}
@@ -1,5 +1,6 @@
 package org.aion.harness.sys;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 
@@ -23,6 +24,16 @@ public class RustLeveldbLockAwaiter extends LeveldbLockAwaiter {
         super(databaseDir);
     }
 
+    /**
+     * Constructor
+     *
+     * @param databaseDir root of the dir of the Aion database dir we're waiting on
+     * @param owners the processes that may hold the locks, whose exit is awaited first
+     */
+    public RustLeveldbLockAwaiter(String databaseDir, Collection<ProcessHandle> owners) {
+        super(databaseDir, owners);
+    }
+
     @Override
     protected List<String> getLockFiles() {
         return LOCK_FILES;
@@ -0,0 +1,378 @@
+package org.aion.harness.util;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * A single decompressed block of a bzip2 stream.
+ *
+ * The blocks of a bzip2 stream are compressed independently of each other and each begins with a
+ * 48-bit magic number, though not on a byte boundary, which is what lets a
+ * {@link ParallelBzip2InputStream} decompress them in parallel.
+ *
+ * A block is decoded in the reverse order of the stages of bzip2 compression: huffman decoding of
+ * the move-to-front indices and their zero run lengths, the move-to-front transform, the inverse
+ * Burrows-Wheeler transform, and the run-length decoding of runs of 4 or more equal bytes. Blocks
+ * written by bzip2 versions older than 0.9.5 in its "randomised" mode are not supported.
+ *
+ * A bzip2 block is immutable.
+ */
+final class Bzip2Block {
+    static final long BLOCK_MAGIC = 0x314159265359L;
+    static final long END_OF_STREAM_MAGIC = 0x177245385090L;
+
+    private static final int MAXIMUM_BLOCK_SIZE = 900_000;
+    private static final int MAXIMUM_GROUPS = 6;
+    private static final int MAXIMUM_SELECTORS = 18_002;
+    private static final int MAXIMUM_ALPHABET_SIZE = 258;
+    private static final int MAXIMUM_CODE_LENGTH = 20;
+    private static final int GROUP_SIZE = 50;
+    private static final int RUN_A = 0;
+    private static final int RUN_B = 1;
+
+    private static final int[] CRC_TABLE = new int[256];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            int crc = i << 24;
+            for (int bit = 0; bit < 8; bit++) {
+                crc = ((crc & 0x80000000) != 0) ? ((crc << 1) ^ 0x04c11db7) : (crc << 1);
+            }
+            CRC_TABLE[i] = crc;
+        }
+    }
+
+    final byte[] data;
+    final int length;
+    final int crc;
+    final long endBitPosition;
+
+    private Bzip2Block(byte[] data, int length, int crc, long endBitPosition) {
+        this.data = data;
+        this.length = length;
+        this.crc = crc;
+        this.endBitPosition = endBitPosition;
+    }
+
+    /**
+     * Decodes the block whose magic number begins at the specified bit position of the compressed
+     * data, and verifies it against its crc.
+     *
+     * @param compressed The compressed data.
+     * @param bitPosition The bit position of the block's magic number.
+     * @return the decompressed block.
+     * @throws IOException if there is no valid block at the position.
+     */
+    static Bzip2Block decode(ByteBuffer compressed, long bitPosition) throws IOException {
+        BitReader reader = new BitReader(compressed, bitPosition);
+
+        if (reader.readLong(48) != BLOCK_MAGIC) {
+            throw new IOException("No bzip2 block at bit " + bitPosition);
+        }
+        int expectedCrc = reader.readBits(32);
+        if (reader.readBit()) {
+            throw new IOException("Randomised bzip2 blocks are not supported.");
+        }
+        int originalPointer = reader.readBits(24);
+
+        // The symbols used in the block, as a bitmap of 16 ranges of 16 symbols.
+        byte[] symbols = new byte[256];
+        int numberOfSymbols = 0;
+        int ranges = reader.readBits(16);
+        for (int range = 0; range < 16; range++) {
+            if ((ranges & (0x8000 >>> range)) != 0) {
+                int used = reader.readBits(16);
+                for (int i = 0; i < 16; i++) {
+                    if ((used & (0x8000 >>> i)) != 0) {
+                        symbols[numberOfSymbols++] = (byte) (range * 16 + i);
+                    }
+                }
+            }
+        }
+        if (numberOfSymbols == 0) {
+            throw new IOException("Bzip2 block uses no symbols.");
+        }
+        int alphabetSize = numberOfSymbols + 2;
+
+        int numberOfGroups = reader.readBits(3);
+        int numberOfSelectors = reader.readBits(15);
+        if ((numberOfGroups < 2) || (numberOfGroups > MAXIMUM_GROUPS) || (numberOfSelectors < 1)) {
+            throw new IOException("Invalid bzip2 huffman groups: " + numberOfGroups + " groups, " + numberOfSelectors + " selectors");
+        }
+
+        // The selectors pick the huffman table of each group of 50 symbols, and are move-to-front coded.
+        byte[] groupOrder = new byte[numberOfGroups];
+        for (int i = 0; i < numberOfGroups; i++) {
+            groupOrder[i] = (byte) i;
+        }
+        byte[] selectors = new byte[Math.min(numberOfSelectors, MAXIMUM_SELECTORS)];
+        for (int i = 0; i < numberOfSelectors; i++) {
+            int index = 0;
+            while (reader.readBit()) {
+                index++;
+                if (index >= numberOfGroups) {
+                    throw new IOException("Invalid bzip2 selector.");
+                }
+            }
+            byte group = groupOrder[index];
+            System.arraycopy(groupOrder, 0, groupOrder, 1, index);
+            groupOrder[0] = group;
+            if (i < selectors.length) {
+                selectors[i] = group;
+            }
+        }
+
+        HuffmanTable[] tables = new HuffmanTable[numberOfGroups];
+        for (int group = 0; group < numberOfGroups; group++) {
+            int[] codeLengths = new int[alphabetSize];
+            int codeLength = reader.readBits(5);
+            for (int symbol = 0; symbol < alphabetSize; symbol++) {
+                while (true) {
+                    if ((codeLength < 1) || (codeLength > MAXIMUM_CODE_LENGTH)) {
+                        throw new IOException("Invalid bzip2 code length: " + codeLength);
+                    }
+                    if (!reader.readBit()) {
+                        break;
+                    }
+                    codeLength += reader.readBit() ? -1 : 1;
+                }
+                codeLengths[symbol] = codeLength;
+            }
+            tables[group] = new HuffmanTable(codeLengths, alphabetSize);
+        }
+
+        // Decode the move-to-front indices, expanding the runs of zero indices as we go.
+        int endOfBlock = numberOfSymbols + 1;
+        byte[] order = Arrays.copyOf(symbols, numberOfSymbols);
+        int[] counts = new int[256];
+        int[] tt = new int[MAXIMUM_BLOCK_SIZE];
+        int size = 0;
+
+        int selectorIndex = 0;
+        int remainingInGroup = GROUP_SIZE;
+        HuffmanTable table = tables[selectors[0]];
+
+        int symbol = table.decode(reader);
+        remainingInGroup--;
+        while (symbol != endOfBlock) {
+            if ((symbol == RUN_A) || (symbol == RUN_B)) {
+                int run = 0;
+                int weight = 1;
+                do {
+                    if (weight > MAXIMUM_BLOCK_SIZE) {
+                        throw new IOException("Bzip2 run length overflow.");
+                    }
+                    run += (symbol == RUN_A) ? weight : (weight << 1);
+                    weight <<= 1;
+
+                    if (remainingInGroup == 0) {
+                        if (++selectorIndex >= selectors.length) {
+                            throw new IOException("Ran out of bzip2 selectors.");
+                        }
+                        table = tables[selectors[selectorIndex]];
+                        remainingInGroup = GROUP_SIZE;
+                    }
+                    symbol = table.decode(reader);
+                    remainingInGroup--;
+                } while ((symbol == RUN_A) || (symbol == RUN_B));
+
+                if (size + run > MAXIMUM_BLOCK_SIZE) {
+                    throw new IOException("Bzip2 block exceeds the maximum block size.");
+                }
+                int value = order[0] & 0xff;
+                counts[value] += run;
+                Arrays.fill(tt, size, size + run, value);
+                size += run;
+            } else {
+                if (symbol > numberOfSymbols) {
+                    throw new IOException("Invalid bzip2 symbol: " + symbol);
+                }
+                if (size >= MAXIMUM_BLOCK_SIZE) {
+                    throw new IOException("Bzip2 block exceeds the maximum block size.");
+                }
+                int index = symbol - 1;
+                byte value = order[index];
+                System.arraycopy(order, 0, order, 1, index);
+                order[0] = value;
+                counts[value & 0xff]++;
+                tt[size++] = value & 0xff;
+
+                if (remainingInGroup == 0) {
+                    if (++selectorIndex >= selectors.length) {
+                        throw new IOException("Ran out of bzip2 selectors.");
+                    }
+                    table = tables[selectors[selectorIndex]];
+                    remainingInGroup = GROUP_SIZE;
+                }
+                symbol = table.decode(reader);
+                remainingInGroup--;
+            }
+        }
+        if (originalPointer >= size) {
+            throw new IOException("Invalid bzip2 original pointer: " + originalPointer);
+        }
+
+        // Inverse Burrows-Wheeler transform: link each position to its successor in the upper bits.
+        int[] starts = new int[256];
+        for (int i = 1; i < 256; i++) {
+            starts[i] = starts[i - 1] + counts[i - 1];
+        }
+        for (int i = 0; i < size; i++) {
+            int value = tt[i] & 0xff;
+            tt[starts[value]++] |= (i << 8);
+        }
+
+        // Follow the links, undoing the initial run-length encoding as the bytes come out.
+        byte[] output = new byte[size + (size >>> 2) + 256];
+        int length = 0;
+        int crc = 0xffffffff;
+        int position = tt[originalPointer] >>> 8;
+        int last = -1;
+        int runLength = 0;
+        for (int i = 0; i < size; i++) {
+            position = tt[position];
+            int value = position & 0xff;
+            position >>>= 8;
+
+            if (runLength == 4) {
+                if (length + value > output.length) {
+                    output = Arrays.copyOf(output, Math.max(output.length * 2, length + value));
+                }
+                for (int j = 0; j < value; j++) {
+                    crc = (crc << 8) ^ CRC_TABLE[((crc >>> 24) ^ last) & 0xff];
+                }
+                Arrays.fill(output, length, length + value, (byte) last);
+                length += value;
+                runLength = 0;
+                continue;
+            }
+
+            runLength = (value == last) ? (runLength + 1) : 1;
+            last = value;
+            if (length == output.length) {
+                output = Arrays.copyOf(output, output.length * 2);
+            }
+            output[length++] = (byte) value;
+            crc = (crc << 8) ^ CRC_TABLE[((crc >>> 24) ^ value) & 0xff];
+        }
+        crc = ~crc;
+
+        if (crc != expectedCrc) {
+            throw new IOException("Bzip2 block crc mismatch at bit " + bitPosition);
+        }
+        return new Bzip2Block(output, length, crc, reader.position());
+    }
+
+    /**
+     * A canonical huffman decoding table, in the limit and base form used by bzip2 itself.
+     */
+    private static final class HuffmanTable {
+        private final int minimumLength;
+        private final int maximumLength;
+        private final int[] limit = new int[MAXIMUM_CODE_LENGTH + 2];
+        private final int[] base = new int[MAXIMUM_CODE_LENGTH + 2];
+        private final int[] permutation = new int[MAXIMUM_ALPHABET_SIZE];
+
+        HuffmanTable(int[] codeLengths, int alphabetSize) {
+            int minimum = MAXIMUM_CODE_LENGTH;
+            int maximum = 0;
+            for (int i = 0; i < alphabetSize; i++) {
+                minimum = Math.min(minimum, codeLengths[i]);
+                maximum = Math.max(maximum, codeLengths[i]);
+            }
+            this.minimumLength = minimum;
+            this.maximumLength = maximum;
+
+            int next = 0;
+            for (int length = minimum; length <= maximum; length++) {
+                for (int symbol = 0; symbol < alphabetSize; symbol++) {
+                    if (codeLengths[symbol] == length) {
+                        this.permutation[next++] = symbol;
+                    }
+                }
+            }
+
+            // The number of codes shorter than each length, then the last code of each length.
+            int[] shorter = new int[MAXIMUM_CODE_LENGTH + 2];
+            for (int i = 0; i < alphabetSize; i++) {
+                shorter[codeLengths[i] + 1]++;
+            }
+            for (int i = 1; i < shorter.length; i++) {
+                shorter[i] += shorter[i - 1];
+            }
+
+            int code = 0;
+            Arrays.fill(this.limit, -1);
+            for (int length = minimum; length <= maximum; length++) {
+                code += shorter[length + 1] - shorter[length];
+                this.limit[length] = code - 1;
+                code <<= 1;
+            }
+            for (int length = minimum + 1; length <= maximum; length++) {
+                this.base[length] = ((this.limit[length - 1] + 1) << 1) - shorter[length];
+            }
+        }
+
+        int decode(BitReader reader) throws IOException {
+            int length = this.minimumLength;
+            int code = reader.readBits(length);
+            while (code > this.limit[length]) {
+                if (++length > this.maximumLength) {
+                    throw new IOException("Invalid bzip2 huffman code.");
+                }
+                code = (code << 1) | (reader.readBit() ? 1 : 0);
+            }
+            int index = code - this.base[length];
+            if ((index < 0) || (index >= MAXIMUM_ALPHABET_SIZE)) {
+                throw new IOException("Invalid bzip2 huffman code.");
+            }
+            return this.permutation[index];
+        }
+    }
+
+    /**
+     * Reads the compressed data as a big-endian stream of bits, starting at any bit.
+     */
+    static final class BitReader {
+        private final ByteBuffer data;
+        private int nextByte;
+        private long buffer;
+        private int bitsInBuffer;
+
+        BitReader(ByteBuffer data, long bitPosition) throws IOException {
+            this.data = data;
+            this.nextByte = (int) (bitPosition >>> 3);
+            int offset = (int) (bitPosition & 7);
+            if (offset != 0) {
+                readBits(offset);
+            }
+        }
+
+        long position() {
+            return ((long) this.nextByte << 3) - this.bitsInBuffer;
+        }
+
+        boolean readBit() throws IOException {
+            return readBits(1) == 1;
+        }
+
+        int readBits(int count) throws IOException {
+            while (this.bitsInBuffer < count) {
+                if (this.nextByte >= this.data.limit()) {
+                    throw new EOFException("Unexpected end of bzip2 data.");
+                }
+                this.buffer = (this.buffer << 8) | (this.data.get(this.nextByte++) & 0xff);
+                this.bitsInBuffer += 8;
+            }
+            this.bitsInBuffer -= count;
+            return (int) ((this.buffer >>> this.bitsInBuffer) & ((1L << count) - 1));
+        }
+
+        long readLong(int count) throws IOException {
+            return ((long) readBits(count - 24) << 24) | (readBits(24) & 0xffffffL);
+        }
+    }
+
+}
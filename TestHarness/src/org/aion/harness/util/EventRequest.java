@@ -2,6 +2,8 @@ package org.aion.harness.util;
 
 import java.util.concurrent.TimeUnit;
 import org.aion.harness.main.event.IEvent;
+import org.aion.harness.metrics.FlightRecorderEvent;
+import org.aion.harness.metrics.HarnessEvents;
 import org.aion.harness.result.FutureResult;
 import org.aion.harness.result.LogEventResult;
 
@@ -24,6 +26,7 @@ public final class EventRequest {
     public final FutureResult<LogEventResult> future = new FutureResult<>();
     private final IEvent requestedEvent;
     private final long deadlineInNanos;
+    private final long creationTimeInNanos;
 
     private enum RequestState { PENDING, SATISFIED, UNOBSERVED, REJECTED, EXPIRED }
 
@@ -42,6 +45,7 @@ public final class EventRequest {
         this.requestedEvent = eventToRequest;
         this.deadlineInNanos = unit.toNanos(deadline);
         this.ID = instanceCount++;
+        this.creationTimeInNanos = System.nanoTime();
     }
 
     /**
@@ -55,6 +59,15 @@ public final class EventRequest {
      */
     private void finishFuture() {
         this.future.finish(extractResultFromRequest());
+
+        FlightRecorderEvent event = HarnessEvents.EVENT_REQUEST.begin();
+        if (event.isRecording()) {
+            event
+                .set(HarnessEvents.EVENT_REQUEST_EVENT, String.valueOf(this.requestedEvent))
+                .set(HarnessEvents.EVENT_REQUEST_STATE, this.currentState.name())
+                .set(HarnessEvents.EVENT_REQUEST_WAIT_TIME, System.nanoTime() - this.creationTimeInNanos)
+                .commit();
+        }
     }
 
     /**
@@ -157,6 +170,33 @@ public final class EventRequest {
         return this.currentState == RequestState.PENDING;
     }
 
+    /**
+     * Returns the time between this request being created and its event being observed, or -1 if
+     * the request has not been satisfied.
+     *
+     * Thread safe.
+     *
+     * @param unit The unit of time to return the duration in.
+     * @return the time it took for the event to be observed.
+     */
+    public synchronized long timeToObservation(TimeUnit unit) {
+        return (this.currentState == RequestState.SATISFIED)
+            ? unit.convert(this.timeOfObservationInNanos - this.creationTimeInNanos, TimeUnit.NANOSECONDS)
+            : -1;
+    }
+
+    /**
+     * Returns the time that has passed since this request was created.
+     *
+     * Thread safe.
+     *
+     * @param unit The unit of time to return the duration in.
+     * @return the age of this request.
+     */
+    public long timeSinceCreation(TimeUnit unit) {
+        return unit.convert(System.nanoTime() - this.creationTimeInNanos, TimeUnit.NANOSECONDS);
+    }
+
     /**
      * Finalizes this request and moves it into the EXPIRED state only if the following conditions
      * are all true:
@@ -0,0 +1,56 @@
+package org.aion.harness.util;
+
+import java.io.File;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.aion.harness.misc.Assumptions;
+import org.apache.commons.io.input.Tailer;
+
+/**
+ * A source that tails a log file, polling it every {@link #POLL_INTERVAL_MILLIS} milliseconds for
+ * lines appended after the source was started.
+ */
+public final class FileLogSource implements LogSource {
+    public static final long POLL_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(2);
+
+    private final File log;
+    private ExecutorService threadExecutor;
+    private Tailer logTailer;
+
+    public FileLogSource(File log) {
+        if (log == null) {
+            throw new NullPointerException("Cannot construct FileLogSource with null log.");
+        }
+        this.log = log;
+    }
+
+    @Override
+    public void start(LogListener listener) {
+        if (listener == null) {
+            throw new NullPointerException("Cannot start feeding a null listener.");
+        }
+        if (this.logTailer != null) {
+            throw new IllegalStateException("This log source has already been started.");
+        }
+
+        this.threadExecutor = Executors.newSingleThreadExecutor();
+        this.logTailer = new Tailer(this.log, listener, POLL_INTERVAL_MILLIS, true);
+        this.threadExecutor.execute(this.logTailer);
+    }
+
+    @Override
+    public void stop() throws InterruptedException {
+        if (this.logTailer == null) {
+            return;
+        }
+
+        this.logTailer.stop();
+        this.threadExecutor.shutdownNow();
+
+        if (!this.threadExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
+            System.out.println(Assumptions.LOGGER_BANNER
+                + "Failed to shut down the log reader thread - timed out!");
+        }
+    }
+}
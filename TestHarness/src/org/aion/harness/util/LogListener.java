@@ -3,17 +3,22 @@ package org.aion.harness.util;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import org.aion.harness.main.event.IEvent;
+import org.aion.harness.metrics.Counter;
+import org.aion.harness.metrics.FlightRecorderEvent;
+import org.aion.harness.metrics.HarnessEvents;
+import org.aion.harness.metrics.MetricsRegistry;
 import org.aion.harness.result.FutureResult;
 import org.aion.harness.result.LogEventResult;
 import org.aion.harness.result.Result;
+import org.aion.harness.statistics.Histogram;
 import org.apache.commons.io.input.Tailer;
 import org.apache.commons.io.input.TailerListener;
 
 import java.util.*;
 
 /**
- * A listener that "tails" the output log of a node and processes every line in that log one by one
- * to determine if any threads have submitted a request for an event string to be observed and
+ * A listener that is fed the output log of a node by a {@link LogSource} and processes every line
+ * in that log one by one to determine if any threads have submitted a request for an event string to be observed and
  * whether this current line satisfies any of those requested events.
  *
  * A log listener maintains a pool of pending requests. Each request is an {@link IEvent} object,
@@ -41,9 +46,19 @@ import java.util.*;
  */
 public final class LogListener implements TailerListener {
     private static final int CAPACITY = 32_768;
+    private static final long EVENT_BATCH_NANOS = TimeUnit.SECONDS.toNanos(1);
     private static final Object STATE_MONITOR = new Object();
     private static final Semaphore REQUEST_POOL_GATE = new Semaphore(CAPACITY, true);
 
+    private static final Counter LINES = MetricsRegistry.global().counter("harness_log_lines_total", "Log lines processed by all log listeners.");
+    private static final Histogram LINE_PROCESSING_TIMES = MetricsRegistry.global().histogram("harness_log_line_processing_nanos", "Time taken to check a log line against every pending event request.");
+    private static final Histogram MATCH_LATENCIES = MetricsRegistry.global().histogram("harness_log_event_match_latency_nanos", "Time from an event request being submitted to its event being observed.");
+
+    static {
+        MetricsRegistry.global().gauge("harness_log_pending_event_requests", "Event requests currently waiting to be observed.",
+            () -> CAPACITY - REQUEST_POOL_GATE.availablePermits());
+    }
+
     // The tailer is responsible for reading each line and updating us. We are its "observer".
     private Tailer tailer;
 
@@ -54,6 +69,13 @@ public final class LogListener implements TailerListener {
 
     private List<EventRequest> requestPool = new ArrayList<>(CAPACITY);
 
+    // The flight recorder event for the batch of lines handled since it began, if one is recording.
+    private FlightRecorderEvent batchEvent = null;
+    private long batchStartTimeInNanos;
+    private int batchLines;
+    private int batchRequestsEvaluated;
+    private int batchRequestsSatisfied;
+
     /**
      * Returns true only if the listener is not dead.
      */
@@ -74,6 +96,22 @@ public final class LogListener implements TailerListener {
         return CAPACITY - REQUEST_POOL_GATE.availablePermits();
     }
 
+    /**
+     * Returns a description of each pending event request in the pool, with how long it has been
+     * waiting, oldest first.
+     *
+     * @return the descriptions of the pending requests.
+     */
+    public synchronized List<String> describePendingEventRequests() {
+        List<String> descriptions = new ArrayList<>();
+        for (EventRequest request : this.requestPool) {
+            if (request.isPending()) {
+                descriptions.add(request + " waiting for " + request.timeSinceCreation(TimeUnit.MILLISECONDS) + " ms");
+            }
+        }
+        return descriptions;
+    }
+
     /**
      * Attempts to submit the specified event request into the request pool.
      *
@@ -108,6 +146,39 @@ public final class LogListener implements TailerListener {
         return eventRequest.future;
     }
 
+    /**
+     * Withdraws the still pending request whose result is the specified future from the request
+     * pool, marking it rejected with the specified cause, so that it no longer holds a place in the
+     * pool for the rest of its timeout.
+     *
+     * Returns {@code true} only if such a request was found and withdrawn.
+     *
+     * @param future The future returned when the request was submitted.
+     * @param cause The reason for withdrawing the request.
+     * @return whether or not the request was withdrawn.
+     */
+    public synchronized boolean withdrawEventRequest(FutureResult<LogEventResult> future, String cause) {
+        if (future == null) {
+            throw new NullPointerException("Cannot withdraw the request of a null future.");
+        }
+
+        Iterator<EventRequest> requestIterator = this.requestPool.iterator();
+        while (requestIterator.hasNext()) {
+            EventRequest request = requestIterator.next();
+
+            if (request.future == future) {
+                if (!request.isPending()) {
+                    return false;
+                }
+                request.markAsRejected(cause);
+                requestIterator.remove();
+                REQUEST_POOL_GATE.release();
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Returns success only if the listener is currently not dead and not listening and has now
      * started listening.
@@ -221,6 +292,8 @@ public final class LogListener implements TailerListener {
             Iterator<EventRequest> requestIterator = this.requestPool.iterator();
 
             int numRequestsRemoved = 0;
+            int numRequestsEvaluated = 0;
+            int numRequestsSatisfied = 0;
             while (requestIterator.hasNext()) {
                 EventRequest request = requestIterator.next();
 
@@ -230,11 +303,68 @@ public final class LogListener implements TailerListener {
                 } else if (request.isSatisfiedBy(nextLine, currentTimeInNanos, TimeUnit.NANOSECONDS)) {
                     requestIterator.remove();
                     numRequestsRemoved++;
+                    numRequestsEvaluated++;
+                    numRequestsSatisfied++;
+
+                    long timeToObservation = request.timeToObservation(TimeUnit.NANOSECONDS);
+                    if (timeToObservation >= 0) {
+                        MATCH_LATENCIES.record(timeToObservation);
+                    }
+                } else {
+                    numRequestsEvaluated++;
                 }
             }
 
             // Return the same number of permits as the number of requests removed from the pool.
             REQUEST_POOL_GATE.release(numRequestsRemoved);
+
+            LINES.increment();
+            LINE_PROCESSING_TIMES.record(System.nanoTime() - currentTimeInNanos);
+            recordBatchEvent(numRequestsEvaluated, numRequestsSatisfied, currentTimeInNanos);
+        }
+    }
+
+    /**
+     * Adds a handled line to the current flight recorder batch event, beginning a new batch if
+     * there is none and committing the batch once it spans a second.
+     *
+     * Must be called while holding this listener's monitor.
+     */
+    private void recordBatchEvent(int requestsEvaluated, int requestsSatisfied, long currentTimeInNanos) {
+        if (this.batchEvent == null) {
+            FlightRecorderEvent event = HarnessEvents.LOG_LINES.begin();
+            if (!event.isRecording()) {
+                return;
+            }
+            this.batchEvent = event;
+            this.batchStartTimeInNanos = currentTimeInNanos;
+        }
+
+        this.batchLines++;
+        this.batchRequestsEvaluated += requestsEvaluated;
+        this.batchRequestsSatisfied += requestsSatisfied;
+
+        if (currentTimeInNanos - this.batchStartTimeInNanos >= EVENT_BATCH_NANOS) {
+            commitBatchEvent();
+        }
+    }
+
+    /**
+     * Commits the current flight recorder batch event, if there is one.
+     *
+     * Must be called while holding this listener's monitor.
+     */
+    private void commitBatchEvent() {
+        if (this.batchEvent != null) {
+            this.batchEvent
+                .set(HarnessEvents.LOG_LINES_PROCESSED, this.batchLines)
+                .set(HarnessEvents.LOG_LINES_REQUESTS_EVALUATED, this.batchRequestsEvaluated)
+                .set(HarnessEvents.LOG_LINES_REQUESTS_SATISFIED, this.batchRequestsSatisfied)
+                .commit();
+            this.batchEvent = null;
+            this.batchLines = 0;
+            this.batchRequestsEvaluated = 0;
+            this.batchRequestsSatisfied = 0;
         }
     }
 
@@ -282,7 +412,11 @@ public final class LogListener implements TailerListener {
      */
     private void panic(String cause) {
         killRequestPool(cause);
-        this.tailer.stop();
+
+        // Sources other than a tailer stop by themselves once they have reported a failure.
+        if (this.tailer != null) {
+            this.tailer.stop();
+        }
     }
 
     /**
@@ -322,6 +456,7 @@ public final class LogListener implements TailerListener {
         }
 
         this.requestPool.clear();
+        commitBatchEvent();
 
         REQUEST_POOL_GATE.release(numRequestsRemoved);
     }
@@ -11,9 +11,29 @@ import org.apache.commons.io.FileUtils;
  * A class that is used to set up and manage the log files generated by an active node.
  */
 public final class LogManager {
+    private final File logsDirectory;
     private File currentOutputLog;
     private File currentErrorLog;
 
+    /**
+     * Constructs a log manager that keeps its log files in the harness's logs directory.
+     */
+    public LogManager() {
+        this(NodeFileManager.getLogsDirectory());
+    }
+
+    /**
+     * Constructs a log manager that keeps its log files in the specified directory, and archives
+     * them into its archive subdirectory. Nodes that run at the same time must each have their own
+     * logs directory, since setting up the log files archives every other file in the directory.
+     */
+    public LogManager(File logsDirectory) {
+        if (logsDirectory == null) {
+            throw new NullPointerException("Cannot construct LogManager with a null logs directory.");
+        }
+        this.logsDirectory = logsDirectory;
+    }
+
     /**
      * This method creates the necessary output and error log files in the logs directory. If this
      * directory does not exist yet, then this method creates it.
@@ -77,14 +97,14 @@ public final class LogManager {
      * creates the logs directory if it does not exist, otherwise does nothing.
      */
     private boolean createLogsDirectoryIfDoesNotExist() {
-        return (NodeFileManager.getLogsDirectory().exists()) ? true : NodeFileManager.getLogsDirectory().mkdir();
+        return (this.logsDirectory.exists()) ? true : this.logsDirectory.mkdirs();
     }
 
     /**
      * Moves any outstanding log files into the archived directory if they exist.
      */
     private void archiveLogs() throws IOException {
-        File[] logEntries = NodeFileManager.getLogsDirectory().listFiles();
+        File[] logEntries = this.logsDirectory.listFiles();
 
         if (logEntries == null) {
             return;
@@ -104,7 +124,7 @@ public final class LogManager {
      * ASSUMPTION: logs directory exists.
      */
     private File createNewStdoutLog(long currentTimeInMillis) throws IOException {
-        File stdoutLogFile = new File(NodeFileManager.getLogsDirectory() + File.separator + createLogFilename("out", currentTimeInMillis));
+        File stdoutLogFile = new File(this.logsDirectory + File.separator + createLogFilename("out", currentTimeInMillis));
         return (stdoutLogFile.createNewFile()) ? stdoutLogFile : null;
     }
 
@@ -114,7 +134,7 @@ public final class LogManager {
      * ASSUMPTION: logs directory exists.
      */
     private File createNewStderrLog(long currentTimeInMillis) throws IOException {
-        File stdoutLogFile = new File(NodeFileManager.getLogsDirectory() + File.separator + createLogFilename("err", currentTimeInMillis));
+        File stdoutLogFile = new File(this.logsDirectory + File.separator + createLogFilename("err", currentTimeInMillis));
         return (stdoutLogFile.createNewFile()) ? stdoutLogFile : null;
     }
 
@@ -147,7 +167,7 @@ public final class LogManager {
     private File findUniqueArchiveDestinationName(String filename) throws IOException {
         String filenameExtension = filename.substring(filename.lastIndexOf('.'));
         String filenameWithoutExtension = filename.substring(0, filename.lastIndexOf('.'));
-        String canonicalName = NodeFileManager.getLogsArchiveDirectory().getCanonicalPath() + File.separator + filenameWithoutExtension;
+        String canonicalName = new File(this.logsDirectory, NodeFileManager.getLogsArchiveDirectory().getName()).getCanonicalPath() + File.separator + filenameWithoutExtension;
 
         int number = 1;
         File file = new File(canonicalName + filenameExtension);
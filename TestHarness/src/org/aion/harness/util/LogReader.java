@@ -1,20 +1,16 @@
 package org.aion.harness.util;
 
-import org.aion.harness.misc.Assumptions;
 import org.aion.harness.result.Result;
-import org.apache.commons.io.input.Tailer;
 
 import java.io.File;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
+import java.io.InputStream;
 
 /**
- * A class responsible for reading a log file and setting up a {@link LogListener} that eavesdrops on the log file.
+ * A class responsible for reading a node's log, from a file or a stream, and setting up a
+ * {@link LogListener} that eavesdrops on it.
  */
 public final class LogReader {
-    private ExecutorService threadExecutor;
-    private Tailer logTailer;
+    private LogSource source;
     private LogListener listener;
     private final int ID;
     private static int IDCounter = 1;
@@ -25,14 +21,38 @@ public final class LogReader {
         IDCounter++;
     }
 
+    /**
+     * Starts tailing the specified log file. See {@link FileLogSource}.
+     */
     public Result startReading(File log) {
-        // If the listener moved into a dead state then we need a new listener.
-        if (!this.listener.isAlive()) {
-            this.listener = new LogListener();
+        if (log == null) {
+            return Result.unsuccessfulDueTo("Output log file does not exist!");
         }
+        return startReading(new FileLogSource(log));
+    }
 
+    /**
+     * Starts reading the log written to the specified stream, which is closed when reading stops.
+     * See {@link StreamLogSource}.
+     */
+    public Result startReading(InputStream log) {
         if (log == null) {
-            return Result.unsuccessfulDueTo("Output log file does not exist!");
+            return Result.unsuccessfulDueTo("Log stream does not exist!");
+        }
+        return startReading(new StreamLogSource(log));
+    }
+
+    /**
+     * Starts reading the log from the specified source.
+     */
+    public Result startReading(LogSource source) {
+        if (source == null) {
+            throw new NullPointerException("Cannot read from a null log source.");
+        }
+
+        // If the listener moved into a dead state then we need a new listener.
+        if (!this.listener.isAlive()) {
+            this.listener = new LogListener();
         }
 
         // Attempt to turn the listener on. If it is already on then pass this "warning/error" to the caller.
@@ -41,30 +61,24 @@ public final class LogReader {
             return result;
         }
 
-        this.threadExecutor = Executors.newSingleThreadExecutor();
-        this.logTailer = new Tailer(log, this.listener, TimeUnit.SECONDS.toMillis(2), true);
-        this.threadExecutor.execute(this.logTailer);
+        this.source = source;
+        this.source.start(this.listener);
 
         return Result.successful();
     }
 
     public void stopReading() throws InterruptedException {
         if (this.listener.isAlive()) {
-
             this.listener.stopListening();
-            this.logTailer.stop();
-            this.threadExecutor.shutdownNow();
-
-            if (!this.threadExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
-                System.out.println(Assumptions.LOGGER_BANNER
-                    + "Failed to shut down the log reader thread - timed out!");
-            }
         } else {
             // If the listener is dead it cannot be recovered. We need to scrap it entirely.
             this.listener = new LogListener();
         }
 
-        this.threadExecutor = null;
+        if (this.source != null) {
+            this.source.stop();
+        }
+        this.source = null;
     }
 
     public LogListener getLogListener() {
@@ -0,0 +1,25 @@
+package org.aion.harness.util;
+
+/**
+ * Where the lines of a node's log come from: a {@link LogReader} starts a source, which then feeds
+ * every line it reads to a {@link LogListener} on a thread of its own until it is stopped.
+ *
+ * A source that fails, or that reaches the end of a log that cannot grow any further, reports it to
+ * the listener through {@link LogListener#handle(Exception)}, which rejects every pending event.
+ *
+ * A source is started at most once.
+ */
+public interface LogSource {
+
+    /**
+     * Starts feeding the lines of the log to the specified listener in the background.
+     *
+     * @param listener The listener to feed.
+     */
+    void start(LogListener listener);
+
+    /**
+     * Stops feeding lines to the listener, blocking until the source's thread has finished.
+     */
+    void stop() throws InterruptedException;
+}
@@ -15,8 +15,13 @@ public class NodeFileManager {
     private static final String SANDBOX_DIR = WORKING_DIR + File.separator + "sandbox";
     private static final String LOG_DIR = WORKING_DIR + File.separator + "logs";
     private static final String LOG_ARCHIVE_DIR = LOG_DIR + File.separator + "archive";
+    private static final String STARTUP_PROFILES_DIR = WORKING_DIR + File.separator + "startup_profiles";
+    private static final String STARTUP_PROFILES_FILE = STARTUP_PROFILES_DIR + File.separator + "startup_profiles.jsonl";
     private static final String TEMPORARY_DATABASE = WORKING_DIR + File.separator + "temporary_database";
     private static final String TEMPORARY_TAR_FILE = SANDBOX_DIR + File.separator + "temporary_tar.tar.bz2";
+    private static final String KERNEL_BUILD_CACHE_DIR = WORKING_DIR + File.separator + "kernel_build_cache";
+    private static final String DATABASE_SNAPSHOTS_DIR = WORKING_DIR + File.separator + "database_snapshots";
+    private static final String CLUSTER_DIR = WORKING_DIR + File.separator + "cluster";
 
     public static String getSandboxPath() {
         return SANDBOX_DIR;
@@ -30,6 +35,14 @@ public class NodeFileManager {
         return new File(LOG_ARCHIVE_DIR);
     }
 
+    /**
+     * Returns the file of the startup profile history, which is kept out of the logs directory so
+     * that it is neither archived nor cleaned up along with the logs of each run.
+     */
+    public static File getStartupProfilesFile() {
+        return new File(STARTUP_PROFILES_FILE);
+    }
+
     public static File getTemporaryDatabase() {
         return new File(TEMPORARY_DATABASE);
     }
@@ -38,6 +51,31 @@ public class NodeFileManager {
         return new File(TEMPORARY_TAR_FILE);
     }
 
+    public static File getKernelBuildCacheDirectory() {
+        return new File(KERNEL_BUILD_CACHE_DIR);
+    }
+
+    /**
+     * Returns the directory of the database snapshots of the given kind of kernel on the given network.
+     */
+    public static File getDatabaseSnapshotsDirectory(String kernel, Network network) {
+        return new File(DATABASE_SNAPSHOTS_DIR + File.separator + kernel + File.separator + network.string());
+    }
+
+    /**
+     * Returns the kernel directory of the member of a local cluster with the given index.
+     */
+    public static File getClusterMemberDirectory(int index) {
+        return new File(CLUSTER_DIR + File.separator + "member-" + index);
+    }
+
+    /**
+     * Returns the logs directory of the member of a local cluster with the given index.
+     */
+    public static File getClusterMemberLogsDirectory(int index) {
+        return new File(LOG_DIR + File.separator + "cluster-member-" + index);
+    }
+
     /**
      * Returns the path to the database for the given network and root directory of the built kernel.
      *
@@ -0,0 +1,292 @@
+package org.aion.harness.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.DoubleConsumer;
+
+/**
+ * An input stream that decompresses a bzip2 file, decoding its blocks in parallel.
+ *
+ * The file is memory-mapped and first scanned in parallel for every bit position holding a block
+ * magic number. Blocks are then decoded speculatively at these positions, a bounded number ahead of
+ * the reader, while the reader follows the chain of blocks from the start of the stream: each
+ * block ends where the next one begins. A magic number that occurs by chance inside compressed data
+ * fails to decode or is simply never reached by the chain, and so the output is always exactly the
+ * sequential decompression of the file. Every block is checked against its crc, and every stream
+ * against its combined crc. Concatenated streams, as written by parallel compressors, are supported.
+ *
+ * Files of up to 2 GiB are supported.
+ *
+ * This class is not thread-safe.
+ */
+public final class ParallelBzip2InputStream extends InputStream {
+    private static final long MAGIC_MASK = (1L << 48) - 1;
+    private static final int HEADER_BITS = 32;
+
+    private final MappedByteBuffer compressed;
+    private final long compressedBits;
+    private final ExecutorService executor;
+    private final int window;
+    private final DoubleConsumer progressListener;
+
+    private long[] candidates = null;
+    private int nextCandidate = 0;
+    private final Map<Long, Future<Bzip2Block>> decoding = new HashMap<>();
+    private final byte[] single = new byte[1];
+
+    // The bit position of the next block, or -1 once the last stream has ended.
+    private long nextBlock;
+    private int streamCrc = 0;
+
+    private Bzip2Block current = null;
+    private int offset = 0;
+    private boolean isClosed = false;
+
+    /**
+     * Constructs a stream decompressing the specified file using the specified number of threads.
+     *
+     * @param file The bzip2 file.
+     * @param threads The number of threads to scan and decode with.
+     * @param progressListener Called with the fraction of the file decompressed after each block,
+     *                         or null.
+     */
+    public ParallelBzip2InputStream(File file, int threads, DoubleConsumer progressListener) throws IOException {
+        if (file == null) {
+            throw new NullPointerException("Cannot decompress a null file.");
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("Must decompress with at least 1 thread, found: " + threads);
+        }
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Cannot decompress bzip2 files larger than 2 GiB: " + file);
+            }
+            this.compressed = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        this.compressedBits = (long) this.compressed.limit() << 3;
+        this.progressListener = progressListener;
+        this.window = threads * 2;
+
+        if (!isStreamHeaderAt(0)) {
+            throw new IOException("Not a bzip2 file: " + file);
+        }
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "bzip2-decoder");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.nextBlock = findBlock(HEADER_BITS);
+    }
+
+    @Override
+    public int read() throws IOException {
+        return (read(this.single, 0, 1) == -1) ? -1 : (this.single[0] & 0xff);
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        if (this.isClosed) {
+            throw new IOException("Stream is closed.");
+        }
+        if (length == 0) {
+            return 0;
+        }
+
+        while ((this.current == null) || (this.offset == this.current.length)) {
+            if (this.nextBlock == -1) {
+                return -1;
+            }
+            this.current = nextBlock();
+            this.offset = 0;
+        }
+
+        int count = Math.min(length, this.current.length - this.offset);
+        System.arraycopy(this.current.data, this.offset, buffer, offset, count);
+        this.offset += count;
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return (this.current == null) ? 0 : this.current.length - this.offset;
+    }
+
+    @Override
+    public void close() {
+        this.isClosed = true;
+        this.executor.shutdownNow();
+        this.decoding.clear();
+    }
+
+    /**
+     * Returns the block at the next position in the chain, decoding it here if it was not among the
+     * speculatively decoded candidates, and advances the chain past it.
+     */
+    private Bzip2Block nextBlock() throws IOException {
+        if (this.candidates == null) {
+            this.candidates = scanForCandidates();
+        }
+
+        // Keep the window of speculative decodes full, and drop those the chain has passed over.
+        long position = this.nextBlock;
+        Iterator<Map.Entry<Long, Future<Bzip2Block>>> passed = this.decoding.entrySet().iterator();
+        while (passed.hasNext()) {
+            Map.Entry<Long, Future<Bzip2Block>> entry = passed.next();
+            if (entry.getKey() < position) {
+                entry.getValue().cancel(true);
+                passed.remove();
+            }
+        }
+        while ((this.nextCandidate < this.candidates.length) && (this.candidates[this.nextCandidate] < position)) {
+            this.nextCandidate++;
+        }
+        while ((this.decoding.size() < this.window) && (this.nextCandidate < this.candidates.length)) {
+            long candidate = this.candidates[this.nextCandidate++];
+            this.decoding.put(candidate, this.executor.submit(() -> Bzip2Block.decode(this.compressed.duplicate(), candidate)));
+        }
+
+        Bzip2Block block = null;
+        Future<Bzip2Block> future = this.decoding.remove(position);
+        if (future != null) {
+            try {
+                block = future.get();
+            } catch (ExecutionException e) {
+                // Decoded again below, to report the failure in order.
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while decompressing.", e);
+            }
+        }
+        if (block == null) {
+            block = Bzip2Block.decode(this.compressed.duplicate(), position);
+        }
+
+        this.streamCrc = ((this.streamCrc << 1) | (this.streamCrc >>> 31)) ^ block.crc;
+        this.nextBlock = findBlock(block.endBitPosition);
+
+        if (this.progressListener != null) {
+            this.progressListener.accept((this.nextBlock == -1) ? 1.0 : (double) this.nextBlock / this.compressedBits);
+        }
+        return block;
+    }
+
+    /**
+     * Returns the position of the next block at or after the specified position, which is either
+     * a block, the end of a stream, or the end of the file. Ends of streams are verified and passed
+     * over into any stream concatenated after them.
+     *
+     * @return the position of the block, or -1 if the last stream has ended.
+     */
+    private long findBlock(long position) throws IOException {
+        while (true) {
+            Bzip2Block.BitReader reader = new Bzip2Block.BitReader(this.compressed.duplicate(), position);
+            long magic = reader.readLong(48);
+            if (magic == Bzip2Block.BLOCK_MAGIC) {
+                return position;
+            }
+            if (magic != Bzip2Block.END_OF_STREAM_MAGIC) {
+                throw new IOException("Corrupt bzip2 data at bit " + position);
+            }
+
+            int expectedCrc = reader.readBits(32);
+            if (expectedCrc != this.streamCrc) {
+                throw new IOException("Bzip2 stream crc mismatch at bit " + position);
+            }
+            this.streamCrc = 0;
+
+            // Streams end on a byte boundary; another may follow.
+            long end = (reader.position() + 7) & ~7L;
+            if (!isStreamHeaderAt(end)) {
+                return -1;
+            }
+            position = end + HEADER_BITS;
+        }
+    }
+
+    private boolean isStreamHeaderAt(long bitPosition) {
+        int index = (int) (bitPosition >>> 3);
+        if (index + 4 > this.compressed.limit()) {
+            return false;
+        }
+        byte level = this.compressed.get(index + 3);
+        return (this.compressed.get(index) == 'B') && (this.compressed.get(index + 1) == 'Z') && (this.compressed.get(index + 2) == 'h')
+            && (level >= '1') && (level <= '9');
+    }
+
+    /**
+     * Scans the whole file, in parallel segments, for bit positions holding a block magic number.
+     */
+    private long[] scanForCandidates() throws IOException {
+        int size = this.compressed.limit();
+        int segments = Math.max(1, Math.min(this.window, size / (1 << 20)));
+        int segmentSize = (size + segments - 1) / segments;
+
+        List<Future<long[]>> scans = new ArrayList<>();
+        for (int start = 0; start < size; start += segmentSize) {
+            int from = start;
+            int to = Math.min(size, start + segmentSize);
+            scans.add(this.executor.submit(() -> scan(from, to)));
+        }
+
+        long[] all = new long[0];
+        for (Future<long[]> scan : scans) {
+            try {
+                long[] found = scan.get();
+                int length = all.length;
+                all = Arrays.copyOf(all, length + found.length);
+                System.arraycopy(found, 0, all, length, found.length);
+            } catch (ExecutionException | InterruptedException e) {
+                throw new IOException("Failed to scan the bzip2 file for blocks.", e);
+            }
+        }
+        return all;
+    }
+
+    /**
+     * Returns the bit positions of block magic numbers that begin in the specified byte range.
+     */
+    private long[] scan(int from, int to) {
+        long[] found = new long[16];
+        int count = 0;
+
+        ByteBuffer bytes = this.compressed.duplicate();
+        int end = Math.min(this.compressed.limit(), to + 7);
+        long register = 0;
+        for (int i = from; i < end; i++) {
+            register = (register << 8) | (bytes.get(i) & 0xff);
+            if (i - from < 5) {
+                continue;
+            }
+            // The last 8 bits may hold the end of a magic number starting at any of 8 bit offsets.
+            for (int shift = 7; shift >= 0; shift--) {
+                if (((register >>> shift) & MAGIC_MASK) == Bzip2Block.BLOCK_MAGIC) {
+                    long start = ((long) (i + 1) << 3) - shift - 48;
+                    if ((start >= ((long) from << 3)) && (start < ((long) to << 3))) {
+                        if (count == found.length) {
+                            found = Arrays.copyOf(found, count * 2);
+                        }
+                        found[count++] = start;
+                    }
+                }
+            }
+        }
+        return Arrays.copyOf(found, count);
+    }
+
+}
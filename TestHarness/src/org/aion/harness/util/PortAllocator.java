@@ -0,0 +1,56 @@
+package org.aion.harness.util;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Allocates free local ports for the kernels that the harness runs side by side.
+ *
+ * A port is free if the operating system hands it out to a socket bound to port 0 on the wildcard
+ * address, which is where the kernels' p2p servers listen, and it is never handed out twice by
+ * this class, so that the kernels started in one run do not collide with each other. The port is
+ * released before the kernel binds it, so another process could still take it in between; the
+ * kernel then fails to start with an "Address already in use" error.
+ *
+ * This class is thread-safe.
+ */
+public final class PortAllocator {
+    private static final Set<Integer> allocatedPorts = new HashSet<>();
+
+    private PortAllocator() {}
+
+    /**
+     * Returns the specified number of distinct ports that are free on every local interface.
+     *
+     * @param count The number of ports.
+     * @return the ports.
+     */
+    public static synchronized List<Integer> allocate(int count) throws IOException {
+        if (count < 0) {
+            throw new IllegalArgumentException("Cannot allocate a negative number of ports: " + count);
+        }
+
+        // Hold every socket open until all are bound, so the operating system does not hand out the same port twice.
+        List<ServerSocket> sockets = new ArrayList<>();
+        try {
+            List<Integer> ports = new ArrayList<>();
+            while (ports.size() < count) {
+                // A port free on loopback alone may still be held on another interface, so probe the wildcard address.
+                ServerSocket socket = new ServerSocket(0, 1);
+                sockets.add(socket);
+                if (allocatedPorts.add(socket.getLocalPort())) {
+                    ports.add(socket.getLocalPort());
+                }
+            }
+            return ports;
+        } finally {
+            for (ServerSocket socket : sockets) {
+                socket.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package org.aion.harness.util;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.aion.harness.misc.Assumptions;
+
+/**
+ * A source that reads a log as it is written to a stream, such as the standard output of a process
+ * or a socket, and hands each line to the listener the moment it is complete.
+ *
+ * Lines go straight from the stream to the listener on the source's thread, so at most a buffer of
+ * the stream and one line are held in memory. If the listener falls behind, the stream is simply
+ * read more slowly, and its writer is held back by the pipe or socket rather than the log piling
+ * up here. Lines longer than {@link #MAX_LINE_LENGTH} characters are handed over in pieces.
+ *
+ * The end of the stream means nothing more will be logged, so unless the source is being stopped
+ * it is reported to the listener, which rejects every pending event.
+ *
+ * Closing a stream does not unblock a thread reading it from every kind of stream, in particular
+ * not from a process's output, so a source may be given the producer of the stream to close when it
+ * is stopped, for example a method that destroys the process.
+ */
+public final class StreamLogSource implements LogSource {
+    public static final int MAX_LINE_LENGTH = 64 * 1024;
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private final InputStream stream;
+    private final Closeable producer;
+    private Thread reader;
+    private volatile boolean isStopping = false;
+
+    /**
+     * Constructs a source that reads the specified stream and closes it when it is stopped.
+     *
+     * @param stream The stream the log is written to.
+     */
+    public StreamLogSource(InputStream stream) {
+        this(stream, stream);
+    }
+
+    /**
+     * Constructs a source that reads the specified stream and, when it is stopped, closes the
+     * producer and then the stream.
+     *
+     * @param stream The stream the log is written to.
+     * @param producer What to close so that the stream ends.
+     */
+    public StreamLogSource(InputStream stream, Closeable producer) {
+        if (stream == null) {
+            throw new NullPointerException("Cannot construct StreamLogSource with null stream.");
+        }
+        if (producer == null) {
+            throw new NullPointerException("Cannot construct StreamLogSource with null producer.");
+        }
+        this.stream = stream;
+        this.producer = producer;
+    }
+
+    @Override
+    public void start(LogListener listener) {
+        if (listener == null) {
+            throw new NullPointerException("Cannot start feeding a null listener.");
+        }
+        if (this.reader != null) {
+            throw new IllegalStateException("This log source has already been started.");
+        }
+
+        this.reader = new Thread(() -> feed(listener), "log-stream-reader");
+        this.reader.setDaemon(true);
+        this.reader.start();
+    }
+
+    @Override
+    public void stop() throws InterruptedException {
+        if (this.reader == null) {
+            return;
+        }
+
+        this.isStopping = true;
+        closeQuietly(this.producer);
+        closeQuietly(this.stream);
+
+        this.reader.join(TimeUnit.SECONDS.toMillis(30));
+        if (this.reader.isAlive()) {
+            System.out.println(Assumptions.LOGGER_BANNER
+                + "Failed to shut down the log reader thread - timed out!");
+        }
+    }
+
+    private void feed(LogListener listener) {
+        StringBuilder line = new StringBuilder();
+        char[] buffer = new char[BUFFER_SIZE];
+
+        try (Reader in = new InputStreamReader(this.stream, StandardCharsets.UTF_8)) {
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                for (int i = 0; i < read; i++) {
+                    if (buffer[i] == '\n') {
+                        handleLine(listener, line);
+                    } else {
+                        line.append(buffer[i]);
+                        if (line.length() == MAX_LINE_LENGTH) {
+                            handleLine(listener, line);
+                        }
+                    }
+                }
+            }
+
+            if (line.length() > 0) {
+                handleLine(listener, line);
+            }
+            if (!this.isStopping) {
+                listener.handle(new EOFException("The log stream ended."));
+            }
+        } catch (IOException e) {
+            if (!this.isStopping) {
+                listener.handle(e);
+            }
+        }
+    }
+
+    private static void handleLine(LogListener listener, StringBuilder line) {
+        int length = line.length();
+        if ((length > 0) && (line.charAt(length - 1) == '\r')) {
+            line.setLength(length - 1);
+        }
+        listener.handle(line.toString());
+        line.setLength(0);
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            // The reader notices the stream ending either way.
+        }
+    }
+}
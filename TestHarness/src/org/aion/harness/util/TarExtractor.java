@@ -0,0 +1,391 @@
+package org.aion.harness.util;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Extracts a tar archive from a stream into a directory, as {@code tar x} would.
+ *
+ * Regular files, directories, symbolic links and hard links are extracted, with the permission
+ * bits and modification times recorded in the archive (so that launch scripts and the bundled jre
+ * stay executable). The ustar, gnu long name and pax extended header formats are understood. Other
+ * kinds of entries, such as device files, are skipped.
+ *
+ * Entries that would be extracted outside of the destination directory are rejected, whether they
+ * name a path outside of it, are symbolic links pointing outside of it, or would be written through
+ * a symbolic link already in the destination that points outside of it.
+ */
+public final class TarExtractor {
+    private static final int BLOCK_SIZE = 512;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private TarExtractor() {}
+
+    /**
+     * Extracts the tar archive read from the specified stream into the specified directory.
+     *
+     * @param archive The tar archive.
+     * @param destination The directory to extract into, which must exist.
+     * @return the number of entries extracted.
+     */
+    public static int extract(InputStream archive, File destination) throws IOException {
+        if (archive == null) {
+            throw new NullPointerException("Cannot extract a null archive.");
+        }
+        if (destination == null) {
+            throw new NullPointerException("Cannot extract into a null destination.");
+        }
+        if (!destination.isDirectory()) {
+            throw new IllegalArgumentException("The destination is not a directory: " + destination);
+        }
+
+        Path root = destination.toPath().toAbsolutePath().normalize();
+        Path realRoot = root.toRealPath();
+        byte[] header = new byte[BLOCK_SIZE];
+        byte[] buffer = new byte[BUFFER_SIZE];
+        List<Path> directories = new ArrayList<>();
+        List<Integer> directoryModes = new ArrayList<>();
+
+        String longName = null;
+        String longLinkName = null;
+        Long paxSize = null;
+        int entries = 0;
+
+        while (true) {
+            if (!readBlock(archive, header)) {
+                break;
+            }
+            if (isZero(header)) {
+                // The archive ends with two zero blocks, but tar itself stops at the first.
+                break;
+            }
+            verifyChecksum(header);
+
+            char type = (char) header[156];
+            long size = (paxSize != null) ? paxSize : parseNumber(header, 124, 12);
+            String name = (longName != null) ? longName : entryName(header);
+            String linkName = (longLinkName != null) ? longLinkName : parseString(header, 157, 100);
+
+            // Metadata entries describe the entry that follows them.
+            if ((type == 'L') || (type == 'K') || (type == 'x') || (type == 'g')) {
+                byte[] content = readContent(archive, size);
+                if (type == 'L') {
+                    longName = parseString(content, 0, content.length);
+                } else if (type == 'K') {
+                    longLinkName = parseString(content, 0, content.length);
+                } else if (type == 'x') {
+                    for (String[] record : parsePaxRecords(content)) {
+                        switch (record[0]) {
+                            case "path": longName = record[1]; break;
+                            case "linkpath": longLinkName = record[1]; break;
+                            case "size": paxSize = Long.parseLong(record[1]); break;
+                            default: break;
+                        }
+                    }
+                }
+                continue;
+            }
+            longName = null;
+            longLinkName = null;
+            paxSize = null;
+
+            Path target = resolve(root, name);
+            if (target.equals(root)) {
+                // An entry such as "./", as written by tar -C dir ., is the destination itself.
+                if (type != '5') {
+                    throw new IOException("Tar entry names the destination directory but is not a directory: " + name);
+                }
+            } else {
+                checkParentIsInside(realRoot, target, name);
+            }
+            int mode = (int) parseNumber(header, 100, 8);
+            long modificationTime = parseNumber(header, 136, 12);
+
+            switch (type) {
+                case '5':
+                    Files.createDirectories(target);
+                    directories.add(target);
+                    directoryModes.add(mode);
+                    skip(archive, size);
+                    break;
+                case '2':
+                    checkLinkIsInside(root, target, name, linkName);
+                    Files.createDirectories(target.getParent());
+                    Files.deleteIfExists(target);
+                    Files.createSymbolicLink(target, Paths.get(linkName));
+                    skip(archive, size);
+                    break;
+                case '1':
+                    Path linked = resolve(root, linkName);
+                    checkParentIsInside(realRoot, linked, linkName);
+                    Files.createDirectories(target.getParent());
+                    Files.deleteIfExists(target);
+                    Files.createLink(target, linked);
+                    skip(archive, size);
+                    break;
+                case '0':
+                case '\0':
+                case '7':
+                    Files.createDirectories(target.getParent());
+                    writeFile(archive, target, size, buffer);
+                    setPermissions(target, mode);
+                    Files.setLastModifiedTime(target, FileTime.fromMillis(modificationTime * 1000));
+                    break;
+                default:
+                    skip(archive, size);
+                    continue;
+            }
+            entries++;
+        }
+
+        // Directories are restricted last, so that read-only directories could still be written into.
+        for (int i = directories.size() - 1; i >= 0; i--) {
+            setPermissions(directories.get(i), directoryModes.get(i));
+        }
+        return entries;
+    }
+
+    /**
+     * Writes the next size bytes of the archive to the target file, then skips the padding that
+     * follows them.
+     *
+     * The file is extended to its full size before any of it is written, so that its space is
+     * claimed in one step rather than grown a buffer at a time.
+     */
+    private static void writeFile(InputStream archive, Path target, long size, byte[] buffer) throws IOException {
+        // Replace rather than write through an existing file, which may be a link.
+        Files.deleteIfExists(target);
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            if (size > 0) {
+                channel.write(ByteBuffer.allocate(1), size - 1);
+            }
+
+            long position = 0;
+            while (position < size) {
+                int read = archive.read(buffer, 0, (int) Math.min(buffer.length, size - position));
+                if (read == -1) {
+                    throw new EOFException("Unexpected end of tar archive in " + target);
+                }
+                ByteBuffer bytes = ByteBuffer.wrap(buffer, 0, read);
+                while (bytes.hasRemaining()) {
+                    position += channel.write(bytes, position);
+                }
+            }
+        }
+        skipFully(archive, padding(size));
+    }
+
+    private static Path resolve(Path root, String name) throws IOException {
+        Path path = root.resolve(name).normalize();
+        if (!path.startsWith(root) || path.equals(root) && name.isEmpty()) {
+            throw new IOException("Tar entry is outside of the destination directory: " + name);
+        }
+        return path;
+    }
+
+    /**
+     * Checks that the directory the path is in really lies within the destination, so that nothing
+     * is written through a symbolic link that leads out of it. Only the deepest existing ancestor is
+     * resolved, as the missing directories below it are created as plain directories.
+     */
+    private static void checkParentIsInside(Path realRoot, Path path, String name) throws IOException {
+        Path existing = path.getParent();
+        while ((existing != null) && !Files.exists(existing)) {
+            existing = existing.getParent();
+        }
+        if ((existing == null) || !existing.toRealPath().startsWith(realRoot)) {
+            throw new IOException("Tar entry is outside of the destination directory: " + name);
+        }
+    }
+
+    /**
+     * Checks that the symbolic link at the target points to a path within the destination.
+     */
+    private static void checkLinkIsInside(Path root, Path target, String name, String linkName) throws IOException {
+        Path link = Paths.get(linkName);
+        Path pointee = target.getParent().resolve(link).normalize();
+        if (link.isAbsolute() || !pointee.startsWith(root)) {
+            throw new IOException("Tar entry " + name + " is a symbolic link to outside of the destination directory: " + linkName);
+        }
+    }
+
+    private static void setPermissions(Path path, int mode) throws IOException {
+        Set<PosixFilePermission> permissions = EnumSet.noneOf(PosixFilePermission.class);
+        PosixFilePermission[] bits = PosixFilePermission.values();
+        for (int i = 0; i < bits.length; i++) {
+            // OWNER_READ is the highest bit of the 9 permission bits, OTHERS_EXECUTE the lowest.
+            if ((mode & (0400 >>> i)) != 0) {
+                permissions.add(bits[i]);
+            }
+        }
+        try {
+            Files.setPosixFilePermissions(path, permissions);
+        } catch (UnsupportedOperationException e) {
+            // Permissions cannot be set on this file system, as with tar itself.
+        }
+    }
+
+    private static String entryName(byte[] header) {
+        String name = parseString(header, 0, 100);
+        boolean isUstar = parseString(header, 257, 6).startsWith("ustar");
+        String prefix = isUstar ? parseString(header, 345, 155) : "";
+        return prefix.isEmpty() ? name : (prefix + "/" + name);
+    }
+
+    /**
+     * Returns the records of a pax extended header, each of the form "length key=value\n".
+     */
+    private static List<String[]> parsePaxRecords(byte[] content) throws IOException {
+        List<String[]> records = new ArrayList<>();
+        int position = 0;
+        while (position < content.length) {
+            int space = position;
+            while ((space < content.length) && (content[space] != ' ')) {
+                space++;
+            }
+            if (space == content.length) {
+                break;
+            }
+            int length;
+            try {
+                length = Integer.parseInt(new String(content, position, space - position, StandardCharsets.UTF_8));
+            } catch (NumberFormatException e) {
+                throw new IOException("Malformed pax extended header.");
+            }
+            if ((length <= 0) || (position + length > content.length)) {
+                throw new IOException("Malformed pax extended header.");
+            }
+            String record = new String(content, space + 1, position + length - space - 2, StandardCharsets.UTF_8);
+            int equals = record.indexOf('=');
+            if (equals > 0) {
+                records.add(new String[]{ record.substring(0, equals), record.substring(equals + 1) });
+            }
+            position += length;
+        }
+        return records;
+    }
+
+    private static void verifyChecksum(byte[] header) throws IOException {
+        long expected = parseNumber(header, 148, 8);
+        long sum = 0;
+        for (int i = 0; i < BLOCK_SIZE; i++) {
+            sum += ((i >= 148) && (i < 156)) ? ' ' : (header[i] & 0xff);
+        }
+        if (sum != expected) {
+            throw new IOException("Corrupt tar header: checksum mismatch.");
+        }
+    }
+
+    /**
+     * Parses an octal number, or a base-256 number if the high bit of its first byte is set, as
+     * gnu tar writes sizes and times too large for octal.
+     */
+    private static long parseNumber(byte[] header, int offset, int length) throws IOException {
+        if ((header[offset] & 0x80) != 0) {
+            long value = header[offset] & 0x7f;
+            for (int i = 1; i < length; i++) {
+                value = (value << 8) | (header[offset + i] & 0xff);
+            }
+            return value;
+        }
+
+        String text = parseString(header, offset, length).trim();
+        if (text.isEmpty()) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(text, 8);
+        } catch (NumberFormatException e) {
+            throw new IOException("Corrupt tar header: invalid number " + text);
+        }
+    }
+
+    private static String parseString(byte[] bytes, int offset, int length) {
+        int end = offset;
+        while ((end < offset + length) && (bytes[end] != 0)) {
+            end++;
+        }
+        return new String(bytes, offset, end - offset, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] readContent(InputStream archive, long size) throws IOException {
+        if (size > Integer.MAX_VALUE - BLOCK_SIZE) {
+            throw new IOException("Tar metadata entry is too large: " + size);
+        }
+        byte[] content = new byte[(int) size];
+        readFully(archive, content);
+        skipFully(archive, padding(size));
+        return content;
+    }
+
+    private static void skip(InputStream archive, long size) throws IOException {
+        skipFully(archive, size + padding(size));
+    }
+
+    private static long padding(long size) {
+        return (BLOCK_SIZE - (size % BLOCK_SIZE)) % BLOCK_SIZE;
+    }
+
+    /**
+     * Reads the next block of the archive, returning false if the archive ended cleanly instead.
+     */
+    private static boolean readBlock(InputStream archive, byte[] block) throws IOException {
+        int read = 0;
+        while (read < block.length) {
+            int count = archive.read(block, read, block.length - read);
+            if (count == -1) {
+                if (read == 0) {
+                    return false;
+                }
+                throw new EOFException("Unexpected end of tar archive.");
+            }
+            read += count;
+        }
+        return true;
+    }
+
+    private static void readFully(InputStream archive, byte[] bytes) throws IOException {
+        if (!readBlock(archive, bytes) && (bytes.length > 0)) {
+            throw new EOFException("Unexpected end of tar archive.");
+        }
+    }
+
+    private static void skipFully(InputStream archive, long count) throws IOException {
+        long remaining = count;
+        while (remaining > 0) {
+            long skipped = archive.skip(remaining);
+            if (skipped <= 0) {
+                if (archive.read() == -1) {
+                    throw new EOFException("Unexpected end of tar archive.");
+                }
+                skipped = 1;
+            }
+            remaining -= skipped;
+        }
+    }
+
+    private static boolean isZero(byte[] block) {
+        for (byte b : block) {
+            if (b != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,89 @@
+package org.aion.harness.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import org.aion.harness.kernel.utils.Blake2b;
+import org.aion.harness.kernel.utils.Blake2b256;
+
+/**
+ * A micro-benchmark comparing a fresh {@code Blake2b.Digest.newInstance(32)} per hash against
+ * the pooled {@link Blake2b256} one-shot API.
+ *
+ * This is laid out like a JMH benchmark (warm-up iterations, measurement iterations, a consumed
+ * result to defeat dead-code elimination) but runs as a plain main so that it needs no extra
+ * dependencies. Each case reports nanoseconds and bytes allocated per operation.
+ *
+ * Run with: {@code java -cp <test classes>:<main classes> org.aion.harness.benchmark.Blake2bBenchmark}
+ */
+public final class Blake2bBenchmark {
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int MEASUREMENT_ITERATIONS = 10;
+    private static final int OPERATIONS_PER_ITERATION = 200_000;
+
+    // A 32-byte public key is what address derivation hashes; 200 bytes approximates a transaction.
+    private static final int[] INPUT_SIZES = new int[]{ 32, 200 };
+
+    private static long blackhole;
+
+    public static void main(String[] args) {
+        Random random = new Random(1);
+
+        for (int size : INPUT_SIZES) {
+            byte[] input = new byte[size];
+            random.nextBytes(input);
+
+            ByteBuffer direct = ByteBuffer.allocateDirect(size);
+            direct.put(input);
+
+            run("freshDigest    [" + size + " bytes]", () -> {
+                Blake2b digest = Blake2b.Digest.newInstance(32);
+                digest.update(input);
+                return digest.digest()[0];
+            });
+            run("pooledArray    [" + size + " bytes]", () -> Blake2b256.hash(input)[0]);
+
+            byte[] output = new byte[32];
+            run("pooledNoAlloc  [" + size + " bytes]", () -> {
+                Blake2b256.hash(input, 0, input.length, output, 0);
+                return output[0];
+            });
+            run("pooledDirectBB [" + size + " bytes]", () -> {
+                direct.clear();
+                return Blake2b256.hash(direct)[0];
+            });
+        }
+
+        System.out.println("(blackhole: " + blackhole + ")");
+    }
+
+    private static void run(String name, Operation operation) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            iteration(operation);
+        }
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASUREMENT_ITERATIONS; i++) {
+            iteration(operation);
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        long operations = (long) MEASUREMENT_ITERATIONS * OPERATIONS_PER_ITERATION;
+        System.out.println(String.format("%s  %8.1f ns/op  %8.1f B/op", name, (double) elapsed / operations, (double) allocated / operations));
+    }
+
+    private static void iteration(Operation operation) {
+        for (int i = 0; i < OPERATIONS_PER_ITERATION; i++) {
+            blackhole += operation.invoke();
+        }
+    }
+
+    private interface Operation {
+        byte invoke();
+    }
+}
@@ -0,0 +1,57 @@
+package org.aion.harness.unit;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import org.aion.harness.load.ArrivalSchedule;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ArrivalScheduleTest {
+
+    @Test
+    public void testConstantRateSpacing() {
+        ArrivalSchedule schedule = ArrivalSchedule.constantRate(4, 2, TimeUnit.SECONDS);
+
+        Assert.assertEquals(8, schedule.numberOfArrivals());
+        Assert.assertEquals(1, schedule.numberOfSteps());
+        for (int i = 0; i < 8; i++) {
+            Assert.assertEquals(i * 250, schedule.offsetOfArrival(i, TimeUnit.MILLISECONDS));
+        }
+        Assert.assertEquals(2, schedule.duration(TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testSteppedRateStartsEachStepOnItsBoundary() {
+        ArrivalSchedule schedule = ArrivalSchedule.steppedRate(Arrays.asList(2.0, 3.0, 10.0), 1, TimeUnit.SECONDS);
+
+        Assert.assertEquals(15, schedule.numberOfArrivals());
+        Assert.assertEquals(0, schedule.firstArrivalOfStep(0));
+        Assert.assertEquals(2, schedule.firstArrivalOfStep(1));
+        Assert.assertEquals(5, schedule.firstArrivalOfStep(2));
+        Assert.assertEquals(15, schedule.firstArrivalOfStep(3));
+
+        Assert.assertEquals(1_000, schedule.offsetOfArrival(2, TimeUnit.MILLISECONDS));
+        Assert.assertEquals(2_000, schedule.offsetOfArrival(5, TimeUnit.MILLISECONDS));
+        Assert.assertEquals(2_900, schedule.offsetOfArrival(14, TimeUnit.MILLISECONDS));
+        Assert.assertEquals(2_000, schedule.startOfStep(2, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testFractionalRateRoundsUp() {
+        // 1.5 tx/s over 1s: arrivals at 0ms and 666ms.
+        ArrivalSchedule schedule = ArrivalSchedule.constantRate(1.5, 1, TimeUnit.SECONDS);
+        Assert.assertEquals(2, schedule.numberOfArrivals());
+        Assert.assertEquals(666, schedule.offsetOfArrival(1, TimeUnit.MILLISECONDS));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroRate() {
+        ArrivalSchedule.steppedRate(Collections.singletonList(0.0), 1, TimeUnit.SECONDS);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonPositiveStepDuration() {
+        ArrivalSchedule.constantRate(10, 0, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,146 @@
+package org.aion.harness.unit;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.aion.harness.statistics.BenchmarkResult;
+import org.aion.harness.statistics.BenchmarkResultStore;
+import org.aion.harness.statistics.Histogram;
+import org.aion.harness.statistics.RegressionComparator;
+import org.aion.harness.statistics.RegressionReport;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BenchmarkResultTest {
+    private File storeFile;
+
+    @Before
+    public void before() throws IOException {
+        this.storeFile = File.createTempFile("benchmarks", ".jsonl");
+        this.storeFile.delete();
+    }
+
+    @After
+    public void after() {
+        this.storeFile.delete();
+    }
+
+    @Test
+    public void testJsonRoundTrip() {
+        BenchmarkResult result = newResult("transfers", "abc123", 1.0, 1.0, 1);
+        BenchmarkResult restored = BenchmarkResult.fromJson(result.toJson());
+
+        Assert.assertEquals(result.getScenario(), restored.getScenario());
+        Assert.assertEquals(result.getKernelBuild(), restored.getKernelBuild());
+        Assert.assertEquals(result.getHarnessVersion(), restored.getHarnessVersion());
+        Assert.assertEquals(result.getTimestamp(TimeUnit.MILLISECONDS), restored.getTimestamp(TimeUnit.MILLISECONDS));
+        Assert.assertEquals(result.getLatencies().getTotalCount(), restored.getLatencies().getTotalCount());
+        Assert.assertEquals(result.getLatencies().getValueAtPercentile(99), restored.getLatencies().getValueAtPercentile(99));
+        Assert.assertArrayEquals(result.getThroughputSamples(), restored.getThroughputSamples(), 0);
+    }
+
+    @Test
+    public void testStoreAppendsAndReadsInOrder() throws IOException {
+        BenchmarkResultStore store = new BenchmarkResultStore(this.storeFile);
+        Assert.assertTrue(store.readAll().isEmpty());
+        Assert.assertFalse(store.getLatest("transfers").isPresent());
+
+        store.append(newResult("transfers", "build-1", 1.0, 1.0, 1));
+        store.append(newResult("contracts", "build-1", 1.0, 1.0, 2));
+        store.append(newResult("transfers", "build-2", 1.0, 1.0, 3));
+
+        Assert.assertEquals(3, store.readAll().size());
+
+        List<BenchmarkResult> transfers = store.getResults("transfers");
+        Assert.assertEquals(2, transfers.size());
+        Assert.assertEquals("build-1", transfers.get(0).getKernelBuild());
+        Assert.assertEquals("build-2", transfers.get(1).getKernelBuild());
+
+        Assert.assertEquals("build-2", store.getLatest("transfers").get().getKernelBuild());
+        Assert.assertEquals("build-1", store.getLatest("transfers", "build-1").get().getKernelBuild());
+        Assert.assertFalse(store.getLatest("transfers", "build-3").isPresent());
+    }
+
+    @Test
+    public void testIdenticalRunsHaveNoRegression() {
+        BenchmarkResult baseline = newResult("transfers", "build-1", 1.0, 1.0, 1);
+        BenchmarkResult candidate = newResult("transfers", "build-2", 1.0, 1.0, 2);
+
+        RegressionReport report = new RegressionComparator().compare(baseline, candidate);
+        Assert.assertEquals(4, report.getComparisons().size());
+        Assert.assertFalse(report.hasRegression());
+    }
+
+    @Test
+    public void testThroughputDropIsRegression() {
+        BenchmarkResult baseline = newResult("transfers", "build-1", 1.0, 1.0, 1);
+        BenchmarkResult candidate = newResult("transfers", "build-2", 1.0, 0.9, 2);
+
+        RegressionReport report = new RegressionComparator().compare(baseline, candidate);
+        Assert.assertTrue(report.hasRegression());
+
+        RegressionReport.Comparison throughput = findComparison(report, "throughput");
+        Assert.assertTrue(throughput.isRegression);
+        Assert.assertEquals(-0.1, throughput.relativeChange, 0.02);
+        Assert.assertTrue(throughput.upperBound < 0);
+    }
+
+    @Test
+    public void testLatencyIncreaseIsRegressionAndDecreaseIsNot() {
+        BenchmarkResult baseline = newResult("transfers", "build-1", 1.0, 1.0, 1);
+        BenchmarkResult slower = newResult("transfers", "build-2", 1.3, 1.0, 2);
+        BenchmarkResult faster = newResult("transfers", "build-3", 0.7, 1.0, 3);
+
+        RegressionReport slowerReport = new RegressionComparator().compare(baseline, slower);
+        Assert.assertTrue(slowerReport.hasRegression());
+        Assert.assertTrue(findComparison(slowerReport, "p50").isRegression);
+
+        RegressionReport fasterReport = new RegressionComparator().compare(baseline, faster);
+        Assert.assertFalse(fasterReport.hasRegression());
+        Assert.assertTrue(findComparison(fasterReport, "p50").isSignificant);
+    }
+
+    @Test
+    public void testEmptyResultsAreNotCompared() {
+        BenchmarkResult baseline = BenchmarkResult.of("transfers", "build-1", new Histogram(), new double[0]);
+        BenchmarkResult candidate = newResult("transfers", "build-2", 1.0, 1.0, 1);
+
+        RegressionReport report = new RegressionComparator().compare(baseline, candidate);
+        Assert.assertTrue(report.getComparisons().isEmpty());
+        Assert.assertFalse(report.hasRegression());
+    }
+
+    private static RegressionReport.Comparison findComparison(RegressionReport report, String metricPrefix) {
+        for (RegressionReport.Comparison comparison : report.getComparisons()) {
+            if (comparison.metric.contains(metricPrefix)) {
+                return comparison;
+            }
+        }
+        throw new AssertionError("No comparison of " + metricPrefix + " in " + report);
+    }
+
+    /**
+     * Returns a result whose latencies are roughly normal around 50ms, and whose throughput samples
+     * are roughly normal around 100 tps, each scaled by the specified factor.
+     */
+    private static BenchmarkResult newResult(String scenario, String kernelBuild, double latencyScale, double throughputScale, long seed) {
+        Random random = new Random(seed);
+
+        Histogram latencies = new Histogram();
+        for (int i = 0; i < 5_000; i++) {
+            latencies.record((long) (latencyScale * Math.max(1_000_000, 50_000_000 + (random.nextGaussian() * 5_000_000))));
+        }
+
+        double[] throughput = new double[60];
+        for (int i = 0; i < throughput.length; i++) {
+            throughput[i] = throughputScale * (100 + (random.nextGaussian() * 3));
+        }
+
+        return BenchmarkResult.of(scenario, kernelBuild, latencies, throughput);
+    }
+
+}
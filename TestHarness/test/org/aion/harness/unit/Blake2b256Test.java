@@ -0,0 +1,82 @@
+package org.aion.harness.unit;
+
+import org.aion.harness.kernel.utils.Blake2b;
+import org.aion.harness.kernel.utils.Blake2b256;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+public class Blake2b256Test {
+    private static final int[] INPUT_LENGTHS = new int[]{ 0, 1, 31, 32, 127, 128, 129, 256, 1000 };
+
+    @Test
+    public void testPooledHashMatchesFreshDigest() {
+        Random random = new Random(17);
+
+        for (int length : INPUT_LENGTHS) {
+            byte[] input = new byte[length];
+            random.nextBytes(input);
+
+            Assert.assertArrayEquals(freshHash(input), Blake2b256.hash(input));
+        }
+    }
+
+    @Test
+    public void testPooledDigestIsResetBetweenCalls() {
+        byte[] input = "repeated input".getBytes();
+        byte[] first = Blake2b256.hash(input);
+
+        Blake2b256.hash(new byte[300]);
+
+        Assert.assertArrayEquals(first, Blake2b256.hash(input));
+    }
+
+    @Test
+    public void testHeapAndDirectByteBuffersMatchArrayHash() {
+        Random random = new Random(42);
+
+        for (int length : INPUT_LENGTHS) {
+            byte[] input = new byte[length];
+            random.nextBytes(input);
+            byte[] expected = freshHash(input);
+
+            // a heap buffer whose content does not start at the backing array's first byte.
+            byte[] padded = new byte[length + 7];
+            System.arraycopy(input, 0, padded, 7, length);
+            ByteBuffer heap = ByteBuffer.wrap(padded, 7, length).slice();
+            Assert.assertArrayEquals(expected, Blake2b256.hash(heap));
+            Assert.assertFalse(heap.hasRemaining());
+
+            ByteBuffer direct = ByteBuffer.allocateDirect(length);
+            direct.put(input);
+            direct.flip();
+            Assert.assertArrayEquals(expected, Blake2b256.hash(direct));
+            Assert.assertFalse(direct.hasRemaining());
+        }
+    }
+
+    @Test
+    public void testHashIntoOutputOffset() {
+        byte[] input = "some input".getBytes();
+        byte[] output = new byte[40];
+
+        Blake2b256.hash(input, 0, input.length, output, 8);
+
+        byte[] written = new byte[Blake2b256.DIGEST_LENGTH];
+        System.arraycopy(output, 8, written, 0, written.length);
+        Assert.assertArrayEquals(freshHash(input), written);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testHashIntoTooSmallOutput() {
+        Blake2b256.hash(new byte[1], 0, 1, new byte[40], 9);
+    }
+
+    private static byte[] freshHash(byte[] input) {
+        Blake2b digest = Blake2b.Digest.newInstance(Blake2b256.DIGEST_LENGTH);
+        digest.update(input);
+        return digest.digest();
+    }
+}
@@ -0,0 +1,97 @@
+package org.aion.harness.unit;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.aion.harness.main.types.Block;
+import org.aion.harness.main.types.internal.BlockBuilder;
+import org.aion.harness.statistics.BlockTimeline;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BlockTimelineTest {
+
+    @Test
+    public void testTimelineIsOrderedAndDeduplicated() {
+        List<Block> blocks = Arrays.asList(block(3, 120, 4), block(1, 100, 10), block(3, 120, 4), block(2, 110, 6));
+
+        BlockTimeline timeline = BlockTimeline.from(blocks, 10, TimeUnit.SECONDS);
+
+        Assert.assertEquals(3, timeline.size());
+        Assert.assertEquals(1, timeline.blockNumber(0));
+        Assert.assertEquals(2, timeline.blockNumber(1));
+        Assert.assertEquals(3, timeline.blockNumber(2));
+        Assert.assertEquals(BlockTimeline.NOT_AVAILABLE, timeline.blockInterval(0));
+        Assert.assertEquals(10, timeline.blockInterval(1));
+        Assert.assertEquals(20, timeline.getTotalTransactions());
+        Assert.assertEquals(20, timeline.getDurationInSeconds());
+        Assert.assertEquals(0.5, timeline.getMeanTransactionsPerSecond(), 1e-9);
+    }
+
+    @Test
+    public void testSlidingWindowDropsOldBlocks() {
+        List<Block> blocks = Arrays.asList(block(1, 0, 10), block(2, 5, 20), block(3, 10, 30), block(4, 30, 0), block(5, 31, 4));
+
+        BlockTimeline timeline = BlockTimeline.from(blocks, 10, TimeUnit.SECONDS);
+
+        Assert.assertEquals(1.0, timeline.windowedTransactionsPerSecond(0), 1e-9);
+        Assert.assertEquals(3.0, timeline.windowedTransactionsPerSecond(1), 1e-9);
+        Assert.assertEquals(5.0, timeline.windowedTransactionsPerSecond(2), 1e-9);
+        Assert.assertEquals(0.0, timeline.windowedTransactionsPerSecond(3), 1e-9);
+        Assert.assertEquals(0.4, timeline.windowedTransactionsPerSecond(4), 1e-9);
+        Assert.assertEquals(5.0, timeline.getPeakTransactionsPerSecond(), 1e-9);
+        Assert.assertEquals(20, timeline.getLongestBlockInterval());
+        Assert.assertEquals(1, timeline.getNumberOfEmptyBlocks());
+    }
+
+    @Test
+    public void testNonOverlappingWindows() {
+        List<Block> blocks = Arrays.asList(block(1, 0, 10), block(2, 5, 20), block(3, 10, 30), block(4, 30, 0), block(5, 31, 4), block(6, 35, 8));
+
+        BlockTimeline timeline = BlockTimeline.from(blocks, 10, TimeUnit.SECONDS);
+
+        // Windows end at 10, 20 and 30; the first block is excluded and the window ending at 40 is incomplete.
+        Assert.assertArrayEquals(new double[]{ 5.0, 0.0, 0.0 }, timeline.nonOverlappingTransactionsPerSecond(), 1e-9);
+        Assert.assertEquals(0, BlockTimeline.from(Arrays.asList(block(1, 0, 10)), 10, TimeUnit.SECONDS).nonOverlappingTransactionsPerSecond().length);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSubSecondWindowIsRejected() {
+        BlockTimeline.from(Arrays.asList(block(1, 0, 1)), 500, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    public void testBlockWithoutTimestampIsRejected() {
+        // Blocks constructed the old way, without a timestamp or transaction count, cannot be placed on a timeline.
+        Block block = new Block(1, 0, 15_000_000, 0, new byte[32], new byte[32], new byte[256], new byte[32], new byte[32], new byte[32], BigInteger.ONE, BigInteger.ONE);
+        Assert.assertEquals(Block.UNKNOWN_TIMESTAMP, block.getTimestamp());
+        Assert.assertEquals(Block.UNKNOWN_NUMBER_OF_TRANSACTIONS, block.getNumberOfTransactions());
+
+        try {
+            BlockTimeline.from(Arrays.asList(block), 10, TimeUnit.SECONDS);
+            Assert.fail("Expected the block without a timestamp to be rejected.");
+        } catch (IllegalArgumentException e) {
+            // Expected.
+        }
+    }
+
+    private static Block block(long number, long timestamp, int transactions) {
+        return new BlockBuilder()
+            .difficulty(1)
+            .blockSize(0)
+            .energyLimit(15_000_000)
+            .energyUsed(21_000L * transactions)
+            .hash(new byte[32])
+            .parentHash(new byte[32])
+            .bloomFilter(new byte[256])
+            .receiptTrieRoot(new byte[32])
+            .stateRoot(new byte[32])
+            .nonce(new byte[32])
+            .number(BigInteger.valueOf(number))
+            .totalDifficulty(BigInteger.valueOf(number))
+            .timestamp(timestamp)
+            .numberOfTransactions(transactions)
+            .build();
+    }
+}
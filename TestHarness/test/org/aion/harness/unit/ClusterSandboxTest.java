@@ -0,0 +1,197 @@
+package org.aion.harness.unit;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.List;
+import org.aion.harness.main.Network;
+import org.aion.harness.main.impl.internal.ClusterSandbox;
+import org.aion.harness.main.impl.internal.KernelLaunchScript;
+import org.aion.harness.util.PortAllocator;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ClusterSandboxTest {
+    private static final String JAVA_CONFIG = String.join("\n",
+        "<?xml version=\"1.0\" encoding=\"utf-8\"?>",
+        "<aion>",
+        "\t<mode>aion</mode>",
+        "\t<id>9a36dd21-5104-40f3-b956-85f4bc277501</id>",
+        "\t<api>",
+        "\t\t<rpc active=\"true\" ip=\"127.0.0.1\" port=\"8545\">",
+        "\t\t</rpc>",
+        "\t\t<java active=\"true\" ip=\"127.0.0.1\" port=\"8547\">",
+        "\t\t</java>",
+        "\t</api>",
+        "\t<net>",
+        "\t\t<id>31</id>",
+        "\t\t<nodes>",
+        "\t\t</nodes>",
+        "\t\t<p2p>",
+        "\t\t\t<ip>0.0.0.0</ip>",
+        "\t\t\t<port>30303</port>",
+        "\t\t</p2p>",
+        "\t</net>",
+        "\t<consensus>",
+        "\t\t<mining>true</mining>",
+        "\t</consensus>",
+        "</aion>");
+
+    private static final String RUST_CONFIG = String.join("\n",
+        "[aion]",
+        "chain = \"custom/custom.json\"",
+        "",
+        "[network]",
+        "net_id = 128",
+        "local_node = \"p2p://00000000-e35f-4cf9-9234-65cea7558aa4@0.0.0.0:30303\"",
+        "boot_nodes = []",
+        "",
+        "[http]",
+        "port = 8545",
+        "interface = \"local\"",
+        "",
+        "[websockets]",
+        "port = 8546",
+        "",
+        "[wallet]",
+        "disable = true",
+        "port = 8547",
+        "",
+        "[stratum]",
+        "port = 8008",
+        "");
+
+    private File root;
+    private File kernel;
+    private File member;
+
+    @Before
+    public void before() throws IOException {
+        this.root = Files.createTempDirectory("cluster-sandbox").toFile();
+        this.kernel = new File(this.root, "kernel");
+        this.member = new File(this.root, "member-0");
+    }
+
+    @After
+    public void after() throws IOException {
+        FileUtils.deleteDirectory(this.root);
+    }
+
+    @Test
+    public void testJavaMemberLinksKernelAndCopiesConfiguration() throws IOException {
+        writeJavaKernel();
+        ClusterSandbox.createJavaMember(this.kernel, Network.CUSTOM, this.member, "member-id", 9001, 9002, 9003, List.of("p2p://peer-1@127.0.0.1:9103", "p2p://peer-2@127.0.0.1:9203"), false);
+
+        // Binaries are shared with the built kernel, the configuration is the member's own.
+        Assert.assertTrue(Files.isSameFile(new File(this.kernel, "aion.sh").toPath(), new File(this.member, "aion.sh").toPath()));
+        Assert.assertTrue(Files.isSameFile(new File(this.kernel, "rt/bin/java").toPath(), new File(this.member, "rt/bin/java").toPath()));
+        Assert.assertFalse(Files.isSameFile(new File(this.kernel, "custom/config/config.xml").toPath(), new File(this.member, "custom/config/config.xml").toPath()));
+        Assert.assertEquals("genesis", read(new File(this.member, "custom/config/genesis.json")));
+
+        // The member starts from genesis, without the built kernel's database or logs.
+        Assert.assertFalse(new File(this.member, "custom/database").exists());
+        Assert.assertFalse(new File(this.member, "custom/log").exists());
+
+        // Nor does it share the launch script written for the built kernel's jvm profile.
+        Assert.assertFalse(new File(this.member, KernelLaunchScript.PROFILED_SCRIPT_NAME).exists());
+
+        String config = read(new File(this.member, "custom/config/config.xml"));
+        Assert.assertTrue(config.contains("<id>member-id</id>"));
+        Assert.assertTrue(config.contains("<id>31</id>"));
+        Assert.assertTrue(config.contains("<rpc active=\"true\" ip=\"127.0.0.1\" port=\"9001\">"));
+        Assert.assertTrue(config.contains("<java active=\"true\" ip=\"127.0.0.1\" port=\"9002\">"));
+        Assert.assertTrue(config.contains("<port>9003</port>"));
+        Assert.assertTrue(config.contains("<node>p2p://peer-1@127.0.0.1:9103</node>"));
+        Assert.assertTrue(config.contains("<node>p2p://peer-2@127.0.0.1:9203</node>"));
+        Assert.assertTrue(config.contains("<mining>false</mining>"));
+
+        // The built kernel's configuration is untouched.
+        Assert.assertEquals(JAVA_CONFIG, read(new File(this.kernel, "custom/config/config.xml")));
+    }
+
+    @Test
+    public void testRustMemberRewritesPortsAndPeers() throws IOException {
+        write(new File(this.kernel, "aion"), "binary");
+        write(new File(this.kernel, "libs/libjvm.so"), "library");
+        write(new File(this.kernel, "custom/custom.toml"), RUST_CONFIG);
+        write(new File(this.kernel, "custom/custom.json"), "chain spec");
+        write(new File(this.kernel, "data/chains/custom/db/LOCK"), "");
+
+        ClusterSandbox.createRustMember(this.kernel, Network.CUSTOM, this.member, "member-id", 9001, 9002, 9003, 9004, 9005, List.of("p2p://peer-1@127.0.0.1:9105"));
+
+        Assert.assertTrue(Files.isSameFile(new File(this.kernel, "aion").toPath(), new File(this.member, "aion").toPath()));
+        Assert.assertEquals("chain spec", read(new File(this.member, "custom/custom.json")));
+        Assert.assertFalse(new File(this.member, "data").exists());
+
+        String config = read(new File(this.member, "custom/custom.toml"));
+        Assert.assertTrue(config.contains("local_node = \"p2p://member-id@0.0.0.0:9005\""));
+        Assert.assertTrue(config.contains("boot_nodes = [\"p2p://peer-1@127.0.0.1:9105\"]"));
+        Assert.assertTrue(config.contains("[http]\nport = 9001\n"));
+        Assert.assertTrue(config.contains("[websockets]\nport = 9002\n"));
+        Assert.assertTrue(config.contains("disable = true\nport = 9003\n"));
+        Assert.assertTrue(config.contains("[stratum]\nport = 9004\n"));
+        Assert.assertTrue(config.contains("net_id = 128"));
+    }
+
+    @Test
+    public void testMemberReplacesPreviousDirectory() throws IOException {
+        writeJavaKernel();
+        write(new File(this.member, "custom/database/stale.ldb"), "stale");
+
+        ClusterSandbox.createJavaMember(this.kernel, Network.CUSTOM, this.member, "member-id", 9001, 9002, 9003, List.of(), true);
+
+        Assert.assertFalse(new File(this.member, "custom/database").exists());
+        Assert.assertTrue(read(new File(this.member, "custom/config/config.xml")).contains("<mining>true</mining>"));
+    }
+
+    @Test(expected = IOException.class)
+    public void testMissingNetworkConfiguration() throws IOException {
+        writeJavaKernel();
+        ClusterSandbox.createJavaMember(this.kernel, Network.MASTERY, this.member, "member-id", 9001, 9002, 9003, List.of(), true);
+    }
+
+    @Test(expected = IOException.class)
+    public void testMissingRustSetting() throws IOException {
+        write(new File(this.kernel, "aion"), "binary");
+        write(new File(this.kernel, "custom/custom.toml"), RUST_CONFIG.replace("[stratum]\nport = 8008\n", ""));
+        ClusterSandbox.createRustMember(this.kernel, Network.CUSTOM, this.member, "member-id", 9001, 9002, 9003, 9004, 9005, List.of());
+    }
+
+    @Test
+    public void testAllocatedPortsAreDistinct() throws IOException {
+        List<Integer> first = PortAllocator.allocate(10);
+        List<Integer> second = PortAllocator.allocate(10);
+        Assert.assertEquals(10, first.size());
+
+        HashSet<Integer> all = new HashSet<>(first);
+        all.addAll(second);
+        Assert.assertEquals(20, all.size());
+        for (int port : all) {
+            Assert.assertTrue(port > 0 && port <= 65535);
+        }
+    }
+
+    private void writeJavaKernel() throws IOException {
+        write(new File(this.kernel, "aion.sh"), "#!/bin/bash");
+        write(new File(this.kernel, KernelLaunchScript.PROFILED_SCRIPT_NAME), "#!/bin/bash");
+        write(new File(this.kernel, "rt/bin/java"), "java");
+        write(new File(this.kernel, "custom/config/config.xml"), JAVA_CONFIG);
+        write(new File(this.kernel, "custom/config/genesis.json"), "genesis");
+        write(new File(this.kernel, "custom/database/000005.ldb"), "table");
+        write(new File(this.kernel, "custom/log/aionCurrentLog.dat"), "log");
+    }
+
+    private static void write(File file, String contents) throws IOException {
+        Files.createDirectories(file.getParentFile().toPath());
+        Files.write(file.toPath(), contents.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String read(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+}
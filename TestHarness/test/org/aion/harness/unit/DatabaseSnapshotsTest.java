@@ -0,0 +1,111 @@
+package org.aion.harness.unit;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import org.aion.harness.main.impl.internal.DatabaseSnapshots;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DatabaseSnapshotsTest {
+    private File root;
+    private File database;
+    private DatabaseSnapshots snapshots;
+
+    @Before
+    public void before() throws IOException {
+        this.root = Files.createTempDirectory("database-snapshots").toFile();
+        this.database = new File(this.root, "mainnet/database");
+        this.snapshots = new DatabaseSnapshots(new File(this.root, "snapshots"));
+
+        write(new File(this.database, "state/000005.ldb"), "state table");
+        write(new File(this.database, "state/MANIFEST-000004"), "manifest");
+        write(new File(this.database, "state/000006.log"), "write ahead log");
+        write(new File(this.database, "block/CURRENT"), "MANIFEST-000002");
+    }
+
+    @After
+    public void after() throws IOException {
+        FileUtils.deleteDirectory(this.root);
+    }
+
+    @Test
+    public void testRestoreUndoesChanges() throws IOException {
+        this.snapshots.save("funded", this.database);
+        Assert.assertTrue(this.snapshots.contains("funded"));
+
+        // Mimic LevelDB: append to the log and manifest, delete a compacted table and write a new one.
+        append(new File(this.database, "state/000006.log"), " and more");
+        append(new File(this.database, "state/MANIFEST-000004"), " edit");
+        Assert.assertTrue(new File(this.database, "state/000005.ldb").delete());
+        write(new File(this.database, "state/000007.ldb"), "compacted table");
+
+        this.snapshots.restore("funded", this.database);
+        Assert.assertEquals("state table", read(new File(this.database, "state/000005.ldb")));
+        Assert.assertEquals("manifest", read(new File(this.database, "state/MANIFEST-000004")));
+        Assert.assertEquals("write ahead log", read(new File(this.database, "state/000006.log")));
+        Assert.assertEquals("MANIFEST-000002", read(new File(this.database, "block/CURRENT")));
+        Assert.assertFalse(new File(this.database, "state/000007.ldb").exists());
+
+        // The snapshot is unaffected by changes after a restore too.
+        append(new File(this.database, "state/000006.log"), " again");
+        this.snapshots.restore("funded", this.database);
+        Assert.assertEquals("write ahead log", read(new File(this.database, "state/000006.log")));
+    }
+
+    @Test
+    public void testTablesAreLinkedNotCopied() throws IOException {
+        this.snapshots.save("linked", this.database);
+
+        File table = new File(this.database, "state/000005.ldb");
+        File log = new File(this.database, "state/000006.log");
+        Assert.assertEquals(2, Files.getAttribute(table.toPath(), "unix:nlink"));
+        Assert.assertEquals(1, Files.getAttribute(log.toPath(), "unix:nlink"));
+    }
+
+    @Test
+    public void testRestoreIntoMissingDatabase() throws IOException {
+        this.snapshots.save("genesis", this.database);
+        FileUtils.deleteDirectory(this.database);
+
+        this.snapshots.restore("genesis", this.database);
+        Assert.assertEquals("state table", read(new File(this.database, "state/000005.ldb")));
+    }
+
+    @Test
+    public void testDelete() throws IOException {
+        this.snapshots.save("temporary", this.database);
+        this.snapshots.delete("temporary");
+        Assert.assertFalse(this.snapshots.contains("temporary"));
+        Assert.assertEquals("state table", read(new File(this.database, "state/000005.ldb")));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testRestoreUnknownSnapshot() throws IOException {
+        this.snapshots.restore("unknown", this.database);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNamesCannotEscapeTheSnapshotsDirectory() throws IOException {
+        this.snapshots.save("../escape", this.database);
+    }
+
+    private static void write(File file, String content) throws IOException {
+        Files.createDirectories(file.getParentFile().toPath());
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void append(File file, String content) throws IOException {
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+    }
+
+    private static String read(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,29 @@
+package org.aion.harness.unit;
+
+import java.util.concurrent.TimeUnit;
+import org.aion.harness.statistics.DurationStatistics;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DurationStatisticsTest {
+
+    @Test
+    public void testRecordDurations() {
+        DurationStatistics statistics = DurationStatistics.newRecorder();
+        statistics.record(10, 30, TimeUnit.MILLISECONDS);
+        statistics.record(20, 30, TimeUnit.MILLISECONDS);
+
+        Assert.assertEquals(2, statistics.getHistogram().getTotalCount());
+        Assert.assertEquals(20, statistics.getDurationAtPercentile(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testDurationEndingBeforeItStartsIsRecordedAsZero() {
+        // An event can be observed before the rpc call that triggered it has returned.
+        DurationStatistics statistics = DurationStatistics.newRecorder();
+        statistics.record(30, 20, TimeUnit.MILLISECONDS);
+
+        Assert.assertEquals(1, statistics.getHistogram().getTotalCount());
+        Assert.assertEquals(0, statistics.getDurationAtPercentile(100, TimeUnit.NANOSECONDS));
+    }
+}
@@ -0,0 +1,111 @@
+package org.aion.harness.unit;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.aion.harness.statistics.FlightRecordingSummary;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+public class FlightRecordingSummaryTest {
+
+    @Test
+    public void testHotMethodsAndTlabAllocations() throws IOException {
+        String json = recording(
+            executionSample("org/aion/zero/impl/Foo", "bar"),
+            executionSample("org/aion/zero/impl/Foo", "bar"),
+            executionSample("java/util/HashMap", "put"),
+            "{\"type\": \"jdk.ExecutionSample\", \"values\": {\"stackTrace\": null}}",
+            allocation("jdk.ObjectAllocationInNewTLAB", "tlabSize", "[B", 3000),
+            allocation("jdk.ObjectAllocationOutsideTLAB", "allocationSize", "java/lang/String", 1000));
+
+        FlightRecordingSummary summary = FlightRecordingSummary.fromJson("load", new StringReader(json), 10);
+
+        Assert.assertEquals("load", summary.getName());
+        Assert.assertEquals(3, summary.getTotalSamples());
+        Assert.assertEquals(2, summary.getHotMethods().size());
+        Assert.assertEquals("org.aion.zero.impl.Foo.bar", summary.getHotMethods().get(0).name);
+        Assert.assertEquals(2, summary.getHotMethods().get(0).amount);
+        Assert.assertEquals(2.0 / 3, summary.getHotMethods().get(0).fraction, 1e-9);
+
+        Assert.assertEquals(4000, summary.getTotalAllocatedBytes());
+        Assert.assertEquals("[B", summary.getAllocations().get(0).name);
+        Assert.assertEquals("java.lang.String", summary.getAllocations().get(1).name);
+    }
+
+    @Test
+    public void testAllocationSamplesAreNotCountedWithTlabEvents() throws IOException {
+        String json = recording(
+            allocation("jdk.ObjectAllocationInNewTLAB", "tlabSize", "[B", 3000),
+            allocation("jdk.ObjectAllocationSample", "weight", "[C", 500));
+
+        FlightRecordingSummary summary = FlightRecordingSummary.fromJson("load", new StringReader(json), 10);
+
+        Assert.assertEquals(500, summary.getTotalAllocatedBytes());
+        Assert.assertEquals(1, summary.getAllocations().size());
+        Assert.assertEquals("[C", summary.getAllocations().get(0).name);
+    }
+
+    @Test
+    public void testNumberOfEntriesIsCapped() throws IOException {
+        String json = recording(
+            executionSample("A", "a"),
+            executionSample("B", "b"),
+            executionSample("B", "b"),
+            executionSample("C", "c"));
+
+        FlightRecordingSummary summary = FlightRecordingSummary.fromJson("load", new StringReader(json), 1);
+
+        Assert.assertEquals(4, summary.getTotalSamples());
+        Assert.assertEquals(1, summary.getHotMethods().size());
+        Assert.assertEquals("B.b", summary.getHotMethods().get(0).name);
+    }
+
+    @Test
+    public void testEmptyRecording() throws IOException {
+        FlightRecordingSummary summary = FlightRecordingSummary.fromJson("idle", new StringReader(recording()), 10);
+
+        Assert.assertEquals(0, summary.getTotalSamples());
+        Assert.assertEquals(0, summary.getTotalAllocatedBytes());
+        Assert.assertTrue(summary.getHotMethods().isEmpty());
+        Assert.assertTrue(summary.getAllocations().isEmpty());
+    }
+
+    @Test
+    public void testUnreadableRecordingIsReported() throws Exception {
+        Assume.assumeTrue(new File(System.getProperty("java.home"), "bin" + File.separator + "jfr").exists());
+
+        File notARecording = File.createTempFile("not-a-recording", ".jfr");
+        try {
+            Files.write(notARecording.toPath(), "not a flight recording".getBytes(StandardCharsets.UTF_8));
+            FlightRecordingSummary.summarize("broken", notARecording, 10);
+            Assert.fail("Expected the recording to be unreadable.");
+        } catch (IOException e) {
+            // The tool's failure is reported, keeping the failure to parse its empty output as the cause.
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("exit code"));
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains(notARecording.getPath()));
+            Assert.assertNotNull(e.getCause());
+        } finally {
+            Files.deleteIfExists(notARecording.toPath());
+        }
+    }
+
+    private static String recording(String... events) {
+        return "{\"recording\": {\"events\": [" + String.join(", ", events) + "]}}";
+    }
+
+    private static String executionSample(String className, String methodName) {
+        return "{\"type\": \"jdk.ExecutionSample\", \"values\": {\"stackTrace\": {\"truncated\": false, \"frames\": ["
+            + "{\"method\": {\"type\": {\"name\": \"" + className + "\"}, \"name\": \"" + methodName + "\", \"descriptor\": \"()V\"}, \"lineNumber\": 1},"
+            + "{\"method\": {\"type\": {\"name\": \"Caller\"}, \"name\": \"call\", \"descriptor\": \"()V\"}, \"lineNumber\": 2}"
+            + "]}}}";
+    }
+
+    private static String allocation(String type, String sizeField, String className, long size) {
+        return "{\"type\": \"" + type + "\", \"values\": {\"objectClass\": {\"name\": \"" + className + "\"}, \"" + sizeField + "\": " + size + "}}";
+    }
+
+}
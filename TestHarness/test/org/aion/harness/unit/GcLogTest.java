@@ -0,0 +1,70 @@
+package org.aion.harness.unit;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.aion.harness.statistics.GcLog;
+import org.aion.harness.statistics.GcPause;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class GcLogTest {
+    private static final List<String> G1_LOG = Arrays.asList(
+        "[0.010s][1000000000ns][info][gc,heap] Heap region size: 1M",
+        "[0.011s][1001000000ns][info][gc     ] Using G1",
+        "[1.000s][2000000000ns][info][gc,start    ] GC(0) Pause Young (Normal) (G1 Evacuation Pause)",
+        "[1.005s][2005000000ns][info][gc,phases   ] GC(0)   Pre Evacuate Collection Set: 0.1ms",
+        "[1.005s][2005000000ns][info][gc          ] GC(0) Pause Young (Normal) (G1 Evacuation Pause) 24M->4M(256M) 5.000ms",
+        "[2.000s][3000000000ns][info][gc          ] GC(1) Pause Remark 30M->30M(256M) 1.500ms",
+        "[2.100s][3100000000ns][info][gc,cpu      ] GC(1) User=0.01s Sys=0.00s Real=0.00s",
+        "[3.020s][4020000000ns][info][gc          ] GC(2) Pause Full (System.gc()) 100M->10M(256M) 20.000ms"
+    );
+
+    @Test
+    public void testParsePauses() {
+        GcLog log = GcLog.parse("g1", G1_LOG);
+
+        Assert.assertEquals("g1", log.getName());
+        Assert.assertEquals(3, log.getPauses().size());
+
+        GcPause young = log.getPauses().get(0);
+        Assert.assertEquals(0, young.getGcId());
+        Assert.assertEquals("Pause Young (Normal) (G1 Evacuation Pause)", young.getDescription());
+        Assert.assertEquals(2_005_000_000L, young.getEndTime(TimeUnit.NANOSECONDS));
+        Assert.assertEquals(2_000_000_000L, young.getStartTime(TimeUnit.NANOSECONDS));
+        Assert.assertEquals(5, young.getDuration(TimeUnit.MILLISECONDS));
+        Assert.assertEquals(24L << 20, young.getHeapBefore());
+        Assert.assertEquals(4L << 20, young.getHeapAfter());
+
+        Assert.assertEquals("Pause Full (System.gc())", log.getPauses().get(2).getDescription());
+        Assert.assertEquals(26_500_000L, log.getTotalPauseTime(TimeUnit.NANOSECONDS));
+        Assert.assertEquals(3, log.getPauseHistogram().getTotalCount());
+    }
+
+    @Test
+    public void testParsePausesWithoutHeapOrTime() {
+        GcLog log = GcLog.parse("z", Arrays.asList(
+            "[0.500s][info][gc,phases] GC(0) Pause Mark Start 0.123ms",
+            "[0.600s][info][gc       ] GC(0) Garbage Collection (Warmup) 24M(2%)->10M(1%)"));
+
+        Assert.assertEquals(1, log.getPauses().size());
+        GcPause pause = log.getPauses().get(0);
+        Assert.assertEquals("Pause Mark Start", pause.getDescription());
+        Assert.assertEquals(123, pause.getDuration(TimeUnit.MICROSECONDS));
+        Assert.assertEquals(GcPause.NOT_AVAILABLE, pause.getEndTime(TimeUnit.NANOSECONDS));
+        Assert.assertEquals(GcPause.NOT_AVAILABLE, pause.getHeapBefore());
+    }
+
+    @Test
+    public void testPauseTimeBetween() {
+        GcLog log = GcLog.parse("g1", G1_LOG);
+
+        // Only the last 2ms of the first pause fall within this range.
+        Assert.assertEquals(2_000_000L, log.getPauseTimeBetween(2_003_000_000L, 2_500_000_000L, TimeUnit.NANOSECONDS));
+        Assert.assertEquals(1, log.getPausesBetween(2_003_000_000L, 2_500_000_000L, TimeUnit.NANOSECONDS).size());
+
+        Assert.assertEquals(26_500_000L, log.getPauseTimeBetween(0, 5_000_000_000L, TimeUnit.NANOSECONDS));
+        Assert.assertTrue(log.getPausesBetween(2_500_000_000L, 2_900_000_000L, TimeUnit.NANOSECONDS).isEmpty());
+    }
+
+}
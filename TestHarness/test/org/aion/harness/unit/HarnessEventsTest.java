@@ -0,0 +1,88 @@
+package org.aion.harness.unit;
+
+import java.io.File;
+import java.lang.reflect.Method;
+import java.nio.file.Path;
+import java.util.List;
+import org.aion.harness.metrics.FlightRecorderEvent;
+import org.aion.harness.metrics.FlightRecorderEventType;
+import org.aion.harness.metrics.FlightRecorderEventType.Field;
+import org.aion.harness.metrics.HarnessEvents;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+public class HarnessEventsTest {
+    private static final FlightRecorderEventType TEST_EVENT = FlightRecorderEventType.define(
+        "org.aion.harness.Test", "Test", "An event emitted by the unit tests.",
+        Field.ofString("name", "Name"),
+        Field.ofLong("value", "Value"));
+
+    @Test
+    public void testEventsAreNoOpsWithoutRecording() {
+        Assert.assertFalse(HarnessEvents.RPC_CALL.isEnabled());
+
+        FlightRecorderEvent event = HarnessEvents.RPC_CALL.begin();
+        Assert.assertFalse(event.isRecording());
+
+        // A no-op event accepts anything and commits nothing.
+        event.set(100, "ignored").commit();
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testDefineWithNullName() {
+        FlightRecorderEventType.define(null, "Label", "Description");
+    }
+
+    @Test
+    public void testEventsAreRecorded() throws Exception {
+        Class<?> recordingClass;
+        try {
+            recordingClass = Class.forName("jdk.jfr.Recording");
+        } catch (ClassNotFoundException e) {
+            recordingClass = null;
+        }
+        Assume.assumeNotNull(recordingClass);
+
+        Object recording = recordingClass.getConstructor().newInstance();
+        recordingClass.getMethod("enable", String.class).invoke(recording, TEST_EVENT.getName());
+        recordingClass.getMethod("start").invoke(recording);
+
+        File dump = File.createTempFile("harness-events", ".jfr");
+        try {
+            Assert.assertTrue(TEST_EVENT.isEnabled());
+
+            FlightRecorderEvent event = TEST_EVENT.begin();
+            Assert.assertTrue(event.isRecording());
+            event.set(0, "hello").set(1, 42L).commit();
+
+            try {
+                TEST_EVENT.begin().set(2, "out of bounds");
+                Assert.fail("Expected an out of bounds field index to be rejected.");
+            } catch (IndexOutOfBoundsException e) {
+                // expected
+            }
+
+            recordingClass.getMethod("stop").invoke(recording);
+            recordingClass.getMethod("dump", Path.class).invoke(recording, dump.toPath());
+
+            Class<?> recordingFile = Class.forName("jdk.jfr.consumer.RecordingFile");
+            List<?> events = (List<?>) recordingFile.getMethod("readAllEvents", Path.class).invoke(null, dump.toPath());
+
+            Class<?> recordedEvent = Class.forName("jdk.jfr.consumer.RecordedEvent");
+            Method getValue = recordedEvent.getMethod("getValue", String.class);
+            int matches = 0;
+            for (Object recorded : events) {
+                if ("hello".equals(getValue.invoke(recorded, "name"))) {
+                    Assert.assertEquals(42L, getValue.invoke(recorded, "value"));
+                    matches++;
+                }
+            }
+            Assert.assertEquals(1, matches);
+        } finally {
+            recordingClass.getMethod("close").invoke(recording);
+            dump.delete();
+        }
+    }
+
+}
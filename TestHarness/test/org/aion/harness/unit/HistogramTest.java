@@ -0,0 +1,162 @@
+package org.aion.harness.unit;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.aion.harness.statistics.DurationStatistics;
+import org.aion.harness.statistics.Histogram;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class HistogramTest {
+
+    @Test
+    public void testSmallValuesAreExact() {
+        Histogram histogram = new Histogram();
+        for (long value = 1; value <= 100; value++) {
+            histogram.record(value);
+        }
+
+        Assert.assertEquals(100, histogram.getTotalCount());
+        Assert.assertEquals(1, histogram.getMinimum());
+        Assert.assertEquals(100, histogram.getMaximum());
+        Assert.assertEquals(50, histogram.getValueAtPercentile(50));
+        Assert.assertEquals(99, histogram.getValueAtPercentile(99));
+        Assert.assertEquals(100, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void testPercentilesAreWithinPrecision() {
+        Random random = new Random(17);
+        long[] values = new long[100_000];
+        Histogram histogram = new Histogram();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 1_000 + (long) (Math.abs(random.nextGaussian()) * 50_000_000L);
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+
+        double tolerance = 1.0 / (1 << (Histogram.DEFAULT_PRECISION_BITS - 1));
+        for (double percentile : new double[]{ 50, 90, 99, 99.9, 99.99 }) {
+            long exact = values[(int) Math.ceil(percentile / 100.0 * values.length) - 1];
+            long estimate = histogram.getValueAtPercentile(percentile);
+            Assert.assertTrue("p" + percentile + " was " + estimate + " but expected " + exact,
+                Math.abs(estimate - exact) <= exact * tolerance);
+        }
+    }
+
+    @Test
+    public void testAddEqualsRecordingIntoOne() {
+        Histogram combined = new Histogram();
+        Histogram first = new Histogram();
+        Histogram second = new Histogram();
+        for (long value = 0; value < 10_000; value += 7) {
+            combined.record(value * 1_013);
+            ((value % 2 == 0) ? first : second).record(value * 1_013);
+        }
+
+        first.add(second);
+
+        Assert.assertEquals(combined.getTotalCount(), first.getTotalCount());
+        Assert.assertEquals(combined.getMinimum(), first.getMinimum());
+        Assert.assertEquals(combined.getMaximum(), first.getMaximum());
+        Assert.assertArrayEquals(combined.toBytes(), first.toBytes());
+    }
+
+    @Test
+    public void testBinaryRoundTrip() {
+        Histogram histogram = new Histogram(10);
+        histogram.record(3);
+        histogram.record(12_345_678, 40);
+        histogram.record(Long.MAX_VALUE);
+
+        Histogram restored = Histogram.fromBytes(histogram.toBytes());
+
+        Assert.assertEquals(10, restored.getPrecisionBits());
+        Assert.assertEquals(histogram.getTotalCount(), restored.getTotalCount());
+        Assert.assertEquals(3, restored.getMinimum());
+        Assert.assertEquals(Long.MAX_VALUE, restored.getMaximum());
+        Assert.assertEquals(histogram.getValueAtPercentile(50), restored.getValueAtPercentile(50));
+    }
+
+    @Test
+    public void testResamplerDrawsFromSnapshot() {
+        Histogram histogram = new Histogram();
+        for (long value = 1; value <= 1_000; value++) {
+            histogram.record(value * 1_000);
+        }
+        Histogram.Resampler resampler = histogram.resampler();
+        histogram.record(1_000_000_000);
+
+        for (int i = 0; i < 10; i++) {
+            Histogram resample = resampler.resample(new Random(i));
+            Assert.assertEquals(1_000, resample.getTotalCount());
+            Assert.assertTrue(resample.getMinimum() >= 1_000);
+            Assert.assertTrue(resample.getMaximum() <= 1_000_000);
+        }
+
+        // A resampler draws the same resamples as the histogram would have.
+        Histogram snapshot = new Histogram();
+        snapshot.add(histogram);
+        Assert.assertEquals(snapshot.resample(new Random(3)).getValueAtPercentile(99), snapshot.resampler().resample(new Random(3)).getValueAtPercentile(99));
+        Assert.assertEquals(0, new Histogram().resampler().resample(new Random(3)).getTotalCount());
+    }
+
+    @Test
+    public void testResampledCountsAreBinomial() {
+        // Both a large bucket, drawn by rejection, and a small one, drawn by inversion.
+        assertResampledCountIsBinomial(1_000_000, 400_000);
+        assertResampledCountIsBinomial(1_000, 3);
+    }
+
+    /**
+     * Resamples a histogram of zeros and ones many times, and checks that the number of ones drawn
+     * has the mean and variance of a binomial of the total count and the share of ones.
+     */
+    private static void assertResampledCountIsBinomial(long total, long ones) {
+        Histogram histogram = new Histogram();
+        histogram.record(0, total - ones);
+        histogram.record(1, ones);
+        Histogram.Resampler resampler = histogram.resampler();
+
+        int resamples = 2_000;
+        Random random = new Random(11);
+        double sum = 0;
+        double sumOfSquares = 0;
+        for (int i = 0; i < resamples; i++) {
+            Histogram resample = resampler.resample(random);
+            Assert.assertEquals(total, resample.getTotalCount());
+            double drawnOnes = Math.rint(resample.getMean() * total);
+            sum += drawnOnes;
+            sumOfSquares += drawnOnes * drawnOnes;
+        }
+
+        double p = (double) ones / total;
+        double expectedVariance = total * p * (1 - p);
+        double mean = sum / resamples;
+        double variance = (sumOfSquares - resamples * mean * mean) / (resamples - 1);
+        Assert.assertEquals(ones, mean, 5 * Math.sqrt(expectedVariance / resamples));
+        Assert.assertEquals(expectedVariance, variance, 0.15 * expectedVariance);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeValueIsRejected() {
+        new Histogram().record(-1);
+    }
+
+    @Test
+    public void testDurationStatisticsRecordsIncrementally() {
+        DurationStatistics statistics = DurationStatistics.newRecorder();
+        statistics.record(10, 30, TimeUnit.MILLISECONDS);
+        statistics.record(20, 60, TimeUnit.MILLISECONDS);
+
+        DurationStatistics other = DurationStatistics.newRecorder();
+        other.record(0, 5, TimeUnit.MILLISECONDS);
+        statistics.add(other);
+
+        Assert.assertEquals(3, statistics.getHistogram().getTotalCount());
+        Assert.assertEquals(TimeUnit.MILLISECONDS.toNanos(40), statistics.getHistogram().getMaximum());
+        Assert.assertEquals(TimeUnit.MILLISECONDS.toNanos(5), statistics.getHistogram().getMinimum());
+        Assert.assertEquals(20, statistics.getDurationAtPercentile(50, TimeUnit.MILLISECONDS), 1);
+    }
+}
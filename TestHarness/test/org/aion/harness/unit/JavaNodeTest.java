@@ -0,0 +1,38 @@
+package org.aion.harness.unit;
+
+import java.util.concurrent.TimeUnit;
+import org.aion.harness.main.global.SingletonFactory;
+import org.aion.harness.main.impl.JavaNode;
+import org.aion.harness.result.Result;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class JavaNodeTest {
+    private JavaNode node;
+
+    @Before
+    public void before() {
+        this.node = new JavaNode();
+    }
+
+    @After
+    public void after() {
+        SingletonFactory.singleton().nodeWatcher().removeReader(this.node.getID());
+    }
+
+    @Test
+    public void testStopBeforeStart() throws Exception {
+        Result result = this.node.stop();
+        Assert.assertFalse(result.isSuccess());
+        Assert.assertEquals("Node is not currently alive!", result.getError());
+    }
+
+    @Test
+    public void testBlockingStopBeforeStart() throws Exception {
+        Result result = this.node.blockingStop(1, TimeUnit.SECONDS);
+        Assert.assertFalse(result.isSuccess());
+        Assert.assertEquals("Node is not currently alive!", result.getError());
+    }
+}
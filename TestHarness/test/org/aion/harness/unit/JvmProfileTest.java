@@ -0,0 +1,77 @@
+package org.aion.harness.unit;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.aion.harness.main.JvmProfile;
+import org.aion.harness.main.JvmProfileBuilder;
+import org.aion.harness.main.Network;
+import org.aion.harness.main.NodeConfigurations;
+import org.aion.harness.main.NodeConfigurations.DatabaseOption;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class JvmProfileTest {
+
+    @Test
+    public void testDefaultProfileHasNoOptions() {
+        Assert.assertTrue(JvmProfile.DEFAULT.isEmpty());
+        Assert.assertEquals(Collections.emptyList(), JvmProfile.DEFAULT.toOptions(new File("/tmp/gc.txt")));
+
+        NodeConfigurations configurations = NodeConfigurations.alwaysUseBuiltKernel(Network.CUSTOM, "/tmp/kernel", DatabaseOption.PRESERVE_DATABASE);
+        Assert.assertSame(JvmProfile.DEFAULT, configurations.getJvmProfile());
+    }
+
+    @Test
+    public void testProfileOptions() {
+        JvmProfile profile = new JvmProfileBuilder()
+            .name("g1-4g")
+            .heapSize("4g")
+            .collector(JvmProfile.GarbageCollector.G1)
+            .enableGcLogging()
+            .addOption("-XX:MaxGCPauseMillis=50")
+            .build();
+
+        Assert.assertEquals(
+            Arrays.asList("-Xms4g", "-Xmx4g", "-XX:+UseG1GC", "-Xlog:gc*:file=\"/tmp/gc.txt\":uptime,timenanos,level,tags", "-XX:MaxGCPauseMillis=50"),
+            profile.toOptions(new File("/tmp/gc.txt")));
+
+        // Without a file there is no gc log.
+        Assert.assertEquals(Arrays.asList("-Xms4g", "-Xmx4g", "-XX:+UseG1GC", "-XX:MaxGCPauseMillis=50"), profile.toOptions(null));
+    }
+
+    @Test
+    public void testWithJvmProfileKeepsOtherConfigurations() {
+        JvmProfile profile = new JvmProfileBuilder().name("serial").collector(JvmProfile.GarbageCollector.SERIAL).build();
+        NodeConfigurations configurations = NodeConfigurations.alwaysUseBuiltKernel(Network.CUSTOM, "/tmp/kernel", DatabaseOption.PRESERVE_DATABASE);
+        NodeConfigurations profiled = configurations.withJvmProfile(profile);
+
+        Assert.assertSame(profile, profiled.getJvmProfile());
+        Assert.assertEquals(configurations.getNetwork(), profiled.getNetwork());
+        Assert.assertEquals(configurations.getActualBuildLocation(), profiled.getActualBuildLocation());
+        Assert.assertEquals(configurations.preserveDatabase(), profiled.preserveDatabase());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testBuildWithoutName() {
+        new JvmProfileBuilder().heapSize("1g").build();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidHeapSize() {
+        new JvmProfileBuilder().heapSize("lots");
+    }
+
+    @Test
+    public void testGcLogPathWithSpacesAndColons() {
+        List<String> options = new JvmProfileBuilder().name("logging").enableGcLogging().build().toOptions(new File("/tmp/my logs/12:00:00-gc.txt"));
+        Assert.assertEquals(Collections.singletonList("-Xlog:gc*:file=\"/tmp/my logs/12:00:00-gc.txt\":uptime,timenanos,level,tags"), options);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGcLogPathWithDoubleQuote() {
+        new JvmProfileBuilder().name("logging").enableGcLogging().build().toOptions(new File("/tmp/\"gc\".txt"));
+    }
+
+}
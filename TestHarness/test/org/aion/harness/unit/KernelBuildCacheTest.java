@@ -0,0 +1,150 @@
+package org.aion.harness.unit;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Optional;
+import org.aion.harness.main.impl.internal.KernelBuildCache;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+public class KernelBuildCacheTest {
+    private File root;
+
+    @Before
+    public void before() throws IOException {
+        this.root = Files.createTempDirectory("kernel-build-cache").toFile();
+    }
+
+    @After
+    public void after() throws IOException {
+        FileUtils.deleteDirectory(this.root);
+    }
+
+    @Test
+    public void testKeyTracksSourceChanges() throws Exception {
+        File source = new File(this.root, "source");
+        Assert.assertTrue(source.mkdir());
+        write(new File(source, "Main.java"), "class Main {}");
+        Assume.assumeTrue(git(source, "init", "-q") && git(source, "add", "-A")
+            && git(source, "-c", "user.name=test", "-c", "user.email=test@test", "commit", "-q", "-m", "initial"));
+
+        String clean = KernelBuildCache.keyOf(source).get();
+        Assert.assertEquals(clean, KernelBuildCache.keyOf(source).get());
+
+        write(new File(source, "Main.java"), "class Main { int x; }");
+        String modified = KernelBuildCache.keyOf(source).get();
+        Assert.assertNotEquals(clean, modified);
+
+        write(new File(source, "Main.java"), "class Main { int y; }");
+        Assert.assertNotEquals(modified, KernelBuildCache.keyOf(source).get());
+
+        write(new File(source, "Main.java"), "class Main {}");
+        Assert.assertEquals(clean, KernelBuildCache.keyOf(source).get());
+
+        write(new File(source, "Untracked.java"), "class Untracked {}");
+        Assert.assertNotEquals(clean, KernelBuildCache.keyOf(source).get());
+    }
+
+    @Test
+    public void testKeyOfSourcesNestedInRepository() throws Exception {
+        File repository = new File(this.root, "repository");
+        File source = new File(repository, "kernel/modules");
+        Assert.assertTrue(source.mkdirs());
+        write(new File(source, "Main.java"), "class Main {}");
+        write(new File(repository, "README"), "readme");
+        Assume.assumeTrue(git(repository, "init", "-q") && git(repository, "add", "-A")
+            && git(repository, "-c", "user.name=test", "-c", "user.email=test@test", "commit", "-q", "-m", "initial"));
+
+        String clean = KernelBuildCache.keyOf(source).get();
+
+        // Changes outside of the source directory do not affect its key.
+        write(new File(repository, "README"), "changed");
+        write(new File(repository, "Untracked.java"), "class Untracked {}");
+        Assert.assertEquals(clean, KernelBuildCache.keyOf(source).get());
+
+        // The content of files changed within it does, which means they are found from the top of the repository.
+        write(new File(source, "Main.java"), "class Main { int x; }");
+        String modified = KernelBuildCache.keyOf(source).get();
+        Assert.assertNotEquals(clean, modified);
+
+        write(new File(source, "Main.java"), "class Main { int y; }");
+        Assert.assertNotEquals(modified, KernelBuildCache.keyOf(source).get());
+
+        write(new File(source, "Main.java"), "class Main {}");
+        Assert.assertEquals(clean, KernelBuildCache.keyOf(source).get());
+    }
+
+    @Test
+    public void testNoKeyOutsideOfGit() throws Exception {
+        Assert.assertEquals(Optional.empty(), KernelBuildCache.keyOf(this.root));
+    }
+
+    @Test
+    public void testStoreAndRestore() throws IOException {
+        File build = new File(this.root, "build");
+        File script = new File(build, "rt/bin/java");
+        Assert.assertTrue(script.getParentFile().mkdirs());
+        write(script, "#!/bin/sh");
+        Assert.assertTrue(script.setExecutable(true));
+
+        KernelBuildCache cache = new KernelBuildCache(new File(this.root, "cache"), 1024);
+        Assert.assertFalse(cache.contains("abc123"));
+        cache.store("abc123", build);
+        Assert.assertTrue(cache.contains("abc123"));
+
+        File sandbox = new File(this.root, "sandbox");
+        Assert.assertTrue(sandbox.mkdir());
+        cache.restore("abc123", sandbox);
+
+        File restored = new File(sandbox, "rt/bin/java");
+        Assert.assertEquals("#!/bin/sh", new String(Files.readAllBytes(restored.toPath()), StandardCharsets.UTF_8));
+        Assert.assertTrue(restored.canExecute());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedBuildsAreEvicted() throws IOException {
+        File build = new File(this.root, "build");
+        Assert.assertTrue(build.mkdir());
+        write(new File(build, "kernel.jar"), "0123456789");
+
+        // Room for two builds of 10 bytes.
+        KernelBuildCache cache = new KernelBuildCache(new File(this.root, "cache"), 25);
+        cache.store("aa", build);
+        cache.store("bb", build);
+        new File(this.root, "cache/aa").setLastModified(System.currentTimeMillis() - 60_000);
+        new File(this.root, "cache/bb").setLastModified(System.currentTimeMillis() - 30_000);
+
+        File sandbox = new File(this.root, "sandbox");
+        Assert.assertTrue(sandbox.mkdir());
+        cache.restore("aa", sandbox);
+
+        cache.store("cc", build);
+        Assert.assertTrue(cache.contains("aa"));
+        Assert.assertFalse(cache.contains("bb"));
+        Assert.assertTrue(cache.contains("cc"));
+        Assert.assertEquals(20, cache.sizeInBytes());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testKeysMustBeHexadecimal() {
+        new KernelBuildCache(this.root, 1024).contains("../escape");
+    }
+
+    private static void write(File file, String content) throws IOException {
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static boolean git(File directory, String... arguments) throws IOException, InterruptedException {
+        String[] command = new String[arguments.length + 1];
+        command[0] = "git";
+        System.arraycopy(arguments, 0, command, 1, arguments.length);
+        return new ProcessBuilder(command).directory(directory).inheritIO().start().waitFor() == 0;
+    }
+
+}
@@ -0,0 +1,121 @@
+package org.aion.harness.unit;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import org.aion.harness.main.impl.internal.KernelLaunchScript;
+import org.aion.harness.result.Result;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+public class KernelLaunchScriptTest {
+    private File kernel;
+
+    @Before
+    public void before() throws IOException {
+        this.kernel = Files.createTempDirectory("kernel-launch-script").toFile();
+    }
+
+    @After
+    public void after() throws IOException {
+        FileUtils.deleteDirectory(this.kernel);
+    }
+
+    @Test
+    public void testOptionsFollowTheScriptsOwn() throws Exception {
+        writeScript("#!/bin/bash",
+            "# Launches org.aion.Aion",
+            "JAVA_CMD=java",
+            "$JAVA_CMD -Xms4g -Xmx4g -cp \"./lib/*\" org.aion.Aion \"$@\"");
+
+        Result result = KernelLaunchScript.writeProfiledScript(this.kernel, Arrays.asList("-Xmx1g", "-Xlog:gc*:file=/tmp/gc.txt"));
+        Assert.assertTrue(result.isSuccess());
+
+        List<String> lines = readProfiledScript();
+        Assert.assertEquals("# Launches org.aion.Aion", lines.get(1));
+        Assert.assertEquals("$JAVA_CMD -Xms4g -Xmx4g -cp \"./lib/*\" '-Xmx1g' '-Xlog:gc*:file=/tmp/gc.txt' org.aion.Aion \"$@\"", lines.get(3));
+        Assert.assertTrue(new File(this.kernel, KernelLaunchScript.PROFILED_SCRIPT_NAME).canExecute());
+    }
+
+    @Test
+    public void testOptionsPrecedeTheMainModule() throws Exception {
+        writeScript("exec ./rt/bin/java -p ./mod -m aion.boot/org.aion.Aion \"$@\"");
+
+        Assert.assertTrue(KernelLaunchScript.writeProfiledScript(this.kernel, Arrays.asList("-XX:+UseZGC")).isSuccess());
+        Assert.assertEquals("exec ./rt/bin/java -p ./mod '-XX:+UseZGC' -m aion.boot/org.aion.Aion \"$@\"", readProfiledScript().get(0));
+    }
+
+    @Test
+    public void testOptionsReachOnlyTheKernel() throws Exception {
+        File arguments = new File(this.kernel, "arguments.txt");
+        writeScript("#!/bin/sh",
+            "java() { echo \"$@\" >> " + arguments.getAbsolutePath() + "; }",
+            "java -version",
+            "java -cp lib org.aion.Aion \"$@\"");
+
+        Assert.assertTrue(KernelLaunchScript.writeProfiledScript(this.kernel, Arrays.asList("-Xlog:gc*:file=/tmp/gc.txt")).isSuccess());
+        Process process = new ProcessBuilder("./" + KernelLaunchScript.PROFILED_SCRIPT_NAME, "-n", "custom").directory(this.kernel).start();
+        Assume.assumeTrue(process.waitFor() == 0);
+
+        // The option is passed as is, without the shell expanding its *.
+        Assert.assertEquals(Arrays.asList("-version", "-cp lib -Xlog:gc*:file=/tmp/gc.txt org.aion.Aion -n custom"),
+            Files.readAllLines(arguments.toPath(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testConflictingCollectorIsRefused() throws Exception {
+        writeScript("java -XX:+UseG1GC -cp lib org.aion.Aion \"$@\"");
+
+        Result result = KernelLaunchScript.writeProfiledScript(this.kernel, Arrays.asList("-XX:+UseParallelGC"));
+        Assert.assertFalse(result.isSuccess());
+        Assert.assertTrue(result.getError().contains("-XX:+UseG1GC"));
+        Assert.assertFalse(new File(this.kernel, KernelLaunchScript.PROFILED_SCRIPT_NAME).exists());
+
+        // Selecting the same collector again is harmless.
+        Assert.assertTrue(KernelLaunchScript.writeProfiledScript(this.kernel, Arrays.asList("-XX:+UseG1GC")).isSuccess());
+    }
+
+    @Test
+    public void testRewriteDoesNotWriteThroughHardLinks() throws Exception {
+        writeScript("java -cp lib org.aion.Aion \"$@\"");
+        Assert.assertTrue(KernelLaunchScript.writeProfiledScript(this.kernel, Arrays.asList("-Xmx1g")).isSuccess());
+
+        // Another kernel directory shares the profiled script through a hard link.
+        File shared = new File(this.kernel, "shared.sh");
+        Files.createLink(shared.toPath(), new File(this.kernel, KernelLaunchScript.PROFILED_SCRIPT_NAME).toPath());
+
+        Assert.assertTrue(KernelLaunchScript.writeProfiledScript(this.kernel, Arrays.asList("-Xmx2g")).isSuccess());
+        Assert.assertEquals("java -cp lib '-Xmx2g' org.aion.Aion \"$@\"", readProfiledScript().get(0));
+        Assert.assertEquals("java -cp lib '-Xmx1g' org.aion.Aion \"$@\"", Files.readAllLines(shared.toPath(), StandardCharsets.UTF_8).get(0));
+        Assert.assertTrue(new File(this.kernel, KernelLaunchScript.PROFILED_SCRIPT_NAME).canExecute());
+    }
+
+    @Test
+    public void testScriptWithoutKernelInvocation() throws Exception {
+        writeScript("#!/bin/sh", "echo org.aion.AionSomethingElse");
+        Assert.assertFalse(KernelLaunchScript.writeProfiledScript(this.kernel, Arrays.asList("-Xmx1g")).isSuccess());
+    }
+
+    @Test
+    public void testMissingScript() throws Exception {
+        Assert.assertFalse(KernelLaunchScript.writeProfiledScript(this.kernel, Arrays.asList("-Xmx1g")).isSuccess());
+    }
+
+    private void writeScript(String... lines) throws IOException {
+        File script = new File(this.kernel, KernelLaunchScript.SCRIPT_NAME);
+        Files.write(script.toPath(), Arrays.asList(lines), StandardCharsets.UTF_8);
+        Assert.assertTrue(script.setExecutable(true));
+    }
+
+    private List<String> readProfiledScript() throws IOException {
+        return Files.readAllLines(new File(this.kernel, KernelLaunchScript.PROFILED_SCRIPT_NAME).toPath(), StandardCharsets.UTF_8);
+    }
+
+}
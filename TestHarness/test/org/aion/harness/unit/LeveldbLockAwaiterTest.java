@@ -0,0 +1,130 @@
+package org.aion.harness.unit;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.aion.harness.sys.LeveldbLockAwaiter;
+import org.aion.harness.sys.LockHolder;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * A lock held by this jvm cannot be tested for from this jvm (the attempt throws instead of failing),
+ * so the locks are held by separate {@link LockHolder} processes, as a kernel would hold them.
+ */
+public class LeveldbLockAwaiterTest {
+    private File database;
+    private final List<Process> holders = new ArrayList<>();
+
+    @Before
+    public void before() throws IOException {
+        this.database = Files.createTempDirectory("leveldb-lock-awaiter").toFile();
+    }
+
+    @After
+    public void after() throws IOException, InterruptedException {
+        for (Process holder : this.holders) {
+            holder.destroyForcibly();
+            holder.waitFor();
+        }
+        FileUtils.deleteDirectory(this.database);
+    }
+
+    @Test
+    public void testNoLockFiles() throws Exception {
+        long start = System.nanoTime();
+        Assert.assertTrue(new LeveldbLockAwaiter(this.database.getPath()).await(1, TimeUnit.MINUTES));
+        Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1_000);
+    }
+
+    @Test
+    public void testTimesOutWhileLocked() throws Exception {
+        holdLock("state/LOCK");
+
+        long start = System.nanoTime();
+        Assert.assertFalse(new LeveldbLockAwaiter(this.database.getPath()).await(300, TimeUnit.MILLISECONDS));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        Assert.assertTrue(elapsedMillis >= 300);
+        Assert.assertTrue(elapsedMillis < 2_000);
+    }
+
+    @Test
+    public void testReturnsPromptlyOnceOwnersExit() throws Exception {
+        Process state = holdLock("state/LOCK");
+        Process block = holdLock("block/LOCK");
+        List<ProcessHandle> owners = List.of(state.toHandle(), block.toHandle());
+
+        Thread killer = new Thread(() -> {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                return;
+            }
+            state.destroy();
+            block.destroy();
+        });
+        killer.start();
+
+        long start = System.nanoTime();
+        Assert.assertTrue(new LeveldbLockAwaiter(this.database.getPath(), owners).await(1, TimeUnit.MINUTES));
+        killer.join();
+
+        // Far less than the several seconds a fixed polling interval would take.
+        Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 2_000);
+    }
+
+    @Test
+    public void testNoticesReleaseWithoutKnowingOwners() throws Exception {
+        Process holder = holdLock("transaction/LOCK");
+
+        Thread killer = new Thread(() -> {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                return;
+            }
+            holder.destroy();
+        });
+        killer.start();
+
+        long start = System.nanoTime();
+        Assert.assertTrue(new LeveldbLockAwaiter(this.database.getPath()).await(1, TimeUnit.MINUTES));
+        killer.join();
+        Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 2_000);
+    }
+
+    /**
+     * Starts a process that locks the specified lock file of the database and blocks until it has.
+     */
+    private Process holdLock(String lockFile) throws Exception {
+        File file = new File(this.database, lockFile);
+        Files.createDirectories(file.getParentFile().toPath());
+
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        Process holder = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), LockHolder.class.getName(), file.getPath())
+            .redirectErrorStream(true)
+            .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+            .start();
+        this.holders.add(holder);
+
+        LeveldbLockAwaiter onlyThisFile = new LeveldbLockAwaiter(this.database.getPath()) {
+            @Override
+            protected List<String> getLockFiles() {
+                return List.of(lockFile);
+            }
+        };
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (onlyThisFile.await(0, TimeUnit.MILLISECONDS)) {
+            Assert.assertTrue("The lock holder exited before locking " + lockFile, holder.isAlive());
+            Assert.assertTrue("Timed out waiting for the lock holder to lock " + lockFile, System.nanoTime() < deadline);
+            Thread.sleep(20);
+        }
+        return holder;
+    }
+}
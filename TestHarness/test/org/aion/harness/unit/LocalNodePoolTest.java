@@ -0,0 +1,293 @@
+package org.aion.harness.unit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.aion.harness.main.LocalNode;
+import org.aion.harness.main.LocalNodePool;
+import org.aion.harness.main.Network;
+import org.aion.harness.main.NodeConfigurations;
+import org.aion.harness.result.Result;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LocalNodePoolTest {
+    private final List<FakeNode> started = new ArrayList<>();
+    private final AtomicInteger startFailures = new AtomicInteger(0);
+    private LocalNodePool pool;
+
+    @Before
+    public void before() {
+        this.pool = new LocalNodePool(this::startNode, 1);
+    }
+
+    @After
+    public void after() {
+        this.pool.close();
+    }
+
+    @Test
+    public void testLeaseStartsNodeOnDemand() throws Exception {
+        LocalNode node = this.pool.lease(5, TimeUnit.SECONDS);
+        Assert.assertTrue(node.isAlive());
+        Assert.assertEquals(1, this.started.size());
+        Assert.assertEquals(1, this.pool.size());
+        Assert.assertEquals(0, this.pool.idleCount());
+    }
+
+    @Test
+    public void testGiveBackReusesRunningNode() throws Exception {
+        LocalNode node = this.pool.lease(5, TimeUnit.SECONDS);
+        this.pool.giveBack(node);
+
+        Assert.assertSame(node, this.pool.lease(5, TimeUnit.SECONDS));
+        Assert.assertEquals(1, this.started.size());
+        Assert.assertEquals(1, ((FakeNode) node).starts);
+    }
+
+    @Test
+    public void testPrewarmStartsNodeInBackground() throws Exception {
+        this.pool.prewarm();
+        awaitIdle(1);
+
+        Assert.assertEquals(1, this.started.size());
+        Assert.assertSame(this.started.get(0), this.pool.lease(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testGiveBackWithFreshStateResetsBeforeNextLease() throws Exception {
+        FakeNode node = (FakeNode) this.pool.lease(5, TimeUnit.SECONDS);
+        this.pool.giveBackWithFreshState(node);
+
+        Assert.assertSame(node, this.pool.lease(5, TimeUnit.SECONDS));
+        Assert.assertEquals(1, node.resets);
+        Assert.assertEquals(2, node.starts);
+        Assert.assertTrue(node.isAlive());
+    }
+
+    @Test
+    public void testGiveBackWithStateRestoresSnapshot() throws Exception {
+        FakeNode node = (FakeNode) this.pool.lease(5, TimeUnit.SECONDS);
+        this.pool.giveBackWithState(node, "pristine");
+
+        Assert.assertSame(node, this.pool.lease(5, TimeUnit.SECONDS));
+        Assert.assertEquals("pristine", node.restoredSnapshot);
+        Assert.assertTrue(node.isAlive());
+    }
+
+    @Test
+    public void testFailedResetReplacesNode() throws Exception {
+        FakeNode node = (FakeNode) this.pool.lease(5, TimeUnit.SECONDS);
+        node.failReset = true;
+        this.pool.giveBackWithFreshState(node);
+
+        LocalNode replacement = this.pool.lease(5, TimeUnit.SECONDS);
+        Assert.assertNotSame(node, replacement);
+        Assert.assertFalse(node.isAlive());
+        Assert.assertEquals(2, this.started.size());
+        Assert.assertEquals(1, this.pool.size());
+    }
+
+    @Test(expected = TimeoutException.class)
+    public void testLeaseTimesOutWhenAtCapacity() throws Exception {
+        this.pool.lease(5, TimeUnit.SECONDS);
+        this.pool.lease(100, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    public void testLeaseWaitsForNodeGivenBack() throws Exception {
+        LocalNode node = this.pool.lease(5, TimeUnit.SECONDS);
+        Thread giver = new Thread(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                return;
+            }
+            this.pool.giveBack(node);
+        });
+        giver.start();
+
+        Assert.assertSame(node, this.pool.lease(5, TimeUnit.SECONDS));
+        giver.join();
+    }
+
+    @Test
+    public void testStartFailureIsReported() throws Exception {
+        this.startFailures.set(1);
+        try {
+            this.pool.lease(5, TimeUnit.SECONDS);
+            Assert.fail("Expected the lease to fail.");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getMessage().contains("kernel did not start"));
+            Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+
+        // The failed start does not use up the pool's capacity.
+        Assert.assertTrue(this.pool.lease(5, TimeUnit.SECONDS).isAlive());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGiveBackIdleNode() throws Exception {
+        LocalNode node = this.pool.lease(5, TimeUnit.SECONDS);
+        this.pool.giveBack(node);
+        this.pool.giveBack(node);
+    }
+
+    @Test
+    public void testCloseStopsIdleNodes() throws Exception {
+        FakeNode node = (FakeNode) this.pool.lease(5, TimeUnit.SECONDS);
+        this.pool.giveBack(node);
+        this.pool.close();
+
+        Assert.assertFalse(node.isAlive());
+        Assert.assertEquals(0, this.pool.size());
+    }
+
+    @Test
+    public void testInterruptedCloseRestoresInterruptStatus() throws Exception {
+        FakeNode node = (FakeNode) this.pool.lease(5, TimeUnit.SECONDS);
+        this.pool.giveBack(node);
+
+        Thread.currentThread().interrupt();
+        this.pool.close();
+
+        // Thread.interrupted() also clears the status again for the tests that follow.
+        Assert.assertTrue(Thread.interrupted());
+        Assert.assertFalse(node.isAlive());
+        Assert.assertEquals(0, this.pool.size());
+    }
+
+    @Test
+    public void testNodeGivenBackAfterCloseIsStopped() throws Exception {
+        FakeNode node = (FakeNode) this.pool.lease(5, TimeUnit.SECONDS);
+        this.pool.close();
+        Assert.assertTrue(node.isAlive());
+
+        this.pool.giveBack(node);
+        Assert.assertFalse(node.isAlive());
+        Assert.assertEquals(0, this.pool.size());
+    }
+
+    private void awaitIdle(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (this.pool.idleCount() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(count, this.pool.idleCount());
+    }
+
+    private LocalNode startNode() throws Exception {
+        if (this.startFailures.getAndDecrement() > 0) {
+            throw new IllegalStateException("kernel did not start");
+        }
+        FakeNode node = new FakeNode(this.started.size());
+        Result result = node.start();
+        if (!result.isSuccess()) {
+            throw new IllegalStateException(result.getError());
+        }
+        synchronized (this.started) {
+            this.started.add(node);
+        }
+        return node;
+    }
+
+    private static final class FakeNode implements LocalNode {
+        private final int id;
+        private volatile boolean alive = false;
+        private volatile int starts = 0;
+        private volatile int resets = 0;
+        private volatile String restoredSnapshot = null;
+        private volatile boolean failReset = false;
+
+        private FakeNode(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public int getID() {
+            return this.id;
+        }
+
+        @Override
+        public void configure(NodeConfigurations configurations) {
+        }
+
+        @Override
+        public Network getNetwork() {
+            return Network.CUSTOM;
+        }
+
+        @Override
+        public Result initialize() {
+            return Result.successful();
+        }
+
+        @Override
+        public Result initializeVerbose() {
+            return Result.successful();
+        }
+
+        @Override
+        public Result start() {
+            if (this.alive) {
+                return Result.unsuccessfulDueTo("already started");
+            }
+            this.alive = true;
+            this.starts++;
+            return Result.successful();
+        }
+
+        @Override
+        public Result stop() {
+            this.alive = false;
+            return Result.successful();
+        }
+
+        @Override
+        public Result blockingStop(long timeout, TimeUnit timeoutUnit) {
+            return stop();
+        }
+
+        @Override
+        public boolean isAlive() {
+            return this.alive;
+        }
+
+        @Override
+        public Optional<ProcessHandle> getKernelProcess() {
+            return Optional.empty();
+        }
+
+        @Override
+        public Result resetState() {
+            if (this.alive) {
+                return Result.unsuccessfulDueTo("node is running");
+            }
+            if (this.failReset) {
+                return Result.unsuccessfulDueTo("reset failed");
+            }
+            this.resets++;
+            return Result.successful();
+        }
+
+        @Override
+        public Result saveState(String snapshotName) {
+            return Result.successful();
+        }
+
+        @Override
+        public Result restoreState(String snapshotName) {
+            if (this.alive) {
+                return Result.unsuccessfulDueTo("node is running");
+            }
+            this.restoredSnapshot = snapshotName;
+            return Result.successful();
+        }
+    }
+}
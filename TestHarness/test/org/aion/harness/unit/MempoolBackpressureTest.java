@@ -0,0 +1,131 @@
+package org.aion.harness.unit;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.aion.harness.load.BackpressureTimeoutException;
+import org.aion.harness.load.MempoolBackpressure;
+import org.aion.harness.main.RPC;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * The pending pool depth is pushed in with reportDepth rather than polled, so no node is needed.
+ */
+public class MempoolBackpressureTest {
+    private static final long POLL_INTERVAL_IN_MILLIS = 200;
+
+    private MempoolBackpressure backpressure;
+    private ExecutorService submitter;
+
+    @Before
+    public void before() {
+        this.backpressure = new MempoolBackpressure(new RPC("127.0.0.1", "8545"), 10, 20, POLL_INTERVAL_IN_MILLIS, TimeUnit.MILLISECONDS);
+        this.submitter = Executors.newSingleThreadExecutor();
+    }
+
+    @After
+    public void after() {
+        this.submitter.shutdownNow();
+    }
+
+    @Test
+    public void testBelowLowWatermarkIsNotDelayed() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            this.backpressure.awaitCapacity();
+        }
+
+        Assert.assertEquals(10, this.backpressure.getEstimatedDepth());
+        Assert.assertEquals(0, this.backpressure.getTimeSpentThrottled(TimeUnit.NANOSECONDS));
+        Assert.assertEquals(0, this.backpressure.getTimeSpentPaused(TimeUnit.NANOSECONDS));
+    }
+
+    @Test
+    public void testBetweenWatermarksIsDelayedInProportion() throws Exception {
+        // Halfway between the watermarks delays for half a poll interval.
+        this.backpressure.reportDepth(15);
+        this.backpressure.awaitCapacity();
+
+        Assert.assertEquals(TimeUnit.MILLISECONDS.toNanos(POLL_INTERVAL_IN_MILLIS) / 2, this.backpressure.getTimeSpentThrottled(TimeUnit.NANOSECONDS));
+        Assert.assertEquals(16, this.backpressure.getEstimatedDepth());
+
+        this.backpressure.reportDepth(18);
+        this.backpressure.awaitCapacity();
+
+        long expected = TimeUnit.MILLISECONDS.toNanos(POLL_INTERVAL_IN_MILLIS) / 2 + TimeUnit.MILLISECONDS.toNanos(POLL_INTERVAL_IN_MILLIS) * 8 / 10;
+        Assert.assertEquals(expected, this.backpressure.getTimeSpentThrottled(TimeUnit.NANOSECONDS));
+        Assert.assertEquals(0, this.backpressure.getTimeSpentPaused(TimeUnit.NANOSECONDS));
+    }
+
+    @Test
+    public void testHighWatermarkPausesUntilDrainedToLowWatermark() throws Exception {
+        this.backpressure.reportDepth(20);
+        Future<?> submission = this.submitter.submit(() -> { this.backpressure.awaitCapacity(); return null; });
+        assertStillPaused(submission);
+
+        // Draining below the high watermark is not enough to resume.
+        this.backpressure.reportDepth(15);
+        assertStillPaused(submission);
+
+        this.backpressure.reportDepth(10);
+        submission.get(10, TimeUnit.SECONDS);
+        Assert.assertTrue(this.backpressure.getTimeSpentPaused(TimeUnit.MILLISECONDS) >= 2 * POLL_INTERVAL_IN_MILLIS);
+    }
+
+    @Test
+    public void testRejectionPausesUntilDrainedToLowWatermark() throws Exception {
+        this.backpressure.reportRejection();
+        Future<?> submission = this.submitter.submit(() -> { this.backpressure.awaitCapacity(); return null; });
+
+        // The estimate is empty, yet the rejection alone pauses submission.
+        assertStillPaused(submission);
+        Assert.assertEquals(0, this.backpressure.getEstimatedDepth());
+
+        this.backpressure.reportDepth(0);
+        submission.get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(1, this.backpressure.getEstimatedDepth());
+    }
+
+    @Test
+    public void testPauseWithoutReportsTimesOut() throws Exception {
+        this.backpressure.setPauseTimeout(500, TimeUnit.MILLISECONDS);
+        this.backpressure.reportRejection();
+
+        long start = System.nanoTime();
+        try {
+            this.backpressure.awaitCapacity();
+            Assert.fail("Expected the pause to time out.");
+        } catch (BackpressureTimeoutException e) {
+            Assert.assertTrue(e.getMessage().contains("not being polled"));
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        Assert.assertTrue(elapsedMillis >= 500);
+        Assert.assertTrue(elapsedMillis < 5_000);
+
+        // The transaction given up on was not admitted into the pool.
+        Assert.assertEquals(0, this.backpressure.getEstimatedDepth());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWatermarksOutOfOrder() {
+        new MempoolBackpressure(new RPC("127.0.0.1", "8545"), 20, 20, 1, TimeUnit.SECONDS);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonPositivePauseTimeout() {
+        this.backpressure.setPauseTimeout(0, TimeUnit.SECONDS);
+    }
+
+    private void assertStillPaused(Future<?> submission) throws Exception {
+        try {
+            submission.get(2 * POLL_INTERVAL_IN_MILLIS, TimeUnit.MILLISECONDS);
+            Assert.fail("Expected submission to be paused.");
+        } catch (TimeoutException e) {
+            // Still paused, as expected.
+        }
+    }
+}
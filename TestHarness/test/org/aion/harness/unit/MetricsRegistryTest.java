@@ -0,0 +1,122 @@
+package org.aion.harness.unit;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import org.aion.harness.metrics.MetricsHttpServer;
+import org.aion.harness.metrics.MetricsRegistry;
+import org.aion.harness.metrics.MetricsSnapshotWriter;
+import org.aion.harness.statistics.Histogram;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MetricsRegistryTest {
+
+    @Test
+    public void testSameNameReturnsSameMetric() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("requests_total", "Requests.").add(3);
+        registry.counter("requests_total", "Requests.").increment();
+
+        Assert.assertEquals(4, registry.counter("requests_total", "Requests.").get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNameReusedAsAnotherTypeIsRejected() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("thing", "A thing.");
+        registry.gauge("thing", "A thing.");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidNameIsRejected() {
+        new MetricsRegistry().counter("not-a-valid name", "Invalid.");
+    }
+
+    @Test
+    public void testPrometheusText() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("calls_total", "Calls made.").add(7);
+        registry.gauge("depth", "Queue depth.", () -> 42);
+        Histogram latencies = registry.histogram("latency_nanos", "Latency.");
+        for (long i = 1; i <= 100; i++) {
+            latencies.record(i);
+        }
+
+        String text = registry.toPrometheusText();
+
+        Assert.assertTrue(text.contains("# HELP calls_total Calls made.\n# TYPE calls_total counter\ncalls_total 7\n"));
+        Assert.assertTrue(text.contains("# TYPE depth gauge\ndepth 42\n"));
+        Assert.assertTrue(text.contains("# TYPE latency_nanos summary\n"));
+        Assert.assertTrue(text.contains("latency_nanos{quantile=\"0.5\"} 50\n"));
+        Assert.assertTrue(text.contains("latency_nanos_count 100\n"));
+        Assert.assertTrue(text.contains("latency_nanos_sum 5050\n"));
+    }
+
+    @Test
+    public void testJson() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("calls_total", "Calls made.").add(7);
+        registry.gauge("depth", "Queue depth.", () -> 42);
+        Histogram latencies = registry.histogram("latency_nanos", "Latency.");
+        for (long i = 1; i <= 100; i++) {
+            latencies.record(i);
+        }
+
+        String json = registry.toJson();
+
+        Assert.assertTrue(json.contains("\"calls_total\":7"));
+        Assert.assertTrue(json.contains("\"depth\":42"));
+        Assert.assertTrue(json.contains("\"latency_nanos\":{\"count\":100,"));
+        Assert.assertTrue(json.contains("\"p50\":50"));
+        Assert.assertTrue(json.contains("\"p99.9\":100"));
+    }
+
+    @Test
+    public void testHttpServerServesPrometheusText() throws IOException {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("served_total", "Served.").add(5);
+
+        MetricsHttpServer server = MetricsHttpServer.start(registry, 0);
+        try {
+            HttpURLConnection connection = (HttpURLConnection) new URL("http://127.0.0.1:" + server.getPort() + "/metrics").openConnection();
+            Assert.assertEquals(200, connection.getResponseCode());
+            try (InputStream input = connection.getInputStream()) {
+                String body = new String(input.readAllBytes(), StandardCharsets.UTF_8);
+                Assert.assertTrue(body.contains("served_total 5\n"));
+            }
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    public void testSnapshotsAppendToJsonAndCsv() throws IOException {
+        File json = File.createTempFile("metrics", ".json");
+        File csv = File.createTempFile("metrics", ".csv");
+        json.deleteOnExit();
+        csv.deleteOnExit();
+
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("snapshots_total", "Snapshots.").increment();
+        registry.histogram("size_nanos", "Sizes.").record(10);
+
+        MetricsSnapshotWriter writer = new MetricsSnapshotWriter(registry, json, csv);
+        writer.writeSnapshot();
+        writer.writeSnapshot();
+
+        List<String> jsonLines = Files.readAllLines(json.toPath());
+        Assert.assertEquals(2, jsonLines.size());
+        Assert.assertTrue(jsonLines.get(0).contains("\"snapshots_total\":1"));
+
+        List<String> csvLines = Files.readAllLines(csv.toPath());
+        Assert.assertEquals("timestamp,metric,field,value", csvLines.get(0));
+        Assert.assertEquals(1, csvLines.stream().filter(line -> line.startsWith("timestamp")).count());
+        Assert.assertTrue(csvLines.stream().anyMatch(line -> line.endsWith(",size_nanos,p99,10")));
+    }
+}
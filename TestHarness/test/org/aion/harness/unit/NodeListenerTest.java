@@ -0,0 +1,69 @@
+package org.aion.harness.unit;
+
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.aion.harness.main.Node;
+import org.aion.harness.main.NodeListener;
+import org.aion.harness.main.event.Event;
+import org.aion.harness.main.global.SingletonFactory;
+import org.aion.harness.result.FutureResult;
+import org.aion.harness.result.LogEventResult;
+import org.aion.harness.util.LogReader;
+import org.aion.harness.util.StreamLogSource;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class NodeListenerTest {
+    private LogReader logReader;
+    private Node node;
+    private PipedOutputStream log;
+
+    @Before
+    public void before() throws Exception {
+        this.logReader = new LogReader();
+        int id = SingletonFactory.singleton().nodeWatcher().addReader(this.logReader);
+        this.node = () -> id;
+
+        this.log = new PipedOutputStream();
+        Assert.assertTrue(this.logReader.startReading(new StreamLogSource(new PipedInputStream(this.log), this.log)).isSuccess());
+    }
+
+    @After
+    public void after() throws InterruptedException {
+        this.logReader.stopReading();
+        SingletonFactory.singleton().nodeWatcher().removeReader(this.node.getID());
+    }
+
+    @Test
+    public void testStopListeningForEvent() throws Exception {
+        NodeListener listener = NodeListener.listenTo(this.node);
+        int eventsBefore = listener.numberOfEventsBeingListenedFor();
+
+        FutureResult<LogEventResult> withdrawn = listener.listenForEvent(new Event("never logged"), 1, TimeUnit.MINUTES);
+        FutureResult<LogEventResult> kept = listener.listenForEvent(new Event("logged"), 1, TimeUnit.MINUTES);
+        Assert.assertEquals(eventsBefore + 2, listener.numberOfEventsBeingListenedFor());
+
+        Assert.assertTrue(listener.stopListeningForEvent(withdrawn, "The transaction failed to be sent."));
+        Assert.assertEquals(eventsBefore + 1, listener.numberOfEventsBeingListenedFor());
+
+        // The withdrawn event is finished straight away, with the reason it was withdrawn.
+        LogEventResult result = withdrawn.get(1, TimeUnit.SECONDS);
+        Assert.assertTrue(result.eventWasRejected());
+        Assert.assertEquals("The transaction failed to be sent.", result.causeOfRejection());
+
+        // Only a pending event can be withdrawn, and only once.
+        Assert.assertFalse(listener.stopListeningForEvent(withdrawn, "again"));
+        this.log.write("logged\n".getBytes(StandardCharsets.UTF_8));
+        Assert.assertTrue(kept.get(30, TimeUnit.SECONDS).eventWasObserved());
+        Assert.assertFalse(listener.stopListeningForEvent(kept, "too late"));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testStopListeningForNullFuture() {
+        NodeListener.listenTo(this.node).stopListeningForEvent(null, "reason");
+    }
+}
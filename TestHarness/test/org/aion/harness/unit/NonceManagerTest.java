@@ -0,0 +1,98 @@
+package org.aion.harness.unit;
+
+import java.math.BigInteger;
+import java.security.spec.InvalidKeySpecException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.aion.harness.kernel.Address;
+import org.aion.harness.kernel.PrivateKey;
+import org.aion.harness.main.NonceManager;
+import org.aion.harness.main.RPC;
+import org.aion.harness.main.event.Event;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class NonceManagerTest {
+    // Only tracked senders are used, so nothing is ever sent to this address.
+    private final NonceManager nonceManager = new NonceManager(new RPC("127.0.0.1", "8545"));
+
+    @Test
+    public void testTrackedSenderNonces() throws InvalidKeySpecException, InterruptedException {
+        Address sender = PrivateKey.random().getAddress();
+        this.nonceManager.track(sender, BigInteger.valueOf(5));
+
+        Assert.assertEquals(BigInteger.valueOf(5), this.nonceManager.peekNonce(sender));
+        Assert.assertEquals(BigInteger.valueOf(5), this.nonceManager.getAndIncrementNonce(sender));
+        Assert.assertEquals(BigInteger.valueOf(6), this.nonceManager.allocateNonces(sender, 10));
+        Assert.assertEquals(BigInteger.valueOf(16), this.nonceManager.peekNonce(sender));
+
+        this.nonceManager.track(sender, BigInteger.ONE);
+        Assert.assertEquals(BigInteger.ONE, this.nonceManager.peekNonce(sender));
+    }
+
+    @Test
+    public void testConcurrentAllocationsNeverOverlap() throws Exception {
+        Address sender = PrivateKey.random().getAddress();
+        this.nonceManager.track(sender, BigInteger.ZERO);
+
+        int numberOfThreads = 8;
+        int allocationsPerThread = 1_000;
+        List<Set<BigInteger>> perThread = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+
+        for (int i = 0; i < numberOfThreads; i++) {
+            Set<BigInteger> nonces = new HashSet<>();
+            perThread.add(nonces);
+            threads.add(new Thread(() -> {
+                try {
+                    for (int j = 0; j < allocationsPerThread; j++) {
+                        BigInteger first = this.nonceManager.allocateNonces(sender, 2);
+                        nonces.add(first);
+                        nonces.add(first.add(BigInteger.ONE));
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+        }
+
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Set<BigInteger> all = new HashSet<>();
+        for (Set<BigInteger> nonces : perThread) {
+            all.addAll(nonces);
+        }
+
+        long expected = (long) numberOfThreads * allocationsPerThread * 2;
+        Assert.assertEquals(expected, all.size());
+        Assert.assertEquals(BigInteger.valueOf(expected), this.nonceManager.peekNonce(sender));
+    }
+
+    @Test
+    public void testUnobservedRejectionDoesNotResynchronize() throws InvalidKeySpecException, InterruptedException {
+        Address sender = PrivateKey.random().getAddress();
+        this.nonceManager.track(sender, BigInteger.TEN);
+
+        Assert.assertFalse(this.nonceManager.resynchronizeIfRejected(sender, new Event("never logged")));
+        Assert.assertEquals(BigInteger.TEN, this.nonceManager.peekNonce(sender));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAllocateZeroNonces() throws InvalidKeySpecException, InterruptedException {
+        Address sender = PrivateKey.random().getAddress();
+        this.nonceManager.track(sender, BigInteger.ZERO);
+        this.nonceManager.allocateNonces(sender, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTrackNegativeNonce() throws InvalidKeySpecException {
+        this.nonceManager.track(PrivateKey.random().getAddress(), BigInteger.ONE.negate());
+    }
+}
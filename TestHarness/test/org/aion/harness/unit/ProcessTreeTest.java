@@ -0,0 +1,111 @@
+package org.aion.harness.unit;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.aion.harness.statistics.ShutdownTimings;
+import org.aion.harness.sys.ProcessTree;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ProcessTreeTest {
+    private final List<ProcessTree> trees = new ArrayList<>();
+
+    @After
+    public void after() {
+        for (ProcessTree tree : this.trees) {
+            tree.getProcesses().forEach(ProcessHandle::destroyForcibly);
+        }
+    }
+
+    @Test
+    public void testStopsWholeTreeGracefully() throws Exception {
+        ProcessTree tree = startTree("sleep 60 & sleep 60 & wait", 3);
+
+        ShutdownTimings timings = tree.stop(1, 1, TimeUnit.MINUTES);
+
+        Assert.assertEquals(3, timings.getProcessCount());
+        Assert.assertFalse(timings.wasEscalated());
+        Assert.assertTrue(timings.allExited());
+        Assert.assertFalse(tree.isAlive());
+        Assert.assertEquals(0, timings.getForcedDuration(TimeUnit.NANOSECONDS));
+
+        // Every process was asked at once, so none waited for another to time out.
+        Assert.assertTrue(timings.getTotalDuration(TimeUnit.MILLISECONDS) < 5_000);
+    }
+
+    @Test
+    public void testEscalatesWhenTerminationIsIgnored() throws Exception {
+        // Ignored signals stay ignored across exec, so the sleep ignores termination too.
+        ProcessTree tree = startTree("trap '' TERM; sleep 60", 2);
+
+        ShutdownTimings timings = tree.stop(300, 60_000, TimeUnit.MILLISECONDS);
+
+        Assert.assertEquals(2, timings.getProcessCount());
+        Assert.assertTrue(timings.wasEscalated());
+        Assert.assertEquals(2, timings.getForciblyDestroyedCount());
+        Assert.assertTrue(timings.allExited());
+        Assert.assertFalse(tree.isAlive());
+        Assert.assertTrue(timings.getGracefulDuration(TimeUnit.MILLISECONDS) >= 300);
+        Assert.assertTrue(timings.getForcedDuration(TimeUnit.MILLISECONDS) < 5_000);
+    }
+
+    @Test
+    public void testTracksDescendantsOrphanedByTheRoot() throws Exception {
+        // The root exits once its input is closed, leaving the sleep behind.
+        Process root = new ProcessBuilder("sh", "-c", "sleep 60 & read line").start();
+        ProcessTree tree = track(root, 2);
+        ProcessHandle orphan = tree.getProcesses().get(1);
+
+        root.getOutputStream().close();
+        Assert.assertTrue(root.waitFor(30, TimeUnit.SECONDS));
+        Assert.assertTrue(orphan.isAlive());
+        Assert.assertTrue(tree.isAlive());
+
+        ShutdownTimings timings = tree.stop(1, 1, TimeUnit.MINUTES);
+
+        Assert.assertEquals(1, timings.getProcessCount());
+        Assert.assertTrue(timings.allExited());
+        Assert.assertFalse(orphan.isAlive());
+    }
+
+    @Test
+    public void testStopOfExitedTree() throws Exception {
+        Process root = new ProcessBuilder("true").start();
+        ProcessTree tree = track(root, 1);
+        Assert.assertTrue(root.waitFor(30, TimeUnit.SECONDS));
+
+        ShutdownTimings timings = tree.stop(1, 1, TimeUnit.MINUTES);
+
+        Assert.assertEquals(0, timings.getProcessCount());
+        Assert.assertTrue(timings.allExited());
+        Assert.assertFalse(timings.wasEscalated());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeTimeout() throws Exception {
+        new ProcessTree(ProcessHandle.current()).stop(-1, 1, TimeUnit.SECONDS);
+    }
+
+    private ProcessTree startTree(String script, int expectedProcesses) throws IOException, InterruptedException {
+        return track(new ProcessBuilder("sh", "-c", script).start(), expectedProcesses);
+    }
+
+    /**
+     * Tracks the tree rooted at the process, once the expected number of processes have appeared.
+     */
+    private ProcessTree track(Process root, int expectedProcesses) throws InterruptedException {
+        ProcessTree tree = new ProcessTree(root.toHandle());
+        this.trees.add(tree);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (tree.getProcesses().size() < expectedProcesses) {
+            Assert.assertTrue("Timed out waiting for " + expectedProcesses + " processes", System.nanoTime() < deadline);
+            Thread.sleep(20);
+            tree.refresh();
+        }
+        return tree;
+    }
+}
@@ -0,0 +1,106 @@
+package org.aion.harness.unit;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.aion.harness.statistics.ResourceSample;
+import org.aion.harness.statistics.ResourceSampler;
+import org.aion.harness.statistics.ResourceTimeline;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ResourceSamplerTest {
+
+    @Before
+    public void before() {
+        Assume.assumeTrue(ResourceSampler.isSupported());
+    }
+
+    @Test
+    public void testSampleOfCurrentProcess() {
+        ResourceSampler sampler = new ResourceSampler(ProcessHandle.current());
+
+        long before = System.nanoTime();
+        ResourceSample sample = sampler.sampleNow();
+        long after = System.nanoTime();
+
+        Assert.assertNotNull(sample);
+        Assert.assertTrue(sample.getTimeOfSample(TimeUnit.NANOSECONDS) >= before);
+        Assert.assertTrue(sample.getTimeOfSample(TimeUnit.NANOSECONDS) <= after);
+        Assert.assertTrue(sample.getNumberOfProcesses() >= 1);
+        Assert.assertTrue(sample.getCpuTime(TimeUnit.NANOSECONDS) > 0);
+        Assert.assertTrue(sample.getResidentBytes() > 0);
+        Assert.assertTrue(sample.getThreads() > 0);
+        Assert.assertTrue(sample.getOpenFileDescriptors() > 0);
+        Assert.assertEquals(1, sampler.getTimeline().size());
+    }
+
+    @Test
+    public void testPeriodicSamplingMeasuresCpuUtilization() throws InterruptedException {
+        ResourceSampler sampler = new ResourceSampler(ProcessHandle.current());
+        sampler.start(20, TimeUnit.MILLISECONDS);
+
+        long start = System.nanoTime();
+        long sink = 0;
+        while (System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(300)) {
+            sink += Long.numberOfTrailingZeros(sink + System.nanoTime());
+        }
+        Assert.assertTrue(sink >= 0);
+
+        ResourceTimeline timeline = sampler.stop();
+        Assert.assertTrue(timeline.size() >= 2);
+        Assert.assertEquals(ResourceTimeline.NOT_AVAILABLE, timeline.cpuUtilization(0), 0);
+        Assert.assertTrue(timeline.getMeanCpuUtilization() > 0);
+        Assert.assertTrue(timeline.getPeakResidentBytes() > 0);
+
+        // Stopping again is a no-op.
+        Assert.assertEquals(timeline.size(), sampler.stop().size());
+    }
+
+    @Test
+    public void testBetweenSelectsSamplesInRange() {
+        ResourceSampler sampler = new ResourceSampler(ProcessHandle.current());
+        sampler.sampleNow();
+        long middle = System.nanoTime();
+        sampler.sampleNow();
+        sampler.sampleNow();
+
+        ResourceTimeline timeline = sampler.getTimeline();
+        Assert.assertEquals(3, timeline.size());
+        Assert.assertEquals(2, timeline.between(middle, Long.MAX_VALUE, TimeUnit.NANOSECONDS).size());
+        Assert.assertEquals(1, timeline.between(Long.MIN_VALUE, middle, TimeUnit.NANOSECONDS).size());
+    }
+
+    @Test
+    public void testWriteCsv() throws IOException {
+        ResourceSampler sampler = new ResourceSampler(ProcessHandle.current());
+        sampler.sampleNow();
+        sampler.sampleNow();
+
+        File csv = File.createTempFile("resources", ".csv");
+        try {
+            sampler.getTimeline().writeCsv(csv);
+            List<String> lines = Files.readAllLines(csv.toPath());
+            Assert.assertEquals(3, lines.size());
+            Assert.assertTrue(lines.get(0).startsWith("timestamp_nanos,"));
+        } finally {
+            csv.delete();
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testStartTwice() throws InterruptedException {
+        ResourceSampler sampler = new ResourceSampler(ProcessHandle.current());
+        sampler.start(1, TimeUnit.SECONDS);
+        try {
+            sampler.start(1, TimeUnit.SECONDS);
+        } finally {
+            sampler.stop();
+        }
+    }
+
+}
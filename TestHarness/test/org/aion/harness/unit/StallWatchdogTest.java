@@ -0,0 +1,75 @@
+package org.aion.harness.unit;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.aion.harness.main.Node;
+import org.aion.harness.main.NodeListener;
+import org.aion.harness.main.StallWatchdog;
+import org.aion.harness.main.event.JavaPrepackagedLogEvents;
+import org.aion.harness.main.global.SingletonFactory;
+import org.aion.harness.util.LogReader;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class StallWatchdogTest {
+    private File logFile;
+    private File captureDirectory;
+    private LogReader logReader;
+    private Node node;
+
+    @Before
+    public void before() throws IOException {
+        this.logFile = File.createTempFile("stall-watchdog", ".log");
+        this.captureDirectory = Files.createTempDirectory("stall-watchdog").toFile();
+        this.logReader = new LogReader();
+        int id = SingletonFactory.singleton().nodeWatcher().addReader(this.logReader);
+        this.node = () -> id;
+        Assert.assertTrue(this.logReader.startReading(this.logFile).isSuccess());
+    }
+
+    @After
+    public void after() throws InterruptedException, IOException {
+        this.logReader.stopReading();
+        SingletonFactory.singleton().nodeWatcher().removeReader(this.node.getID());
+        this.logFile.delete();
+        FileUtils.deleteDirectory(this.captureDirectory);
+    }
+
+    @Test
+    public void testStallIsCaptured() throws Exception {
+        StallWatchdog watchdog = NodeListener.listenTo(this.node).watchForStalls(new JavaPrepackagedLogEvents(), 1, TimeUnit.SECONDS, this.captureDirectory);
+        try {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (watchdog.getCaptures().isEmpty() && (System.nanoTime() < deadline)) {
+                Thread.sleep(100);
+            }
+            Assert.assertTrue(watchdog.isRunning());
+        } finally {
+            watchdog.stop();
+        }
+
+        // The heartbeat and sealed block watchers expire together, but it is the same stall.
+        List<File> captures = watchdog.getCaptures();
+        Assert.assertEquals(1, captures.size());
+        Assert.assertEquals(this.captureDirectory, captures.get(0).getParentFile());
+
+        List<String> report = Files.readAllLines(new File(captures.get(0), "stall.txt").toPath(), StandardCharsets.UTF_8);
+        Assert.assertTrue(report.get(0).contains("observed for 1 seconds."));
+        Assert.assertTrue(report.contains("Pending event requests:"));
+        Assert.assertTrue(report.contains("  Not available for remote nodes."));
+        Assert.assertFalse(watchdog.isRunning());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonPositiveThreshold() {
+        NodeListener.listenTo(this.node).watchForStalls(new JavaPrepackagedLogEvents(), 0, TimeUnit.SECONDS);
+    }
+
+}
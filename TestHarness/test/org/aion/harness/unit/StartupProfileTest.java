@@ -0,0 +1,178 @@
+package org.aion.harness.unit;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import org.aion.harness.main.impl.internal.StartupProfiler;
+import org.aion.harness.statistics.StartupPhase;
+import org.aion.harness.statistics.StartupProfile;
+import org.aion.harness.statistics.StartupProfileStore;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class StartupProfileTest {
+    private static final Map<StartupPhase, Pattern> MARKERS = Map.of(
+        StartupPhase.KERNEL_UP, Pattern.compile("\\S"),
+        StartupPhase.DATABASE_OPEN, Pattern.compile("\\bDB\\b"),
+        StartupPhase.RPC_UP, Pattern.compile(Pattern.quote("rpc-server - (UNDERTOW) started")),
+        StartupPhase.FIRST_PEER, Pattern.compile(Pattern.quote("outbound -> active")));
+
+    private File directory;
+    private File outputLog;
+    private StartupProfileStore store;
+
+    @Before
+    public void before() throws IOException {
+        this.directory = Files.createTempDirectory("startup-profile").toFile();
+        this.outputLog = new File(this.directory, "out.txt");
+        this.store = new StartupProfileStore(new File(this.directory, "profiles/startup_profiles.jsonl"));
+    }
+
+    @After
+    public void after() throws IOException {
+        FileUtils.deleteDirectory(this.directory);
+    }
+
+    @Test
+    public void testPhaseDurations() {
+        StartupProfile profile = StartupProfile.of("JavaNode", "custom", times(100, 400, 0, 1_500), TimeUnit.MILLISECONDS);
+
+        Assert.assertEquals(List.of(StartupPhase.KERNEL_UP, StartupPhase.DATABASE_OPEN, StartupPhase.RPC_UP), profile.getObservedPhases());
+        Assert.assertEquals(400, profile.getTimeSinceLaunch(StartupPhase.DATABASE_OPEN, TimeUnit.MILLISECONDS));
+        Assert.assertEquals(100, profile.getPhaseDuration(StartupPhase.KERNEL_UP, TimeUnit.MILLISECONDS));
+        Assert.assertEquals(300, profile.getPhaseDuration(StartupPhase.DATABASE_OPEN, TimeUnit.MILLISECONDS));
+
+        // The phases in between were not observed, so the time since the database opened is attributed to the rpc server.
+        Assert.assertEquals(1_100, profile.getPhaseDuration(StartupPhase.RPC_UP, TimeUnit.MILLISECONDS));
+        Assert.assertEquals(StartupProfile.NOT_AVAILABLE, profile.getTimeSinceLaunch(StartupPhase.P2P_UP, TimeUnit.MILLISECONDS));
+        Assert.assertEquals(StartupProfile.NOT_AVAILABLE, profile.getPhaseDuration(StartupPhase.P2P_UP, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testJsonRoundTrip() {
+        StartupProfile profile = StartupProfile.of("RustNode", "mastery", times(7, 0, 0, 12), TimeUnit.NANOSECONDS);
+        StartupProfile restored = StartupProfile.fromJson(profile.toJson());
+
+        Assert.assertEquals("RustNode", restored.getNode());
+        Assert.assertEquals("mastery", restored.getNetwork());
+        Assert.assertEquals(profile.getTimestamp(TimeUnit.MILLISECONDS), restored.getTimestamp(TimeUnit.MILLISECONDS));
+        Assert.assertEquals(profile.getObservedPhases(), restored.getObservedPhases());
+        Assert.assertEquals(12, restored.getTimeSinceLaunch(StartupPhase.RPC_UP, TimeUnit.NANOSECONDS));
+    }
+
+    @Test
+    public void testStoreKeepsProfilesAcrossInstances() throws IOException {
+        this.store.append(StartupProfile.of("JavaNode", "custom", times(1, 2, 0, 3), TimeUnit.SECONDS));
+        this.store.append(StartupProfile.of("RustNode", "custom", times(1, 0, 0, 2), TimeUnit.SECONDS));
+        this.store.append(StartupProfile.of("JavaNode", "custom", times(1, 2, 0, 9), TimeUnit.SECONDS));
+
+        StartupProfileStore reopened = new StartupProfileStore(new File(this.directory, "profiles/startup_profiles.jsonl"));
+        Assert.assertEquals(3, reopened.readAll().size());
+        Assert.assertEquals(2, reopened.getProfiles("JavaNode").size());
+        Assert.assertEquals(9, reopened.getLatest("JavaNode").get().getTimeSinceLaunch(StartupPhase.RPC_UP, TimeUnit.SECONDS));
+        Assert.assertFalse(reopened.getLatest("ProxyJavaNode").isPresent());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativePhaseTime() {
+        StartupProfile.of("JavaNode", "custom", Map.of(StartupPhase.RPC_UP, -1L), TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    public void testProfilerTimesMarkersAsTheyAreLogged() throws Exception {
+        long launchTimeInNanos = System.nanoTime();
+        StartupProfiler profiler = new StartupProfiler("JavaNode", "custom", this.outputLog, MARKERS, launchTimeInNanos, this.store);
+        profiler.start();
+
+        // The log does not exist until the kernel writes to it.
+        Thread.sleep(100);
+        append("banner\n");
+        append("19-05-28 15:52:31.296 INFO  DB   main: opened\n");
+        Thread.sleep(300);
+
+        // A marker is only matched once its line is complete.
+        append("API  main: <rpc-server - (UNDERTOW) ");
+        Thread.sleep(300);
+        append("started on 127.0.0.1:8545>\n");
+        append("API  main: rpc-server - (UNDERTOW) started again\n");
+        Thread.sleep(200);
+        Assert.assertFalse(profiler.getProfile().isPresent());
+
+        append("P2P  main: outbound -> active\n");
+        StartupProfile profile = awaitProfile(profiler);
+
+        long kernelUp = profile.getTimeSinceLaunch(StartupPhase.KERNEL_UP, TimeUnit.MILLISECONDS);
+        long databaseOpen = profile.getTimeSinceLaunch(StartupPhase.DATABASE_OPEN, TimeUnit.MILLISECONDS);
+        long rpcUp = profile.getTimeSinceLaunch(StartupPhase.RPC_UP, TimeUnit.MILLISECONDS);
+        long firstPeer = profile.getTimeSinceLaunch(StartupPhase.FIRST_PEER, TimeUnit.MILLISECONDS);
+        Assert.assertTrue(kernelUp >= 100);
+        Assert.assertTrue(databaseOpen >= kernelUp);
+        Assert.assertTrue(rpcUp >= databaseOpen + 500);
+        Assert.assertTrue(firstPeer >= rpcUp);
+
+        // Every marker was seen, so profiling finished by itself and persisted the profile.
+        Assert.assertEquals(profile.toJson(), this.store.getLatest("JavaNode").get().toJson());
+        Assert.assertEquals(profile, profiler.finish().get());
+    }
+
+    @Test
+    public void testFinishKeepsPhasesSeenSoFar() throws Exception {
+        append("banner\n");
+        append("19-05-28 15:52:31.296 INFO  DB   main: opened\n");
+
+        StartupProfiler profiler = new StartupProfiler("RustNode", "custom", this.outputLog, MARKERS, System.nanoTime(), this.store);
+        profiler.start();
+        StartupProfile profile = profiler.finish().get();
+
+        Assert.assertEquals(List.of(StartupPhase.KERNEL_UP, StartupPhase.DATABASE_OPEN), profile.getObservedPhases());
+        Assert.assertEquals(1, this.store.readAll().size());
+    }
+
+    @Test
+    public void testFinishBeforeStart() throws Exception {
+        StartupProfiler profiler = new StartupProfiler("JavaNode", "custom", this.outputLog, MARKERS, System.nanoTime(), this.store);
+        Assert.assertFalse(profiler.finish().isPresent());
+        Assert.assertTrue(this.store.readAll().isEmpty());
+    }
+
+    private static Map<StartupPhase, Long> times(long kernelUp, long databaseOpen, long p2pUp, long rpcUp) {
+        Map<StartupPhase, Long> times = new EnumMap<>(StartupPhase.class);
+        times.put(StartupPhase.KERNEL_UP, kernelUp);
+        if (databaseOpen > 0) {
+            times.put(StartupPhase.DATABASE_OPEN, databaseOpen);
+        }
+        if (p2pUp > 0) {
+            times.put(StartupPhase.P2P_UP, p2pUp);
+        }
+        times.put(StartupPhase.RPC_UP, rpcUp);
+        return times;
+    }
+
+    private void append(String text) throws IOException {
+        try (FileOutputStream stream = new FileOutputStream(this.outputLog, true)) {
+            stream.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static StartupProfile awaitProfile(StartupProfiler profiler) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        Optional<StartupProfile> profile = profiler.getProfile();
+        while (!profile.isPresent()) {
+            Assert.assertTrue("Timed out waiting for the startup profile", System.nanoTime() < deadline);
+            Thread.sleep(20);
+            profile = profiler.getProfile();
+        }
+        return profile.get();
+    }
+}
@@ -0,0 +1,126 @@
+package org.aion.harness.unit;
+
+import java.io.ByteArrayInputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.aion.harness.main.Node;
+import org.aion.harness.main.NodeListener;
+import org.aion.harness.main.event.Event;
+import org.aion.harness.main.global.SingletonFactory;
+import org.aion.harness.main.impl.GenericRemoteNode;
+import org.aion.harness.result.FutureResult;
+import org.aion.harness.result.LogEventResult;
+import org.aion.harness.util.LogReader;
+import org.aion.harness.util.StreamLogSource;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class StreamLogSourceTest {
+    private LogReader logReader;
+    private Node node;
+
+    @Before
+    public void before() {
+        this.logReader = new LogReader();
+        int id = SingletonFactory.singleton().nodeWatcher().addReader(this.logReader);
+        this.node = () -> id;
+    }
+
+    @After
+    public void after() throws InterruptedException {
+        this.logReader.stopReading();
+        SingletonFactory.singleton().nodeWatcher().removeReader(this.node.getID());
+    }
+
+    @Test
+    public void testProcessOutputIsStreamedAsItIsLogged() throws Exception {
+        // The last command is exec'd so that no child of the destroyed shell keeps its output open.
+        Process process = new ProcessBuilder("sh", "-c", "echo starting; sleep 1; echo 'block sealed #1'; exec sleep 60").start();
+        Assert.assertTrue(this.logReader.startReading(new StreamLogSource(process.getInputStream(), process::destroy)).isSuccess());
+
+        long start = System.nanoTime();
+        FutureResult<LogEventResult> future = NodeListener.listenTo(this.node).listenForEvent(new Event("block sealed #1"), 1, TimeUnit.MINUTES);
+        LogEventResult result = future.get(1, TimeUnit.MINUTES);
+        Assert.assertTrue(result.eventWasObserved());
+
+        // The line is logged after a second and seen straight away, without a file tailer's polling delay.
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(result.timeOfObservation(TimeUnit.NANOSECONDS) - start);
+        Assert.assertTrue(elapsedMillis < 2_500);
+
+        // Stopping destroys the process, which is what ends the stream.
+        start = System.nanoTime();
+        this.logReader.stopReading();
+        Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 10_000);
+        Assert.assertTrue(process.waitFor(30, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testEndOfStreamRejectsPendingEvents() throws Exception {
+        PipedOutputStream log = new PipedOutputStream();
+        Assert.assertTrue(this.logReader.startReading(new StreamLogSource(new PipedInputStream(log), log)).isSuccess());
+        FutureResult<LogEventResult> future = NodeListener.listenTo(this.node).listenForEvent(new Event("never logged"), 1, TimeUnit.MINUTES);
+
+        log.write("first line\nsecond line\n".getBytes(StandardCharsets.UTF_8));
+        log.close();
+
+        LogEventResult result = future.get(30, TimeUnit.SECONDS);
+        Assert.assertTrue(result.eventWasRejected());
+        Assert.assertTrue(result.causeOfRejection().contains("The log stream ended."));
+    }
+
+    @Test
+    public void testLongLinesAreHandedOverInPieces() throws Exception {
+        StringBuilder log = new StringBuilder();
+        for (int i = 0; i < StreamLogSource.MAX_LINE_LENGTH; i++) {
+            log.append('x');
+        }
+        log.append("tail of a long line\r\n");
+        PipedOutputStream stream = new PipedOutputStream();
+        Assert.assertTrue(this.logReader.startReading(new StreamLogSource(new PipedInputStream(stream, 1024), stream)).isSuccess());
+
+        FutureResult<LogEventResult> future = NodeListener.listenTo(this.node).listenForEvent(new Event("tail of a long line"), 1, TimeUnit.MINUTES);
+        stream.write(log.toString().getBytes(StandardCharsets.UTF_8));
+
+        Assert.assertTrue(future.get(30, TimeUnit.SECONDS).eventWasObserved());
+    }
+
+    @Test
+    public void testRemoteNodeReadsFromSocket() throws Exception {
+        GenericRemoteNode remoteNode = new GenericRemoteNode();
+        try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+            Socket client = new Socket(InetAddress.getLoopbackAddress(), server.getLocalPort());
+            Socket connection = server.accept()) {
+
+            Assert.assertTrue(remoteNode.connectToStream(client.getInputStream()).isSuccess());
+
+            FutureResult<LogEventResult> future = NodeListener.listenTo(remoteNode).listenForEvent(new Event("remote heartbeat"), 1, TimeUnit.MINUTES);
+            connection.getOutputStream().write("remote heartbeat\n".getBytes(StandardCharsets.UTF_8));
+            Assert.assertTrue(future.get(30, TimeUnit.SECONDS).eventWasObserved());
+
+            // Disconnecting closes the socket, which unblocks the reader straight away.
+            long start = System.nanoTime();
+            Assert.assertTrue(remoteNode.disconnect().isSuccess());
+            Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 10_000);
+            Assert.assertTrue(client.isClosed());
+        } finally {
+            SingletonFactory.singleton().nodeWatcher().removeReader(remoteNode.getID());
+        }
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testNullStream() {
+        new StreamLogSource(null);
+    }
+
+    @Test
+    public void testEmptyStreamIsAccepted() throws Exception {
+        Assert.assertTrue(this.logReader.startReading(new ByteArrayInputStream(new byte[0])).isSuccess());
+    }
+}
@@ -0,0 +1,270 @@
+package org.aion.harness.unit;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.aion.harness.util.ParallelBzip2InputStream;
+import org.aion.harness.util.TarExtractor;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TarBz2ExtractionTest {
+    private File root;
+
+    @Before
+    public void before() throws IOException {
+        this.root = Files.createTempDirectory("tar-bz2-extraction").toFile();
+    }
+
+    @After
+    public void after() throws IOException {
+        FileUtils.deleteDirectory(this.root);
+    }
+
+    @Test
+    public void testDecompressesMultipleBlocks() throws Exception {
+        // Level 1 compresses in blocks of 100k (after runs are shortened), so this spans several blocks.
+        byte[] content = compressibleBytes(1_000_000);
+        File file = new File(this.root, "content");
+        Files.write(file.toPath(), content);
+        Assume.assumeTrue(run(this.root, "bzip2", "-1", "-k", file.getName()));
+
+        List<Double> progress = new ArrayList<>();
+        Assert.assertArrayEquals(content, decompress(new File(this.root, "content.bz2"), 4, progress));
+        Assert.assertTrue(progress.size() >= 3);
+        Assert.assertEquals(1.0, progress.get(progress.size() - 1), 0);
+    }
+
+    @Test
+    public void testDecompressesConcatenatedStreams() throws Exception {
+        byte[] first = compressibleBytes(150_000);
+        byte[] second = "the second stream".getBytes(StandardCharsets.UTF_8);
+        Files.write(new File(this.root, "first").toPath(), first);
+        Files.write(new File(this.root, "second").toPath(), second);
+        Assume.assumeTrue(run(this.root, "bzip2", "-1", "first", "second"));
+
+        File concatenated = new File(this.root, "both.bz2");
+        try (OutputStream stream = new FileOutputStream(concatenated)) {
+            stream.write(Files.readAllBytes(new File(this.root, "first.bz2").toPath()));
+            stream.write(Files.readAllBytes(new File(this.root, "second.bz2").toPath()));
+        }
+
+        byte[] expected = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, expected, first.length, second.length);
+        Assert.assertArrayEquals(expected, decompress(concatenated, 2, null));
+    }
+
+    @Test
+    public void testDecompressesEmptyFile() throws Exception {
+        File file = new File(this.root, "empty");
+        Assert.assertTrue(file.createNewFile());
+        Assume.assumeTrue(run(this.root, "bzip2", file.getName()));
+
+        Assert.assertEquals(0, decompress(new File(this.root, "empty.bz2"), 1, null).length);
+    }
+
+    @Test(expected = IOException.class)
+    public void testCorruptBlockIsRejected() throws Exception {
+        File file = new File(this.root, "content");
+        Files.write(file.toPath(), compressibleBytes(10_000));
+        Assume.assumeTrue(run(this.root, "bzip2", file.getName()));
+
+        File compressed = new File(this.root, "content.bz2");
+        byte[] bytes = Files.readAllBytes(compressed.toPath());
+        bytes[bytes.length / 2] ^= 0x10;
+        Files.write(compressed.toPath(), bytes);
+
+        decompress(compressed, 1, null);
+    }
+
+    @Test
+    public void testExtractsKernelPackage() throws Exception {
+        File kernel = new File(this.root, "oan");
+        File script = new File(kernel, "aion.sh");
+        File jar = new File(kernel, "lib/modAionImpl.jar");
+        File deep = new File(kernel, "config/" + String.join("", Collections.nCopies(5, "a-rather-long-directory-name/")) + "genesis.json");
+        Assert.assertTrue(jar.getParentFile().mkdirs());
+        Assert.assertTrue(deep.getParentFile().mkdirs());
+
+        Files.write(script.toPath(), "#!/bin/bash\necho aion\n".getBytes(StandardCharsets.UTF_8));
+        Assert.assertTrue(script.setExecutable(true, false));
+        Files.write(jar.toPath(), compressibleBytes(300_000));
+        Files.write(deep.toPath(), "{}".getBytes(StandardCharsets.UTF_8));
+        Files.createSymbolicLink(new File(kernel, "run.sh").toPath(), new File("aion.sh").toPath());
+
+        Assume.assumeTrue(run(this.root, "tar", "cf", "oan.tar", "oan"));
+        Assume.assumeTrue(run(this.root, "bzip2", "-1", "oan.tar"));
+
+        File destination = new File(this.root, "extracted");
+        Assert.assertTrue(destination.mkdir());
+        try (InputStream stream = new ParallelBzip2InputStream(new File(this.root, "oan.tar.bz2"), 2, null)) {
+            int entries = TarExtractor.extract(stream, destination);
+            Assert.assertEquals(relativePaths(kernel.getParentFile(), kernel), relativePaths(destination, new File(destination, "oan")));
+            Assert.assertEquals(relativePaths(destination, new File(destination, "oan")).size(), entries);
+        }
+
+        File extractedScript = new File(destination, "oan/aion.sh");
+        Assert.assertArrayEquals(Files.readAllBytes(script.toPath()), Files.readAllBytes(extractedScript.toPath()));
+        Assert.assertEquals(Files.getPosixFilePermissions(script.toPath()), Files.getPosixFilePermissions(extractedScript.toPath()));
+        Assert.assertTrue(extractedScript.canExecute());
+        Assert.assertFalse(new File(destination, "oan/lib/modAionImpl.jar").canExecute());
+
+        Assert.assertArrayEquals(Files.readAllBytes(jar.toPath()), Files.readAllBytes(new File(destination, "oan/lib/modAionImpl.jar").toPath()));
+        Assert.assertArrayEquals(Files.readAllBytes(deep.toPath()), Files.readAllBytes(new File(destination, "oan/" + kernel.toPath().relativize(deep.toPath())).toPath()));
+        Assert.assertEquals("aion.sh", Files.readSymbolicLink(new File(destination, "oan/run.sh").toPath()).toString());
+        Assert.assertEquals(script.lastModified() / 1000, extractedScript.lastModified() / 1000);
+    }
+
+    @Test
+    public void testExtractsArchiveRootedAtCurrentDirectory() throws Exception {
+        File tree = new File(this.root, "tree");
+        Assert.assertTrue(new File(tree, "lib").mkdirs());
+        Files.write(new File(tree, "aion.sh").toPath(), "#!/bin/bash\n".getBytes(StandardCharsets.UTF_8));
+        Files.write(new File(tree, "lib/modAionImpl.jar").toPath(), compressibleBytes(10_000));
+
+        // Archived as tar -C tree . does, with a leading "./" entry for the directory itself.
+        Assume.assumeTrue(run(this.root, "tar", "cf", "rooted.tar", "-C", "tree", "."));
+
+        File destination = new File(this.root, "extracted");
+        Assert.assertTrue(destination.mkdir());
+        try (InputStream stream = Files.newInputStream(new File(this.root, "rooted.tar").toPath())) {
+            Assert.assertEquals(4, TarExtractor.extract(stream, destination));
+        }
+        Assert.assertEquals(relativePaths(tree, tree), relativePaths(destination, destination));
+        Assert.assertArrayEquals(Files.readAllBytes(new File(tree, "lib/modAionImpl.jar").toPath()), Files.readAllBytes(new File(destination, "lib/modAionImpl.jar").toPath()));
+    }
+
+    @Test(expected = IOException.class)
+    public void testEntriesOutsideOfDestinationAreRejected() throws Exception {
+        File inner = new File(this.root, "inner");
+        Assert.assertTrue(inner.mkdir());
+        Files.write(new File(this.root, "escape").toPath(), "escaped".getBytes(StandardCharsets.UTF_8));
+        Assume.assumeTrue(run(inner, "tar", "cPf", "../escape.tar", "../escape"));
+
+        File destination = new File(this.root, "extracted");
+        Assert.assertTrue(destination.mkdir());
+        try (InputStream stream = Files.newInputStream(new File(this.root, "escape.tar").toPath())) {
+            TarExtractor.extract(stream, destination);
+        }
+    }
+
+    @Test
+    public void testSymbolicLinksOutsideOfDestinationAreRejected() throws Exception {
+        File outside = new File(this.root, "outside");
+        File links = new File(this.root, "links");
+        File files = new File(this.root, "files");
+        Assert.assertTrue(outside.mkdir());
+        Assert.assertTrue(links.mkdir());
+        Assert.assertTrue(new File(files, "dir").mkdirs());
+
+        // A link to a directory outside, followed by a file to be written through it.
+        Files.createSymbolicLink(new File(links, "dir").toPath(), outside.toPath().toAbsolutePath());
+        Files.write(new File(files, "dir/file").toPath(), "escaped".getBytes(StandardCharsets.UTF_8));
+        Assume.assumeTrue(run(links, "tar", "cf", "../escape.tar", "dir"));
+        Assume.assumeTrue(run(files, "tar", "rf", "../escape.tar", "dir/file"));
+
+        File destination = new File(this.root, "extracted");
+        Assert.assertTrue(destination.mkdir());
+        try (InputStream stream = Files.newInputStream(new File(this.root, "escape.tar").toPath())) {
+            TarExtractor.extract(stream, destination);
+            Assert.fail("The link to outside of the destination was extracted.");
+        } catch (IOException e) {
+            // Expected.
+        }
+        Assert.assertFalse(new File(outside, "file").exists());
+    }
+
+    @Test
+    public void testWritingThroughExistingSymbolicLinksIsRejected() throws Exception {
+        File outside = new File(this.root, "outside");
+        File files = new File(this.root, "files");
+        Assert.assertTrue(outside.mkdir());
+        Assert.assertTrue(new File(files, "dir").mkdirs());
+        Files.write(new File(files, "dir/file").toPath(), "escaped".getBytes(StandardCharsets.UTF_8));
+        Assume.assumeTrue(run(files, "tar", "cf", "../escape.tar", "dir/file"));
+
+        // The destination already holds a link leading out of it, say from an earlier extraction.
+        File destination = new File(this.root, "extracted");
+        Assert.assertTrue(destination.mkdir());
+        Files.createSymbolicLink(new File(destination, "dir").toPath(), outside.toPath().toAbsolutePath());
+
+        try (InputStream stream = Files.newInputStream(new File(this.root, "escape.tar").toPath())) {
+            TarExtractor.extract(stream, destination);
+            Assert.fail("The entry was written through a link to outside of the destination.");
+        } catch (IOException e) {
+            // Expected.
+        }
+        Assert.assertFalse(new File(outside, "file").exists());
+    }
+
+    /**
+     * Returns the paths of the file and everything beneath it, relative to the base directory,
+     * without following symbolic links.
+     */
+    private static Set<String> relativePaths(File base, File file) throws IOException {
+        try (Stream<Path> paths = Files.walk(file.toPath())) {
+            return paths.map(path -> base.toPath().relativize(path).toString()).collect(Collectors.toSet());
+        }
+    }
+
+    private static byte[] decompress(File file, int threads, List<Double> progress) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (InputStream stream = new ParallelBzip2InputStream(file, threads, (progress == null) ? null : progress::add)) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = stream.read(buffer)) != -1) {
+                output.write(buffer, 0, read);
+            }
+        }
+        return output.toByteArray();
+    }
+
+    /**
+     * Returns bytes with both long runs and random stretches, to exercise run-length encoding.
+     */
+    private static byte[] compressibleBytes(int length) {
+        Random random = new Random(42);
+        byte[] bytes = new byte[length];
+        int i = 0;
+        while (i < length) {
+            int run = Math.min(length - i, 1 + random.nextInt(300));
+            if (random.nextBoolean()) {
+                Arrays.fill(bytes, i, i + run, (byte) random.nextInt(4));
+            } else {
+                for (int j = i; j < i + run; j++) {
+                    bytes[j] = (byte) ('a' + random.nextInt(26));
+                }
+            }
+            i += run;
+        }
+        return bytes;
+    }
+
+    private static boolean run(File directory, String... command) throws IOException, InterruptedException {
+        try {
+            return new ProcessBuilder(command).directory(directory).inheritIO().start().waitFor() == 0;
+        } catch (IOException e) {
+            // The tool is not installed.
+            return false;
+        }
+    }
+
+}
@@ -0,0 +1,196 @@
+package org.aion.harness.unit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.aion.harness.kernel.RawTransaction;
+import org.aion.harness.load.ArrivalSchedule;
+import org.aion.harness.load.CapacityCurve;
+import org.aion.harness.load.CapacityPoint;
+import org.aion.harness.load.LoadRecord;
+import org.aion.harness.load.LoadTarget;
+import org.aion.harness.load.ThroughputSearch;
+import org.aion.harness.load.TransactionSource;
+import org.aion.harness.result.RpcResult;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ThroughputSearchTest {
+
+    @Test
+    public void testStepwiseSearchStopsAtFirstUnsustainedRate() throws Exception {
+        SimulatedNode node = new SimulatedNode(100);
+        ThroughputSearch search = newSearch(node);
+
+        CapacityCurve curve = search.stepwiseSearch(50, 50, 200);
+
+        List<CapacityPoint> points = curve.getPoints();
+        Assert.assertEquals(3, points.size());
+        Assert.assertTrue(points.get(0).isSustained());
+        Assert.assertTrue(points.get(1).isSustained());
+        Assert.assertFalse(points.get(2).isSustained());
+        Assert.assertEquals(100, curve.getMaximumSustainablePoint().get().getOfferedRate(), 0);
+        Assert.assertEquals(3, node.runs);
+    }
+
+    @Test
+    public void testBinarySearchNarrowsToResolution() throws Exception {
+        SimulatedNode node = new SimulatedNode(100);
+        ThroughputSearch search = newSearch(node);
+
+        CapacityCurve curve = search.binarySearch(50, 200, 30);
+
+        List<Double> rates = new ArrayList<>();
+        for (CapacityPoint point : curve.getPoints()) {
+            rates.add(point.getOfferedRate());
+        }
+        // Tried in the order 50, 200, 125, 87.5, 106.25; the curve is ordered by rate.
+        Assert.assertEquals(Arrays.asList(50.0, 87.5, 106.25, 125.0, 200.0), rates);
+        // Even slightly over capacity the backlog grows, so nothing above the capacity is sustained.
+        Assert.assertFalse(curve.getPoints().get(2).isSustained());
+        Assert.assertEquals(87.5, curve.getMaximumSustainablePoint().get().getOfferedRate(), 0);
+    }
+
+    @Test
+    public void testEachRunStartsOnASettledNode() throws Exception {
+        SimulatedNode node = new SimulatedNode(100);
+        newSearch(node).stepwiseSearch(50, 50, 200);
+
+        // Every run found the pool drained, a block sealed since, and the nonces resynchronized.
+        Assert.assertEquals(Collections.nCopies(3, "settled"), node.stateAtRuns);
+        Assert.assertEquals(3, node.source.resynchronizations);
+    }
+
+    @Test
+    public void testUnsettledNodeIsMeasuredAfterTimeout() throws Exception {
+        SimulatedNode node = new SimulatedNode(100);
+        node.pendingAfterRun = Long.MAX_VALUE;
+        node.pending = Long.MAX_VALUE;
+        ThroughputSearch search = newSearch(node);
+        search.setSettleTimeout(300, TimeUnit.MILLISECONDS);
+
+        Assert.assertTrue(search.measure(50).isSustained());
+        Assert.assertEquals(Collections.singletonList("pool not drained"), node.stateAtRuns);
+    }
+
+    @Test
+    public void testBacklogToleranceDoesNotScaleWithRate() throws Exception {
+        // At ten times the rate, five percent over capacity grows the backlog well past the tolerance.
+        SimulatedNode node = new SimulatedNode(1_000);
+        ThroughputSearch search = newSearch(node);
+
+        Assert.assertTrue(search.measure(1_000).isSustained());
+        CapacityPoint over = search.measure(1_050);
+        Assert.assertFalse(over.isSustained());
+        Assert.assertTrue(over.getBacklogGrowth() > 10);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeBacklogTolerance() {
+        newSearch(new SimulatedNode(100)).setBacklogTolerance(-1);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testNullTarget() {
+        new ThroughputSearch(null, count -> Collections.emptyList(), 1, 1, 1, 1, TimeUnit.SECONDS);
+    }
+
+    private static ThroughputSearch newSearch(SimulatedNode node) {
+        return new ThroughputSearch(node, node.source, 1, 1, 4, 0, TimeUnit.SECONDS);
+    }
+
+    /**
+     * A node that seals transactions one after the other at a fixed capacity, 50 milliseconds
+     * after they could first be sealed, and whose pending pool takes a few queries to drain after
+     * each run. Runs are simulated rather than waited out.
+     */
+    private static final class SimulatedNode implements LoadTarget {
+        private final double capacityPerSecond;
+        private final CountingSource source = new CountingSource(this);
+        private final List<String> stateAtRuns = new ArrayList<>();
+        private long pendingAfterRun = 3;
+        private long pending = 0;
+        private long block = 0;
+        private long blockWhenDrained = -1;
+        private int runs = 0;
+
+        private SimulatedNode(double capacityPerSecond) {
+            this.capacityPerSecond = capacityPerSecond;
+        }
+
+        @Override
+        public LoadRecord run(List<RawTransaction> transactions, ArrivalSchedule schedule, long sealTimeout, TimeUnit unit) {
+            this.stateAtRuns.add(state());
+            this.source.resynchronizedSinceRun = false;
+            this.runs++;
+
+            long start = System.nanoTime();
+            LoadRecord record = new LoadRecord(schedule, start);
+            long intervalInNanos = (long) (TimeUnit.SECONDS.toNanos(1) / this.capacityPerSecond);
+            long lastSeal = Long.MIN_VALUE;
+            for (int i = 0; i < schedule.numberOfArrivals(); i++) {
+                long sent = start + schedule.offsetOfArrival(i, TimeUnit.NANOSECONDS);
+                long sealable = (lastSeal == Long.MIN_VALUE) ? sent : Math.max(sent, lastSeal + intervalInNanos);
+                lastSeal = sealable;
+                record.recordSend(i, sent);
+                record.recordSeal(i, sealable + TimeUnit.MILLISECONDS.toNanos(50));
+            }
+
+            this.pending = this.pendingAfterRun;
+            this.blockWhenDrained = -1;
+            return record;
+        }
+
+        @Override
+        public RpcResult<Long> getPendingTransactionCount() {
+            if (this.pending > 0) {
+                this.pending--;
+            }
+            if ((this.pending == 0) && (this.blockWhenDrained == -1)) {
+                this.blockWhenDrained = this.block;
+            }
+            return RpcResult.successful(this.pending, System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public RpcResult<Long> blockNumber() {
+            // A block is sealed every other query.
+            this.block++;
+            return RpcResult.successful(this.block / 2, System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        private String state() {
+            if (this.pending > 0) {
+                return "pool not drained";
+            }
+            if ((this.blockWhenDrained != -1) && (this.block / 2 <= this.blockWhenDrained / 2)) {
+                return "no block sealed since the pool drained";
+            }
+            return (this.source.resynchronizedSinceRun) ? "settled" : "not resynchronized";
+        }
+    }
+
+    private static final class CountingSource implements TransactionSource {
+        private final SimulatedNode node;
+        private int resynchronizations = 0;
+        private boolean resynchronizedSinceRun = false;
+
+        private CountingSource(SimulatedNode node) {
+            this.node = node;
+        }
+
+        @Override
+        public List<RawTransaction> nextTransactions(int count) {
+            // The simulated node never looks at the transactions themselves.
+            return Collections.nCopies(count, null);
+        }
+
+        @Override
+        public void resynchronize() {
+            this.resynchronizations++;
+            this.resynchronizedSinceRun = (this.node.pending == 0);
+        }
+    }
+}
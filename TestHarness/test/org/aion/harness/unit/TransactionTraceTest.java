@@ -0,0 +1,64 @@
+package org.aion.harness.unit;
+
+import java.util.concurrent.TimeUnit;
+import org.aion.harness.load.TransactionTrace;
+import org.aion.harness.load.TransactionTrace.Stage;
+import org.aion.harness.result.TransactionResult;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TransactionTraceTest {
+
+    @Test
+    public void testStageLatencySkipsUnrecordedStages() {
+        TransactionTrace trace = new TransactionTrace(2);
+        trace.recordStage(0, Stage.SUBMIT_STARTED, 1_000);
+        trace.recordStage(0, Stage.SUBMIT_ACKNOWLEDGED, 4_000);
+        trace.recordStage(0, Stage.SEALED_OBSERVED, 10_000);
+
+        Assert.assertEquals(3_000, trace.stageLatency(0, Stage.SUBMIT_ACKNOWLEDGED, TimeUnit.NANOSECONDS));
+        Assert.assertEquals(6_000, trace.stageLatency(0, Stage.SEALED_OBSERVED, TimeUnit.NANOSECONDS));
+        Assert.assertEquals(TransactionTrace.NOT_RECORDED, trace.stageLatency(0, Stage.SUBMIT_STARTED, TimeUnit.NANOSECONDS));
+        Assert.assertEquals(TransactionTrace.NOT_RECORDED, trace.stageLatency(0, Stage.PENDING, TimeUnit.NANOSECONDS));
+        Assert.assertEquals(TransactionTrace.NOT_RECORDED, trace.stageLatency(1, Stage.SEALED_OBSERVED, TimeUnit.NANOSECONDS));
+    }
+
+    @Test
+    public void testStageLatenciesHistogramCountsOnlyReachedStages() {
+        TransactionTrace trace = new TransactionTrace(3);
+        for (int i = 0; i < 3; i++) {
+            trace.recordStage(i, Stage.SUBMIT_STARTED, 0);
+        }
+        trace.recordStage(0, Stage.SUBMIT_ACKNOWLEDGED, 100);
+        trace.recordStage(2, Stage.SUBMIT_ACKNOWLEDGED, 300);
+
+        Assert.assertEquals(2, trace.getStageLatencies(Stage.SUBMIT_ACKNOWLEDGED).getTotalCount());
+        Assert.assertEquals(300, trace.getStageLatencies(Stage.SUBMIT_ACKNOWLEDGED).getMaximum());
+        Assert.assertEquals(0, trace.getStageLatencies(Stage.RECEIPT_FETCHED).getTotalCount());
+    }
+
+    @Test
+    public void testInclusionIsPlacedOnTheNanoTimeClock() {
+        TransactionTrace trace = new TransactionTrace(1);
+        long nowInSeconds = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+        long nowInNanos = System.nanoTime();
+
+        trace.recordInclusion(0, 42, nowInSeconds);
+
+        Assert.assertEquals(42, trace.blockNumber(0));
+        Assert.assertEquals(nowInSeconds, trace.blockTimestamp(0));
+        long included = trace.stageTime(0, Stage.INCLUDED, TimeUnit.NANOSECONDS);
+        Assert.assertTrue(Math.abs(included - nowInNanos) < TimeUnit.SECONDS.toNanos(2));
+    }
+
+    @Test
+    public void testFailedBuildIsNotMarkedSigned() {
+        TransactionTrace trace = new TransactionTrace(1);
+
+        TransactionResult result = trace.traceBuild(0, () -> TransactionResult.unsuccessful("no key"));
+
+        Assert.assertFalse(result.isSuccess());
+        Assert.assertNotEquals(TransactionTrace.NOT_RECORDED, trace.stageTime(0, Stage.BUILD_STARTED, TimeUnit.NANOSECONDS));
+        Assert.assertEquals(TransactionTrace.NOT_RECORDED, trace.stageTime(0, Stage.SIGNED, TimeUnit.NANOSECONDS));
+    }
+}
@@ -12,13 +12,8 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
-import org.aion.avm.core.dappreading.JarBuilder;
-import org.aion.avm.core.util.CodeAndArguments;
-import org.aion.avm.userlib.abi.ABIDecoder;
 import org.aion.avm.userlib.abi.ABIEncoder;
-import org.aion.avm.userlib.abi.ABIException;
 import org.aion.avm.userlib.abi.ABIStreamingEncoder;
-import org.aion.avm.userlib.abi.ABIToken;
 import org.aion.harness.kernel.Address;
 import org.aion.harness.kernel.RawTransaction;
 import org.aion.harness.main.NodeFactory.NodeType;
@@ -36,6 +31,7 @@ import org.aion.harness.result.TransactionResult;
 import org.aion.harness.tests.contracts.avm.LogTarget;
 import org.aion.harness.tests.integ.runner.ExcludeNodeType;
 import org.aion.harness.tests.integ.runner.SequentialRunner;
+import org.aion.harness.tests.integ.runner.internal.ChainStateFixture;
 import org.aion.harness.tests.integ.runner.internal.LocalNodeListener;
 import org.aion.harness.tests.integ.runner.internal.PreminedAccount;
 import org.aion.harness.tests.integ.runner.internal.PrepackagedLogEventsFactory;
@@ -64,9 +60,12 @@ public class AvmReceiptLogTest {
     @Rule
     private PrepackagedLogEventsFactory prepackagedLogEventsFactory = new PrepackagedLogEventsFactory();
 
+    @Rule
+    private ChainStateFixture chainStateFixture = new ChainStateFixture();
+
     @Test
     public void testContractWritesNoLogs() throws Exception {
-        Address contract = deployLogTargetContract();
+        Address contract = this.chainStateFixture.getContract(ChainStateFixture.LOG_TARGET);
 
         TransactionReceipt receipt = callMethodWriteNoLogs(contract);
         assertTrue(receipt.transactionWasSuccessful());
@@ -75,7 +74,7 @@ public class AvmReceiptLogTest {
 
     @Test
     public void testContractWritesDataOnlyLog() throws Exception {
-        Address contract = deployLogTargetContract();
+        Address contract = this.chainStateFixture.getContract(ChainStateFixture.LOG_TARGET);
 
         TransactionReceipt receipt = callMethodWriteDataOnlyLog(contract);
         assertTrue(receipt.transactionWasSuccessful());
@@ -89,7 +88,7 @@ public class AvmReceiptLogTest {
 
     @Test
     public void testContractWritesLogWithOneTopic() throws Exception {
-        Address contract = deployLogTargetContract();
+        Address contract = this.chainStateFixture.getContract(ChainStateFixture.LOG_TARGET);
 
         TransactionReceipt receipt = callMethodWriteDataLogWithOneTopic(contract);
         assertTrue(receipt.transactionWasSuccessful());
@@ -103,7 +102,7 @@ public class AvmReceiptLogTest {
 
     @Test
     public void testContractWritesLogWithTwoTopics() throws Exception {
-        Address contract = deployLogTargetContract();
+        Address contract = this.chainStateFixture.getContract(ChainStateFixture.LOG_TARGET);
 
         TransactionReceipt receipt = callMethodWriteDataLogWithTwoTopics(contract);
         assertTrue(receipt.transactionWasSuccessful());
@@ -117,7 +116,7 @@ public class AvmReceiptLogTest {
 
     @Test
     public void testContractWritesLogWithThreeTopics() throws Exception {
-        Address contract = deployLogTargetContract();
+        Address contract = this.chainStateFixture.getContract(ChainStateFixture.LOG_TARGET);
 
         TransactionReceipt receipt = callMethodWriteDataLogWithThreeTopics(contract);
         assertTrue(receipt.transactionWasSuccessful());
@@ -131,7 +130,7 @@ public class AvmReceiptLogTest {
 
     @Test
     public void testContractWritesLogWithFourTopics() throws Exception {
-        Address contract = deployLogTargetContract();
+        Address contract = this.chainStateFixture.getContract(ChainStateFixture.LOG_TARGET);
 
         TransactionReceipt receipt = callMethodWriteDataLogWithFourTopics(contract);
         assertTrue(receipt.transactionWasSuccessful());
@@ -145,7 +144,7 @@ public class AvmReceiptLogTest {
 
     @Test
     public void testContractWritesMultipleLogs() throws Exception {
-        Address contract = deployLogTargetContract();
+        Address contract = this.chainStateFixture.getContract(ChainStateFixture.LOG_TARGET);
 
         TransactionReceipt receipt = callMethodWriteAllLogs(contract);
         assertTrue(receipt.transactionWasSuccessful());
@@ -184,8 +183,8 @@ public class AvmReceiptLogTest {
 
     @Test
     public void testContractWritesMultipleLogsAndAlsoLogsInternalCall() throws Exception {
-        Address callerContract = deployLogTargetContract();
-        Address calleeContract = deployLogTargetContract();
+        Address callerContract = this.chainStateFixture.getContract(ChainStateFixture.LOG_TARGET);
+        Address calleeContract = this.chainStateFixture.getContract(ChainStateFixture.LOG_TARGET_CALLEE);
 
         // The internal call will invoke the writeAllLogs method.
         byte[] internalCallData = new ABIStreamingEncoder().encodeOneString("writeAllLogs").toBytes();
@@ -394,21 +393,6 @@ public class AvmReceiptLogTest {
         return buildResult.getTransaction();
     }
 
-    private Address deployLogTargetContract() throws InterruptedException, TimeoutException {
-        TransactionResult result = RawTransaction.buildAndSignAvmCreateTransaction(
-            this.preminedAccount.getPrivateKey(),
-            this.preminedAccount.getAndIncrementNonce(),
-            getAvmContractBytes(),
-            ENERGY_LIMIT,
-            ENERGY_PRICE,
-            BigInteger.ZERO);
-        assertTrue(result.isSuccess());
-
-        TransactionReceipt receipt = sendTransaction(result.getTransaction());
-        assertTrue(receipt.getAddressOfDeployedContract().isPresent());
-        return receipt.getAddressOfDeployedContract().get();
-    }
-
     private TransactionReceipt sendTransaction(RawTransaction transaction)
         throws InterruptedException, TimeoutException {
         // we want to ensure that the transaction gets sealed into a block.
@@ -441,10 +425,6 @@ public class AvmReceiptLogTest {
         return receiptResult.getResult();
     }
 
-    private byte[] getAvmContractBytes() {
-        return new CodeAndArguments(JarBuilder.buildJarForMainAndClasses(LogTarget.class, ABIDecoder.class, ABIToken.class, ABIException.class), new byte[0]).encodeToBytes();
-    }
-
     private static byte[] padOrTruncateTo32bytes(byte[] bytes) {
         return Arrays.copyOf(bytes, 32);
     }
@@ -23,6 +23,7 @@ import org.aion.harness.kernel.BulkRawTransactionBuilder.TransactionType;
 import org.aion.harness.kernel.PrivateKey;
 import org.aion.harness.kernel.RawTransaction;
 import org.aion.harness.main.NodeFactory.NodeType;
+import org.aion.harness.main.NonceManager;
 import org.aion.harness.main.RPC;
 import org.aion.harness.main.event.IEvent;
 import org.aion.harness.main.event.PrepackagedLogEvents;
@@ -74,7 +75,7 @@ public class BulkBalanceTransferTest {
         throws InterruptedException, InvalidKeySpecException, DecoderException, TimeoutException {
         List<Address> recipients = randomAddresses(NUMBER_OF_TRANSACTIONS);
         List<BigInteger> amounts = randomAmounts(NUMBER_OF_TRANSACTIONS);
-        BigInteger initialNonce = this.preminedAccount.getNonce();
+        BigInteger initialNonce = this.preminedAccount.getAndIncrementNonceBy(NUMBER_OF_TRANSACTIONS);
 
         List<RawTransaction> transactions = buildRandomTransactionsFromSameSender(
             NUMBER_OF_TRANSACTIONS, recipients, amounts, initialNonce);
@@ -103,6 +104,12 @@ public class BulkBalanceTransferTest {
         List<Address> recipients = randomAddresses(NUMBER_OF_TRANSACTIONS);
         List<BigInteger> amounts = randomAmounts(NUMBER_OF_TRANSACTIONS);
 
+        // The senders are brand new accounts, so there is no need to ask the kernel for their nonces.
+        NonceManager nonceManager = this.preminedAccount.getNonceManager();
+        for (Address sender : senderAddresses) {
+            nonceManager.track(sender, BigInteger.ZERO);
+        }
+
         // Send balance to all of the other sender accounts.
         BigInteger amount = BigInteger.TEN.pow(20);
 
@@ -123,7 +130,7 @@ public class BulkBalanceTransferTest {
         }
 
         // Now we can send out our balance transfer transactions from our new sender accounts.
-        transactions = buildRandomTransactionsFromMultipleSenders(NUMBER_OF_TRANSACTIONS, senders, recipients, amounts);
+        transactions = buildRandomTransactionsFromMultipleSenders(NUMBER_OF_TRANSACTIONS, senders, recipients, amounts, nonceManager);
         transferReceipts = sendTransactions(transactions);
 
         // Verify that each of the sender accounts have the expected balances.
@@ -221,12 +228,6 @@ public class BulkBalanceTransferTest {
         return getBalance(this.preminedAccount.getAddress());
     }
 
-    private BigInteger getNonce(Address address) throws InterruptedException {
-        RpcResult<BigInteger> nonceResult = this.rpc.getNonce(address);
-        assertRpcSuccess(nonceResult);
-        return nonceResult.getResult();
-    }
-
     private BigInteger getBalance(Address address) throws InterruptedException {
         RpcResult<BigInteger> balanceResult = this.rpc.getBalance(address);
         assertRpcSuccess(balanceResult);
@@ -295,7 +296,7 @@ public class BulkBalanceTransferTest {
         return cost;
     }
 
-    private List<RawTransaction> buildRandomTransactionsFromMultipleSenders(int numberOfTransactions, List<PrivateKey> senders, List<Address> recipients, List<BigInteger> amounts) throws DecoderException {
+    private List<RawTransaction> buildRandomTransactionsFromMultipleSenders(int numberOfTransactions, List<PrivateKey> senders, List<Address> recipients, List<BigInteger> amounts, NonceManager nonceManager) throws DecoderException, InterruptedException {
         assertEquals(numberOfTransactions, senders.size());
         assertEquals(numberOfTransactions, amounts.size());
 
@@ -303,7 +304,7 @@ public class BulkBalanceTransferTest {
 
         List<RawTransaction> transactions = new ArrayList<>();
         for (int i = 0; i < numberOfTransactions; i++) {
-            transactions.add(buildTransaction(TransactionKind.fromInt(random.nextInt(3)), senders.get(i), recipients.get(i), amounts.get(i), BigInteger.ZERO));
+            transactions.add(buildTransaction(TransactionKind.fromInt(random.nextInt(3)), senders.get(i), recipients.get(i), amounts.get(i), nonceManager.getAndIncrementNonce(senders.get(i).getAddress())));
         }
         return transactions;
     }
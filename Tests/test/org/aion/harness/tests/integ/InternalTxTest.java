@@ -2,17 +2,11 @@ package org.aion.harness.tests.integ;
 
 import static org.aion.harness.tests.contracts.Assertions.assertRpcSuccess;
 import static org.junit.Assert.assertFalse;
-import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
 import java.math.BigInteger;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
-import org.aion.avm.core.dappreading.JarBuilder;
-import org.aion.avm.core.util.CodeAndArguments;
-import org.aion.avm.userlib.abi.ABIDecoder;
-import org.aion.avm.userlib.abi.ABIEncoder;
-import org.aion.avm.userlib.abi.ABIException;
 import org.aion.avm.userlib.abi.ABIStreamingEncoder;
 import org.aion.harness.kernel.Address;
 import org.aion.harness.kernel.RawTransaction;
@@ -26,9 +20,9 @@ import org.aion.harness.result.FutureResult;
 import org.aion.harness.result.LogEventResult;
 import org.aion.harness.result.RpcResult;
 import org.aion.harness.result.TransactionResult;
-import org.aion.harness.tests.contracts.avm.InternalTxTarget;
 import org.aion.harness.tests.integ.runner.ExcludeNodeType;
 import org.aion.harness.tests.integ.runner.SequentialRunner;
+import org.aion.harness.tests.integ.runner.internal.ChainStateFixture;
 import org.aion.harness.tests.integ.runner.internal.LocalNodeListener;
 import org.aion.harness.tests.integ.runner.internal.PreminedAccount;
 import org.aion.harness.tests.integ.runner.internal.PrepackagedLogEventsFactory;
@@ -52,50 +46,30 @@ public class InternalTxTest {
     
     @Rule
     private PrepackagedLogEventsFactory prepackagedLogEventsFactory = new PrepackagedLogEventsFactory();
-    
+
+    @Rule
+    private ChainStateFixture chainStateFixture = new ChainStateFixture();
+
     @Test
     public void testAvmContractPass() throws Exception {
 
-        System.out.println("Deploying avm contract...");
-        TransactionReceipt receipt = deployAvmContract();
-        assertTrue(receipt.transactionWasSuccessful());
-        Address avmContract = receipt.getAddressOfDeployedContract().get();
-        assertNotNull(avmContract);
+        Address avmContract = this.chainStateFixture.getContract(ChainStateFixture.INTERNAL_TX_TARGET);
 
         System.out.println("Calling avm contract...");
-        this.preminedAccount.incrementNonce();
-        receipt = callAvmContract(avmContract, "callSelfToGetSix", 9, true);
+        TransactionReceipt receipt = callAvmContract(avmContract, "callSelfToGetSix", 9, true);
         assertTrue(receipt.transactionWasSuccessful());
     }
 
     @Test
     public void testAvmContractFail() throws Exception {
 
-        System.out.println("Deploying avm contract...");
-        TransactionReceipt receipt = deployAvmContract();
-        assertTrue(receipt.transactionWasSuccessful());
-        Address avmContract = receipt.getAddressOfDeployedContract().get();
-        assertNotNull(avmContract);
+        Address avmContract = this.chainStateFixture.getContract(ChainStateFixture.INTERNAL_TX_TARGET);
 
         System.out.println("Calling avm contract...");
-        this.preminedAccount.incrementNonce();
-        receipt = callAvmContract(avmContract, "callSelfToGetSix", 10, false);
+        TransactionReceipt receipt = callAvmContract(avmContract, "callSelfToGetSix", 10, false);
         assertFalse(receipt.transactionWasSuccessful());
     }
 
-    private TransactionReceipt deployAvmContract() throws InterruptedException, TimeoutException {
-        TransactionResult result = RawTransaction.buildAndSignAvmCreateTransaction(
-            this.preminedAccount.getPrivateKey(),
-            this.preminedAccount.getNonce(),
-            getAvmContractBytes(),
-            ENERGY_LIMIT,
-            ENERGY_PRICE,
-            BigInteger.ZERO);
-        assertTrue(result.isSuccess());
-
-        return sendDeployment(result.getTransaction());
-    }
-
     private TransactionReceipt
     callAvmContract(Address contract, String methodName, int parameter, boolean shouldSucceed)
     throws InterruptedException, TimeoutException {
@@ -115,38 +89,6 @@ public class InternalTxTest {
             shouldSucceed ? sendCallToSucceed(result.getTransaction()) : sendCallToFail(result.getTransaction());
     }
 
-    private TransactionReceipt sendDeployment(RawTransaction transaction)
-    throws InterruptedException, TimeoutException {
-        // we want to ensure that the transaction gets sealed into a block.
-        IEvent transactionIsSealed = prepackagedLogEventsFactory.build().getTransactionSealedEvent(transaction);
-        IEvent transactionIsRejected = prepackagedLogEventsFactory.build().getTransactionRejectedEvent(transaction);
-        IEvent transactionProcessed = Event.or(transactionIsSealed, transactionIsRejected);
-
-        FutureResult<LogEventResult> future = listener.listenForEvent(transactionProcessed, 5, TimeUnit.MINUTES);
-
-        // Send the transaction off.
-        System.out.println("Sending the transaction...");
-        RpcResult<ReceiptHash> sendResult = rpc.sendTransaction(transaction);
-        assertRpcSuccess(sendResult);
-
-        // Wait on the future to complete and ensure we saw the transaction get sealed.
-        System.out.println("Waiting for the transaction to process...");
-        LogEventResult listenResult = future.get(5, TimeUnit.MINUTES);
-        assertTrue(listenResult.eventWasObserved());
-
-        // Verify it was sealed and not rejected.
-        assertFalse(transactionIsRejected.hasBeenObserved());
-        assertTrue(transactionIsSealed.hasBeenObserved());
-        System.out.println("Transaction was sealed into a block.");
-
-        ReceiptHash hash = sendResult.getResult();
-
-        RpcResult<TransactionReceipt> receiptResult = rpc.getTransactionReceipt(hash);
-        assertRpcSuccess(receiptResult);
-
-        return receiptResult.getResult();
-    }
-
     private TransactionReceipt sendCallToSucceed(RawTransaction transaction) throws InterruptedException {
         // we want to ensure that the transaction gets sealed into a block.
         IEvent transactionIsSealed = prepackagedLogEventsFactory.build().getTransactionSealedEvent(transaction);
@@ -224,9 +166,4 @@ public class InternalTxTest {
 
         return receiptResult.getResult();
     }
-
-    private byte[] getAvmContractBytes() {
-        return new CodeAndArguments(JarBuilder.buildJarForMainAndClasses(InternalTxTarget.class,
-            ABIDecoder.class, ABIEncoder.class, ABIException.class), new byte[0]).encodeToBytes();
-    }
 }
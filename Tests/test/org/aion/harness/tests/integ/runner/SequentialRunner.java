@@ -1,7 +1,5 @@
 package org.aion.harness.tests.integ.runner;
 
-import java.io.File;
-import java.io.IOException;
 import java.io.PrintStream;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
@@ -12,6 +10,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import org.aion.harness.main.NodeFactory.NodeType;
+import org.aion.harness.main.RPC;
 import org.aion.harness.main.event.JavaPrepackagedLogEvents;
 import org.aion.harness.main.event.RustPrepackagedLogEvents;
 import org.aion.harness.tests.integ.runner.exception.TestRunnerInitializationException;
@@ -22,7 +21,6 @@ import org.aion.harness.tests.integ.runner.internal.TestContext;
 import org.aion.harness.tests.integ.runner.internal.TestExecutor;
 import org.aion.harness.tests.integ.runner.internal.TestNodeManager;
 import org.aion.harness.tests.integ.runner.internal.TestResult;
-import org.apache.commons.io.FileUtils;
 import org.junit.runner.Description;
 import org.junit.runner.Runner;
 import org.junit.runner.notification.Failure;
@@ -131,18 +129,8 @@ public final class SequentialRunner extends Runner {
                 e.printStackTrace();
                 throw e;
             } finally {
-                // Ensure that the node gets shut down properly.
+                // Give the node back to the pool, the log files are deleted once it is stopped.
                 stopNode(testNodeManager);
-
-                // Delete the log files unless specified not to.
-                if (System.getProperty("skipCleanLogs") == null) {
-                    try {
-                        FileUtils
-                            .deleteDirectory(new File(System.getProperty("user.dir") + "/logs"));
-                    } catch (IOException e) {
-                        e.printStackTrace();
-                    }
-                }
             }
         }
 
@@ -162,9 +150,9 @@ public final class SequentialRunner extends Runner {
         // Run all of the tests on a single thread.
         final PreminedAccountFunder paf;
         if(nt == NodeType.RUST_NODE || nt == NodeType.PROXY_RUST_NODE) {
-            paf = new PreminedAccountFunder(testNodeManager, new RustPrepackagedLogEvents());
+            paf = new PreminedAccountFunder(testNodeManager, new RustPrepackagedLogEvents(), new RPC("127.0.0.1", "8545"));
         } else if (nt == NodeType.JAVA_NODE || nt == NodeType.PROXY_JAVA_NODE) {
-            paf = new PreminedAccountFunder(testNodeManager, new JavaPrepackagedLogEvents());
+            paf = new PreminedAccountFunder(testNodeManager, new JavaPrepackagedLogEvents(), new RPC("127.0.0.1", "8545"));
         } else {
             throw new IllegalArgumentException(String.format(
                 "Don't know how to construct PremindedAccountFunder for NodeType '%s'.",
@@ -0,0 +1,51 @@
+package org.aion.harness.tests.integ.runner.internal;
+
+import org.aion.harness.kernel.Address;
+import org.junit.rules.TestRule;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+
+/**
+ * The prebuilt chain state the node was started from, which gives tests the addresses of contracts
+ * that are already deployed so that they do not have to deploy them themselves.
+ *
+ * The fixture contracts are shared by every test running against the node, so tests must not rely
+ * on them holding any state of their own. See {@link ChainStateFixtures} for how the state is built.
+ */
+public final class ChainStateFixture implements TestRule {
+    public static final String AVM_CROSS_CALL_DISPATCHER = "AvmCrossCallDispatcher";
+    public static final String FVM_CROSS_CALL_DISPATCHER = "FvmCrossCallDispatcher";
+    public static final String INTERNAL_TX_TARGET = "InternalTxTarget";
+    public static final String LOG_TARGET = "LogTarget";
+    public static final String LOG_TARGET_CALLEE = "LogTargetCallee";
+
+    private ChainStateManifest manifest;
+
+    /**
+     * This method is invoked via reflection by the custom runner classes to initialize the fixture.
+     */
+    private void setManifest(ChainStateManifest manifest) {
+        this.manifest = manifest;
+    }
+
+    /**
+     * Do not invoke.
+     */
+    @Override
+    public Statement apply(Statement statement, Description description) {
+        throw new UnsupportedOperationException("Didn't you read my doc?");
+    }
+
+    /**
+     * Returns the address of the fixture contract deployed under the specified name, which is one of
+     * the names defined by this class.
+     *
+     * @throws IllegalStateException if the node was not started from a prebuilt chain state.
+     */
+    public Address getContract(String name) {
+        if (this.manifest == null) {
+            throw new IllegalStateException("The node was not started from a prebuilt chain state, so no fixture contracts are deployed.");
+        }
+        return this.manifest.getContract(name);
+    }
+}
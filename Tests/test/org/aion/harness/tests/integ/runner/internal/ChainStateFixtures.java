@@ -0,0 +1,385 @@
+package org.aion.harness.tests.integ.runner.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.aion.avm.core.dappreading.JarBuilder;
+import org.aion.avm.core.util.CodeAndArguments;
+import org.aion.avm.userlib.abi.ABIDecoder;
+import org.aion.avm.userlib.abi.ABIEncoder;
+import org.aion.avm.userlib.abi.ABIException;
+import org.aion.avm.userlib.abi.ABIToken;
+import org.aion.harness.kernel.Address;
+import org.aion.harness.kernel.PrivateKey;
+import org.aion.harness.kernel.RawTransaction;
+import org.aion.harness.main.LocalNode;
+import org.aion.harness.main.NodeFactory.NodeType;
+import org.aion.harness.main.NodeListener;
+import org.aion.harness.main.RPC;
+import org.aion.harness.main.event.Event;
+import org.aion.harness.main.event.IEvent;
+import org.aion.harness.main.event.JavaPrepackagedLogEvents;
+import org.aion.harness.main.event.PrepackagedLogEvents;
+import org.aion.harness.main.event.RustPrepackagedLogEvents;
+import org.aion.harness.main.types.ReceiptHash;
+import org.aion.harness.main.types.TransactionReceipt;
+import org.aion.harness.result.FutureResult;
+import org.aion.harness.result.LogEventResult;
+import org.aion.harness.result.Result;
+import org.aion.harness.result.RpcResult;
+import org.aion.harness.result.TransactionResult;
+import org.aion.harness.tests.contracts.avm.AvmCrossCallDispatcher;
+import org.aion.harness.tests.contracts.avm.InternalTxTarget;
+import org.aion.harness.tests.contracts.avm.LogTarget;
+import org.aion.harness.tests.integ.runner.exception.UnexpectedTestRunnerException;
+import org.apache.commons.codec.DecoderException;
+import org.apache.commons.codec.binary.Hex;
+
+/**
+ * The pipeline that builds the chain state handed to tests through the {@link ChainStateFixture}
+ * rule: a chain with the contracts that many tests call already deployed, so that those tests do
+ * not have to deploy them (and wait for the deployments to be sealed) on every run.
+ *
+ * The state is built once, by deploying every fixture contract from the real pre-mined account
+ * against the running node. The node is then stopped, its database saved as a snapshot, and a
+ * {@link ChainStateManifest} recording the contract addresses and account balances is written to
+ * the fixtures directory. On later runs the snapshot is restored into the node's database before it
+ * starts, which takes milliseconds. The state is rebuilt whenever the contract code, the kernel
+ * configuration or the kernel build itself changes, since a new kernel may not be able to read the
+ * database an older one saved; deleting the fixtures directory also forces a rebuild.
+ *
+ * If the state cannot be built, for example because a kernel rejects one of the deployments, the
+ * tests still run against the node but those using the fixture fail.
+ */
+public final class ChainStateFixtures {
+    private static final String WORKING_DIR = System.getProperty("user.dir");
+    private static final File FIXTURES_DIR = new File(WORKING_DIR, "fixtures");
+
+    /**
+     * The executable of the Rust kernel and the directories holding the code of either kernel,
+     * relative to the kernel directory.
+     */
+    private static final String[] KERNEL_BINARIES = { "aion", "lib", "libs", "mod" };
+
+    private static final long ENERGY_LIMIT = 1_234_567L;
+    private static final long ENERGY_PRICE = 10_010_020_345L;
+
+    /**
+     * See src/org/aion/harness/tests/contracts/fvm/FvmCrossCallDispatcher.sol for the contract itself.
+     */
+    private static final String FVM_CROSS_CALL_DISPATCHER_CODE = "605060405234156100105760006000fd5b610015565b610105806100246000396000f30060506040526000356c01000000000000000000000000900463ffffffff1680638f2a06d514603157602b565b60006000fd5b3415603c5760006000fd5b605860048080806010013590359091602001909192905050605a565b005b818160405180806f73616d706c652875696e743132382900815260100150600f019050604051809103902090506c0100000000000000000000000090046040518163ffffffff166c01000000000000000000000000028152600401600060405180830381600088885af19350505050151560d45760006000fd5b5b50505600a165627a7a72305820c49126936a14c9e5246af4d9f33d7c62b2178c20b7986799854c73ef0fe047280029";
+
+    private final NodeType nodeType;
+    private final String snapshotName;
+    private final File manifestFile;
+    private final String fingerprint;
+    private final RPC rpc;
+
+    /**
+     * Constructs the fixtures of the specified node type, whose kernel is built in the specified
+     * kernel directory and configured with the configuration files in the specified directory.
+     */
+    public ChainStateFixtures(NodeType nodeType, File kernelDirectory, File kernelConfigurations) throws IOException {
+        this.nodeType = nodeType;
+        this.snapshotName = "chain-state-" + nodeType.name().toLowerCase();
+        this.manifestFile = new File(FIXTURES_DIR, this.snapshotName + ".json");
+        this.fingerprint = fingerprintOf(nodeType, kernelDirectory, kernelConfigurations);
+        this.rpc = new RPC("127.0.0.1", "8545");
+    }
+
+    /**
+     * Returns the name of the database snapshot holding the prebuilt chain state.
+     */
+    public String getSnapshotName() {
+        return this.snapshotName;
+    }
+
+    /**
+     * Restores the saved chain state into the database of the specified node, which must not be
+     * running, and returns its manifest. Returns null, leaving the database as it was, if there is
+     * no saved state or it was built from different contracts or configurations.
+     */
+    public ChainStateManifest restore(LocalNode node) throws IOException {
+        if (!this.manifestFile.isFile()) {
+            return null;
+        }
+
+        ChainStateManifest manifest;
+        try {
+            manifest = ChainStateManifest.readFrom(this.manifestFile);
+        } catch (IOException e) {
+            System.err.println("Ignoring the chain state fixture: " + e.getMessage());
+            return null;
+        }
+        if (!manifest.fingerprint.equals(this.fingerprint)) {
+            System.out.println("The chain state fixture is out of date and will be rebuilt.");
+            return null;
+        }
+
+        Result result = node.restoreState(this.snapshotName);
+        if (!result.isSuccess()) {
+            System.err.println("Failed to restore the chain state fixture: " + result.getError());
+            return null;
+        }
+        return manifest;
+    }
+
+    /**
+     * Returns {@code true} only if the running node holds the chain state described by the
+     * manifest, as far as the balances it records and the height of the chain can tell.
+     */
+    public boolean isLoaded(ChainStateManifest manifest) throws InterruptedException {
+        RpcResult<Long> blockNumber = this.rpc.blockNumber();
+        if (!blockNumber.isSuccess() || (blockNumber.getResult() < manifest.blockNumber)) {
+            return false;
+        }
+        for (Map.Entry<Address, BigInteger> balance : manifest.getBalances().entrySet()) {
+            RpcResult<BigInteger> actual = this.rpc.getBalance(balance.getKey());
+            if (!actual.isSuccess() || !actual.getResult().equals(balance.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Deploys every fixture contract against the running node, whose logs the listener listens to,
+     * and returns the manifest of the resulting chain state. The state still has to be saved once
+     * the node is stopped.
+     */
+    public ChainStateManifest deploy(NodeListener listener) throws InterruptedException, TimeoutException {
+        PrivateKey preminedAccount = PreminedAccountFunder.getRealPreminedAccount();
+        PrepackagedLogEvents prepackagedLogEvents = ((this.nodeType == NodeType.RUST_NODE) || (this.nodeType == NodeType.PROXY_RUST_NODE))
+            ? new RustPrepackagedLogEvents()
+            : new JavaPrepackagedLogEvents();
+
+        RpcResult<BigInteger> nonceResult = this.rpc.getNonce(preminedAccount.getAddress());
+        if (!nonceResult.isSuccess()) {
+            throw new UnexpectedTestRunnerException("Failed to get the nonce of the real pre-mined account: " + nonceResult.getError());
+        }
+        BigInteger nonce = nonceResult.getResult();
+
+        // Send every deployment at once, so they are all sealed together.
+        Map<String, byte[]> contracts = contractCode();
+        List<String> names = new ArrayList<>(contracts.keySet());
+        List<RawTransaction> transactions = new ArrayList<>();
+        for (String name : names) {
+            TransactionResult result = (name.equals(ChainStateFixture.FVM_CROSS_CALL_DISPATCHER))
+                ? RawTransaction.buildAndSignGeneralTransaction(preminedAccount, nonce, null, contracts.get(name), ENERGY_LIMIT, ENERGY_PRICE, BigInteger.ZERO)
+                : RawTransaction.buildAndSignAvmCreateTransaction(preminedAccount, nonce, contracts.get(name), ENERGY_LIMIT, ENERGY_PRICE, BigInteger.ZERO);
+            if (!result.isSuccess()) {
+                throw new UnexpectedTestRunnerException("Failed to build the deployment of " + name + ": " + result.getError());
+            }
+            transactions.add(result.getTransaction());
+            nonce = nonce.add(BigInteger.ONE);
+        }
+
+        List<IEvent> sealedEvents = new ArrayList<>();
+        List<IEvent> processedEvents = new ArrayList<>();
+        for (RawTransaction transaction : transactions) {
+            IEvent transactionSealed = prepackagedLogEvents.getTransactionSealedEvent(transaction);
+            sealedEvents.add(transactionSealed);
+            processedEvents.add(Event.or(transactionSealed, prepackagedLogEvents.getTransactionRejectedEvent(transaction)));
+        }
+        List<FutureResult<LogEventResult>> futures = listener.listenForEvents(processedEvents, 5, TimeUnit.MINUTES);
+
+        System.out.println("Deploying " + names.size() + " contracts to build the chain state fixture...");
+        List<RpcResult<ReceiptHash>> sendResults = this.rpc.sendTransactions(transactions);
+
+        Map<String, Address> addresses = new LinkedHashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            if (!sendResults.get(i).isSuccess()) {
+                throw new UnexpectedTestRunnerException("Failed to send the deployment of " + names.get(i) + ": " + sendResults.get(i).getError());
+            }
+            futures.get(i).get(5, TimeUnit.MINUTES);
+            if (!sealedEvents.get(i).hasBeenObserved()) {
+                throw new UnexpectedTestRunnerException("The deployment of " + names.get(i) + " was not sealed into a block.");
+            }
+
+            RpcResult<TransactionReceipt> receipt = this.rpc.getTransactionReceipt(sendResults.get(i).getResult());
+            if (!receipt.isSuccess() || !receipt.getResult().transactionWasSuccessful() || !receipt.getResult().getAddressOfDeployedContract().isPresent()) {
+                throw new UnexpectedTestRunnerException("The deployment of " + names.get(i) + " failed: " + receipt);
+            }
+            addresses.put(names.get(i), receipt.getResult().getAddressOfDeployedContract().get());
+        }
+
+        Map<Address, BigInteger> balances = new LinkedHashMap<>();
+        List<Address> accounts = new ArrayList<>();
+        accounts.add(preminedAccount.getAddress());
+        accounts.addAll(addresses.values());
+        for (Address account : accounts) {
+            RpcResult<BigInteger> balance = this.rpc.getBalance(account);
+            if (!balance.isSuccess()) {
+                throw new UnexpectedTestRunnerException("Failed to get the balance of " + account + ": " + balance.getError());
+            }
+            balances.put(account, balance.getResult());
+        }
+
+        RpcResult<Long> blockNumber = this.rpc.blockNumber();
+        if (!blockNumber.isSuccess()) {
+            throw new UnexpectedTestRunnerException("Failed to get the block number: " + blockNumber.getError());
+        }
+        return new ChainStateManifest(this.fingerprint, blockNumber.getResult(), addresses, balances);
+    }
+
+    /**
+     * Saves the database of the specified node, which must have been stopped since the state was
+     * deployed, along with the manifest of the state.
+     */
+    public Result save(LocalNode node, ChainStateManifest manifest) throws IOException {
+        Result result = node.saveState(this.snapshotName);
+        if (result.isSuccess()) {
+            manifest.writeTo(this.manifestFile);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the deployment code of each fixture contract, by the name it is deployed under.
+     */
+    private static Map<String, byte[]> contractCode() {
+        byte[] logTarget = new CodeAndArguments(JarBuilder.buildJarForMainAndClasses(LogTarget.class, ABIDecoder.class, ABIToken.class, ABIException.class), new byte[0]).encodeToBytes();
+
+        Map<String, byte[]> contracts = new LinkedHashMap<>();
+        contracts.put(ChainStateFixture.AVM_CROSS_CALL_DISPATCHER, new CodeAndArguments(JarBuilder.buildJarForMainAndClasses(AvmCrossCallDispatcher.class, ABIDecoder.class, ABIToken.class, ABIException.class), new byte[0]).encodeToBytes());
+        contracts.put(ChainStateFixture.FVM_CROSS_CALL_DISPATCHER, fvmCrossCallDispatcherCode());
+        contracts.put(ChainStateFixture.INTERNAL_TX_TARGET, new CodeAndArguments(JarBuilder.buildJarForMainAndClasses(InternalTxTarget.class, ABIDecoder.class, ABIEncoder.class, ABIException.class), new byte[0]).encodeToBytes());
+        contracts.put(ChainStateFixture.LOG_TARGET, logTarget);
+        contracts.put(ChainStateFixture.LOG_TARGET_CALLEE, logTarget);
+        return contracts;
+    }
+
+    private static byte[] fvmCrossCallDispatcherCode() {
+        try {
+            return Hex.decodeHex(FVM_CROSS_CALL_DISPATCHER_CODE);
+        } catch (DecoderException e) {
+            throw new UnexpectedTestRunnerException("The fvm cross call dispatcher code is not valid hex!", e);
+        }
+    }
+
+    /**
+     * Returns a digest of everything the chain state is built from: the node type, the classes of the
+     * fixture contracts, the kernel's binaries and the kernel's configuration files. Deployment jars
+     * themselves are not digested since they embed timestamps.
+     */
+    private static String fingerprintOf(NodeType nodeType, File kernelDirectory, File kernelConfigurations) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new UnexpectedTestRunnerException("SHA-256 is not available.", e);
+        }
+
+        digest.update(nodeType.name().getBytes(StandardCharsets.UTF_8));
+        digest.update(FVM_CROSS_CALL_DISPATCHER_CODE.getBytes(StandardCharsets.UTF_8));
+        for (Class<?> contractClass : new Class<?>[]{ AvmCrossCallDispatcher.class, InternalTxTarget.class, LogTarget.class, ABIDecoder.class, ABIEncoder.class, ABIToken.class, ABIException.class }) {
+            digestClassFiles(digest, contractClass);
+        }
+
+        for (String binaries : KERNEL_BINARIES) {
+            digestFiles(digest, kernelDirectory, new File(kernelDirectory, binaries));
+        }
+        digestFiles(digest, kernelConfigurations, kernelConfigurations);
+        return Hex.encodeHexString(digest.digest());
+    }
+
+    /**
+     * Digests the class file of the specified top-level class along with those of its nested, local
+     * and anonymous classes, since a change to any of them changes the deployed contract.
+     *
+     * The nested class files are found by listing the directory or jar the class was loaded from.
+     * If that location is unknown only the top-level class file is digested.
+     */
+    private static void digestClassFiles(MessageDigest digest, Class<?> topLevelClass) throws IOException {
+        String classFile = topLevelClass.getName().replace('.', '/') + ".class";
+        String nestedClassFilePrefix = topLevelClass.getName().replace('.', '/') + "$";
+
+        List<String> classFiles = new ArrayList<>();
+        classFiles.add(classFile);
+
+        CodeSource source = topLevelClass.getProtectionDomain().getCodeSource();
+        if ((source != null) && (source.getLocation() != null)) {
+            File location;
+            try {
+                location = new File(source.getLocation().toURI());
+            } catch (URISyntaxException | IllegalArgumentException e) {
+                throw new IOException("Cannot locate the class files of " + topLevelClass.getName(), e);
+            }
+
+            if (location.isDirectory()) {
+                File[] files = new File(location, classFile).getParentFile().listFiles();
+                if (files != null) {
+                    for (File file : files) {
+                        String name = location.toPath().relativize(file.toPath()).toString().replace(File.separatorChar, '/');
+                        if (name.startsWith(nestedClassFilePrefix) && name.endsWith(".class")) {
+                            classFiles.add(name);
+                        }
+                    }
+                }
+            } else if (location.isFile()) {
+                try (JarFile jar = new JarFile(location)) {
+                    jar.stream()
+                        .map(JarEntry::getName)
+                        .filter(name -> name.startsWith(nestedClassFilePrefix) && name.endsWith(".class"))
+                        .forEach(classFiles::add);
+                }
+            }
+        }
+
+        // The top-level class comes first, and its nested classes in a stable order after it.
+        classFiles.subList(1, classFiles.size()).sort(null);
+
+        ClassLoader loader = topLevelClass.getClassLoader();
+        for (String name : classFiles) {
+            try (InputStream stream = (loader == null) ? ClassLoader.getSystemResourceAsStream(name) : loader.getResourceAsStream(name)) {
+                if (stream != null) {
+                    digest.update(name.getBytes(StandardCharsets.UTF_8));
+                    digest.update(stream.readAllBytes());
+                }
+            }
+        }
+    }
+
+    /**
+     * Digests the path, relative to the specified root, and the contents of the specified file or of
+     * every file beneath the specified directory. Nothing is digested if it does not exist.
+     */
+    private static void digestFiles(MessageDigest digest, File root, File fileOrDirectory) throws IOException {
+        if (!fileOrDirectory.exists()) {
+            return;
+        }
+
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(fileOrDirectory.toPath())) {
+            files = walk.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        }
+        for (Path file : files) {
+            digest.update(root.toPath().relativize(file).toString().getBytes(StandardCharsets.UTF_8));
+            try (InputStream stream = Files.newInputStream(file)) {
+                byte[] buffer = new byte[64 * 1024];
+                int read;
+                while ((read = stream.read(buffer)) != -1) {
+                    digest.update(buffer, 0, read);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package org.aion.harness.tests.integ.runner.internal;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.aion.harness.kernel.Address;
+import org.apache.commons.codec.DecoderException;
+import org.apache.commons.codec.binary.Hex;
+
+/**
+ * A description of a prebuilt chain state: the addresses of the contracts deployed into it, the
+ * balances of the accounts that took part in building it, and the fingerprint of the inputs it was
+ * built from (the contract code and the kernel configuration), so that a stale state is rebuilt.
+ *
+ * Manifests are stored as json alongside the database snapshot holding the state itself.
+ */
+public final class ChainStateManifest {
+    public final String fingerprint;
+    public final long blockNumber;
+    private final Map<String, Address> contracts;
+    private final Map<Address, BigInteger> balances;
+
+    public ChainStateManifest(String fingerprint, long blockNumber, Map<String, Address> contracts, Map<Address, BigInteger> balances) {
+        if (fingerprint == null) {
+            throw new NullPointerException("Cannot construct ChainStateManifest with a null fingerprint.");
+        }
+        if (contracts == null) {
+            throw new NullPointerException("Cannot construct ChainStateManifest with null contracts.");
+        }
+        if (balances == null) {
+            throw new NullPointerException("Cannot construct ChainStateManifest with null balances.");
+        }
+
+        this.fingerprint = fingerprint;
+        this.blockNumber = blockNumber;
+        this.contracts = Collections.unmodifiableMap(new LinkedHashMap<>(contracts));
+        this.balances = Collections.unmodifiableMap(new LinkedHashMap<>(balances));
+    }
+
+    /**
+     * Returns the address of the contract deployed under the specified name.
+     *
+     * @throws IllegalArgumentException if no contract was deployed under the name.
+     */
+    public Address getContract(String name) {
+        Address contract = this.contracts.get(name);
+        if (contract == null) {
+            throw new IllegalArgumentException("No contract named " + name + " is deployed in the chain state fixture. Deployed: " + this.contracts.keySet());
+        }
+        return contract;
+    }
+
+    /**
+     * Returns the deployed contracts by name.
+     */
+    public Map<String, Address> getContracts() {
+        return this.contracts;
+    }
+
+    /**
+     * Returns the balances of the accounts that took part in building the state, as of when it was
+     * saved.
+     */
+    public Map<Address, BigInteger> getBalances() {
+        return this.balances;
+    }
+
+    /**
+     * Writes this manifest to the specified file as json.
+     */
+    public void writeTo(File file) throws IOException {
+        JsonObject contracts = new JsonObject();
+        for (Map.Entry<String, Address> contract : this.contracts.entrySet()) {
+            contracts.addProperty(contract.getKey(), Hex.encodeHexString(contract.getValue().getAddressBytes()));
+        }
+        JsonObject balances = new JsonObject();
+        for (Map.Entry<Address, BigInteger> balance : this.balances.entrySet()) {
+            balances.addProperty(Hex.encodeHexString(balance.getKey().getAddressBytes()), balance.getValue().toString());
+        }
+
+        JsonObject manifest = new JsonObject();
+        manifest.addProperty("fingerprint", this.fingerprint);
+        manifest.addProperty("blockNumber", this.blockNumber);
+        manifest.add("contracts", contracts);
+        manifest.add("balances", balances);
+
+        Files.createDirectories(file.getAbsoluteFile().getParentFile().toPath());
+        Files.write(file.toPath(), new GsonBuilder().setPrettyPrinting().create().toJson(manifest).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads a manifest written by {@code writeTo()}.
+     *
+     * @throws IOException if the file cannot be read or is not a valid manifest.
+     */
+    public static ChainStateManifest readFrom(File file) throws IOException {
+        String json = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        try {
+            JsonObject manifest = new JsonParser().parse(json).getAsJsonObject();
+
+            Map<String, Address> contracts = new LinkedHashMap<>();
+            for (Map.Entry<String, JsonElement> contract : manifest.getAsJsonObject("contracts").entrySet()) {
+                contracts.put(contract.getKey(), new Address(Hex.decodeHex(contract.getValue().getAsString())));
+            }
+            Map<Address, BigInteger> balances = new LinkedHashMap<>();
+            for (Map.Entry<String, JsonElement> balance : manifest.getAsJsonObject("balances").entrySet()) {
+                balances.put(new Address(Hex.decodeHex(balance.getKey())), new BigInteger(balance.getValue().getAsString()));
+            }
+
+            return new ChainStateManifest(manifest.get("fingerprint").getAsString(), manifest.get("blockNumber").getAsLong(), contracts, balances);
+        } catch (RuntimeException | DecoderException e) {
+            throw new IOException("Invalid chain state manifest: " + file, e);
+        }
+    }
+}
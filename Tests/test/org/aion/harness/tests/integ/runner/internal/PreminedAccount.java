@@ -5,6 +5,7 @@ import java.security.spec.InvalidKeySpecException;
 import java.util.concurrent.TimeoutException;
 import org.aion.harness.kernel.Address;
 import org.aion.harness.kernel.PrivateKey;
+import org.aion.harness.main.NonceManager;
 import org.aion.harness.tests.integ.runner.exception.UnexpectedTestRunnerException;
 import org.junit.rules.TestRule;
 import org.junit.runner.Description;
@@ -17,7 +18,7 @@ import org.junit.runners.model.Statement;
 public final class PreminedAccount implements TestRule {
     private PrivateKey preminedForCaller;
     private BigInteger initialAmount;
-    private BigInteger nonce = BigInteger.ZERO; // this is a new account!
+    private NonceManager nonceManager;
 
     public PreminedAccount(BigInteger initialAmount) {
         this.initialAmount = initialAmount;
@@ -62,14 +63,14 @@ public final class PreminedAccount implements TestRule {
      * This method should only be used for peeking at the current nonce value.
      */
     public BigInteger getNonce() {
-        return this.nonce;
+        return getAndIncrementNonceBy(0);
     }
 
     /**
      * Increments the current nonce value by one.
      */
     public void incrementNonce() {
-        this.nonce = this.nonce.add(BigInteger.ONE);
+        getAndIncrementNonceBy(1);
     }
 
     /**
@@ -77,18 +78,30 @@ public final class PreminedAccount implements TestRule {
      * is invoked the nonce will be one larger than what it returned this time.
      */
     public BigInteger getAndIncrementNonce() {
-        BigInteger previous = this.nonce;
-        this.nonce = this.nonce.add(BigInteger.ONE);
-        return previous;
+        return getAndIncrementNonceBy(1);
     }
 
     /**
      * Returns the current nonce of this account and increments it by the given amount.
      */
     public BigInteger getAndIncrementNonceBy(int amountToIncrementBy) {
-        BigInteger previous = this.nonce;
-        this.nonce = this.nonce.add(BigInteger.valueOf(amountToIncrementBy));
-        return previous;
+        // This account is always tracked by the manager, so the kernel is never queried here.
+        try {
+            return (amountToIncrementBy == 0)
+                ? this.nonceManager.peekNonce(getAddress())
+                : this.nonceManager.allocateNonces(getAddress(), amountToIncrementBy);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UnexpectedTestRunnerException("Interrupted while getting the nonce of the pre-mined account!", e);
+        }
+    }
+
+    /**
+     * Returns the nonce manager tracking this account, which can also be used to track any other
+     * accounts the test creates.
+     */
+    public NonceManager getNonceManager() {
+        return this.nonceManager;
     }
 
     /**
@@ -96,6 +109,8 @@ public final class PreminedAccount implements TestRule {
      */
     private void getFundsFromRealPreminedAccount(PreminedAccountFunder dispatcher)
         throws InterruptedException, TimeoutException {
+        this.nonceManager = dispatcher.getNonceManager();
+        this.nonceManager.track(getAddress(), BigInteger.ZERO); // this is a new account!
         dispatcher.fundAccount(this.preminedForCaller.getAddress(), this.initialAmount);
     }
 }
@@ -8,6 +8,7 @@ import org.aion.harness.kernel.Address;
 import org.aion.harness.kernel.PrivateKey;
 import org.aion.harness.kernel.RawTransaction;
 import org.aion.harness.main.NodeListener;
+import org.aion.harness.main.NonceManager;
 import org.aion.harness.main.RPC;
 import org.aion.harness.main.event.Event;
 import org.aion.harness.main.event.IEvent;
@@ -27,24 +28,49 @@ import org.apache.commons.codec.binary.Hex;
  * the faked-up {@link PreminedAccount} addresses we give to the test.
  *
  * This class should be invoked once per test.
+ *
+ * Accounts may be funded concurrently. Every funding transaction takes the next nonce of the real
+ * pre-mined account optimistically, so a transaction that is not sealed leaves a gap that every
+ * funding after it falls into. The nonce is then resynchronized with the kernel, but only once no
+ * other funding is outstanding: the kernel reports the nonce of its latest block, which would hand
+ * out again the nonces of any transactions still in flight. Funding waits while a resynchronization
+ * is pending.
  */
 public final class PreminedAccountFunder {
     private static final String PREMINED_KEY = "4c3c8a7c0292bc55d97c50b4bdabfd47547757d9e5c194e89f66f25855baacd0";
-    private final Object nonceLock = new Object();
 
     private final TestNodeManager nodeManager;
     private final PrepackagedLogEvents prepackagedLogEvents;
     private final PrivateKey preminedAccount;
     private final RPC rpc;
-    private BigInteger currentNonce = null;
+    private final NonceManager nonceManager;
+
+    private final Object fundingLock = new Object();
+    private int outstandingFundings = 0;
+    private boolean resynchronizationPending = false;
+
+    /**
+     * Constructs a funder that sends its transactions, and tracks the nonces of the pre-mined
+     * accounts, through the specified rpc.
+     */
+    public PreminedAccountFunder(TestNodeManager nodeManager, PrepackagedLogEvents prepackagedLogEvents, RPC rpc) {
+        if (rpc == null) {
+            throw new NullPointerException("Cannot construct PreminedAccountFunder with a null rpc.");
+        }
 
-    public PreminedAccountFunder(TestNodeManager nodeManager, PrepackagedLogEvents prepackagedLogEvents) {
         this.nodeManager = nodeManager;
         this.prepackagedLogEvents = prepackagedLogEvents;
-        this.rpc = new RPC("127.0.0.1", "8545");
+        this.rpc = rpc;
+        this.nonceManager = new NonceManager(rpc);
+        this.preminedAccount = getRealPreminedAccount();
+    }
 
+    /**
+     * Returns the private key of the real pre-mined account defined in the genesis block.
+     */
+    static PrivateKey getRealPreminedAccount() {
         try {
-            this.preminedAccount = PrivateKey.fromBytes(Hex.decodeHex(PREMINED_KEY));
+            return PrivateKey.fromBytes(Hex.decodeHex(PREMINED_KEY));
         } catch (DecoderException | InvalidKeySpecException e) {
             // Note we know the premined key is good, we should never hit this.
             throw new UnexpectedTestRunnerException("Failed to get the private key of the real premined account!", e);
@@ -60,11 +86,32 @@ public final class PreminedAccountFunder {
      */
     public void fundAccount(Address address, BigInteger amount)
         throws InterruptedException, TimeoutException {
-        // Build the transaction to transfer balance to the specified account.
         // We are assuming this transaction succeeds, so we increment nonce here too. This allows for much higher concurrent throughput.
+        BigInteger nonce = reserveNonce();
+        try {
+            fundAccount(address, amount, nonce);
+        } catch (Throwable e) {
+            // A failure to resynchronize must not hide the reason the funding failed.
+            try {
+                release(false);
+            } catch (Throwable releaseFailure) {
+                e.addSuppressed(releaseFailure);
+            }
+            throw e;
+        }
+        release(true);
+    }
+
+    /**
+     * Sends the funding transaction with the given nonce and waits for it to be sealed, throwing if
+     * it is not.
+     */
+    private void fundAccount(Address address, BigInteger amount, BigInteger nonce)
+        throws InterruptedException, TimeoutException {
+        // Build the transaction to transfer balance to the specified account.
         TransactionResult buildResult = RawTransaction.buildAndSignGeneralTransaction(
             preminedAccount,
-            getCurrentNonceThenIncrement(),
+            nonce,
             address,
             null,
             2_000_000,
@@ -101,24 +148,49 @@ public final class PreminedAccountFunder {
     }
 
     /**
-     * Grabs the current value of the nonce and then increments it.
+     * Takes the next nonce of the real pre-mined account, once any pending resynchronization is
+     * done, and counts the caller's funding as outstanding.
      */
-    private BigInteger getCurrentNonceThenIncrement() throws InterruptedException {
-        synchronized (nonceLock) {
-
-            // If this is the first time being invoked we fetch our nonce by asking the kernel.
-            if (this.currentNonce == null) {
-                RpcResult<BigInteger> nonceResult = this.rpc.getNonce(this.preminedAccount.getAddress());
-                if (!nonceResult.isSuccess()) {
-                    throw new IllegalStateException("Unable to get the nonce of the premined account!");
-                }
+    private BigInteger reserveNonce() throws InterruptedException {
+        synchronized (this.fundingLock) {
+            while (this.resynchronizationPending) {
+                this.fundingLock.wait();
+            }
+
+            BigInteger nonce = this.nonceManager.getAndIncrementNonce(preminedAccount.getAddress());
+            this.outstandingFundings++;
+            return nonce;
+        }
+    }
 
-                this.currentNonce = nonceResult.getResult();
+    /**
+     * Counts the caller's funding as no longer outstanding. If it was not sealed then our optimistic
+     * nonce is now ahead of the kernel's, so any further funding would be rejected too; the last
+     * outstanding funding to finish resynchronizes the nonce with the kernel.
+     */
+    private void release(boolean sealed) throws InterruptedException {
+        synchronized (this.fundingLock) {
+            this.outstandingFundings--;
+            if (!sealed) {
+                this.resynchronizationPending = true;
             }
 
-            BigInteger current = this.currentNonce;
-            this.currentNonce = this.currentNonce.add(BigInteger.ONE);
-            return current;
+            if (this.resynchronizationPending && (this.outstandingFundings == 0)) {
+                try {
+                    this.nonceManager.resynchronize(preminedAccount.getAddress());
+                } finally {
+                    this.resynchronizationPending = false;
+                    this.fundingLock.notifyAll();
+                }
+            }
         }
     }
+
+    /**
+     * Returns the nonce manager shared by the runner and the tests. It tracks the real pre-mined
+     * account as well as every faked-up pre-mined account handed out to the tests.
+     */
+    public NonceManager getNonceManager() {
+        return this.nonceManager;
+    }
 }
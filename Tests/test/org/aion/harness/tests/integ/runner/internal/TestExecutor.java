@@ -214,8 +214,10 @@ public final class TestExecutor implements Runnable {
                 initializeNodeListenerRule(ruleField, testClassInstance);
             } else if (ruleType.equals(PrepackagedLogEventsFactory.class)) {
                 initializePrepackagdLogEventsFactory(ruleField, testClassInstance);
+            } else if (ruleType.equals(ChainStateFixture.class)) {
+                initializeChainStateFixtureRule(ruleField, testClassInstance);
             } else {
-                throw new UnsupportedAnnotation("This custom runner only supports the following @Rule's: PreminedAccount, LocalNodeListener. Found: " + ruleType);
+                throw new UnsupportedAnnotation("This custom runner only supports the following @Rule's: PreminedAccount, LocalNodeListener, PrepackagedLogEventsFactory, ChainStateFixture. Found: " + ruleType);
             }
         }
     }
@@ -279,6 +281,20 @@ public final class TestExecutor implements Runnable {
         }
     }
 
+    private void initializeChainStateFixtureRule(Field ruleField, Object testClassInstance) {
+        try {
+            // Grab the field instance and invoke the 'setManifest' method.
+            ruleField.setAccessible(true);
+            Object fixture = ruleField.get(testClassInstance);
+            Method setManifestMethod = fixture.getClass().getDeclaredMethod("setManifest", ChainStateManifest.class);
+            setManifestMethod.setAccessible(true);
+            setManifestMethod.invoke(fixture, this.nodeManagerForTests.getChainStateManifest());
+
+        } catch (IllegalAccessException | NoSuchMethodException | InvocationTargetException e) {
+            throw new UnexpectedTestRunnerException("Failed initializing the chain state fixture @Rule", e);
+        }
+    }
+
     private Class<? extends Throwable> getExpectedException(Method method) {
         Annotation annotation = method.getAnnotation(org.junit.Test.class);
         return ((org.junit.Test) annotation).expected();
@@ -2,8 +2,12 @@ package org.aion.harness.tests.integ.runner.internal;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import org.aion.harness.main.LocalNode;
+import org.aion.harness.main.LocalNodePool;
 import org.aion.harness.main.Network;
 import org.aion.harness.main.NodeConfigurations;
 import org.aion.harness.main.NodeConfigurations.DatabaseOption;
@@ -19,16 +23,36 @@ import org.apache.commons.io.FileUtils;
  * This class is responsible for the lifecycle of the node that all tests are running against.
  *
  * The node is never exposed. The caller has the ability to start and stop it.
+ *
+ * Nodes are leased from a pool that is shared by every manager in the JVM, so that stopping the
+ * node only gives it back to the pool and the next test class or suite picks up the node that is
+ * already running instead of waiting for a kernel to start up. The pool holds one node, since all
+ * of the kernels listen on the same ports, and switching to another node type stops the pooled node
+ * first. The pooled node is stopped when the JVM exits.
+ *
+ * By default a node is restored to the prebuilt chain state in the background when it is given
+ * back, so that every test class starts from the same state. If the system property
+ * {@code preserveChainState} is set, the node is instead given back with its state as the tests
+ * left it, as it would be if it were restarted on its preserved database.
  */
 public final class TestNodeManager {
     private NodeType nodeType;
     private LocalNode localNode;
+    private ChainStateManifest chainStateManifest;
     private final String expectedKernelLocation;
     private final String handedwrittenConfigs;
 
     private static final String WORKING_DIR = System.getProperty("user.dir");
     private static final long EXIT_LOCK_TIMEOUT = 3;
     private static final TimeUnit EXIT_LOCK_TIMEOUT_UNIT = TimeUnit.MINUTES;
+    private static final long LEASE_TIMEOUT = 10;
+    private static final TimeUnit LEASE_TIMEOUT_UNIT = TimeUnit.MINUTES;
+
+    // Guarded by TestNodeManager.class.
+    private static LocalNodePool pool = null;
+    private static NodeType pooledNodeType = null;
+    private static final Map<LocalNode, ChainStateManifest> manifests = new HashMap<>();
+    private static boolean shutdownHookAdded = false;
 
     public TestNodeManager(NodeType nodeType) {
         this.nodeType = nodeType;
@@ -56,35 +80,27 @@ public final class TestNodeManager {
     }
 
     /**
-     * Starts up a local node of the specified type if no node has currently been started.
+     * Leases a running local node of the specified type if no node has currently been started,
+     * starting one if the pool does not hold one already.
      *
      * If anything goes wrong this method will throw an exception to halt the runner.
      */
     public void startLocalNode() throws Exception {
         if (this.localNode == null) {
-            // Verify the kernel is in the expected location and overwrite its config & genesis files.
-            checkKernelExistsAndOverwriteConfigs();
-
-            // Acquire the system-wide lock.
-            ProhibitConcurrentHarness.acquireTestLock();
-
-            // Initialize the node.
-            NodeConfigurations configurations = NodeConfigurations.alwaysUseBuiltKernel(
-                Network.CUSTOM, expectedKernelLocation, DatabaseOption.PRESERVE_DATABASE);
-            LocalNode node = NodeFactory.getNewLocalNodeInstance(nodeType);
-            node.configure(configurations);
-
-            Result result = node.initialize();
-            if (!result.isSuccess()) {
-                throw new TestRunnerInitializationException("Failed to initialize the node: " + result.getError());
+            LocalNode node;
+            try {
+                node = poolFor(this).lease(LEASE_TIMEOUT, LEASE_TIMEOUT_UNIT);
+            } catch (ExecutionException e) {
+                // Surface the reason the pool could not start the node, rather than the pool's wrapper.
+                if (e.getCause() instanceof Exception) {
+                    throw (Exception) e.getCause();
+                }
+                throw e;
             }
 
-            // Start the node.
-            result = node.start();
-            if (!result.isSuccess()) {
-                throw new TestRunnerInitializationException("Failed to start the node: " + result.getError());
+            synchronized (TestNodeManager.class) {
+                this.chainStateManifest = manifests.get(node);
             }
-
             this.localNode = node;
         } else {
             throw new IllegalStateException("Attempted to start running a local node but one is already running!");
@@ -92,17 +108,23 @@ public final class TestNodeManager {
     }
 
     /**
-     * Stops a local node if one is currently running.
+     * Gives the local node back to the pool if one is currently running.
      */
     public void shutdownLocalNode() throws Exception {
         if (this.localNode != null) {
             try {
-                this.localNode.blockingStop(EXIT_LOCK_TIMEOUT, EXIT_LOCK_TIMEOUT_UNIT);
+                LocalNodePool pool = poolFor(this);
+                if ((System.getProperty("preserveChainState") == null) && (this.chainStateManifest != null)) {
+                    ChainStateFixtures fixtures = new ChainStateFixtures(this.nodeType, new File(this.expectedKernelLocation), new File(this.handedwrittenConfigs));
+                    pool.giveBackWithState(this.localNode, fixtures.getSnapshotName());
+                } else {
+                    pool.giveBack(this.localNode);
+                }
             } catch (Throwable e) {
                 e.printStackTrace();
             } finally {
-                ProhibitConcurrentHarness.releaseTestLock();
                 this.localNode = null;
+                this.chainStateManifest = null;
             }
         } else {
             throw new IllegalStateException("Attempted to stop running a local node but no node is currently running!");
@@ -120,6 +142,145 @@ public final class TestNodeManager {
         }
     }
 
+    /**
+     * Returns the manifest of the prebuilt chain state the running local node was started from, or
+     * null if it was not started from one.
+     */
+    public ChainStateManifest getChainStateManifest() {
+        return this.chainStateManifest;
+    }
+
+    /**
+     * Starts a new local node for the pool: the node is initialized, its database reset to the
+     * prebuilt chain state (building the state if there is no up-to-date one) and the node started.
+     */
+    private LocalNode startNewLocalNode() throws Exception {
+        // Verify the kernel is in the expected location and overwrite its config & genesis files.
+        checkKernelExistsAndOverwriteConfigs();
+
+        // Initialize the node.
+        NodeConfigurations configurations = NodeConfigurations.alwaysUseBuiltKernel(
+            Network.CUSTOM, expectedKernelLocation, DatabaseOption.PRESERVE_DATABASE);
+        LocalNode node = NodeFactory.getNewLocalNodeInstance(nodeType);
+        node.configure(configurations);
+
+        Result result = node.initialize();
+        if (!result.isSuccess()) {
+            throw new TestRunnerInitializationException("Failed to initialize the node: " + result.getError());
+        }
+
+        // Reset the database to the prebuilt chain state, if there is an up-to-date one.
+        ChainStateFixtures fixtures = new ChainStateFixtures(this.nodeType, new File(this.expectedKernelLocation), new File(this.handedwrittenConfigs));
+        ChainStateManifest manifest = fixtures.restore(node);
+
+        // Start the node.
+        result = node.start();
+        if (!result.isSuccess()) {
+            throw new TestRunnerInitializationException("Failed to start the node: " + result.getError());
+        }
+
+        if ((manifest != null) && !fixtures.isLoaded(manifest)) {
+            System.err.println("The node does not hold the restored chain state fixture, rebuilding it.");
+            manifest = null;
+        }
+        if (manifest == null) {
+            manifest = buildChainState(node, fixtures);
+        }
+
+        synchronized (TestNodeManager.class) {
+            manifests.put(node, manifest);
+        }
+        return node;
+    }
+
+    /**
+     * Returns the pool of nodes of the manager's node type, closing the pool of any other node type
+     * first. The system-wide lock is held for as long as a pool is open.
+     */
+    private static synchronized LocalNodePool poolFor(TestNodeManager manager) throws Exception {
+        if ((pool != null) && (pooledNodeType != manager.nodeType)) {
+            closePool();
+        }
+
+        if (pool == null) {
+            ProhibitConcurrentHarness.acquireTestLock();
+            pool = new LocalNodePool(manager::startNewLocalNode, 1);
+            pooledNodeType = manager.nodeType;
+
+            if (!shutdownHookAdded) {
+                Runtime.getRuntime().addShutdownHook(new Thread(TestNodeManager::shutdown));
+                shutdownHookAdded = true;
+            }
+        }
+        return pool;
+    }
+
+    private static synchronized void closePool() throws Exception {
+        try {
+            pool.close();
+        } finally {
+            ProhibitConcurrentHarness.releaseTestLock();
+            pool = null;
+            pooledNodeType = null;
+            manifests.clear();
+        }
+    }
+
+    /**
+     * Stops the pooled node and deletes the log files unless specified not to. The logs are only
+     * deleted once the node is stopped, since it keeps writing to them while it runs.
+     */
+    private static void shutdown() {
+        synchronized (TestNodeManager.class) {
+            if (pool != null) {
+                try {
+                    closePool();
+                } catch (Throwable e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+
+        if (System.getProperty("skipCleanLogs") == null) {
+            try {
+                FileUtils.deleteDirectory(new File(WORKING_DIR + "/logs"));
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Deploys the chain state fixtures against the running node, then restarts the node to save its
+     * database. Returns the manifest of the state, or null if it could not be built, in which case
+     * the tests still run but any that use the fixtures will fail.
+     */
+    private ChainStateManifest buildChainState(LocalNode node, ChainStateFixtures fixtures) throws Exception {
+        ChainStateManifest manifest;
+        try {
+            manifest = fixtures.deploy(NodeListener.listenTo(node));
+        } catch (Exception e) {
+            System.err.println("Failed to build the chain state fixture: " + e.getMessage());
+            return null;
+        }
+
+        Result result = node.blockingStop(EXIT_LOCK_TIMEOUT, EXIT_LOCK_TIMEOUT_UNIT);
+        if (!result.isSuccess()) {
+            throw new TestRunnerInitializationException("Failed to stop the node to save the chain state fixture: " + result.getError());
+        }
+
+        result = fixtures.save(node, manifest);
+        if (!result.isSuccess()) {
+            System.err.println("Failed to save the chain state fixture: " + result.getError());
+        }
+
+        result = node.start();
+        if (!result.isSuccess()) {
+            throw new TestRunnerInitializationException("Failed to restart the node: " + result.getError());
+        }
+        return manifest;
+    }
+
     private void checkKernelExistsAndOverwriteConfigs() throws IOException {
         if (!kernelExists()) {
             throw new TestRunnerInitializationException("Expected to find a kernel at: " + expectedKernelLocation);